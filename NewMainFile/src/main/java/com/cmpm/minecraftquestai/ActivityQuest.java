@@ -0,0 +1,229 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.Style;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Do something a number of times: mine a block, craft, smelt or fish up an item.
+ *
+ * Progress arrives through {@link QuestEventDispatcher}, which only calls {@link #onActivity}
+ * for quests subscribed to that activity, so this class does no event filtering of its own
+ * beyond matching the target.
+ */
+public class ActivityQuest implements Quest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityQuest.class);
+
+    public enum Activity {
+        MINE("Mine"),
+        CRAFT("Craft"),
+        SMELT("Smelt"),
+        FISH("Catch");
+
+        private final String verb;
+
+        Activity(String verb) {
+            this.verb = verb;
+        }
+
+        public String getVerb() {
+            return verb;
+        }
+
+        /**
+         * The bit for this activity in a player's subscription mask
+         */
+        public int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    private final String id;
+    private final String title;
+    private final String description;
+    private final Activity activity;
+    // Block id for mining, item id otherwise
+    private final String targetId;
+    private final int requiredAmount;
+
+    private final Map<UUID, Integer> counts = new HashMap<>();
+    private final Map<UUID, Boolean> completionStatus = new HashMap<>();
+
+    public ActivityQuest(String id, String title, Activity activity, String targetId, int requiredAmount) {
+        this.id = id;
+        this.title = title;
+        this.activity = activity;
+        this.targetId = targetId;
+        this.requiredAmount = requiredAmount;
+        this.description = generateDescription();
+    }
+
+    private String generateDescription() {
+        return activity.getVerb() + " " + requiredAmount + " " + getTargetName(activity, targetId) + "(s)";
+    }
+
+    /**
+     * Display name of a block or item target
+     */
+    static String getTargetName(Activity activity, String targetId) {
+        ResourceLocation key = new ResourceLocation(targetId);
+        if (activity == Activity.MINE) {
+            Block block = ForgeRegistries.BLOCKS.getValue(key);
+            return block != null ? block.getName().getString() : "unknown block";
+        }
+        Item item = ForgeRegistries.ITEMS.getValue(key);
+        return item != null ? item.getName(item.getDefaultInstance()).getString() : "unknown item";
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public Activity getActivity() {
+        return activity;
+    }
+
+    public String getTargetId() {
+        return targetId;
+    }
+
+    /**
+     * Count an activity towards the quest
+     *
+     * @return true if it matched the target and progress changed
+     */
+    public boolean onActivity(ServerPlayer player, String activityTargetId, int amount) {
+        UUID playerUUID = player.getUUID();
+        if (!targetId.equals(activityTargetId) || completionStatus.getOrDefault(playerUUID, false)) {
+            return false;
+        }
+        int before = counts.getOrDefault(playerUUID, 0);
+        if (before >= requiredAmount) {
+            return false;
+        }
+        int after = Math.min(requiredAmount, before + amount);
+        counts.put(playerUUID, after);
+
+        if (after == requiredAmount) {
+            LOGGER.info("Quest {} is now ready for completion for player {}", title, player.getName().getString());
+            player.sendSystemMessage(Component.literal("[Quest Complete] ")
+                    .withStyle(Style.EMPTY.withColor(0x55FF55))
+                    .append(Component.literal(title + " - Return to a Quest Block to claim reward!")
+                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+
+            // The quest block index belongs to the live server, so a fake player, e.g. in a replay off the
+            // server thread, does not look
+            BlockPos nearest = player instanceof FakePlayer ? null
+                    : MinecraftQuestAI.questManager.getQuestBlockIndex().nearest(player.level(), player.blockPosition());
+            if (nearest != null) {
+                player.sendSystemMessage(Component.literal("Nearest Quest Block: " + nearest.toShortString() + " ("
+                                + (int) Math.sqrt(nearest.distSqr(player.blockPosition())) + " blocks away)")
+                        .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
+            }
+        } else if (!QuestNetwork.hasChannel(player)) {
+            // Clients with the HUD already see progress there
+            player.sendSystemMessage(Component.literal("[Quest Progress] ")
+                    .withStyle(Style.EMPTY.withColor(0xFFAA00))
+                    .append(Component.literal(title + ": " + after + "/" + requiredAmount)
+                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+        }
+        return true;
+    }
+
+    /**
+     * Restore progress recovered from the progress journal
+     */
+    public void restoreProgress(UUID playerUUID, int progress, boolean completed) {
+        if (progress > 0) {
+            counts.put(playerUUID, Math.min(progress, requiredAmount));
+        }
+        if (completed) {
+            completionStatus.put(playerUUID, true);
+        }
+    }
+
+    @Override
+    public boolean isCompleted(Player player) {
+        return completionStatus.getOrDefault(player.getUUID(), false);
+    }
+
+    @Override
+    public int getProgress(Player player) {
+        return counts.getOrDefault(player.getUUID(), 0);
+    }
+
+    @Override
+    public int getRequiredAmount() {
+        return requiredAmount;
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerUUID) {
+        counts.remove(playerUUID);
+        completionStatus.remove(playerUUID);
+    }
+
+    @Override
+    public void reward(Player player) {
+        completionStatus.put(player.getUUID(), true);
+
+        if (player instanceof ServerPlayer serverPlayer) {
+            int xp = QuestTuning.get().activityXp;
+            serverPlayer.giveExperiencePoints(xp);
+            player.sendSystemMessage(Component.literal("Received quest reward: ")
+                    .withStyle(Style.EMPTY.withColor(0x55FF55))
+                    .append(Component.literal(xp + " XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
+        }
+    }
+
+    /**
+     * Encode the activity and target as a single string, for the progress journal
+     */
+    public String getTargetSpec() {
+        return activity.name() + "|" + targetId;
+    }
+
+    /**
+     * Rebuild a quest from {@link #getTargetSpec()}
+     *
+     * @return The quest, or null if the spec cannot be read
+     */
+    public static ActivityQuest fromTargetSpec(String id, String title, String spec, int requiredAmount) {
+        int separator = spec.indexOf('|');
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return new ActivityQuest(id, title, Activity.valueOf(spec.substring(0, separator)),
+                    spec.substring(separator + 1), requiredAmount);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read activity target {}", spec, e);
+            return null;
+        }
+    }
+}
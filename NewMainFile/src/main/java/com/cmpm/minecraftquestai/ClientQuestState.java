@@ -0,0 +1,68 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.List;
+
+/**
+ * Client-side copy of the local player's quests, fed by the quest channel and drawn by the HUD.
+ * Only touched on the client main thread.
+ */
+public class ClientQuestState {
+    private static List<Entry> quests = List.of();
+
+    public static List<Entry> getQuests() {
+        return quests;
+    }
+
+    static void applySnapshot(List<Entry> entries) {
+        for (Entry entry : entries) {
+            if (entry.itemQuest) {
+                entry.item = ForgeRegistries.ITEMS.getValue(new ResourceLocation(entry.targetId));
+            }
+        }
+        quests = List.copyOf(entries);
+    }
+
+    static void applyDelta(int index, int progress, boolean completed) {
+        if (index >= 0 && index < quests.size()) {
+            Entry entry = quests.get(index);
+            entry.progress = progress;
+            entry.completed = completed;
+        }
+    }
+
+    /**
+     * Drop everything when leaving a server
+     */
+    public static void clear() {
+        quests = List.of();
+    }
+
+    /**
+     * One quest as the client sees it. Item quest progress is counted from the local inventory,
+     * so the server never has to send it.
+     */
+    public static class Entry {
+        public final String title;
+        public final boolean itemQuest;
+        public final String targetId;
+        public final int required;
+        public int progress;
+        public boolean completed;
+        Item item;
+
+        public Entry(String title, boolean itemQuest, String targetId, int required) {
+            this.title = title;
+            this.itemQuest = itemQuest;
+            this.targetId = targetId;
+            this.required = required;
+        }
+
+        public Item getItem() {
+            return item;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A kill objective the whole server works on together.
+ *
+ * Every player's kills go to their own counter in a concurrent map, which spreads players over
+ * independently locked bins, and the server total is a striped LongAdder. Each contribution also
+ * feeds a top-K leaderboard, so ranking never needs a sort over everyone who took part.
+ */
+public class CommunityQuest implements Quest {
+    private final String id;
+    private final String title;
+    private final String description;
+    private final String entityId;
+    private final long target;
+
+    private final LongAdder total = new LongAdder();
+    private final Map<UUID, AtomicLong> contributions = new ConcurrentHashMap<>();
+    // Names as of each player's last contribution, for showing contributors who are offline
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    private final TopKLeaderboard leaderboard;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    public CommunityQuest(String id, String title, String entityId, long target, int leaderboardSize) {
+        this.id = id;
+        this.title = title;
+        this.entityId = entityId;
+        this.target = target;
+        this.leaderboard = new TopKLeaderboard(leaderboardSize);
+
+        EntityType<?> targetEntity = ForgeRegistries.ENTITY_TYPES.getValue(new ResourceLocation(entityId));
+        String entityName = targetEntity != null ? targetEntity.getDescription().getString() : "unknown entity";
+        this.description = "The whole server must kill " + target + " " + entityName + "(s)";
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean matches(EntityType<?> entityType) {
+        ResourceLocation key = ForgeRegistries.ENTITY_TYPES.getKey(entityType);
+        return key != null && key.toString().equals(entityId);
+    }
+
+    /**
+     * Add a player's contribution
+     *
+     * @return true for exactly one call: the one that reached the target
+     */
+    public boolean contribute(UUID player, String name, long amount) {
+        if (completed.get()) {
+            return false;
+        }
+        long score = contributions.computeIfAbsent(player, k -> new AtomicLong()).addAndGet(amount);
+        names.put(player, name);
+        leaderboard.update(player, name, score);
+        total.add(amount);
+        return total.sum() >= target && completed.compareAndSet(false, true);
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getTarget() {
+        return target;
+    }
+
+    public long getContribution(UUID player) {
+        AtomicLong contribution = contributions.get(player);
+        return contribution != null ? contribution.get() : 0;
+    }
+
+    /**
+     * Every contributor and their total; only walked once, when the quest completes
+     */
+    public Map<UUID, AtomicLong> getContributions() {
+        return contributions;
+    }
+
+    public TopKLeaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    @Override
+    public boolean isCompleted(Player player) {
+        return completed.get();
+    }
+
+    @Override
+    public int getProgress(Player player) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.min(getTotal(), target));
+    }
+
+    @Override
+    public int getRequiredAmount() {
+        return (int) Math.min(Integer.MAX_VALUE, target);
+    }
+
+    /**
+     * Base reward for taking part, more for a bigger share
+     */
+    @Override
+    public void reward(Player player) {
+        if (player instanceof ServerPlayer serverPlayer) {
+            long share = getContribution(player.getUUID());
+            serverPlayer.giveExperiencePoints(QuestTuning.get().communityBaseXp + (int) Math.min(1000, 1000 * share / Math.max(1, target)));
+        }
+    }
+
+    public CompoundTag save() {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("id", id);
+        tag.putString("title", title);
+        tag.putString("entityId", entityId);
+        tag.putLong("target", target);
+        CompoundTag players = new CompoundTag();
+        contributions.forEach((player, contribution) -> {
+            CompoundTag entry = new CompoundTag();
+            entry.putLong("kills", contribution.get());
+            entry.putString("name", names.getOrDefault(player, ""));
+            players.put(player.toString(), entry);
+        });
+        tag.put("contributions", players);
+        return tag;
+    }
+
+    public static CommunityQuest load(CompoundTag tag, int leaderboardSize) {
+        CommunityQuest quest = new CommunityQuest(tag.getString("id"), tag.getString("title"),
+                tag.getString("entityId"), tag.getLong("target"), leaderboardSize);
+        CompoundTag players = tag.getCompound("contributions");
+        for (String key : players.getAllKeys()) {
+            CompoundTag entry = players.getCompound(key);
+            quest.contribute(UUID.fromString(key), entry.getString("name"), entry.getLong("kills"));
+        }
+        return quest;
+    }
+}
@@ -0,0 +1,158 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.Style;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs one server-wide community quest at a time, starting the next as soon as one completes
+ */
+public class CommunityQuests {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommunityQuests.class);
+    private static final String FILE_NAME = "community.dat";
+    // Announce progress every tenth of the target
+    private static final int MILESTONES = 10;
+
+    private final Random random;
+    private CommunityQuest active;
+    // Progress not yet on disk; server thread only
+    private boolean dirty;
+
+    public CommunityQuests(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * The quest in progress, or null before the server has started
+     */
+    public CommunityQuest getActive() {
+        return active;
+    }
+
+    /**
+     * Pick up the saved community quest from the world folder, or start a new one
+     */
+    public void load(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                active = CommunityQuest.load(NbtIo.readCompressed(in), QuestTuning.get().communityLeaderboardSize);
+                LOGGER.info("Loaded community quest {} at {}/{}", active.getTitle(), active.getTotal(), active.getTarget());
+            } catch (IOException e) {
+                LOGGER.error("Could not read community quest from {}", file, e);
+            }
+        }
+        if (active == null || active.isCompleted(null)) {
+            startNext();
+        }
+    }
+
+    /**
+     * Write the quest to the world folder if it changed since the last save; called on world save and on stop
+     */
+    public void save(Path directory) {
+        if (active == null || !dirty) {
+            return;
+        }
+        Path file = directory.resolve(FILE_NAME);
+        Path temp = directory.resolve(FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                NbtIo.writeCompressed(active.save(), out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.error("Could not save community quest to {}", file, e);
+        }
+    }
+
+    /**
+     * Count a kill towards the community quest
+     */
+    public void onKill(ServerPlayer player, EntityType<?> entityType) {
+        CommunityQuest quest = active;
+        if (quest == null || !quest.matches(entityType)) {
+            return;
+        }
+
+        long before = quest.getTotal();
+        boolean finished = quest.contribute(player.getUUID(), player.getName().getString(), 1);
+        dirty = true;
+        MinecraftServer server = player.getServer();
+        if (server == null) {
+            return;
+        }
+        if (finished) {
+            complete(server, quest);
+        } else if (milestone(before, quest) != milestone(quest.getTotal(), quest)) {
+            broadcast(server, Component.literal("[Community Quest] ")
+                    .withStyle(Style.EMPTY.withColor(0xFFAA00))
+                    .append(Component.literal(quest.getTitle() + ": " + quest.getTotal() + "/" + quest.getTarget())
+                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+        }
+    }
+
+    private static long milestone(long total, CommunityQuest quest) {
+        return total * MILESTONES / Math.max(1, quest.getTarget());
+    }
+
+    private void complete(MinecraftServer server, CommunityQuest quest) {
+        LOGGER.info("Community quest {} completed by {} players", quest.getTitle(), quest.getContributions().size());
+        broadcast(server, Component.literal("[Community Quest Completed] ")
+                .withStyle(Style.EMPTY.withColor(0x55FF55))
+                .append(Component.literal(quest.getTitle())
+                        .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+
+        List<TopKLeaderboard.Entry> top = quest.getLeaderboard().getTop();
+        for (int i = 0; i < Math.min(3, top.size()); i++) {
+            TopKLeaderboard.Entry entry = top.get(i);
+            broadcast(server, Component.literal("  #" + (i + 1) + " " + entry.name + " - " + entry.score)
+                    .withStyle(Style.EMPTY.withColor(0xFFFF55)));
+        }
+
+        // Every online contributor gets their share
+        for (Map.Entry<UUID, AtomicLong> contribution : quest.getContributions().entrySet()) {
+            ServerPlayer contributor = server.getPlayerList().getPlayer(contribution.getKey());
+            if (contributor != null) {
+                quest.reward(contributor);
+            }
+        }
+
+        startNext();
+        broadcast(server, Component.literal("[New Community Quest] ")
+                .withStyle(Style.EMPTY.withColor(0x55FF55))
+                .append(Component.literal(active.getDescription())
+                        .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+    }
+
+    private void startNext() {
+        QuestTuning tuning = QuestTuning.get();
+        active = QuestGenerator.generateCommunityQuest(tuning.communityQuestKills, tuning.communityLeaderboardSize, random);
+        dirty = true;
+    }
+
+    private static void broadcast(MinecraftServer server, Component message) {
+        server.getPlayerList().broadcastSystemMessage(message, false);
+    }
+}
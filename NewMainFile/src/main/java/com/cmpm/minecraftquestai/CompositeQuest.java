@@ -0,0 +1,502 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.Style;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * A quest made of other quests, combined with ALL, ANY and SEQUENCE nodes into a DAG.
+ *
+ * Leaves are ordinary kill and item quests. Every group node keeps a per-player count of its
+ * satisfied children (for a sequence, the length of its satisfied prefix), so a leaf change is
+ * pushed up only through its own ancestors and stops as soon as a node's state does not flip.
+ * Kills are routed to leaves through an entity-id index, so a kill that no leaf cares about costs
+ * one map lookup however large the graph is.
+ */
+public class CompositeQuest implements Quest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompositeQuest.class);
+
+    public enum Kind { LEAF, ALL, ANY, SEQUENCE }
+
+    private final String id;
+    private final String title;
+    private final String description;
+    // Nodes in topological order: children always come before their parents, the root is last
+    private final Node[] nodes;
+    private final Node root;
+    private final Map<String, List<Node>> killLeaves = new HashMap<>();
+    private final List<Node> itemLeaves = new ArrayList<>();
+    private final int leafCount;
+
+    private final Map<UUID, PlayerState> playerStates = new HashMap<>();
+    private final Map<UUID, Boolean> completionStatus = new HashMap<>();
+
+    private CompositeQuest(String id, String title, List<Node> nodes) {
+        this.id = id;
+        this.title = title;
+        this.nodes = nodes.toArray(new Node[0]);
+        this.root = this.nodes[this.nodes.length - 1];
+
+        int leaves = 0;
+        for (Node node : this.nodes) {
+            if (node.kind != Kind.LEAF) {
+                continue;
+            }
+            leaves++;
+            if (node.quest instanceof EnemyKillQuest killQuest) {
+                killLeaves.computeIfAbsent(killQuest.getEntityId(), k -> new ArrayList<>()).add(node);
+            } else {
+                itemLeaves.add(node);
+            }
+        }
+        this.leafCount = leaves;
+        this.description = describe(root);
+    }
+
+    public static Builder builder(String id, String title) {
+        return new Builder(id, title);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public Kind getKind() {
+        return root.kind;
+    }
+
+    /**
+     * Number of leaf objectives in the graph
+     */
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    /**
+     * The objectives in graph order, the order {@link #getTargetSpec()} hands them out in
+     */
+    public List<Quest> getLeaves() {
+        List<Quest> leaves = new ArrayList<>(leafCount);
+        for (Node node : nodes) {
+            if (node.kind == Kind.LEAF) {
+                leaves.add(node.quest);
+            }
+        }
+        return leaves;
+    }
+
+    /**
+     * The shape of the graph, one token per node in topological order: {@code L} for the next
+     * objective, or the node's kind and its children's positions, e.g. {@code L;L;SEQUENCE:0,1}
+     */
+    public String getTargetSpec() {
+        StringJoiner spec = new StringJoiner(";");
+        for (Node node : nodes) {
+            if (node.kind == Kind.LEAF) {
+                spec.add("L");
+                continue;
+            }
+            StringJoiner children = new StringJoiner(",", node.kind.name() + ":", "");
+            for (Node child : node.children) {
+                children.add(Integer.toString(child.index));
+            }
+            spec.add(children.toString());
+        }
+        return spec.toString();
+    }
+
+    /**
+     * Rebuild a quest from {@link #getTargetSpec()} and its objectives in graph order
+     *
+     * @return The quest, or null if the spec cannot be read or does not match the objectives
+     */
+    public static CompositeQuest fromTargetSpec(String id, String title, String spec, List<Quest> leaves) {
+        Builder builder = builder(id, title);
+        int nextLeaf = 0;
+        try {
+            for (String token : spec.split(";")) {
+                if (token.equals("L")) {
+                    builder.leaf(leaves.get(nextLeaf++));
+                    continue;
+                }
+                int separator = token.indexOf(':');
+                Kind kind = Kind.valueOf(token.substring(0, separator));
+                if (kind == Kind.LEAF) {
+                    throw new IllegalArgumentException("A leaf cannot have children");
+                }
+                String[] parts = token.substring(separator + 1).split(",");
+                int[] children = new int[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    children[i] = Integer.parseInt(parts[i]);
+                }
+                builder.group(kind, children);
+            }
+            if (nextLeaf != leaves.size()) {
+                throw new IllegalArgumentException(leaves.size() + " objectives for " + nextLeaf + " leaves");
+            }
+            return builder.build();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read composite quest graph {}", spec, e);
+            return null;
+        }
+    }
+
+    /**
+     * Restore completion from saved data; the graph's progress follows from its objectives' own
+     */
+    public void restoreProgress(UUID playerUUID, boolean completed) {
+        if (completed) {
+            completionStatus.put(playerUUID, true);
+        }
+    }
+
+    @Override
+    public boolean isCompleted(Player player) {
+        return completionStatus.getOrDefault(player.getUUID(), false);
+    }
+
+    /**
+     * Satisfied top-level steps; reaches the required amount only once the whole graph is satisfied
+     */
+    @Override
+    public int getProgress(Player player) {
+        PlayerState state = getState(player);
+        refreshItemLeaves(player, state);
+        if (state.satisfied[root.index]) {
+            return getRequiredAmount();
+        }
+        return Math.min(state.counts[root.index], getRequiredAmount() - 1);
+    }
+
+    @Override
+    public int getRequiredAmount() {
+        return root.kind == Kind.ANY || root.kind == Kind.LEAF ? 1 : root.children.length;
+    }
+
+    /**
+     * The first unsatisfied leaf on the player's active path, for showing what to do next
+     */
+    public Quest getCurrentObjective(Player player) {
+        PlayerState state = getState(player);
+        for (Node node : nodes) {
+            if (node.kind == Kind.LEAF && !state.satisfied[node.index] && isActive(state, node)) {
+                return node.quest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Credit a kill to every active leaf that wants this entity
+     *
+     * @return Whether any leaf progressed
+     */
+    public boolean onKill(ServerPlayer player, EntityType<?> entityType) {
+        if (isCompleted(player)) {
+            return false;
+        }
+        ResourceLocation key = ForgeRegistries.ENTITY_TYPES.getKey(entityType);
+        List<Node> leaves = key != null ? killLeaves.get(key.toString()) : null;
+        if (leaves == null) {
+            return false;
+        }
+
+        PlayerState state = getState(player);
+        boolean changed = false;
+        for (Node leaf : leaves) {
+            if (state.satisfied[leaf.index] || !isActive(state, leaf)) {
+                continue;
+            }
+            ((EnemyKillQuest) leaf.quest).addKill(player.getUUID());
+            changed = true;
+            if (evaluateLeaf(player, leaf)) {
+                setSatisfied(state, leaf, true);
+                player.sendSystemMessage(Component.literal("[Quest Step] ")
+                        .withStyle(Style.EMPTY.withColor(0xFFAA00))
+                        .append(Component.literal(title + ": " + leaf.quest.getTitle())
+                                .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerUUID) {
+        playerStates.remove(playerUUID);
+        completionStatus.remove(playerUUID);
+        for (Node node : nodes) {
+            if (node.kind == Kind.LEAF) {
+                node.quest.forgetPlayer(playerUUID);
+            }
+        }
+    }
+
+    @Override
+    public void reward(Player player) {
+        completionStatus.put(player.getUUID(), true);
+        LOGGER.info("Rewarding player {} for completing composite quest: {}", player.getName().getString(), title);
+
+        // Each satisfied objective pays out as it would on its own
+        PlayerState state = getState(player);
+        for (Node node : nodes) {
+            if (node.kind == Kind.LEAF && state.satisfied[node.index]) {
+                node.quest.reward(player);
+            }
+        }
+        playerStates.remove(player.getUUID());
+    }
+
+    /**
+     * Inventory changes without telling us, so item leaves are re-checked on read once the inventory's
+     * change counter has moved; only they are, never the rest of the graph
+     */
+    private void refreshItemLeaves(Player player, PlayerState state) {
+        if (itemLeaves.isEmpty()) {
+            return;
+        }
+        int inventoryChanges = player.getInventory().getTimesChanged();
+        if (inventoryChanges == state.inventoryChanges) {
+            return;
+        }
+        state.inventoryChanges = inventoryChanges;
+        for (Node leaf : itemLeaves) {
+            boolean satisfied = evaluateLeaf(player, leaf);
+            if (satisfied != state.satisfied[leaf.index]) {
+                setSatisfied(state, leaf, satisfied);
+            }
+        }
+    }
+
+    private PlayerState getState(Player player) {
+        PlayerState state = playerStates.get(player.getUUID());
+        if (state == null) {
+            // One full bottom-up pass the first time the player is seen; incremental from then on
+            state = new PlayerState(nodes.length);
+            state.inventoryChanges = player.getInventory().getTimesChanged();
+            for (Node node : nodes) {
+                if (node.kind == Kind.LEAF) {
+                    state.satisfied[node.index] = evaluateLeaf(player, node);
+                } else {
+                    for (Node child : node.children) {
+                        state.counts[node.index] += state.satisfied[child.index] ? 1 : 0;
+                    }
+                    if (node.kind == Kind.SEQUENCE) {
+                        state.counts[node.index] = satisfiedPrefix(state, node, 0);
+                    }
+                    state.satisfied[node.index] = isSatisfied(state, node);
+                }
+            }
+            playerStates.put(player.getUUID(), state);
+        }
+        return state;
+    }
+
+    private static boolean evaluateLeaf(Player player, Node leaf) {
+        return leaf.quest.getProgress(player) >= leaf.quest.getRequiredAmount();
+    }
+
+    /**
+     * Flip a node and push the change up through its ancestors until one of them does not flip
+     */
+    private void setSatisfied(PlayerState state, Node node, boolean satisfied) {
+        state.satisfied[node.index] = satisfied;
+        for (int i = 0; i < node.parents.size(); i++) {
+            Node parent = node.parents.get(i);
+            int slot = node.parentSlots.get(i);
+            int count = state.counts[parent.index];
+            if (parent.kind == Kind.SEQUENCE) {
+                if (satisfied && slot == count) {
+                    count = satisfiedPrefix(state, parent, slot);
+                } else if (!satisfied && slot < count) {
+                    count = slot;
+                }
+            } else {
+                count += satisfied ? 1 : -1;
+            }
+            state.counts[parent.index] = count;
+
+            boolean parentSatisfied = isSatisfied(state, parent);
+            if (parentSatisfied != state.satisfied[parent.index]) {
+                setSatisfied(state, parent, parentSatisfied);
+            }
+        }
+    }
+
+    private static int satisfiedPrefix(PlayerState state, Node sequence, int from) {
+        int prefix = from;
+        while (prefix < sequence.children.length && state.satisfied[sequence.children[prefix].index]) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    private static boolean isSatisfied(PlayerState state, Node node) {
+        int count = state.counts[node.index];
+        return switch (node.kind) {
+            case ANY -> count > 0;
+            case ALL, SEQUENCE -> count == node.children.length;
+            case LEAF -> state.satisfied[node.index];
+        };
+    }
+
+    /**
+     * A node is active if some path to the root reaches it without skipping ahead in a sequence
+     */
+    private boolean isActive(PlayerState state, Node node) {
+        if (node == root) {
+            return true;
+        }
+        for (int i = 0; i < node.parents.size(); i++) {
+            Node parent = node.parents.get(i);
+            if (parent.kind == Kind.SEQUENCE && node.parentSlots.get(i) > state.counts[parent.index]) {
+                continue;
+            }
+            if (isActive(state, parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(Node node) {
+        if (node.kind == Kind.LEAF) {
+            return node.quest.getDescription();
+        }
+        String separator = switch (node.kind) {
+            case ANY -> " or ";
+            case SEQUENCE -> ", then ";
+            default -> " and ";
+        };
+        List<String> parts = new ArrayList<>(node.children.length);
+        for (Node child : node.children) {
+            String part = describe(child);
+            parts.add(child.kind == Kind.LEAF ? part : "(" + part + ")");
+        }
+        return String.join(separator, parts);
+    }
+
+    /**
+     * One node of the graph
+     */
+    private static final class Node {
+        private final int index;
+        private final Kind kind;
+        private final Quest quest;
+        private final Node[] children;
+        private final List<Node> parents = new ArrayList<>(1);
+        // Position of this node among each parent's children, matching parents
+        private final List<Integer> parentSlots = new ArrayList<>(1);
+
+        private Node(int index, Kind kind, Quest quest, Node[] children) {
+            this.index = index;
+            this.kind = kind;
+            this.quest = quest;
+            this.children = children;
+        }
+    }
+
+    /**
+     * Satisfied flags and child counts for every node, for one player
+     */
+    private static final class PlayerState {
+        private final boolean[] satisfied;
+        // Satisfied children for ALL/ANY, satisfied prefix length for SEQUENCE
+        private final int[] counts;
+        // Inventory change counter when the item leaves were last evaluated
+        private int inventoryChanges;
+
+        private PlayerState(int size) {
+            this.satisfied = new boolean[size];
+            this.counts = new int[size];
+        }
+    }
+
+    /**
+     * Builds the graph bottom-up. Nodes can only reference nodes that already exist, so the result
+     * is always acyclic, and a node may be shared by several parents.
+     */
+    public static final class Builder {
+        private final String id;
+        private final String title;
+        private final List<Node> nodes = new ArrayList<>();
+
+        private Builder(String id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+
+        /**
+         * Add a kill or item quest as an objective
+         *
+         * @return The node handle
+         */
+        public int leaf(Quest quest) {
+            if (!(quest instanceof EnemyKillQuest) && !(quest instanceof ItemCollectionQuest)) {
+                throw new IllegalArgumentException("Unsupported objective type: " + quest.getClass().getSimpleName());
+            }
+            nodes.add(new Node(nodes.size(), Kind.LEAF, quest, new Node[0]));
+            return nodes.size() - 1;
+        }
+
+        public int all(int... children) {
+            return group(Kind.ALL, children);
+        }
+
+        public int any(int... children) {
+            return group(Kind.ANY, children);
+        }
+
+        public int sequence(int... children) {
+            return group(Kind.SEQUENCE, children);
+        }
+
+        private int group(Kind kind, int... children) {
+            if (children.length == 0) {
+                throw new IllegalArgumentException("A " + kind + " node needs at least one child");
+            }
+            Node node = new Node(nodes.size(), kind, null, new Node[children.length]);
+            for (int slot = 0; slot < children.length; slot++) {
+                Node child = nodes.get(children[slot]);
+                node.children[slot] = child;
+                child.parents.add(node);
+                child.parentSlots.add(slot);
+            }
+            nodes.add(node);
+            return node.index;
+        }
+
+        /**
+         * Finish the graph; the most recently added node becomes the root
+         */
+        public CompositeQuest build() {
+            if (nodes.isEmpty()) {
+                throw new IllegalStateException("A composite quest needs at least one objective");
+            }
+            return new CompositeQuest(id, title, nodes);
+        }
+    }
+}
@@ -1,63 +1,224 @@
 package com.cmpm.minecraftquestai;
 
-import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.item.Item;
+import com.cmpm.minecraftquestai.core.PersonalizedQLearning;
+import com.cmpm.minecraftquestai.core.QLambda;
+import com.cmpm.minecraftquestai.core.QuestTuning;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
-import net.minecraftforge.registries.ForgeRegistries;
 
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-
-// An example config class. This is not required, but it's a good idea to have one to keep your config organized.
-// Demonstrates how to use Forge's config APIs
+// Startup switches are read once when the server starts. Everything else is compiled into a
+// QuestTuning snapshot on every load and reload, so a live server can be retuned by editing the file.
 @Mod.EventBusSubscriber(modid = MinecraftQuestAI.MODID, bus = Mod.EventBusSubscriber.Bus.MOD)
 public class Config
 {
     private static final ForgeConfigSpec.Builder BUILDER = new ForgeConfigSpec.Builder();
 
-    private static final ForgeConfigSpec.BooleanValue LOG_DIRT_BLOCK = BUILDER
-            .comment("Whether to log the dirt block on common setup")
-            .define("logDirtBlock", true);
+    private static final ForgeConfigSpec.BooleanValue RECORD_SESSIONS = BUILDER
+            .comment("Whether to record quest inputs to a session journal in the world folder for later replay")
+            .define("recordSessions", false);
 
-    private static final ForgeConfigSpec.IntValue MAGIC_NUMBER = BUILDER
-            .comment("A magic number")
-            .defineInRange("magicNumber", 42, 0, Integer.MAX_VALUE);
+    private static final ForgeConfigSpec.BooleanValue RECORD_TELEMETRY = BUILDER
+            .comment("Whether to write every quest difficulty decision to columnar telemetry files in the world folder for offline training")
+            .define("recordTelemetry", false);
 
-    public static final ForgeConfigSpec.ConfigValue<String> MAGIC_NUMBER_INTRODUCTION = BUILDER
-            .comment("What you want the introduction message to be for the magic number")
-            .define("magicNumberIntroduction", "The magic number is... ");
+    private static final ForgeConfigSpec.DoubleValue BLOCK_USES_PER_SECOND = BUILDER
+            .comment("How many quest block clicks per second a player can make before clicks get the cached response")
+            .defineInRange("blockUsesPerSecond", QuestTuning.DEFAULTS.blockUsesPerSecond, 0.01, 100.0);
 
-    // a list of strings that are treated as resource locations for items
-    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> ITEM_STRINGS = BUILDER
-            .comment("A list of items to log on common setup.")
-            .defineListAllowEmpty("items", List.of("minecraft:iron_ingot"), com.cmpm.minecraftquestai.Config::validateItemName);
+    private static final ForgeConfigSpec.IntValue BLOCK_USE_BURST = BUILDER
+            .comment("How many quest block clicks a player can make back to back")
+            .defineInRange("blockUseBurst", QuestTuning.DEFAULTS.blockUseBurst, 1, 1000);
 
-    static final ForgeConfigSpec SPEC = BUILDER.build();
+    private static final ForgeConfigSpec.DoubleValue QUEST_GENERATIONS_PER_MINUTE = BUILDER
+            .comment("How many replacement quests per minute a player can be given")
+            .defineInRange("questGenerationsPerMinute", QuestTuning.DEFAULTS.questGenerationsPerMinute, 0.01, 6000.0);
 
-    public static boolean logDirtBlock;
-    public static int magicNumber;
-    public static String magicNumberIntroduction;
-    public static Set<Item> items;
+    private static final ForgeConfigSpec.IntValue QUEST_GENERATION_BURST = BUILDER
+            .comment("How many replacement quests a player can be given at once")
+            .defineInRange("questGenerationBurst", QuestTuning.DEFAULTS.questGenerationBurst, 1, 1000);
 
-    private static boolean validateItemName(final Object obj)
-    {
-        return obj instanceof final String itemName && ForgeRegistries.ITEMS.containsKey(new ResourceLocation(itemName));
-    }
+    private static final ForgeConfigSpec.IntValue COMMUNITY_QUEST_KILLS = BUILDER
+            .comment("How many kills the whole server needs for each community quest")
+            .defineInRange("communityQuestKills", QuestTuning.DEFAULTS.communityQuestKills, 1, 100_000_000);
+
+    private static final ForgeConfigSpec.IntValue COMMUNITY_LEADERBOARD_SIZE = BUILDER
+            .comment("How many top contributors the community quest leaderboard ranks")
+            .defineInRange("communityLeaderboardSize", QuestTuning.DEFAULTS.communityLeaderboardSize, 1, 100);
+
+    private static final ForgeConfigSpec.IntValue SESSION_CACHE_SIZE = BUILDER
+            .comment("How many player quest sessions to keep in memory; offline players beyond this are evicted first")
+            .defineInRange("sessionCacheSize", QuestTuning.DEFAULTS.sessionCacheSize, 1, 100_000);
+
+    private static final ForgeConfigSpec.IntValue SESSION_GRACE_SECONDS = BUILDER
+            .comment("How long an offline player's quest session stays in memory before it is evicted")
+            .defineInRange("sessionGraceSeconds", QuestTuning.DEFAULTS.sessionGraceSeconds, 0, 86_400);
+
+    private static final ForgeConfigSpec.IntValue ENV_SERVER_PORT = BUILDER
+            .comment("Loopback port to serve simulated quest environments to the Python trainer on, or 0 to not serve them")
+            .defineInRange("envServerPort", 0, 0, 65535);
+
+    private static final ForgeConfigSpec.DoubleValue LEARNING_RATE = BUILDER
+            .comment("How far the difficulty learner moves its estimates towards each new reward")
+            .defineInRange("learning.learningRate", QuestTuning.DEFAULTS.learningRate, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.DoubleValue DISCOUNT_FACTOR = BUILDER
+            .comment("How much the difficulty learner values later rewards against immediate ones")
+            .defineInRange("learning.discountFactor", QuestTuning.DEFAULTS.discountFactor, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.DoubleValue EXPLORATION_RATE = BUILDER
+            .comment("How often the difficulty learner tries a random action instead of its best one")
+            .defineInRange("learning.explorationRate", QuestTuning.DEFAULTS.explorationRate, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.ConfigValue<String> LEARNING_ENGINE = BUILDER
+            .comment("Difficulty learner: q-learning updates only the latest decision, q-lambda also credits each player's recent ones,"
+                    + " personalized adds small per-player corrections to a shared policy")
+            .define("learning.engine", "q-learning",
+                    value -> "q-learning".equals(value) || "q-lambda".equals(value) || "personalized".equals(value));
+
+    private static final ForgeConfigSpec.DoubleValue TRACE_DECAY = BUILDER
+            .comment("q-lambda only: how much of a reward reaches each earlier decision, per decision back")
+            .defineInRange("learning.traceDecay", QuestTuning.DEFAULTS.traceDecay, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.IntValue TRACE_LENGTH = BUILDER
+            .comment("q-lambda only: how many of a player's recent decisions a reward can reach")
+            .defineInRange("learning.traceLength", QuestTuning.DEFAULTS.traceLength, 1, QLambda.MAX_TRACE_LENGTH);
+
+    private static final ForgeConfigSpec.IntValue PLAYER_DELTA_ENTRIES = BUILDER
+            .comment("personalized only: how many state-action corrections a player can keep")
+            .defineInRange("learning.playerDeltaEntries", QuestTuning.DEFAULTS.playerDeltaEntries, 1, PersonalizedQLearning.MAX_DELTA_ENTRIES);
+
+    private static final ForgeConfigSpec.DoubleValue PLAYER_DELTA_THRESHOLD = BUILDER
+            .comment("personalized only: how far a player's reward must be from the shared expectation before they get their own correction")
+            .defineInRange("learning.playerDeltaThreshold", QuestTuning.DEFAULTS.playerDeltaThreshold, 0.0, 100.0);
+
+    private static final ForgeConfigSpec.ConfigValue<String> FEDERATION_DIRECTORY = BUILDER
+            .comment("Directory shared with other servers to merge the difficulty policy through, e.g. on a network mount, or empty to learn alone."
+                    + " Needs the q-lambda or personalized engine")
+            .define("federation.directory", "");
+
+    private static final ForgeConfigSpec.ConfigValue<String> FEDERATION_SHARD_ID = BUILDER
+            .comment("Name of this server among those sharing the federation directory; each needs its own")
+            .define("federation.shardId", "server");
+
+    private static final ForgeConfigSpec.IntValue FEDERATION_INTERVAL_SECONDS = BUILDER
+            .comment("How often to publish what was learned and pick up the merged policy")
+            .defineInRange("federation.intervalSeconds", 60, 5, 86_400);
+
+    private static final ForgeConfigSpec.BooleanValue FEDERATION_MERGE = BUILDER
+            .comment("Whether this server merges everyone's published changes into new policy versions; at least one server should")
+            .define("federation.merge", true);
+
+    private static final ForgeConfigSpec.IntValue KILL_CAP = BUILDER
+            .comment("Most kills a quest asks for of a standard enemy")
+            .defineInRange("quests.killCap", QuestTuning.DEFAULTS.killCap, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue HARD_KILL_CAP = BUILDER
+            .comment("Most kills a quest asks for of a hard enemy")
+            .defineInRange("quests.hardKillCap", QuestTuning.DEFAULTS.hardKillCap, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue VERY_HARD_KILL_CAP = BUILDER
+            .comment("Most kills a quest asks for of a very hard enemy")
+            .defineInRange("quests.veryHardKillCap", QuestTuning.DEFAULTS.veryHardKillCap, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue ITEM_CAP = BUILDER
+            .comment("Most of a standard item a quest asks for")
+            .defineInRange("quests.itemCap", QuestTuning.DEFAULTS.itemCap, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue RARE_ITEM_CAP = BUILDER
+            .comment("Most of a rare item a quest asks for")
+            .defineInRange("quests.rareItemCap", QuestTuning.DEFAULTS.rareItemCap, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue VERY_RARE_ITEM_CAP = BUILDER
+            .comment("Most of a very rare item a quest asks for")
+            .defineInRange("quests.veryRareItemCap", QuestTuning.DEFAULTS.veryRareItemCap, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue KILL_XP = BUILDER
+            .comment("Experience for completing a kill quest")
+            .defineInRange("rewards.killXp", QuestTuning.DEFAULTS.killXp, 0, 100_000);
+
+    private static final ForgeConfigSpec.IntValue ITEM_XP = BUILDER
+            .comment("Experience for completing an item collection quest")
+            .defineInRange("rewards.itemXp", QuestTuning.DEFAULTS.itemXp, 0, 100_000);
+
+    private static final ForgeConfigSpec.IntValue ACTIVITY_XP = BUILDER
+            .comment("Experience for completing a mining, crafting, smelting or fishing quest")
+            .defineInRange("rewards.activityXp", QuestTuning.DEFAULTS.activityXp, 0, 100_000);
+
+    private static final ForgeConfigSpec.IntValue EXPLORATION_XP = BUILDER
+            .comment("Experience for completing an exploration quest")
+            .defineInRange("rewards.explorationXp", QuestTuning.DEFAULTS.explorationXp, 0, 100_000);
+
+    private static final ForgeConfigSpec.IntValue COMMUNITY_BASE_XP = BUILDER
+            .comment("Experience every contributor gets when a community quest completes, before their share bonus")
+            .defineInRange("rewards.communityBaseXp", QuestTuning.DEFAULTS.communityBaseXp, 0, 100_000);
+
+    private static final ForgeConfigSpec.IntValue PARTY_BASE_XP = BUILDER
+            .comment("Experience every party member gets when a party quest completes, before their share bonus")
+            .defineInRange("rewards.partyBaseXp", QuestTuning.DEFAULTS.partyBaseXp, 0, 100_000);
+
+    private static final ForgeConfigSpec.IntValue PARTY_SHARE_XP = BUILDER
+            .comment("Experience split between party members by their share of the kills")
+            .defineInRange("rewards.partyShareXp", QuestTuning.DEFAULTS.partyShareXp, 0, 100_000);
+
+    static final ForgeConfigSpec SPEC = BUILDER.build();
+
+    // Startup switches; changing these takes a server restart
+    public static boolean recordSessions;
+    public static boolean recordTelemetry;
+    public static int envServerPort;
+    public static String learningEngine;
+    public static String federationDirectory;
+    public static String federationShardId;
+    public static int federationIntervalSeconds;
+    public static boolean federationMerge;
 
     @SubscribeEvent
     static void onLoad(final ModConfigEvent event)
     {
-        logDirtBlock = LOG_DIRT_BLOCK.get();
-        magicNumber = MAGIC_NUMBER.get();
-        magicNumberIntroduction = MAGIC_NUMBER_INTRODUCTION.get();
-
-        // convert the list of strings into a set of items
-        items = ITEM_STRINGS.get().stream()
-                .map(itemName -> ForgeRegistries.ITEMS.getValue(new ResourceLocation(itemName)))
-                .collect(Collectors.toSet());
+        // Loading and Reloading both land here; configs of other mods do not concern us
+        if (event.getConfig().getSpec() != SPEC) {
+            return;
+        }
+        recordSessions = RECORD_SESSIONS.get();
+        recordTelemetry = RECORD_TELEMETRY.get();
+        envServerPort = ENV_SERVER_PORT.get();
+        learningEngine = LEARNING_ENGINE.get();
+        federationDirectory = FEDERATION_DIRECTORY.get();
+        federationShardId = FEDERATION_SHARD_ID.get();
+        federationIntervalSeconds = FEDERATION_INTERVAL_SECONDS.get();
+        federationMerge = FEDERATION_MERGE.get();
+
+        QuestTuning.Builder tuning = new QuestTuning.Builder();
+        tuning.blockUsesPerSecond = BLOCK_USES_PER_SECOND.get();
+        tuning.blockUseBurst = BLOCK_USE_BURST.get();
+        tuning.questGenerationsPerMinute = QUEST_GENERATIONS_PER_MINUTE.get();
+        tuning.questGenerationBurst = QUEST_GENERATION_BURST.get();
+        tuning.communityQuestKills = COMMUNITY_QUEST_KILLS.get();
+        tuning.communityLeaderboardSize = COMMUNITY_LEADERBOARD_SIZE.get();
+        tuning.sessionCacheSize = SESSION_CACHE_SIZE.get();
+        tuning.sessionGraceSeconds = SESSION_GRACE_SECONDS.get();
+        tuning.learningRate = LEARNING_RATE.get();
+        tuning.discountFactor = DISCOUNT_FACTOR.get();
+        tuning.explorationRate = EXPLORATION_RATE.get();
+        tuning.traceDecay = TRACE_DECAY.get();
+        tuning.traceLength = TRACE_LENGTH.get();
+        tuning.playerDeltaEntries = PLAYER_DELTA_ENTRIES.get();
+        tuning.playerDeltaThreshold = PLAYER_DELTA_THRESHOLD.get();
+        tuning.killCap = KILL_CAP.get();
+        tuning.hardKillCap = HARD_KILL_CAP.get();
+        tuning.veryHardKillCap = VERY_HARD_KILL_CAP.get();
+        tuning.itemCap = ITEM_CAP.get();
+        tuning.rareItemCap = RARE_ITEM_CAP.get();
+        tuning.veryRareItemCap = VERY_RARE_ITEM_CAP.get();
+        tuning.killXp = KILL_XP.get();
+        tuning.itemXp = ITEM_XP.get();
+        tuning.activityXp = ACTIVITY_XP.get();
+        tuning.explorationXp = EXPLORATION_XP.get();
+        tuning.communityBaseXp = COMMUNITY_BASE_XP.get();
+        tuning.partyBaseXp = PARTY_BASE_XP.get();
+        tuning.partyShareXp = PARTY_SHARE_XP.get();
+        QuestTuning.publish(tuning.build());
     }
 }
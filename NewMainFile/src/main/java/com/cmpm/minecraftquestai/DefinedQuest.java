@@ -0,0 +1,174 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.Style;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.util.FakePlayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A quest whose objective comes from a datapack {@link QuestDefinition}.
+ *
+ * Events of the definition's trigger kind arrive through {@link QuestEventDispatcher}, already
+ * filled into a {@link QuestTrigger}; the compiled condition decides whether they count.
+ */
+public class DefinedQuest implements Quest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefinedQuest.class);
+
+    private final String id;
+    private final String title;
+    private final QuestDefinition definition;
+    private final int requiredAmount;
+
+    private final Map<UUID, Integer> counts = new HashMap<>();
+    private final Map<UUID, Boolean> completionStatus = new HashMap<>();
+
+    public DefinedQuest(String id, String title, QuestDefinition definition, int requiredAmount) {
+        this.id = id;
+        this.title = title;
+        this.definition = definition;
+        this.requiredAmount = requiredAmount;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getDescription() {
+        return definition.getDescription();
+    }
+
+    public QuestTrigger.Kind getTrigger() {
+        return definition.getTrigger();
+    }
+
+    /**
+     * Count an event towards the quest
+     *
+     * @return true if it satisfied the condition and progress changed
+     */
+    public boolean onTrigger(ServerPlayer player, QuestTrigger trigger) {
+        if (!definition.matches(trigger)) {
+            return false;
+        }
+        UUID playerUUID = player.getUUID();
+        if (completionStatus.getOrDefault(playerUUID, false)) {
+            return false;
+        }
+        int before = counts.getOrDefault(playerUUID, 0);
+        if (before >= requiredAmount) {
+            return false;
+        }
+        int after = Math.min(requiredAmount, before + trigger.amount);
+        counts.put(playerUUID, after);
+
+        if (after == requiredAmount) {
+            LOGGER.info("Quest {} is now ready for completion for player {}", title, player.getName().getString());
+            player.sendSystemMessage(Component.literal("[Quest Complete] ")
+                    .withStyle(Style.EMPTY.withColor(0x55FF55))
+                    .append(Component.literal(title + " - Return to a Quest Block to claim reward!")
+                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+
+            // The quest block index belongs to the live server, so a fake player, e.g. in a replay off the
+            // server thread, does not look
+            BlockPos nearest = player instanceof FakePlayer ? null
+                    : MinecraftQuestAI.questManager.getQuestBlockIndex().nearest(player.level(), player.blockPosition());
+            if (nearest != null) {
+                player.sendSystemMessage(Component.literal("Nearest Quest Block: " + nearest.toShortString() + " ("
+                                + (int) Math.sqrt(nearest.distSqr(player.blockPosition())) + " blocks away)")
+                        .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
+            }
+        } else if (!QuestNetwork.hasChannel(player)) {
+            // Clients with the HUD already see progress there
+            player.sendSystemMessage(Component.literal("[Quest Progress] ")
+                    .withStyle(Style.EMPTY.withColor(0xFFAA00))
+                    .append(Component.literal(title + ": " + after + "/" + requiredAmount)
+                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+        }
+        return true;
+    }
+
+    /**
+     * Restore progress recovered from the progress journal
+     */
+    public void restoreProgress(UUID playerUUID, int progress, boolean completed) {
+        if (progress > 0) {
+            counts.put(playerUUID, Math.min(progress, requiredAmount));
+        }
+        if (completed) {
+            completionStatus.put(playerUUID, true);
+        }
+    }
+
+    @Override
+    public boolean isCompleted(Player player) {
+        return completionStatus.getOrDefault(player.getUUID(), false);
+    }
+
+    @Override
+    public int getProgress(Player player) {
+        return counts.getOrDefault(player.getUUID(), 0);
+    }
+
+    @Override
+    public int getRequiredAmount() {
+        return requiredAmount;
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerUUID) {
+        counts.remove(playerUUID);
+        completionStatus.remove(playerUUID);
+    }
+
+    @Override
+    public void reward(Player player) {
+        completionStatus.put(player.getUUID(), true);
+
+        if (player instanceof ServerPlayer serverPlayer) {
+            int xp = definition.getXp() >= 0 ? definition.getXp() : QuestTuning.get().activityXp;
+            serverPlayer.giveExperiencePoints(xp);
+            player.sendSystemMessage(Component.literal("Received quest reward: ")
+                    .withStyle(Style.EMPTY.withColor(0x55FF55))
+                    .append(Component.literal(xp + " XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
+        }
+    }
+
+    /**
+     * The definition id, for the progress journal
+     */
+    public String getTargetSpec() {
+        return definition.getId().toString();
+    }
+
+    /**
+     * Rebuild a quest from {@link #getTargetSpec()} against the definitions loaded now
+     *
+     * @return The quest, or null if its definition is no longer loaded
+     */
+    public static DefinedQuest fromTargetSpec(String id, String title, String spec, int requiredAmount) {
+        ResourceLocation definitionId = ResourceLocation.tryParse(spec);
+        QuestDefinition definition = definitionId != null ? QuestDefinitions.get(definitionId) : null;
+        if (definition == null) {
+            LOGGER.warn("Dropping quest {}: definition {} is not loaded", title, spec);
+            return null;
+        }
+        return new DefinedQuest(id, title, definition, requiredAmount);
+    }
+}
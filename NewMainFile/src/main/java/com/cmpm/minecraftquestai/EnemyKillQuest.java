@@ -1,5 +1,7 @@
 package com.cmpm.minecraftquestai;
 
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.resources.ResourceLocation;
@@ -8,6 +10,7 @@ import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.util.FakePlayer;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
@@ -103,6 +106,36 @@ public class EnemyKillQuest implements Quest {
         return requiredAmount;
     }
 
+    public String getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Restore progress recovered from the progress journal
+     */
+    public void restoreProgress(UUID playerUUID, int progress, boolean completed) {
+        if (progress > 0) {
+            killCount.put(playerUUID, progress);
+        }
+        if (completed) {
+            completionStatus.put(playerUUID, true);
+        }
+    }
+
+    /**
+     * Count one kill without any matching or chat output; used by composite quests, which route
+     * kills to their objectives themselves
+     */
+    void addKill(UUID playerUUID) {
+        killCount.merge(playerUUID, 1, Integer::sum);
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerUUID) {
+        killCount.remove(playerUUID);
+        completionStatus.remove(playerUUID);
+    }
+
     @Override
     public void reward(Player player) {
         UUID playerUUID = player.getUUID();
@@ -115,12 +148,13 @@ public class EnemyKillQuest implements Quest {
 
         if (player instanceof ServerPlayer serverPlayer) {
             // Give player XP
-            serverPlayer.giveExperiencePoints(50);
+            int xp = QuestTuning.get().killXp;
+            serverPlayer.giveExperiencePoints(xp);
 
             // Inform player
             player.sendSystemMessage(Component.literal("Received quest reward: ")
                     .withStyle(Style.EMPTY.withColor(0x55FF55))
-                    .append(Component.literal("50 XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
+                    .append(Component.literal(xp + " XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
 
             // Once quest is rewarded, reset the kills counter to avoid confusion
             // with duplicated progress messages
@@ -153,8 +187,8 @@ public class EnemyKillQuest implements Quest {
                     entityType.getDescription().getString(),
                     newCount, requiredAmount, title);
 
-            // Notify player about progress only if not completed
-            if (newCount <= requiredAmount) {
+            // Notify player about progress only if not completed; clients with the HUD already see it there
+            if (newCount <= requiredAmount && !hasQuestHud(player)) {
                 player.sendSystemMessage(Component.literal("[Quest Progress] ")
                         .withStyle(Style.EMPTY.withColor(0xFFAA00))
                         .append(Component.literal(title + ": " + newCount + "/" + requiredAmount)
@@ -168,10 +202,24 @@ public class EnemyKillQuest implements Quest {
                         .withStyle(Style.EMPTY.withColor(0x55FF55))
                         .append(Component.literal(title + " - Return to a Quest Block to claim reward!")
                                 .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+
+                // Point the way if a quest block is loaded in this dimension. The index belongs to the live
+                // server, so a fake player, e.g. in a replay off the server thread, does not look
+                BlockPos nearest = player instanceof FakePlayer ? null
+                        : MinecraftQuestAI.questManager.getQuestBlockIndex().nearest(player.level(), player.blockPosition());
+                if (nearest != null) {
+                    player.sendSystemMessage(Component.literal("Nearest Quest Block: " + nearest.toShortString() + " ("
+                                    + (int) Math.sqrt(nearest.distSqr(player.blockPosition())) + " blocks away)")
+                            .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
+                }
             }
         }
     }
 
+    private static boolean hasQuestHud(Player player) {
+        return player instanceof ServerPlayer serverPlayer && QuestNetwork.hasChannel(serverPlayer);
+    }
+
     /**
      * Global event handler for entity death events
      */
@@ -188,14 +236,41 @@ public class EnemyKillQuest implements Quest {
         if (killedEntity instanceof LivingEntity) {
             EntityType<?> entityType = killedEntity.getType();
 
-            // Process all active quests for this player
-            List<Quest> playerQuests = MinecraftQuestAI.questManager.getQuestsForPlayer(player);
+            // Record the kill before it is applied, so a replay sees the same order
+            SessionJournal journal = MinecraftQuestAI.questManager.getSessionJournal();
+            if (journal != null) {
+                ResourceLocation key = ForgeRegistries.ENTITY_TYPES.getKey(entityType);
+                if (key != null) {
+                    journal.recordKill(MinecraftQuestAI.questManager.getClock().currentTimeMillis(),
+                            player.getUUID(), key.toString());
+                }
+            }
+
+            handleKill(MinecraftQuestAI.questManager, player, entityType);
+        }
+    }
 
-            for (Quest quest : playerQuests) {
-                if (quest instanceof EnemyKillQuest enemyKillQuest && !quest.isCompleted(player)) {
-                    enemyKillQuest.onEnemyKilled(player, entityType);
+    /**
+     * Apply a kill to every active kill and defined quest of the player, their party's quest and the community quest
+     */
+    public static void handleKill(QuestManager questManager, ServerPlayer player, EntityType<?> entityType) {
+        // Process all active quests for this player
+        List<Quest> playerQuests = questManager.getQuestsForPlayer(player);
+
+        for (Quest quest : playerQuests) {
+            if (quest instanceof EnemyKillQuest enemyKillQuest && !quest.isCompleted(player)) {
+                int before = enemyKillQuest.getProgress(player);
+                enemyKillQuest.onEnemyKilled(player, entityType);
+                if (enemyKillQuest.getProgress(player) != before) {
+                    questManager.recordProgress(player, quest);
                 }
+            } else if (quest instanceof CompositeQuest compositeQuest && compositeQuest.onKill(player, entityType)) {
+                questManager.recordProgress(player, quest);
             }
         }
+
+        questManager.onKill(player, entityType);
+        questManager.getParties().onKill(player, entityType);
+        questManager.getCommunityQuests().onKill(player, entityType);
     }
 }
@@ -0,0 +1,170 @@
+package com.cmpm.minecraftquestai;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Active exploration quests, bucketed by the chunk sections that can complete them.
+ *
+ * Region targets are filed under every section they cover; biome and structure targets can be
+ * anywhere, so they are filed under their player instead. The only trigger is a player entering a
+ * new section, which looks at one bucket and that player's own list, so idle players and the
+ * quests of players elsewhere cost nothing.
+ */
+public class ExplorationIndex {
+    private final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<List<Trigger>>> sections = new HashMap<>();
+    private final Map<UUID, List<Trigger>> anywhere = new HashMap<>();
+    private final Map<UUID, Map<String, Trigger>> byPlayer = new HashMap<>();
+
+    /**
+     * Start watching an exploration quest; no-op if it is already watched or already reached
+     */
+    public void add(UUID playerUUID, ExplorationQuest quest) {
+        Map<String, Trigger> playerTriggers = byPlayer.computeIfAbsent(playerUUID, k -> new HashMap<>());
+        if (quest.hasReached(playerUUID) || playerTriggers.containsKey(quest.getId())) {
+            return;
+        }
+        Trigger trigger = new Trigger(playerUUID, quest);
+        playerTriggers.put(quest.getId(), trigger);
+
+        if (quest.getKind() == ExplorationQuest.TargetKind.REGION) {
+            Long2ObjectOpenHashMap<List<Trigger>> buckets = sections.computeIfAbsent(quest.getDimension(), k -> new Long2ObjectOpenHashMap<>());
+            forEachSection(quest, key -> {
+                List<Trigger> bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new ArrayList<>(1);
+                    buckets.put(key, bucket);
+                }
+                bucket.add(trigger);
+            });
+        } else {
+            anywhere.computeIfAbsent(playerUUID, k -> new ArrayList<>()).add(trigger);
+        }
+    }
+
+    /**
+     * Stop watching a quest
+     */
+    public void remove(UUID playerUUID, Quest quest) {
+        Map<String, Trigger> playerTriggers = byPlayer.get(playerUUID);
+        Trigger trigger = playerTriggers != null ? playerTriggers.remove(quest.getId()) : null;
+        if (trigger != null) {
+            unlink(trigger);
+        }
+    }
+
+    /**
+     * Stop watching every quest of a player who logged out
+     */
+    public void removePlayer(UUID playerUUID) {
+        Map<String, Trigger> playerTriggers = byPlayer.remove(playerUUID);
+        if (playerTriggers != null) {
+            playerTriggers.values().forEach(this::unlink);
+        }
+    }
+
+    /**
+     * Check the player's exploration quests against the section they just entered
+     *
+     * @return The quests reached, already unwatched
+     */
+    public List<ExplorationQuest> onEnterSection(ServerPlayer player, SectionPos section) {
+        UUID playerUUID = player.getUUID();
+        if (!byPlayer.containsKey(playerUUID)) {
+            return List.of();
+        }
+
+        BlockPos pos = player.blockPosition();
+        List<ExplorationQuest> reached = new ArrayList<>(0);
+
+        Long2ObjectOpenHashMap<List<Trigger>> buckets = sections.get(player.level().dimension());
+        List<Trigger> bucket = buckets != null ? buckets.get(section.asLong()) : null;
+        if (bucket != null) {
+            for (Trigger trigger : bucket) {
+                if (trigger.playerUUID.equals(playerUUID) && trigger.quest.isReachedAt(player.serverLevel(), pos)) {
+                    reached.add(trigger.quest);
+                }
+            }
+        }
+        for (Trigger trigger : anywhere.getOrDefault(playerUUID, List.of())) {
+            if (trigger.quest.isReachedAt(player.serverLevel(), pos)) {
+                reached.add(trigger.quest);
+            }
+        }
+
+        reached.forEach(quest -> remove(playerUUID, quest));
+        return reached;
+    }
+
+    private void unlink(Trigger trigger) {
+        ExplorationQuest quest = trigger.quest;
+        if (quest.getKind() == ExplorationQuest.TargetKind.REGION) {
+            Long2ObjectOpenHashMap<List<Trigger>> buckets = sections.get(quest.getDimension());
+            if (buckets != null) {
+                forEachSection(quest, key -> {
+                    List<Trigger> bucket = buckets.get(key);
+                    if (bucket != null && bucket.remove(trigger) && bucket.isEmpty()) {
+                        buckets.remove(key);
+                    }
+                });
+            }
+        } else {
+            List<Trigger> triggers = anywhere.get(trigger.playerUUID);
+            if (triggers != null && triggers.remove(trigger) && triggers.isEmpty()) {
+                anywhere.remove(trigger.playerUUID);
+            }
+        }
+    }
+
+    private static void forEachSection(ExplorationQuest quest, LongConsumer action) {
+        SectionPos min = SectionPos.of(quest.getRegionMin());
+        SectionPos max = SectionPos.of(quest.getRegionMax());
+        for (int x = min.x(); x <= max.x(); x++) {
+            for (int y = min.y(); y <= max.y(); y++) {
+                for (int z = min.z(); z <= max.z(); z++) {
+                    action.accept(SectionPos.asLong(x, y, z));
+                }
+            }
+        }
+    }
+
+    /**
+     * One player's watch on one exploration quest
+     */
+    private static final class Trigger {
+        private final UUID playerUUID;
+        private final ExplorationQuest quest;
+
+        private Trigger(UUID playerUUID, ExplorationQuest quest) {
+            this.playerUUID = playerUUID;
+            this.quest = quest;
+        }
+    }
+
+    /**
+     * Runs the index whenever a player crosses into a new chunk section
+     */
+    @Mod.EventBusSubscriber(modid = MinecraftQuestAI.MODID)
+    public static class SectionEventHandler {
+        @SubscribeEvent
+        public static void onEnteringSection(EntityEvent.EnteringSection event) {
+            if (event.getEntity() instanceof ServerPlayer player) {
+                MinecraftQuestAI.questManager.onEnterSection(player, event.getNewPos());
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.Style;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reach a place: a block of chunk sections, any spot in a biome, or the inside of a structure.
+ *
+ * Nothing here runs per tick. {@link ExplorationIndex} only asks {@link #isReachedAt} when the
+ * player enters a new chunk section, and for region targets only when that section is in the
+ * region. Regions are whole sections, so entering the right section is the same as arriving.
+ */
+public class ExplorationQuest implements Quest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExplorationQuest.class);
+
+    public enum TargetKind { REGION, BIOME, STRUCTURE }
+
+    private final String id;
+    private final String title;
+    private final String description;
+    private final TargetKind kind;
+    private final ResourceKey<Level> dimension;
+    // Biome or structure id; unused for regions
+    private final String targetId;
+    // Region bounds, inclusive; unused for biomes and structures
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+    private final Map<UUID, Boolean> reached = new HashMap<>();
+    private final Map<UUID, Boolean> completionStatus = new HashMap<>();
+
+    private ExplorationQuest(String id, String title, TargetKind kind, ResourceKey<Level> dimension, String targetId,
+                             int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.id = id;
+        this.title = title;
+        this.kind = kind;
+        this.dimension = dimension;
+        this.targetId = targetId;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.description = generateDescription();
+    }
+
+    /**
+     * A region covering every section from min to max, inclusive
+     */
+    public static ExplorationQuest region(String id, String title, ResourceKey<Level> dimension, SectionPos min, SectionPos max) {
+        return new ExplorationQuest(id, title, TargetKind.REGION, dimension, "",
+                Math.min(min.minBlockX(), max.minBlockX()), Math.min(min.minBlockY(), max.minBlockY()),
+                Math.min(min.minBlockZ(), max.minBlockZ()), Math.max(min.maxBlockX(), max.maxBlockX()),
+                Math.max(min.maxBlockY(), max.maxBlockY()), Math.max(min.maxBlockZ(), max.maxBlockZ()));
+    }
+
+    public static ExplorationQuest biome(String id, String title, ResourceKey<Level> dimension, String biomeId) {
+        return new ExplorationQuest(id, title, TargetKind.BIOME, dimension, biomeId, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static ExplorationQuest structure(String id, String title, ResourceKey<Level> dimension, String structureId) {
+        return new ExplorationQuest(id, title, TargetKind.STRUCTURE, dimension, structureId, 0, 0, 0, 0, 0, 0);
+    }
+
+    private String generateDescription() {
+        return switch (kind) {
+            case REGION -> "Travel to around X " + Math.floorDiv(minX + maxX, 2) + ", Z " + Math.floorDiv(minZ + maxZ, 2);
+            case BIOME -> "Find a " + prettyName(targetId) + " biome";
+            case STRUCTURE -> "Find a " + prettyName(targetId);
+        };
+    }
+
+    private static String prettyName(String resourceId) {
+        String path = new ResourceLocation(resourceId).getPath().replace('_', ' ');
+        return path.isEmpty() ? path : Character.toUpperCase(path.charAt(0)) + path.substring(1);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public TargetKind getKind() {
+        return kind;
+    }
+
+    public ResourceKey<Level> getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Lowest corner of a region target
+     */
+    public BlockPos getRegionMin() {
+        return new BlockPos(minX, minY, minZ);
+    }
+
+    /**
+     * Highest corner of a region target
+     */
+    public BlockPos getRegionMax() {
+        return new BlockPos(maxX, maxY, maxZ);
+    }
+
+    /**
+     * Whether a position counts as having arrived
+     */
+    public boolean isReachedAt(ServerLevel level, BlockPos pos) {
+        if (level.dimension() != dimension) {
+            return false;
+        }
+        return switch (kind) {
+            case REGION -> pos.getX() >= minX && pos.getX() <= maxX
+                    && pos.getY() >= minY && pos.getY() <= maxY
+                    && pos.getZ() >= minZ && pos.getZ() <= maxZ;
+            case BIOME -> level.getBiome(pos).is(ResourceKey.create(Registries.BIOME, new ResourceLocation(targetId)));
+            case STRUCTURE -> level.structureManager().getStructureWithPieceAt(pos,
+                    ResourceKey.create(Registries.STRUCTURE, new ResourceLocation(targetId))).isValid();
+        };
+    }
+
+    public boolean hasReached(UUID playerUUID) {
+        return reached.getOrDefault(playerUUID, false);
+    }
+
+    /**
+     * Mark the target as reached and tell the player
+     */
+    public void markReached(ServerPlayer player) {
+        reached.put(player.getUUID(), true);
+        LOGGER.info("Player {} reached the target of {}", player.getName().getString(), title);
+        player.sendSystemMessage(Component.literal("[Quest Complete] ")
+                .withStyle(Style.EMPTY.withColor(0x55FF55))
+                .append(Component.literal(title + " - Return to a Quest Block to claim reward!")
+                        .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+    }
+
+    /**
+     * Restore state recovered from the progress journal
+     */
+    public void restoreProgress(UUID playerUUID, int progress, boolean completed) {
+        if (progress > 0) {
+            reached.put(playerUUID, true);
+        }
+        if (completed) {
+            completionStatus.put(playerUUID, true);
+        }
+    }
+
+    @Override
+    public boolean isCompleted(Player player) {
+        return completionStatus.getOrDefault(player.getUUID(), false);
+    }
+
+    @Override
+    public int getProgress(Player player) {
+        return hasReached(player.getUUID()) ? 1 : 0;
+    }
+
+    @Override
+    public int getRequiredAmount() {
+        return 1;
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerUUID) {
+        reached.remove(playerUUID);
+        completionStatus.remove(playerUUID);
+    }
+
+    @Override
+    public void reward(Player player) {
+        completionStatus.put(player.getUUID(), true);
+
+        if (player instanceof ServerPlayer serverPlayer) {
+            int xp = QuestTuning.get().explorationXp;
+            serverPlayer.giveExperiencePoints(xp);
+            player.sendSystemMessage(Component.literal("Received quest reward: ")
+                    .withStyle(Style.EMPTY.withColor(0x55FF55))
+                    .append(Component.literal(xp + " XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
+        }
+    }
+
+    /**
+     * Encode the target as a single string, for the progress journal
+     */
+    public String getTargetSpec() {
+        String target = kind == TargetKind.REGION
+                ? minX + "," + minY + "," + minZ + "," + maxX + "," + maxY + "," + maxZ
+                : targetId;
+        return kind.name() + "|" + dimension.location() + "|" + target;
+    }
+
+    /**
+     * Rebuild a quest from {@link #getTargetSpec()}
+     *
+     * @return The quest, or null if the spec cannot be read
+     */
+    public static ExplorationQuest fromTargetSpec(String id, String title, String spec) {
+        String[] parts = spec.split("\\|", 3);
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            TargetKind kind = TargetKind.valueOf(parts[0]);
+            ResourceKey<Level> dimension = ResourceKey.create(Registries.DIMENSION, new ResourceLocation(parts[1]));
+            if (kind != TargetKind.REGION) {
+                return new ExplorationQuest(id, title, kind, dimension, parts[2], 0, 0, 0, 0, 0, 0);
+            }
+            String[] bounds = parts[2].split(",");
+            return region(id, title, dimension,
+                    SectionPos.of(new BlockPos(Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]), Integer.parseInt(bounds[2]))),
+                    SectionPos.of(new BlockPos(Integer.parseInt(bounds[3]), Integer.parseInt(bounds[4]), Integer.parseInt(bounds[5]))));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read exploration target {}", spec, e);
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.cmpm.minecraftquestai;
 
+import com.cmpm.minecraftquestai.core.QuestTuning;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.resources.ResourceLocation;
@@ -23,6 +24,9 @@ public class ItemCollectionQuest implements Quest {
     // Track completion status for each player
     private final Map<UUID, Boolean> completionStatus = new HashMap<>();
 
+    // Registry lookup of the target item, resolved on first use
+    private Item targetItem;
+
     public ItemCollectionQuest(String id, String title, String itemId, int requiredAmount) {
         this.id = id;
         this.title = title;
@@ -59,7 +63,7 @@ public class ItemCollectionQuest implements Quest {
 
     @Override
     public int getProgress(Player player) {
-        Item targetItem = ForgeRegistries.ITEMS.getValue(new ResourceLocation(itemId));
+        Item targetItem = getTargetItem();
         if (targetItem == null) {
             return 0;
         }
@@ -79,16 +83,42 @@ public class ItemCollectionQuest implements Quest {
         return requiredAmount;
     }
 
+    private Item getTargetItem() {
+        if (targetItem == null) {
+            targetItem = ForgeRegistries.ITEMS.getValue(new ResourceLocation(itemId));
+        }
+        return targetItem;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Restore completion recovered from the progress journal; progress itself lives in the inventory
+     */
+    public void restoreProgress(UUID playerUUID, boolean completed) {
+        if (completed) {
+            completionStatus.put(playerUUID, true);
+        }
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerUUID) {
+        completionStatus.remove(playerUUID);
+    }
+
     @Override
     public void reward(Player player) {
         completionStatus.put(player.getUUID(), true);
 
         if (player instanceof ServerPlayer serverPlayer) {
             // Give player XP
-            serverPlayer.giveExperiencePoints(50); // Adjust XP amount as needed
+            int xp = QuestTuning.get().itemXp;
+            serverPlayer.giveExperiencePoints(xp);
 
             // Remove the required items
-            Item targetItem = ForgeRegistries.ITEMS.getValue(new ResourceLocation(itemId));
+            Item targetItem = getTargetItem();
             if (targetItem != null) {
                 int remaining = requiredAmount;
                 for (int i = 0; i < serverPlayer.getInventory().getContainerSize() && remaining > 0; i++) {
@@ -104,7 +134,7 @@ public class ItemCollectionQuest implements Quest {
             // Inform player
             player.sendSystemMessage(Component.literal("Received quest reward: ")
                     .withStyle(Style.EMPTY.withColor(0x55FF55))
-                    .append(Component.literal("50 XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
+                    .append(Component.literal(xp + " XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
         }
     }
 }
\ No newline at end of file
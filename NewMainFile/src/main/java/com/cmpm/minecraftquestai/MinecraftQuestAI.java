@@ -1,5 +1,10 @@
 package com.cmpm.minecraftquestai;
 
+import com.cmpm.minecraftquestai.core.FederatedLearner;
+import com.cmpm.minecraftquestai.core.PersonalizedQLearning;
+import com.cmpm.minecraftquestai.core.QLambda;
+import com.cmpm.minecraftquestai.core.QLearning;
+import com.cmpm.minecraftquestai.core.QuestLearner;
 import com.mojang.logging.LogUtils;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.network.chat.Component;
@@ -11,10 +16,15 @@ import net.minecraft.world.item.Item;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.material.MapColor;
+import net.minecraft.world.level.storage.LevelResource;
 import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterGuiOverlaysEvent;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.event.BuildCreativeModeTabContentsEvent;
 import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.ModLoadingContext;
@@ -28,6 +38,10 @@ import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.registries.RegistryObject;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 @Mod(MinecraftQuestAI.MODID)
 public class MinecraftQuestAI {
     public static final String MODID = "minecraft_quest_ai";
@@ -64,6 +78,12 @@ public class MinecraftQuestAI {
     // Quest Manager
     public static QuestManager questManager;
 
+    // Simulated environments for the Python trainer, null unless configured
+    private QuestEnvServer envServer;
+
+    // Policy sharing with other servers, null unless configured
+    private QuestFederation federation;
+
     public MinecraftQuestAI() {
         IEventBus modEventBus = FMLJavaModLoadingContext.get().getModEventBus();
 
@@ -91,6 +111,9 @@ public class MinecraftQuestAI {
     private void commonSetup(final FMLCommonSetupEvent event) {
         LOGGER.info("HELLO FROM MINECRAFT QUESTS MOD");
 
+        // Register the quest HUD sync packets
+        event.enqueueWork(QuestNetwork::register);
+
         // Register initial quests (randomly generated)
         event.enqueueWork(() -> {
             questManager.registerQuest(QuestGenerator.generateRandomQuest());
@@ -107,6 +130,156 @@ public class MinecraftQuestAI {
     @SubscribeEvent
     public void onServerStarting(ServerStartingEvent event) {
         LOGGER.info("Quest system initializing on server");
+        Path modDirectory = event.getServer().getWorldPath(LevelResource.ROOT).resolve(MODID);
+
+        // Recover quest progress written since the last snapshot
+        try {
+            questManager.setProgressJournal(ProgressJournal.open(modDirectory.resolve("progress")));
+        } catch (IOException e) {
+            LOGGER.error("Could not open quest progress journal, progress is only saved on logout", e);
+        }
+
+        questManager.getCommunityQuests().load(modDirectory);
+
+        // Keep what the learner has learned across restarts of an integrated server, unless the engine changed
+        QuestLearner learner = createLearner(Config.learningEngine);
+        if (learner.getClass() != questManager.getLearner().getClass()) {
+            questManager.setLearner(learner);
+        }
+
+        // Share the policy with other servers; QLearning's table is keyed by unhashable states and cannot be merged
+        if (!Config.federationDirectory.isEmpty()) {
+            if (questManager.getLearner() instanceof FederatedLearner federated) {
+                try {
+                    federation = QuestFederation.start(event.getServer(), federated, Paths.get(Config.federationDirectory),
+                            Config.federationShardId, Config.federationIntervalSeconds, Config.federationMerge);
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("Could not join quest policy federation at {}", Config.federationDirectory, e);
+                }
+            } else {
+                LOGGER.warn("Learning engine {} cannot be federated, learning alone", Config.learningEngine);
+            }
+        }
+
+        // Player quest data lives in the world folder rather than each player's .dat file
+        try {
+            questManager.setQuestStore(QuestStore.open(modDirectory.resolve("players")));
+        } catch (IOException e) {
+            LOGGER.error("Could not open quest store, quest data is kept in player data instead", e);
+        }
+
+        // Pooled templates are drawn from the worker's random, which a replay could not reproduce
+        if (!Config.recordSessions) {
+            questManager.setQuestPool(QuestPool.start());
+        }
+
+        // Start recording the session if enabled
+        if (Config.recordSessions) {
+            long startTime = questManager.getClock().currentTimeMillis();
+            Path journalFile = modDirectory.resolve("sessions").resolve("session-" + startTime + ".bin");
+            try {
+                questManager.setSessionJournal(SessionJournal.create(journalFile, questManager.getSessionSeed(), startTime,
+                        Config.learningEngine, questManager.getLearner()));
+            } catch (IOException e) {
+                LOGGER.error("Could not open quest session journal {}", journalFile, e);
+            }
+        }
+
+        // Decision telemetry for offline training if enabled
+        if (Config.recordTelemetry) {
+            try {
+                questManager.setTelemetry(QuestTelemetry.open(modDirectory.resolve("telemetry")));
+            } catch (IOException e) {
+                LOGGER.error("Could not open quest telemetry directory", e);
+            }
+        }
+
+        if (Config.envServerPort > 0) {
+            try {
+                envServer = QuestEnvServer.start(Config.envServerPort);
+            } catch (IOException e) {
+                LOGGER.error("Could not start quest environment server on port {}", Config.envServerPort, e);
+            }
+        }
+    }
+
+    /**
+     * A new learner for a learning engine name; unknown names get the default
+     */
+    static QuestLearner createLearner(String engine) {
+        return switch (engine) {
+            case "q-lambda" -> new QLambda();
+            case "personalized" -> new PersonalizedQLearning();
+            default -> new QLearning();
+        };
+    }
+
+    @SubscribeEvent
+    public void onAddReloadListeners(AddReloadListenerEvent event) {
+        // Quest definitions come from datapacks, and are recompiled on /reload
+        event.addListener(new QuestDefinitions());
+    }
+
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        if (envServer != null) {
+            envServer.close();
+            envServer = null;
+        }
+
+        if (federation != null) {
+            federation.close();
+            federation = null;
+        }
+
+        questManager.getCommunityQuests().save(event.getServer().getWorldPath(LevelResource.ROOT).resolve(MODID));
+
+        questManager.getQuestBlockIndex().clear();
+
+        QuestPool questPool = questManager.getQuestPool();
+        if (questPool != null) {
+            questManager.setQuestPool(null);
+            questPool.close();
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        // After every player has logged out and saved, so nothing is left to write and the
+        // session journal has every logout
+        QuestTelemetry telemetry = questManager.getTelemetry();
+        if (telemetry != null) {
+            questManager.setTelemetry(null);
+            telemetry.close();
+        }
+
+        QuestStore questStore = questManager.getQuestStore();
+        if (questStore != null) {
+            questManager.setQuestStore(null);
+            questStore.close();
+        }
+
+        ProgressJournal progressJournal = questManager.getProgressJournal();
+        if (progressJournal != null) {
+            questManager.setProgressJournal(null);
+            try {
+                progressJournal.close();
+            } catch (IOException e) {
+                LOGGER.error("Could not close quest progress journal", e);
+            }
+        }
+
+        SessionJournal journal = questManager.getSessionJournal();
+        if (journal != null) {
+            questManager.setSessionJournal(null);
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOGGER.error("Could not close quest session journal", e);
+            }
+        }
+
+        questManager.clearSessions();
     }
 
     @Mod.EventBusSubscriber(modid = MODID, bus = Mod.EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
@@ -115,5 +288,10 @@ public class MinecraftQuestAI {
         public static void onClientSetup(FMLClientSetupEvent event) {
             LOGGER.info("MINECRAFT QUESTS CLIENT SETUP COMPLETE");
         }
+
+        @SubscribeEvent
+        public static void onRegisterGuiOverlays(RegisterGuiOverlaysEvent event) {
+            event.registerAboveAll("quest_hud", QuestHudOverlay.HUD);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.Style;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A kill objective shared by every member of a party.
+ *
+ * Progress is a striped LongAdder, with another adder per member for their share, so members
+ * adding kills at the same time never contend on one counter. Completion is a single threshold
+ * crossing: whichever contribution first takes the total to the requirement wins one CAS, and
+ * nothing ever has to walk the members to find out whether the quest is done.
+ */
+public class PartyQuest implements Quest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartyQuest.class);
+
+    private final String id;
+    private final String title;
+    private final String description;
+    private final String entityId;
+    private final int requiredAmount;
+
+    private final LongAdder total = new LongAdder();
+    private final Map<UUID, LongAdder> contributions = new ConcurrentHashMap<>();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    public PartyQuest(String id, String title, String entityId, int requiredAmount) {
+        this.id = id;
+        this.title = title;
+        this.entityId = entityId;
+        this.requiredAmount = requiredAmount;
+        this.description = generateDescription();
+    }
+
+    private String generateDescription() {
+        EntityType<?> targetEntity = ForgeRegistries.ENTITY_TYPES.getValue(new ResourceLocation(entityId));
+        String entityName = targetEntity != null ? targetEntity.getDescription().getString() : "unknown entity";
+        return "Together, kill " + requiredAmount + " " + entityName + "(s)";
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Whether a kill of this entity type counts towards the quest
+     */
+    public boolean matches(EntityType<?> entityType) {
+        ResourceLocation key = ForgeRegistries.ENTITY_TYPES.getKey(entityType);
+        return key != null && key.toString().equals(entityId);
+    }
+
+    /**
+     * Add a member's contribution
+     *
+     * @return true for exactly one call: the one whose contribution completed the quest
+     */
+    public boolean contribute(UUID member, long amount) {
+        if (completed.get()) {
+            return false;
+        }
+        contributions.computeIfAbsent(member, k -> new LongAdder()).add(amount);
+        total.add(amount);
+        return total.sum() >= requiredAmount && completed.compareAndSet(false, true);
+    }
+
+    /**
+     * Party-wide progress
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getContribution(UUID member) {
+        LongAdder contribution = contributions.get(member);
+        return contribution != null ? contribution.sum() : 0;
+    }
+
+    /**
+     * Every member's contribution so far, largest first
+     */
+    public Map<UUID, Long> getContributions() {
+        Map<UUID, Long> result = new LinkedHashMap<>();
+        contributions.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue().sum()));
+        return result;
+    }
+
+    @Override
+    public boolean isCompleted(Player player) {
+        return completed.get();
+    }
+
+    @Override
+    public int getProgress(Player player) {
+        return (int) Math.min(getTotal(), requiredAmount);
+    }
+
+    @Override
+    public int getRequiredAmount() {
+        return requiredAmount;
+    }
+
+    /**
+     * Every member gets a base reward plus a share proportional to what they contributed
+     */
+    @Override
+    public void reward(Player player) {
+        if (!(player instanceof ServerPlayer serverPlayer)) {
+            return;
+        }
+        long share = getContribution(player.getUUID());
+        QuestTuning tuning = QuestTuning.get();
+        int xp = tuning.partyBaseXp + (int) ((long) tuning.partyShareXp * share / Math.max(1, requiredAmount));
+        serverPlayer.giveExperiencePoints(xp);
+
+        LOGGER.info("Rewarding player {} with {} XP for party quest {} ({} of {} kills)",
+                player.getName().getString(), xp, title, share, requiredAmount);
+        player.sendSystemMessage(Component.literal("Received party reward: ")
+                .withStyle(Style.EMPTY.withColor(0x55FF55))
+                .append(Component.literal(xp + " XP").withStyle(Style.EMPTY.withColor(0xFFAA00))));
+    }
+}
@@ -0,0 +1,96 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.world.entity.player.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a player's quests and their progress.
+ *
+ * Built by {@link QuestManager#getQuestView} and reused until the player's progress version
+ * changes or, for views with item quests, the inventory's change counter moves, so repeated
+ * reads of an unchanged state do not re-evaluate any quest.
+ */
+public final class PlayerQuestView {
+    private final long version;
+    private final List<Entry> entries;
+    private final boolean hasReadyQuests;
+    // Whether any quest counts inventory items, and the inventory's change counter when built
+    private final boolean readsInventory;
+    private final int inventoryChanges;
+
+    private PlayerQuestView(long version, List<Entry> entries, int inventoryChanges) {
+        this.version = version;
+        this.entries = entries;
+        this.inventoryChanges = inventoryChanges;
+
+        boolean ready = false;
+        boolean inventory = false;
+        for (Entry entry : entries) {
+            ready |= entry.isReady();
+            inventory |= entry.quest instanceof ItemCollectionQuest || entry.quest instanceof CompositeQuest;
+        }
+        this.hasReadyQuests = ready;
+        this.readsInventory = inventory;
+    }
+
+    /**
+     * Evaluate every quest once and capture the result
+     */
+    static PlayerQuestView build(Player player, List<Quest> quests, long version) {
+        List<Entry> entries = new ArrayList<>(quests.size());
+        for (Quest quest : quests) {
+            int progress = quest.getProgress(player);
+            entries.add(new Entry(quest, progress, quest.getRequiredAmount(), quest.isCompleted(player)));
+        }
+        return new PlayerQuestView(version, List.copyOf(entries), player.getInventory().getTimesChanged());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Whether any quest is completed or has reached its requirement
+     */
+    public boolean hasReadyQuests() {
+        return hasReadyQuests;
+    }
+
+    /**
+     * Item quest progress lives in the inventory, which changes without telling us; the inventory's
+     * change counter says whether it may have, without counting any items
+     */
+    boolean matchesInventory(Player player) {
+        return !readsInventory || player.getInventory().getTimesChanged() == inventoryChanges;
+    }
+
+    /**
+     * One quest as it stood when the view was built
+     */
+    public static final class Entry {
+        public final Quest quest;
+        public final int progress;
+        public final int required;
+        public final boolean completed;
+
+        private Entry(Quest quest, int progress, int required, boolean completed) {
+            this.quest = quest;
+            this.progress = progress;
+            this.required = required;
+            this.completed = completed;
+        }
+
+        /**
+         * Completed, or ready to be claimed
+         */
+        public boolean isReady() {
+            return completed || progress >= required;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.GameState;
+import com.cmpm.minecraftquestai.core.QuestDecision;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything the quest manager keeps about one player, in one place, so it can all be dropped
+ * together when the player's session is evicted from {@link PlayerSessionCache}.
+ */
+class PlayerSession {
+    final UUID playerUUID;
+
+    // Active quests, in display order
+    List<Quest> quests = new ArrayList<>();
+
+    // RL state, null until first needed
+    GameState gameState;
+
+    // Last difficulty decision, learned from at the next completion; dropped with the session
+    QuestDecision pendingDecision;
+
+    // Last quest data written for this player, null until the first save
+    QuestManager.PlayerQuestData questData;
+
+    // When the player was last given a quest
+    long lastQuestGeneration;
+
+    // Changed since the last save to the quest store
+    boolean dirty;
+
+    // Cached quest view and the progress version it must match
+    PlayerQuestView view;
+    long progressVersion;
+
+    // Quest deadlines while online, and the seconds left on each while offline
+    final Map<String, TimingWheel.Timeout<QuestManager.QuestDeadline>> deadlines = new HashMap<>();
+    final Map<String, Long> pausedDeadlines = new HashMap<>();
+
+    PlayerSession(UUID playerUUID) {
+        this.playerUUID = playerUUID;
+    }
+}
@@ -0,0 +1,100 @@
+package com.cmpm.minecraftquestai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Player sessions, bounded by how many players are around rather than how many ever joined.
+ *
+ * Online players are always kept. When a player logs out their session moves to an offline queue
+ * in logout order, and is evicted once it has been offline for the grace period, or sooner if the
+ * cache is over capacity. A player who comes back within the grace period picks up their session
+ * as it was; after that it is rebuilt from storage on the next login.
+ */
+class PlayerSessionCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlayerSessionCache.class);
+
+    private final Map<UUID, PlayerSession> sessions = new HashMap<>();
+    // Offline players and when they logged out, oldest first
+    private final LinkedHashMap<UUID, Long> offlineSince = new LinkedHashMap<>();
+
+    /**
+     * Get a player's session, or null if they have none in memory
+     */
+    PlayerSession get(UUID playerUUID) {
+        return sessions.get(playerUUID);
+    }
+
+    /**
+     * Get a player's session, starting an empty one if they have none in memory
+     */
+    PlayerSession getOrCreate(UUID playerUUID) {
+        return sessions.computeIfAbsent(playerUUID, PlayerSession::new);
+    }
+
+    Collection<PlayerSession> values() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    int offlineCount() {
+        return offlineSince.size();
+    }
+
+    /**
+     * Take a player off the eviction queue when they log back in
+     */
+    void markOnline(UUID playerUUID) {
+        offlineSince.remove(playerUUID);
+    }
+
+    /**
+     * Queue a player's session for eviction once the grace period is up
+     */
+    void markOffline(UUID playerUUID, long now) {
+        if (sessions.containsKey(playerUUID)) {
+            offlineSince.remove(playerUUID);
+            offlineSince.put(playerUUID, now);
+        }
+    }
+
+    /**
+     * Evict offline sessions past the grace period, then the oldest offline ones while over capacity
+     *
+     * @param onEvict Called with each session as it is removed
+     */
+    void evict(long now, long graceMillis, int capacity, Consumer<PlayerSession> onEvict) {
+        Iterator<Map.Entry<UUID, Long>> iterator = offlineSince.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Long> entry = iterator.next();
+            if (now - entry.getValue() < graceMillis && sessions.size() <= capacity) {
+                // Everything after this logged out later still
+                break;
+            }
+            iterator.remove();
+            PlayerSession session = sessions.remove(entry.getKey());
+            if (session != null) {
+                onEvict.accept(session);
+                QuestMetrics.SESSION_CACHE_EVICTIONS.increment();
+                LOGGER.debug("Evicted quest session of player {}", entry.getKey());
+            }
+        }
+    }
+
+    void clear() {
+        sessions.clear();
+        offlineSince.clear();
+    }
+}
@@ -0,0 +1,469 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestRecord;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of quest progress, so a crash loses at most one group-commit window.
+ *
+ * The server thread appends small records straight into a memory-mapped segment and never
+ * syncs. A flusher thread forces the segment to disk every {@link #GROUP_COMMIT_MS} ms, which
+ * commits everything written since the last flush in one go. Full segments are sealed and a
+ * compactor thread folds them into an NBT snapshot, then deletes them.
+ *
+ * Every record carries absolute values (quest definition, progress, completed flag), so
+ * replaying a record twice is harmless. Once the quest store holds a player's logout, their
+ * records are forgotten, so the snapshot only keeps players whose progress is not saved elsewhere.
+ */
+public class ProgressJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressJournal.class);
+
+    private static final int SEGMENT_SIZE = 8 << 20; // 8 MB per segment
+    private static final long GROUP_COMMIT_MS = 50; // one server tick
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+
+    // Record kinds
+    private static final byte ASSIGN = 1;
+    private static final byte PROGRESS = 2;
+    private static final byte REMOVE = 3;
+    private static final byte FORGET = 4;
+
+    private final Path directory;
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService compactor;
+
+    // State recovered at startup, consumed as players log back in
+    private final Map<UUID, Map<String, QuestRecord>> recovered;
+
+    // Active segment, only written by the server thread
+    private volatile MappedByteBuffer segment;
+    private FileChannel segmentChannel;
+    private volatile long segmentSequence;
+    private volatile int writePosition;
+
+    // Last segment and position synced by the flusher
+    private MappedByteBuffer forcedSegment;
+    private int forcedPosition;
+
+    // Scratch space for encoding a record before copying it into the segment
+    private final ByteArrayOutputStream scratchBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream scratch = new DataOutputStream(scratchBytes);
+    private final CRC32 crc = new CRC32();
+
+    private ProgressJournal(Path directory, Map<UUID, Map<String, QuestRecord>> recovered, long nextSequence) throws IOException {
+        this.directory = directory;
+        this.recovered = recovered;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "Quest journal flusher"));
+        this.compactor = Executors.newSingleThreadExecutor(r -> daemon(r, "Quest journal compactor"));
+        openSegment(nextSequence);
+        flusher.scheduleWithFixedDelay(this::groupCommit, GROUP_COMMIT_MS, GROUP_COMMIT_MS, TimeUnit.MILLISECONDS);
+        // Everything left over from the last run is sealed, fold it in the background
+        compactor.execute(this::compact);
+    }
+
+    /**
+     * Open the journal in a directory, recovering the last snapshot plus any segments written after it
+     */
+    public static ProgressJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Map<UUID, Map<String, QuestRecord>> state = new HashMap<>();
+        long lastFolded = readSnapshot(directory.resolve(SNAPSHOT_FILE), state);
+
+        long nextSequence = lastFolded + 1;
+        int replayed = 0;
+        for (Path file : listSegments(directory)) {
+            long sequence = segmentSequence(file);
+            if (sequence > lastFolded) {
+                replayed += replaySegment(file, state);
+            }
+            nextSequence = Math.max(nextSequence, sequence + 1);
+        }
+
+        LOGGER.info("Recovered quest progress for {} players ({} journal records replayed)", state.size(), replayed);
+        return new ProgressJournal(directory, state, nextSequence);
+    }
+
+    /**
+     * Take the recovered quests for a player, if any, in the order they were assigned
+     */
+    public List<QuestRecord> takeRecovered(UUID playerUUID) {
+        Map<String, QuestRecord> quests = recovered.remove(playerUUID);
+        return quests == null ? List.of() : new ArrayList<>(quests.values());
+    }
+
+    public void logAssign(UUID playerUUID, QuestRecord record) {
+        try {
+            beginRecord(ASSIGN, playerUUID, record.questId);
+            record.writeDefinition(scratch);
+            commitRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void logProgress(UUID playerUUID, String questId, int progress, boolean completed) {
+        try {
+            beginRecord(PROGRESS, playerUUID, questId);
+            scratch.writeInt(progress);
+            scratch.writeBoolean(completed);
+            commitRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void logRemove(UUID playerUUID, String questId) {
+        try {
+            beginRecord(REMOVE, playerUUID, questId);
+            commitRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Drop everything journalled for a player, once their quests are saved elsewhere
+     */
+    public void logForget(UUID playerUUID) {
+        try {
+            beginRecord(FORGET, playerUUID, "");
+            commitRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void beginRecord(byte kind, UUID playerUUID, String questId) throws IOException {
+        scratchBytes.reset();
+        scratch.writeByte(kind);
+        scratch.writeLong(playerUUID.getMostSignificantBits());
+        scratch.writeLong(playerUUID.getLeastSignificantBits());
+        scratch.writeUTF(questId);
+    }
+
+    /**
+     * Copy the encoded record into the mapped segment as [length][crc][payload]
+     */
+    private void commitRecord() throws IOException {
+        byte[] payload = scratchBytes.toByteArray();
+        int recordSize = 8 + payload.length;
+        // Leave room for the zero length that marks the end of a segment
+        if (writePosition + recordSize + 4 > SEGMENT_SIZE) {
+            rollSegment();
+        }
+
+        crc.reset();
+        crc.update(payload);
+        MappedByteBuffer buffer = segment;
+        int position = writePosition;
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.put(position + 8, payload);
+        // Length goes last, so a torn record reads as end of segment
+        buffer.putInt(position, payload.length);
+        writePosition = position + recordSize;
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        Path file = directory.resolve(String.format("segment-%016d.wal", sequence));
+        segmentChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        segmentSequence = sequence;
+        writePosition = 0;
+    }
+
+    /**
+     * Seal the active segment and start a new one. The flusher syncs the old one, then the compactor folds it.
+     */
+    private void rollSegment() throws IOException {
+        MappedByteBuffer sealed = segment;
+        FileChannel sealedChannel = segmentChannel;
+        openSegment(segmentSequence + 1);
+
+        flusher.execute(() -> {
+            sealed.force();
+            try {
+                sealedChannel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close sealed quest journal segment", e);
+            }
+            try {
+                compactor.execute(this::compact);
+            } catch (RejectedExecutionException e) {
+                // Closing; the next startup folds the segment
+            }
+        });
+    }
+
+    /**
+     * Runs on the flusher thread: sync whatever the server thread wrote since the last flush
+     */
+    private void groupCommit() {
+        MappedByteBuffer buffer = segment;
+        int position = writePosition;
+        if (buffer != forcedSegment || position != forcedPosition) {
+            buffer.force();
+            forcedSegment = buffer;
+            forcedPosition = position;
+        }
+    }
+
+    /**
+     * Runs on the compactor thread: fold every sealed segment into the snapshot, then delete them
+     */
+    private void compact() {
+        try {
+            Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+            Map<UUID, Map<String, QuestRecord>> state = new HashMap<>();
+            long lastFolded = readSnapshot(snapshotFile, state);
+            long activeSequence = segmentSequence;
+
+            List<Path> folded = new ArrayList<>();
+            for (Path file : listSegments(directory)) {
+                long sequence = segmentSequence(file);
+                if (sequence >= activeSequence) {
+                    continue;
+                }
+                if (sequence > lastFolded) {
+                    replaySegment(file, state);
+                    lastFolded = sequence;
+                }
+                folded.add(file);
+            }
+            if (folded.isEmpty()) {
+                return;
+            }
+
+            writeSnapshot(snapshotFile, state, lastFolded);
+            for (Path file : folded) {
+                Files.deleteIfExists(file);
+            }
+            LOGGER.info("Compacted {} quest journal segments into snapshot", folded.size());
+        } catch (IOException e) {
+            LOGGER.error("Quest journal compaction failed, segments kept for next attempt", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            // The flusher may still hand the compactor a sealed segment, so it stops first
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warn("Quest journal flusher did not finish in time");
+            }
+            compactor.shutdown();
+            if (!compactor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Quest journal compaction did not finish in time, the next startup finishes it");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.force();
+        segmentChannel.close();
+    }
+
+    private void fail(IOException e) {
+        // Journal failures fall back to logout saves, they must never break gameplay
+        LOGGER.error("Failed to append to quest progress journal", e);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static long segmentSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".wal".length()));
+    }
+
+    /**
+     * Apply every intact record of a segment to the state, stopping at the first torn or empty one
+     */
+    private static int replaySegment(Path file, Map<UUID, Map<String, QuestRecord>> state) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32 crc = new CRC32();
+        int count = 0;
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                LOGGER.warn("Torn record in quest journal {}, ignoring the rest of the segment", file.getFileName());
+                break;
+            }
+            applyRecord(new DataInputStream(new ByteArrayInputStream(payload)), state);
+            count++;
+        }
+        return count;
+    }
+
+    private static void applyRecord(DataInputStream in, Map<UUID, Map<String, QuestRecord>> state) throws IOException {
+        byte kind = in.readByte();
+        UUID playerUUID = new UUID(in.readLong(), in.readLong());
+        String questId = in.readUTF();
+        if (kind == FORGET) {
+            state.remove(playerUUID);
+            return;
+        }
+        Map<String, QuestRecord> quests = state.computeIfAbsent(playerUUID, k -> new LinkedHashMap<>());
+
+        switch (kind) {
+            case ASSIGN -> {
+                QuestRecord record = QuestRecord.readDefinition(questId, in);
+                quests.putIfAbsent(questId, record);
+            }
+            case PROGRESS -> {
+                QuestRecord record = findRecord(quests, questId);
+                if (record != null) {
+                    record.progress = in.readInt();
+                    record.completed = in.readBoolean();
+                }
+            }
+            case REMOVE -> quests.remove(questId);
+            default -> throw new IOException("Unknown quest journal record kind " + kind);
+        }
+    }
+
+    /**
+     * A player's quest by id, or an objective of one of their composite quests
+     */
+    private static QuestRecord findRecord(Map<String, QuestRecord> quests, String questId) {
+        QuestRecord record = quests.get(questId);
+        if (record != null) {
+            return record;
+        }
+        for (QuestRecord quest : quests.values()) {
+            if (quest.questType == QuestRecord.COMPOSITE_QUEST && (record = quest.find(questId)) != null) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private static long readSnapshot(Path file, Map<UUID, Map<String, QuestRecord>> state) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        CompoundTag root;
+        try (InputStream in = Files.newInputStream(file)) {
+            root = NbtIo.readCompressed(in);
+        }
+        CompoundTag players = root.getCompound("players");
+        for (String key : players.getAllKeys()) {
+            Map<String, QuestRecord> quests = new LinkedHashMap<>();
+            ListTag list = players.getList(key, Tag.TAG_COMPOUND);
+            for (int i = 0; i < list.size(); i++) {
+                QuestRecord record = fromTag(list.getCompound(i));
+                quests.put(record.questId, record);
+            }
+            state.put(UUID.fromString(key), quests);
+        }
+        return root.getLong("lastSegment");
+    }
+
+    private static void writeSnapshot(Path file, Map<UUID, Map<String, QuestRecord>> state, long lastSegment) throws IOException {
+        CompoundTag players = new CompoundTag();
+        for (Map.Entry<UUID, Map<String, QuestRecord>> entry : state.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            ListTag list = new ListTag();
+            for (QuestRecord record : entry.getValue().values()) {
+                list.add(toTag(record));
+            }
+            players.put(entry.getKey().toString(), list);
+        }
+        CompoundTag root = new CompoundTag();
+        root.put("players", players);
+        root.putLong("lastSegment", lastSegment);
+
+        // Write aside and move into place, so a crash mid-write keeps the old snapshot
+        Path temp = file.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            NbtIo.writeCompressed(root, out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * NBT form of a quest record, as kept in the snapshot and player data
+     */
+    static CompoundTag toTag(QuestRecord record) {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("id", record.questId);
+        tag.putByte("type", record.questType);
+        tag.putString("title", record.title);
+        tag.putString("target", record.targetId);
+        tag.putInt("required", record.requiredAmount);
+        tag.putInt("progress", record.progress);
+        tag.putBoolean("completed", record.completed);
+        if (!record.leaves.isEmpty()) {
+            ListTag leaves = new ListTag();
+            for (QuestRecord leaf : record.leaves) {
+                leaves.add(toTag(leaf));
+            }
+            tag.put("leaves", leaves);
+        }
+        return tag;
+    }
+
+    static QuestRecord fromTag(CompoundTag tag) {
+        QuestRecord record = new QuestRecord(tag.getString("id"), tag.getByte("type"),
+                tag.getString("title"), tag.getString("target"), tag.getInt("required"));
+        record.progress = tag.getInt("progress");
+        record.completed = tag.getBoolean("completed");
+        ListTag leaves = tag.getList("leaves", Tag.TAG_COMPOUND);
+        for (int i = 0; i < leaves.size(); i++) {
+            record.leaves.add(fromTag(leaves.getCompound(i)));
+        }
+        return record;
+    }
+}
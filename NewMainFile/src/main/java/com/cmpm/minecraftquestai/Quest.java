@@ -2,6 +2,8 @@ package com.cmpm.minecraftquestai;
 
 import net.minecraft.world.entity.player.Player;
 
+import java.util.UUID;
+
 public interface Quest {
     String getId();
     String getTitle();
@@ -10,4 +12,10 @@ public interface Quest {
     int getProgress(Player player);
     int getRequiredAmount();
     void reward(Player player);
+
+    /**
+     * Drop any state kept for a player whose session was evicted
+     */
+    default void forgetPlayer(UUID playerUUID) {
+    }
 }
\ No newline at end of file
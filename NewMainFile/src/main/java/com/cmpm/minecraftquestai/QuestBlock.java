@@ -12,82 +12,76 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class QuestBlock extends Block {
+    // Fixed lines, built once
+    private static final Component WELCOME = Component.literal("[Quest] ")
+            .withStyle(Style.EMPTY.withColor(0xFFAA00))
+            .append(Component.literal("Welcome to the quest system!")
+                    .withStyle(Style.EMPTY.withColor(0xFFFFFF)));
+    private static final Component ACTIVE_QUESTS_HEADER = Component.literal("[Quest] ")
+            .withStyle(Style.EMPTY.withColor(0xFFAA00))
+            .append(Component.literal("Your active quests:")
+                    .withStyle(Style.EMPTY.withColor(0xFFFFFF)));
 
     public QuestBlock(Properties properties) {
         super(properties);
     }
 
+    // Last quest listing rendered for each player, reused while their quest view is unchanged
+    private final Map<UUID, Listing> listings = new ConcurrentHashMap<>();
+
     @Override
     public InteractionResult use(BlockState state, Level level, BlockPos pos, Player player,
                                  InteractionHand hand, BlockHitResult hit) {
-        if (!level.isClientSide()) {
-            // Display quest information to the player
-            player.sendSystemMessage(Component.literal("[Quest] ")
-                    .withStyle(Style.EMPTY.withColor(0xFFAA00))
-                    .append(Component.literal("Welcome to the quest system!")
-                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+        if (!level.isClientSide() && player instanceof ServerPlayer serverPlayer) {
+            // Clicking faster than the rate limit just repeats the last listing
+            if (!MinecraftQuestAI.questManager.tryBlockUse(player.getUUID())) {
+                Listing cached = listings.get(player.getUUID());
+                if (cached != null) {
+                    cached.lines.forEach(player::sendSystemMessage);
+                }
+                return InteractionResult.SUCCESS;
+            }
 
-            // Access quest manager to show player's active quests
-            if (player instanceof ServerPlayer serverPlayer) {
-                // Get quests specific to this player
-                List<Quest> playerQuests = MinecraftQuestAI.questManager.getQuestsForPlayer(player);
+            MinecraftQuestAI.questManager.recordBlockUse(serverPlayer);
 
-                if (playerQuests != null && !playerQuests.isEmpty()) {
-                    player.sendSystemMessage(Component.literal("[Quest] ")
-                            .withStyle(Style.EMPTY.withColor(0xFFAA00))
-                            .append(Component.literal("Your active quests:")
-                                    .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
-
-                    // Display each quest with its progress
-                    for (Quest quest : playerQuests) {
-                        boolean completed = quest.isCompleted(player);
-                        String status = completed ? "[Completed]" : "[Active]";
-
-                        // Use different colors based on completion status
-                        int statusColor = completed ? 0x55FF55 : 0xFFFF55;
-
-                        player.sendSystemMessage(Component.literal(status)
-                                .withStyle(Style.EMPTY.withColor(statusColor))
-                                .append(Component.literal(" " + quest.getTitle())
-                                        .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
-
-                        // Only show details for active quests
-                        if (!completed) {
-                            player.sendSystemMessage(Component.literal("  " + quest.getDescription())
-                                    .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
-
-                            // Show progress
-                            int progress = quest.getProgress(player);
-                            int required = quest.getRequiredAmount();
-                            int progressPercent = (int)((float)progress / required * 100);
-
-                            String progressBar = createProgressBar(progress, required);
-
-                            player.sendSystemMessage(Component.literal("  Progress: " + progressBar + " " +
-                                            progress + "/" + required + " (" + progressPercent + "%)")
-                                    .withStyle(Style.EMPTY.withColor(getProgressColor(progressPercent))));
-                        }
-                    }
-
-                    // Check for completed quests and give rewards
-                    MinecraftQuestAI.questManager.checkAndRewardCompletedQuests(serverPlayer);
-                } else {
+            // Get quests specific to this player
+            PlayerQuestView view = MinecraftQuestAI.questManager.getQuestView(serverPlayer);
+
+            if (!view.getEntries().isEmpty()) {
+                // Re-render only when progress changed or the minute shown for time left moved on
+                long minute = MinecraftQuestAI.questManager.getDeadlineClockSeconds() / 60;
+                Listing listing = listings.get(player.getUUID());
+                if (listing == null || listing.view != view || listing.minute != minute) {
+                    listing = new Listing(view, minute, renderQuests(player, view));
+                    listings.put(player.getUUID(), listing);
+                }
+                listing.lines.forEach(player::sendSystemMessage);
+
+                // Check for completed quests and give rewards
+                if (view.hasReadyQuests()) {
+                    MinecraftQuestAI.questManager.checkAndRewardCompletedQuests(serverPlayer, view);
+                }
+            } else {
+                player.sendSystemMessage(WELCOME);
+                player.sendSystemMessage(Component.literal("[Quest] ")
+                        .withStyle(Style.EMPTY.withColor(0xFFAA00))
+                        .append(Component.literal("No quests available. Check back later!")
+                                .withStyle(Style.EMPTY.withColor(0xFF5555))));
+
+                // Check if we need to initialize quests for this player
+                if (MinecraftQuestAI.questManager.hasQuests()) {
+                    MinecraftQuestAI.questManager.initializePlayerQuests(serverPlayer);
                     player.sendSystemMessage(Component.literal("[Quest] ")
                             .withStyle(Style.EMPTY.withColor(0xFFAA00))
-                            .append(Component.literal("No quests available. Check back later!")
-                                    .withStyle(Style.EMPTY.withColor(0xFF5555))));
-
-                    // Check if we need to initialize quests for this player
-                    if (MinecraftQuestAI.questManager.hasQuests()) {
-                        MinecraftQuestAI.questManager.initializePlayerQuests(serverPlayer);
-                        player.sendSystemMessage(Component.literal("[Quest] ")
-                                .withStyle(Style.EMPTY.withColor(0xFFAA00))
-                                .append(Component.literal("New quests have been assigned to you! Check the quest block again.")
-                                        .withStyle(Style.EMPTY.withColor(0x55FF55))));
-                    }
+                            .append(Component.literal("New quests have been assigned to you! Check the quest block again.")
+                                    .withStyle(Style.EMPTY.withColor(0x55FF55))));
                 }
             }
         }
@@ -95,6 +89,93 @@ public class QuestBlock extends Block {
         return InteractionResult.SUCCESS;
     }
 
+    /**
+     * Build the chat lines listing the player's quests with their progress
+     */
+    private List<Component> renderQuests(Player player, PlayerQuestView view) {
+        List<Component> lines = new ArrayList<>();
+        lines.add(WELCOME);
+        lines.add(ACTIVE_QUESTS_HEADER);
+
+        // Display each quest with its progress
+        for (PlayerQuestView.Entry entry : view.getEntries()) {
+            Quest quest = entry.quest;
+            boolean completed = entry.completed;
+            String status = completed ? "[Completed]" : "[Active]";
+
+            // Use different colors based on completion status
+            int statusColor = completed ? 0x55FF55 : 0xFFFF55;
+
+            lines.add(Component.literal(status)
+                    .withStyle(Style.EMPTY.withColor(statusColor))
+                    .append(Component.literal(" " + quest.getTitle())
+                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+
+            // Only show details for active quests
+            if (!completed) {
+                lines.add(Component.literal("  " + quest.getDescription())
+                        .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
+
+                // Show progress
+                int progress = entry.progress;
+                int required = entry.required;
+                int progressPercent = (int)((float)progress / required * 100);
+
+                lines.add(Component.literal("  Progress: " + createProgressBar(progress, required) + " " +
+                                progress + "/" + required + " (" + progressPercent + "%)")
+                        .withStyle(Style.EMPTY.withColor(getProgressColor(progressPercent))));
+
+                // Show roughly how long is left before the quest expires
+                long remaining = MinecraftQuestAI.questManager.getRemainingSeconds(player.getUUID(), quest);
+                if (remaining >= 0) {
+                    lines.add(Component.literal("  Time left: about " + Math.max(1, (remaining + 59) / 60) + " min")
+                            .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
+                }
+            }
+        }
+        return List.copyOf(lines);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void onPlace(BlockState state, Level level, BlockPos pos, BlockState oldState, boolean movedByPiston) {
+        super.onPlace(state, level, pos, oldState, movedByPiston);
+        if (!level.isClientSide() && !oldState.is(this)) {
+            MinecraftQuestAI.questManager.getQuestBlockIndex().add(level, pos);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean movedByPiston) {
+        if (!level.isClientSide() && !newState.is(this)) {
+            MinecraftQuestAI.questManager.getQuestBlockIndex().remove(level, pos);
+        }
+        super.onRemove(state, level, pos, newState, movedByPiston);
+    }
+
+    /**
+     * Forget the cached listing of a player who logged out
+     */
+    public void forgetPlayer(UUID playerUUID) {
+        listings.remove(playerUUID);
+    }
+
+    /**
+     * Rendered quest listing and the view it was rendered from
+     */
+    private static final class Listing {
+        private final PlayerQuestView view;
+        private final long minute;
+        private final List<Component> lines;
+
+        private Listing(PlayerQuestView view, long minute, List<Component> lines) {
+            this.view = view;
+            this.minute = minute;
+            this.lines = lines;
+        }
+    }
+
     /**
      * Creates a text-based progress bar
      * @param current Current progress
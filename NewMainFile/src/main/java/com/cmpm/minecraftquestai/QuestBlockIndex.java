@@ -0,0 +1,241 @@
+package com.cmpm.minecraftquestai;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where every loaded quest block is, per dimension, for nearest-block lookups.
+ *
+ * Each dimension is a hash grid keyed by chunk. A nearest query searches outward ring by ring
+ * from the player's chunk and stops once no unvisited ring can hold anything closer, or scans the
+ * occupied chunks directly when that is cheaper than growing the ring further. Blocks are added
+ * and removed by QuestBlock itself, and whole chunks come and go with chunk load and unload.
+ */
+public class QuestBlockIndex {
+    private final Map<ResourceKey<Level>, DimensionIndex> dimensions = new ConcurrentHashMap<>();
+
+    public void add(Level level, BlockPos pos) {
+        dimensions.computeIfAbsent(level.dimension(), k -> new DimensionIndex()).add(pos);
+    }
+
+    public void remove(Level level, BlockPos pos) {
+        DimensionIndex index = dimensions.get(level.dimension());
+        if (index != null) {
+            index.remove(pos);
+        }
+    }
+
+    /**
+     * Find the quest block closest to a position in the same dimension
+     *
+     * @return The nearest loaded quest block, or null if the dimension has none
+     */
+    public BlockPos nearest(Level level, BlockPos origin) {
+        DimensionIndex index = dimensions.get(level.dimension());
+        return index != null ? index.nearest(origin) : null;
+    }
+
+    /**
+     * Number of indexed quest blocks across all dimensions
+     */
+    public int size() {
+        return dimensions.values().stream().mapToInt(DimensionIndex::size).sum();
+    }
+
+    public void clear() {
+        dimensions.clear();
+    }
+
+    /**
+     * Index the quest blocks in a chunk that just loaded, reading only sections whose palette has one
+     */
+    void loadChunk(Level level, LevelChunk chunk) {
+        Block questBlock = MinecraftQuestAI.QUEST_BLOCK.get();
+        LevelChunkSection[] sections = chunk.getSections();
+        ChunkPos chunkPos = chunk.getPos();
+        DimensionIndex index = null;
+
+        for (int i = 0; i < sections.length; i++) {
+            LevelChunkSection section = sections[i];
+            if (section.hasOnlyAir() || !section.maybeHas(state -> state.is(questBlock))) {
+                continue;
+            }
+            int baseY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(i));
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (section.getBlockState(x, y, z).is(questBlock)) {
+                            if (index == null) {
+                                index = dimensions.computeIfAbsent(level.dimension(), k -> new DimensionIndex());
+                            }
+                            index.add(new BlockPos(chunkPos.getMinBlockX() + x, baseY + y, chunkPos.getMinBlockZ() + z));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    void unloadChunk(Level level, ChunkPos chunkPos) {
+        DimensionIndex index = dimensions.get(level.dimension());
+        if (index != null) {
+            index.removeChunk(chunkPos.toLong());
+        }
+    }
+
+    /**
+     * Quest block positions of one dimension, bucketed by chunk
+     */
+    private static final class DimensionIndex {
+        private final Long2ObjectOpenHashMap<LongOpenHashSet> chunks = new Long2ObjectOpenHashMap<>();
+        private int size;
+
+        synchronized void add(BlockPos pos) {
+            long chunkKey = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+            LongOpenHashSet blocks = chunks.get(chunkKey);
+            if (blocks == null) {
+                blocks = new LongOpenHashSet(4);
+                chunks.put(chunkKey, blocks);
+            }
+            if (blocks.add(pos.asLong())) {
+                size++;
+            }
+        }
+
+        synchronized void remove(BlockPos pos) {
+            long chunkKey = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+            LongOpenHashSet blocks = chunks.get(chunkKey);
+            if (blocks != null && blocks.remove(pos.asLong())) {
+                size--;
+                if (blocks.isEmpty()) {
+                    chunks.remove(chunkKey);
+                }
+            }
+        }
+
+        synchronized void removeChunk(long chunkKey) {
+            LongOpenHashSet blocks = chunks.remove(chunkKey);
+            if (blocks != null) {
+                size -= blocks.size();
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized BlockPos nearest(BlockPos origin) {
+            if (chunks.isEmpty()) {
+                return null;
+            }
+            Search search = new Search(origin);
+            int originX = origin.getX() >> 4;
+            int originZ = origin.getZ() >> 4;
+
+            for (int ring = 0; ; ring++) {
+                // Past this point the ring covers more chunks than are occupied, so just check those
+                long searched = (2L * ring + 1) * (2L * ring + 1);
+                if (searched > chunks.size()) {
+                    for (LongOpenHashSet blocks : chunks.values()) {
+                        search.check(blocks);
+                    }
+                    return search.result();
+                }
+
+                if (ring == 0) {
+                    search.check(chunks.get(ChunkPos.asLong(originX, originZ)));
+                } else {
+                    for (int d = -ring; d <= ring; d++) {
+                        search.check(chunks.get(ChunkPos.asLong(originX + d, originZ - ring)));
+                        search.check(chunks.get(ChunkPos.asLong(originX + d, originZ + ring)));
+                    }
+                    for (int d = -ring + 1; d < ring; d++) {
+                        search.check(chunks.get(ChunkPos.asLong(originX - ring, originZ + d)));
+                        search.check(chunks.get(ChunkPos.asLong(originX + ring, originZ + d)));
+                    }
+                }
+
+                // Anything in a further ring is at least this far away horizontally
+                long minNextDistance = ring * 16L;
+                if (search.bestDistanceSq <= minNextDistance * minNextDistance) {
+                    return search.result();
+                }
+            }
+        }
+    }
+
+    /**
+     * Running best candidate of a nearest query
+     */
+    private static final class Search {
+        private final int x;
+        private final int y;
+        private final int z;
+        private long bestDistanceSq = Long.MAX_VALUE;
+        private long bestPos;
+
+        private Search(BlockPos origin) {
+            this.x = origin.getX();
+            this.y = origin.getY();
+            this.z = origin.getZ();
+        }
+
+        private void check(LongOpenHashSet blocks) {
+            if (blocks == null) {
+                return;
+            }
+            LongIterator iterator = blocks.iterator();
+            while (iterator.hasNext()) {
+                long pos = iterator.nextLong();
+                long dx = BlockPos.getX(pos) - x;
+                long dy = BlockPos.getY(pos) - y;
+                long dz = BlockPos.getZ(pos) - z;
+                long distanceSq = dx * dx + dy * dy + dz * dz;
+                if (distanceSq < bestDistanceSq) {
+                    bestDistanceSq = distanceSq;
+                    bestPos = pos;
+                }
+            }
+        }
+
+        private BlockPos result() {
+            return bestDistanceSq == Long.MAX_VALUE ? null : BlockPos.of(bestPos);
+        }
+    }
+
+    /**
+     * Keeps the index in step with chunks loading and unloading on the server
+     */
+    @Mod.EventBusSubscriber(modid = MinecraftQuestAI.MODID)
+    public static class ChunkEventHandler {
+        @SubscribeEvent
+        public static void onChunkLoad(ChunkEvent.Load event) {
+            if (event.getLevel() instanceof ServerLevel level && event.getChunk() instanceof LevelChunk chunk) {
+                MinecraftQuestAI.questManager.getQuestBlockIndex().loadChunk(level, chunk);
+            }
+        }
+
+        @SubscribeEvent
+        public static void onChunkUnload(ChunkEvent.Unload event) {
+            if (event.getLevel() instanceof ServerLevel level) {
+                MinecraftQuestAI.questManager.getQuestBlockIndex().unloadChunk(level, event.getChunk().getPos());
+            }
+        }
+    }
+}
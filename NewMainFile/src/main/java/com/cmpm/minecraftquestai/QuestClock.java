@@ -0,0 +1,11 @@
+package com.cmpm.minecraftquestai;
+
+/**
+ * Source of wall-clock time for the quest system.
+ * Production uses the system clock; session replay swaps in a clock driven by the journal.
+ */
+public interface QuestClock {
+    QuestClock SYSTEM = System::currentTimeMillis;
+
+    long currentTimeMillis();
+}
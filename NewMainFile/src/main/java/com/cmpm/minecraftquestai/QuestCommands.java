@@ -0,0 +1,227 @@
+package com.cmpm.minecraftquestai;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.storage.LevelResource;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Operator commands under /questai and player party commands under /questparty
+ */
+@Mod.EventBusSubscriber(modid = MinecraftQuestAI.MODID)
+public class QuestCommands {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestCommands.class);
+    // One replay at a time, since replays of the same players share Forge's fake players
+    private static final AtomicBoolean replaying = new AtomicBoolean();
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        register(event.getDispatcher());
+    }
+
+    private static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("questai")
+                .then(Commands.literal("replay")
+                        .requires(source -> source.hasPermission(2))
+                        .then(Commands.argument("file", StringArgumentType.string())
+                                .executes(QuestCommands::replay)))
+                .then(Commands.literal("metrics")
+                        .requires(source -> source.hasPermission(2))
+                        .executes(QuestCommands::metrics))
+                .then(Commands.literal("leaderboard")
+                        .executes(QuestCommands::leaderboard))
+                .then(Commands.literal("nearest")
+                        .executes(QuestCommands::nearestQuestBlock)));
+
+        dispatcher.register(Commands.literal("questparty")
+                .then(Commands.literal("create")
+                        .executes(QuestCommands::createParty))
+                .then(Commands.literal("invite")
+                        .then(Commands.argument("player", EntityArgument.player())
+                                .executes(QuestCommands::inviteToParty)))
+                .then(Commands.literal("accept")
+                        .executes(QuestCommands::acceptPartyInvite))
+                .then(Commands.literal("leave")
+                        .executes(QuestCommands::leaveParty))
+                .then(Commands.literal("info")
+                        .executes(QuestCommands::partyInfo)));
+    }
+
+    private static int createParty(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        ServerPlayer player = context.getSource().getPlayerOrException();
+        QuestParties.Party party = MinecraftQuestAI.questManager.getParties().create(player);
+        if (party == null) {
+            context.getSource().sendFailure(Component.literal("You are already in a party"));
+            return 0;
+        }
+        context.getSource().sendSuccess(() -> Component.literal("Party created. Party quest: " + party.getQuest().getTitle()), false);
+        return 1;
+    }
+
+    private static int inviteToParty(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        ServerPlayer player = context.getSource().getPlayerOrException();
+        ServerPlayer target = EntityArgument.getPlayer(context, "player");
+        if (!MinecraftQuestAI.questManager.getParties().invite(player, target)) {
+            context.getSource().sendFailure(Component.literal("Create a party first, and invite only players who are not in one"));
+            return 0;
+        }
+        target.sendSystemMessage(Component.literal(player.getName().getString() + " invited you to their quest party. Use /questparty accept to join."));
+        context.getSource().sendSuccess(() -> Component.literal("Invited " + target.getName().getString()), false);
+        return 1;
+    }
+
+    private static int acceptPartyInvite(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        ServerPlayer player = context.getSource().getPlayerOrException();
+        QuestParties.Party party = MinecraftQuestAI.questManager.getParties().accept(player);
+        if (party == null) {
+            context.getSource().sendFailure(Component.literal("You have no open party invite"));
+            return 0;
+        }
+        context.getSource().sendSuccess(() -> Component.literal("Joined the party. Party quest: " + party.getQuest().getTitle()), false);
+        return 1;
+    }
+
+    private static int leaveParty(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        ServerPlayer player = context.getSource().getPlayerOrException();
+        MinecraftQuestAI.questManager.getParties().leave(player.getUUID());
+        context.getSource().sendSuccess(() -> Component.literal("You left your party"), false);
+        return 1;
+    }
+
+    /**
+     * Show the party quest and what each member has contributed
+     */
+    private static int partyInfo(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        CommandSourceStack source = context.getSource();
+        ServerPlayer player = source.getPlayerOrException();
+        QuestParties.Party party = MinecraftQuestAI.questManager.getParties().getParty(player.getUUID());
+        if (party == null) {
+            source.sendFailure(Component.literal("You are not in a party"));
+            return 0;
+        }
+
+        PartyQuest quest = party.getQuest();
+        source.sendSuccess(() -> Component.literal(quest.getTitle() + ": " + quest.getProgress(player) + "/" + quest.getRequiredAmount()), false);
+        for (UUID member : party.getMembers()) {
+            ServerPlayer memberPlayer = source.getServer().getPlayerList().getPlayer(member);
+            String name = memberPlayer != null ? memberPlayer.getName().getString() : member.toString();
+            source.sendSuccess(() -> Component.literal("  " + name + ": " + quest.getContribution(member)), false);
+        }
+        return 1;
+    }
+
+    /**
+     * Show community quest progress and its top contributors, straight from the maintained top-K
+     */
+    private static int leaderboard(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        CommunityQuest quest = MinecraftQuestAI.questManager.getCommunityQuests().getActive();
+        if (quest == null) {
+            source.sendFailure(Component.literal("No community quest is running"));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal(quest.getTitle() + ": " + quest.getTotal() + "/" + quest.getTarget()), false);
+        List<TopKLeaderboard.Entry> top = quest.getLeaderboard().getTop();
+        for (int i = 0; i < top.size(); i++) {
+            TopKLeaderboard.Entry entry = top.get(i);
+            int rank = i + 1;
+            source.sendSuccess(() -> Component.literal("#" + rank + " " + entry.name + " - " + entry.score), false);
+        }
+        if (source.getEntity() instanceof ServerPlayer player) {
+            source.sendSuccess(() -> Component.literal("Your kills: " + quest.getContribution(player.getUUID())), false);
+        }
+        return 1;
+    }
+
+    /**
+     * Tell the player where the closest loaded quest block is
+     */
+    private static int nearestQuestBlock(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        ServerPlayer player = context.getSource().getPlayerOrException();
+        BlockPos nearest = MinecraftQuestAI.questManager.getQuestBlockIndex().nearest(player.level(), player.blockPosition());
+        if (nearest == null) {
+            context.getSource().sendFailure(Component.literal("No quest block is loaded in this dimension"));
+            return 0;
+        }
+        int distance = (int) Math.sqrt(nearest.distSqr(player.blockPosition()));
+        context.getSource().sendSuccess(() -> Component.literal("Nearest Quest Block: " + nearest.toShortString()
+                + " (" + distance + " blocks away)"), false);
+        return 1;
+    }
+
+    /**
+     * Print every quest system counter
+     */
+    private static int metrics(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        QuestMetrics.snapshot().forEach((name, value) ->
+                source.sendSuccess(() -> Component.literal(name + " = " + value), false));
+        QuestManager questManager = MinecraftQuestAI.questManager;
+        source.sendSuccess(() -> Component.literal("session_cache.size = " + questManager.getSessionCount()
+                + " (" + questManager.getOfflineSessionCount() + " offline)"), false);
+        return 1;
+    }
+
+    /**
+     * Replay a recorded session journal from the world's sessions folder, on a thread of its own
+     */
+    private static int replay(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        String fileName = StringArgumentType.getString(context, "file");
+        Path sessions = source.getServer().getWorldPath(LevelResource.ROOT)
+                .resolve(MinecraftQuestAI.MODID).resolve("sessions");
+        Path file = sessions.resolve(fileName).normalize();
+
+        if (!file.startsWith(sessions) || !Files.isRegularFile(file)) {
+            source.sendFailure(Component.literal("No session journal named " + fileName));
+            return 0;
+        }
+
+        if (!replaying.compareAndSet(false, true)) {
+            source.sendFailure(Component.literal("A replay is already running"));
+            return 0;
+        }
+
+        MinecraftServer server = source.getServer();
+        ServerLevel level = source.getLevel();
+        Thread thread = new Thread(() -> {
+            try {
+                SessionReplayer.Result result = SessionReplayer.replay(level, file);
+                server.execute(() -> source.sendSuccess(() -> Component.literal(String.format(
+                        "Replayed %d records for %d players in %d ms (%.0f records/s)",
+                        result.records, result.players, result.elapsedNanos / 1_000_000, result.recordsPerSecond())), true));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Failed to replay session journal {}", file, e);
+                server.execute(() -> source.sendFailure(Component.literal("Replay failed: " + e.getMessage())));
+            } finally {
+                replaying.set(false);
+            }
+        }, "Quest Replay");
+        thread.setDaemon(true);
+        thread.start();
+        source.sendSuccess(() -> Component.literal("Replaying " + fileName + " in the background"), true);
+        return 1;
+    }
+}
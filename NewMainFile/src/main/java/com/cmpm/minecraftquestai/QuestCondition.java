@@ -0,0 +1,12 @@
+package com.cmpm.minecraftquestai;
+
+/**
+ * A compiled quest condition; see {@link QuestConditions} for the language and how it is compiled.
+ */
+@FunctionalInterface
+public interface QuestCondition {
+    QuestCondition ALWAYS = trigger -> true;
+    QuestCondition NEVER = trigger -> false;
+
+    boolean test(QuestTrigger trigger);
+}
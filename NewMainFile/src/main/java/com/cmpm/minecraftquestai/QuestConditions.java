@@ -0,0 +1,351 @@
+package com.cmpm.minecraftquestai;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.util.GsonHelper;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles the quest condition language into {@link QuestCondition} lambdas, once, when datapacks load.
+ *
+ * A condition is a JSON tree of:
+ * <pre>
+ *   {"entity": "minecraft:zombie"}, {"entity_tag": "minecraft:skeletons"}   kills only
+ *   {"block": id}, {"block_tag": tag}                                         mining only
+ *   {"item": id}, {"item_tag": tag}                 crafting, smelting, fishing, and a mined block's item
+ *   {"dimension": "minecraft:the_nether"}
+ *   {"time": {"min": 13000, "max": 23000}}          ticks into the day; min above max wraps past midnight
+ *   {"amount": {"min": 4, "max": 64}}               items in one event, e.g. a crafted stack
+ *   {"all": [...]}, {"any": [...]}, {"not": {...}}, true, false
+ * </pre>
+ *
+ * Ids and tags are resolved while compiling, so a leaf is one field comparison or one tag lookup.
+ * Whatever is known ahead of time is folded away: unknown ids, leaves the quest's trigger kind can
+ * never satisfy, windows covering the whole day, constant and duplicate children, and groups nested
+ * in a group of the same kind. Siblings are then ordered cheapest first, so ALL and ANY short-circuit
+ * before they reach tag lookups.
+ */
+public final class QuestConditions {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestConditions.class);
+
+    // Rough evaluation cost of each leaf, for ordering siblings
+    private static final int FIELD_COST = 1;
+    private static final int TIME_COST = 2;
+    private static final int TAG_COST = 4;
+    private static final int LAST_TICK_OF_DAY = 23999;
+
+    private QuestConditions() {
+    }
+
+    /**
+     * Compile a condition for quests that count events of one kind
+     *
+     * @param owner Id of the quest definition, for warnings
+     * @throws JsonSyntaxException if the condition is malformed
+     */
+    public static QuestCondition compile(JsonElement json, QuestTrigger.Kind kind, String owner) {
+        return emit(fold(parse(json, kind, owner)));
+    }
+
+    private enum Op { TRUE, FALSE, LEAF, NOT, ALL, ANY }
+
+    /**
+     * A condition between parsing and emitting; equal subtrees have equal keys
+     */
+    private static final class Node {
+        static final Node TRUE = new Node(Op.TRUE, "true", 0, null, List.of());
+        static final Node FALSE = new Node(Op.FALSE, "false", 0, null, List.of());
+
+        final Op op;
+        final String key;
+        final int cost;
+        // Leaves only
+        final QuestCondition test;
+        final List<Node> children;
+
+        Node(Op op, String key, int cost, QuestCondition test, List<Node> children) {
+            this.op = op;
+            this.key = key;
+            this.cost = cost;
+            this.test = test;
+            this.children = children;
+        }
+
+        static Node leaf(String key, int cost, QuestCondition test) {
+            return new Node(Op.LEAF, key, cost, test, List.of());
+        }
+    }
+
+    private static Node parse(JsonElement json, QuestTrigger.Kind kind, String owner) {
+        if (json.isJsonPrimitive() && json.getAsJsonPrimitive().isBoolean()) {
+            return json.getAsBoolean() ? Node.TRUE : Node.FALSE;
+        }
+        JsonObject object = GsonHelper.convertToJsonObject(json, "condition");
+        if (object.size() != 1) {
+            throw new JsonSyntaxException("A condition has exactly one operator, got " + object.keySet());
+        }
+        Map.Entry<String, JsonElement> entry = object.entrySet().iterator().next();
+        String operator = entry.getKey();
+        JsonElement value = entry.getValue();
+        return switch (operator) {
+            case "all" -> group(Op.ALL, GsonHelper.convertToJsonArray(value, operator), kind, owner);
+            case "any" -> group(Op.ANY, GsonHelper.convertToJsonArray(value, operator), kind, owner);
+            case "not" -> new Node(Op.NOT, "", 0, null, List.of(parse(value, kind, owner)));
+            case "entity" -> entity(id(value, operator), kind, owner);
+            case "entity_tag" -> entityTag(id(value, operator), kind, owner);
+            case "item" -> item(id(value, operator), kind, owner);
+            case "item_tag" -> itemTag(id(value, operator), kind, owner);
+            case "block" -> block(id(value, operator), kind, owner);
+            case "block_tag" -> blockTag(id(value, operator), kind, owner);
+            case "dimension" -> dimension(id(value, operator));
+            case "time" -> time(GsonHelper.convertToJsonObject(value, operator));
+            case "amount" -> amount(GsonHelper.convertToJsonObject(value, operator), owner);
+            default -> throw new JsonSyntaxException("Unknown condition " + operator);
+        };
+    }
+
+    private static Node group(Op op, JsonArray array, QuestTrigger.Kind kind, String owner) {
+        List<Node> children = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            children.add(parse(element, kind, owner));
+        }
+        return new Node(op, "", 0, null, children);
+    }
+
+    private static ResourceLocation id(JsonElement value, String operator) {
+        String text = GsonHelper.convertToString(value, operator);
+        ResourceLocation id = ResourceLocation.tryParse(text);
+        if (id == null) {
+            throw new JsonSyntaxException("Invalid id '" + text + "' in " + operator);
+        }
+        return id;
+    }
+
+    private static Node entity(ResourceLocation id, QuestTrigger.Kind kind, String owner) {
+        if (kind != QuestTrigger.Kind.KILL) {
+            return unreachable("entity", kind, owner);
+        }
+        // The entity registry hands back pigs for unknown ids
+        if (!ForgeRegistries.ENTITY_TYPES.containsKey(id)) {
+            return unknown("entity", id, owner);
+        }
+        EntityType<?> type = ForgeRegistries.ENTITY_TYPES.getValue(id);
+        return Node.leaf("entity=" + id, FIELD_COST, trigger -> trigger.entityType == type);
+    }
+
+    private static Node entityTag(ResourceLocation id, QuestTrigger.Kind kind, String owner) {
+        if (kind != QuestTrigger.Kind.KILL) {
+            return unreachable("entity_tag", kind, owner);
+        }
+        TagKey<EntityType<?>> tag = TagKey.create(Registries.ENTITY_TYPE, id);
+        return Node.leaf("entity_tag=" + id, TAG_COST, trigger -> trigger.entityType != null && trigger.entityType.is(tag));
+    }
+
+    private static Node item(ResourceLocation id, QuestTrigger.Kind kind, String owner) {
+        if (kind == QuestTrigger.Kind.KILL) {
+            return unreachable("item", kind, owner);
+        }
+        if (!ForgeRegistries.ITEMS.containsKey(id)) {
+            return unknown("item", id, owner);
+        }
+        Item item = ForgeRegistries.ITEMS.getValue(id);
+        return Node.leaf("item=" + id, FIELD_COST, trigger -> trigger.item == item);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Node itemTag(ResourceLocation id, QuestTrigger.Kind kind, String owner) {
+        if (kind == QuestTrigger.Kind.KILL) {
+            return unreachable("item_tag", kind, owner);
+        }
+        TagKey<Item> tag = TagKey.create(Registries.ITEM, id);
+        return Node.leaf("item_tag=" + id, TAG_COST,
+                trigger -> trigger.item != null && trigger.item.builtInRegistryHolder().is(tag));
+    }
+
+    private static Node block(ResourceLocation id, QuestTrigger.Kind kind, String owner) {
+        if (kind != QuestTrigger.Kind.MINE) {
+            return unreachable("block", kind, owner);
+        }
+        if (!ForgeRegistries.BLOCKS.containsKey(id)) {
+            return unknown("block", id, owner);
+        }
+        Block block = ForgeRegistries.BLOCKS.getValue(id);
+        return Node.leaf("block=" + id, FIELD_COST, trigger -> trigger.block == block);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Node blockTag(ResourceLocation id, QuestTrigger.Kind kind, String owner) {
+        if (kind != QuestTrigger.Kind.MINE) {
+            return unreachable("block_tag", kind, owner);
+        }
+        TagKey<Block> tag = TagKey.create(Registries.BLOCK, id);
+        return Node.leaf("block_tag=" + id, TAG_COST,
+                trigger -> trigger.block != null && trigger.block.builtInRegistryHolder().is(tag));
+    }
+
+    private static Node dimension(ResourceLocation id) {
+        // Resource keys are interned, so identity is enough
+        ResourceKey<Level> dimension = ResourceKey.create(Registries.DIMENSION, id);
+        return Node.leaf("dimension=" + id, FIELD_COST, trigger -> trigger.dimension == dimension);
+    }
+
+    private static Node time(JsonObject object) {
+        int min = GsonHelper.getAsInt(object, "min", 0);
+        int max = GsonHelper.getAsInt(object, "max", LAST_TICK_OF_DAY);
+        if (min < 0 || min > LAST_TICK_OF_DAY || max < 0 || max > LAST_TICK_OF_DAY) {
+            throw new JsonSyntaxException("Time of day must be within 0-" + LAST_TICK_OF_DAY + ", got " + min + "-" + max);
+        }
+        String key = "time=" + min + ".." + max;
+        if (min <= max) {
+            if (min == 0 && max == LAST_TICK_OF_DAY) {
+                return Node.TRUE;
+            }
+            return Node.leaf(key, TIME_COST, trigger -> trigger.timeOfDay >= min && trigger.timeOfDay <= max);
+        }
+        if (min == max + 1) {
+            return Node.TRUE;
+        }
+        return Node.leaf(key, TIME_COST, trigger -> trigger.timeOfDay >= min || trigger.timeOfDay <= max);
+    }
+
+    private static Node amount(JsonObject object, String owner) {
+        int min = GsonHelper.getAsInt(object, "min", 1);
+        int max = GsonHelper.getAsInt(object, "max", Integer.MAX_VALUE);
+        if (min > max) {
+            LOGGER.warn("{}: amount {}..{} can never match", owner, min, max);
+            return Node.FALSE;
+        }
+        // Every event has at least one of something
+        if (min <= 1 && max == Integer.MAX_VALUE) {
+            return Node.TRUE;
+        }
+        return Node.leaf("amount=" + min + ".." + max, FIELD_COST, trigger -> trigger.amount >= min && trigger.amount <= max);
+    }
+
+    private static Node unreachable(String operator, QuestTrigger.Kind kind, String owner) {
+        LOGGER.warn("{}: {} never matches in a {} quest", owner, operator, kind);
+        return Node.FALSE;
+    }
+
+    private static Node unknown(String what, ResourceLocation id, String owner) {
+        LOGGER.warn("{}: unknown {} {}", owner, what, id);
+        return Node.FALSE;
+    }
+
+    /**
+     * Fold constants, flatten and deduplicate groups, and order each group's children cheapest first
+     */
+    private static Node fold(Node node) {
+        if (node.op == Op.NOT) {
+            Node child = fold(node.children.get(0));
+            if (child == Node.TRUE) {
+                return Node.FALSE;
+            } else if (child == Node.FALSE) {
+                return Node.TRUE;
+            } else if (child.op == Op.NOT) {
+                return child.children.get(0);
+            }
+            return new Node(Op.NOT, "not(" + child.key + ")", child.cost, null, List.of(child));
+        }
+        if (node.op != Op.ALL && node.op != Op.ANY) {
+            return node;
+        }
+
+        // TRUE changes nothing in an ALL and decides an ANY; FALSE the other way round
+        Node neutral = node.op == Op.ALL ? Node.TRUE : Node.FALSE;
+        Node decisive = node.op == Op.ALL ? Node.FALSE : Node.TRUE;
+        Map<String, Node> children = new LinkedHashMap<>();
+        for (Node child : node.children) {
+            Node folded = fold(child);
+            if (folded == decisive) {
+                return decisive;
+            } else if (folded.op == node.op) {
+                for (Node grandchild : folded.children) {
+                    children.putIfAbsent(grandchild.key, grandchild);
+                }
+            } else if (folded != neutral) {
+                children.putIfAbsent(folded.key, folded);
+            }
+        }
+        if (children.isEmpty()) {
+            return neutral;
+        } else if (children.size() == 1) {
+            return children.values().iterator().next();
+        }
+
+        List<Node> ordered = new ArrayList<>(children.values());
+        ordered.sort(Comparator.comparingInt(child -> child.cost));
+        int cost = 0;
+        for (Node child : ordered) {
+            cost += child.cost;
+        }
+        String key = node.op.name().toLowerCase(Locale.ROOT) + children.keySet().stream().sorted().collect(Collectors.joining(",", "(", ")"));
+        return new Node(node.op, key, cost, null, List.copyOf(ordered));
+    }
+
+    private static QuestCondition emit(Node node) {
+        return switch (node.op) {
+            case TRUE -> QuestCondition.ALWAYS;
+            case FALSE -> QuestCondition.NEVER;
+            case LEAF -> node.test;
+            case NOT -> {
+                QuestCondition child = emit(node.children.get(0));
+                yield trigger -> !child.test(trigger);
+            }
+            case ALL, ANY -> emitJunction(node);
+        };
+    }
+
+    private static QuestCondition emitJunction(Node node) {
+        QuestCondition[] parts = new QuestCondition[node.children.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = emit(node.children.get(i));
+        }
+        // Two children is the common case, and worth a lambda without the loop
+        if (parts.length == 2) {
+            QuestCondition first = parts[0];
+            QuestCondition second = parts[1];
+            return node.op == Op.ALL
+                    ? trigger -> first.test(trigger) && second.test(trigger)
+                    : trigger -> first.test(trigger) || second.test(trigger);
+        }
+        if (node.op == Op.ALL) {
+            return trigger -> {
+                for (QuestCondition part : parts) {
+                    if (!part.test(trigger)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return trigger -> {
+            for (QuestCondition part : parts) {
+                if (part.test(trigger)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
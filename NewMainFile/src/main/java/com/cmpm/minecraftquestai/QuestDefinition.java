@@ -0,0 +1,107 @@
+package com.cmpm.minecraftquestai;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.GsonHelper;
+
+import java.util.Locale;
+
+/**
+ * A quest objective defined in a datapack instead of in code: count events of one kind that
+ * satisfy a condition. Read from {@code data/<namespace>/quest_definitions/<name>.json}:
+ * <pre>
+ * {
+ *   "title": "Night Hunter",
+ *   "description": "Defeat undead in the Overworld at night",    optional, defaults to the title
+ *   "trigger": "kill",                                          kill, mine, craft, smelt or fish
+ *   "count": 8,
+ *   "min_level": 2,                                             optional, lowest difficulty it is offered at
+ *   "xp": 120,                                                  optional, defaults to the activity reward
+ *   "condition": {...}                                          optional, see {@link QuestConditions}
+ * }
+ * </pre>
+ */
+public final class QuestDefinition {
+    private final ResourceLocation id;
+    private final String title;
+    private final String description;
+    private final QuestTrigger.Kind trigger;
+    private final int count;
+    private final int minLevel;
+    // Negative to use the configured activity reward
+    private final int xp;
+    private final QuestCondition condition;
+
+    private QuestDefinition(ResourceLocation id, String title, String description, QuestTrigger.Kind trigger,
+                            int count, int minLevel, int xp, QuestCondition condition) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.trigger = trigger;
+        this.count = count;
+        this.minLevel = minLevel;
+        this.xp = xp;
+        this.condition = condition;
+    }
+
+    /**
+     * Parse and compile a definition
+     *
+     * @throws JsonSyntaxException if it is malformed
+     */
+    public static QuestDefinition parse(ResourceLocation id, JsonObject json) {
+        String title = GsonHelper.getAsString(json, "title");
+        String triggerName = GsonHelper.getAsString(json, "trigger");
+        QuestTrigger.Kind trigger;
+        try {
+            trigger = QuestTrigger.Kind.valueOf(triggerName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("Unknown trigger " + triggerName);
+        }
+        int count = GsonHelper.getAsInt(json, "count");
+        if (count < 1) {
+            throw new JsonSyntaxException("count must be at least 1, got " + count);
+        }
+        QuestCondition condition = json.has("condition")
+                ? QuestConditions.compile(json.get("condition"), trigger, id.toString())
+                : QuestCondition.ALWAYS;
+        return new QuestDefinition(id, title, GsonHelper.getAsString(json, "description", title), trigger, count,
+                GsonHelper.getAsInt(json, "min_level", 1), GsonHelper.getAsInt(json, "xp", -1), condition);
+    }
+
+    public ResourceLocation getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public QuestTrigger.Kind getTrigger() {
+        return trigger;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getMinLevel() {
+        return minLevel;
+    }
+
+    public int getXp() {
+        return xp;
+    }
+
+    /**
+     * Whether an event counts towards this objective; the event must be of this definition's trigger kind
+     */
+    public boolean matches(QuestTrigger event) {
+        return condition.test(event);
+    }
+}
@@ -0,0 +1,74 @@
+package com.cmpm.minecraftquestai;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimpleJsonResourceReloadListener;
+import net.minecraft.util.GsonHelper;
+import net.minecraft.util.profiling.ProfilerFiller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Loads quest definitions from datapacks on every data reload.
+ *
+ * Each reload compiles a fresh set and publishes it with a single volatile write. Quests already
+ * handed out keep the definition they were made from until they are finished or the server restarts.
+ */
+public class QuestDefinitions extends SimpleJsonResourceReloadListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestDefinitions.class);
+
+    public static final String DIRECTORY = "quest_definitions";
+
+    // Sorted by id, so a seeded pick draws the same definition on every server with the same datapacks
+    private static volatile Map<ResourceLocation, QuestDefinition> definitions = Collections.emptyMap();
+
+    public QuestDefinitions() {
+        super(new Gson(), DIRECTORY);
+    }
+
+    @Override
+    protected void apply(Map<ResourceLocation, JsonElement> files, ResourceManager resourceManager, ProfilerFiller profiler) {
+        Map<ResourceLocation, QuestDefinition> loaded = new TreeMap<>();
+        for (Map.Entry<ResourceLocation, JsonElement> file : files.entrySet()) {
+            try {
+                loaded.put(file.getKey(), QuestDefinition.parse(file.getKey(),
+                        GsonHelper.convertToJsonObject(file.getValue(), "quest definition")));
+            } catch (JsonParseException | IllegalArgumentException e) {
+                LOGGER.error("Skipping quest definition {}: {}", file.getKey(), e.getMessage());
+            }
+        }
+        definitions = Collections.unmodifiableMap(loaded);
+        LOGGER.info("Loaded {} quest definitions", loaded.size());
+    }
+
+    public static QuestDefinition get(ResourceLocation id) {
+        return definitions.get(id);
+    }
+
+    public static boolean isEmpty() {
+        return definitions.isEmpty();
+    }
+
+    /**
+     * A random definition offered at a difficulty level, or null if there is none
+     */
+    public static QuestDefinition pick(int difficultyLevel, Random random) {
+        List<QuestDefinition> eligible = new ArrayList<>();
+        for (QuestDefinition definition : definitions.values()) {
+            if (definition.getMinLevel() <= difficultyLevel) {
+                eligible.add(definition);
+            }
+        }
+        return eligible.isEmpty() ? null : eligible.get(random.nextInt(eligible.size()));
+    }
+}
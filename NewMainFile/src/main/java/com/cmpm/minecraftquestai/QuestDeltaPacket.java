@@ -0,0 +1,50 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Batch of progress changes for quests in the last snapshot: [index][progress][completed] per
+ * change, a few bytes each.
+ */
+public class QuestDeltaPacket {
+    private final int[] indices;
+    private final int[] progress;
+    private final boolean[] completed;
+
+    public QuestDeltaPacket(int[] indices, int[] progress, boolean[] completed) {
+        this.indices = indices;
+        this.progress = progress;
+        this.completed = completed;
+    }
+
+    public void encode(FriendlyByteBuf buf) {
+        buf.writeVarInt(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            buf.writeVarInt(indices[i]);
+            buf.writeVarInt(progress[i]);
+            buf.writeBoolean(completed[i]);
+        }
+    }
+
+    public static QuestDeltaPacket decode(FriendlyByteBuf buf) {
+        int size = buf.readVarInt();
+        int[] indices = new int[size];
+        int[] progress = new int[size];
+        boolean[] completed = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = buf.readVarInt();
+            progress[i] = buf.readVarInt();
+            completed[i] = buf.readBoolean();
+        }
+        return new QuestDeltaPacket(indices, progress, completed);
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> context) {
+        for (int i = 0; i < indices.length; i++) {
+            ClientQuestState.applyDelta(indices[i], progress[i], completed[i]);
+        }
+    }
+}
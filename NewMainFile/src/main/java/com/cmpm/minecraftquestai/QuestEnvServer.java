@@ -0,0 +1,160 @@
+package com.cmpm.minecraftquestai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Serves {@link QuestVecEnv} to the Python trainer over a loopback socket.
+ *
+ * One trainer connects at a time and drives all of its environments with one request per step.
+ * All integers are little-endian. Requests start with an opcode byte:
+ * <ul>
+ *     <li>{@code 'R'} u32 env count, u64 seed: create the environments and reset them.
+ *     Answered with i32 observations[count * {@link QuestVecEnv#OBSERVATION_SIZE}].</li>
+ *     <li>{@code 'S'} u8 actions[count]: step every environment. Answered with i32 observations,
+ *     f32 rewards[count], u8 dones[count] and i32 final observations, which only mean anything
+ *     where done is set.</li>
+ *     <li>{@code 'C'}: close the connection.</li>
+ * </ul>
+ * Batches run on this server's own thread, each environment against its own generator state, so
+ * a trainer never holds up a tick and steps as fast as it asks however many environments it runs.
+ * RLModel/QuestVecEnv.py is the client.
+ */
+public class QuestEnvServer implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestEnvServer.class);
+
+    private static final int MAX_ENVS = 65536;
+
+    private final ServerSocketChannel socket;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private QuestEnvServer(ServerSocketChannel socket) {
+        this.socket = socket;
+        this.thread = new Thread(this::run, "Quest Env Server");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Listen on a loopback port and start accepting trainers
+     */
+    public static QuestEnvServer start(int port) throws IOException {
+        ServerSocketChannel socket = ServerSocketChannel.open();
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        QuestEnvServer envServer = new QuestEnvServer(socket);
+        envServer.thread.start();
+        LOGGER.info("Quest environment server listening on {}", socket.getLocalAddress());
+        return envServer;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.error("Could not close quest environment server socket", e);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (SocketChannel client = socket.accept()) {
+                client.socket().setTcpNoDelay(true);
+                LOGGER.info("Trainer connected from {}", client.getRemoteAddress());
+                serve(client);
+            } catch (EOFException e) {
+                LOGGER.info("Trainer disconnected");
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.warn("Quest environment connection failed", e);
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) throws IOException {
+        ByteBuffer opcode = ByteBuffer.allocate(1);
+        QuestVecEnv env = null;
+        ByteBuffer actions = null;
+        ByteBuffer response = null;
+        int[] observations = null;
+        int[] finalObservations = null;
+        float[] rewards = null;
+        byte[] dones = null;
+
+        while (running) {
+            readFully(client, opcode.clear());
+            switch (opcode.get(0)) {
+                case 'R' -> {
+                    ByteBuffer request = readFully(client, ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN));
+                    int count = request.getInt(0);
+                    if (count < 1 || count > MAX_ENVS) {
+                        throw new IOException("Bad environment count " + count);
+                    }
+                    env = new QuestVecEnv(count, request.getLong(4));
+                    actions = ByteBuffer.allocate(count);
+                    observations = new int[count * QuestVecEnv.OBSERVATION_SIZE];
+                    finalObservations = new int[count * QuestVecEnv.OBSERVATION_SIZE];
+                    rewards = new float[count];
+                    dones = new byte[count];
+                    response = ByteBuffer.allocate(count * (QuestVecEnv.OBSERVATION_SIZE * 8 + 5))
+                            .order(ByteOrder.LITTLE_ENDIAN);
+
+                    env.reset(observations);
+
+                    response.clear();
+                    response.asIntBuffer().put(observations);
+                    response.limit(observations.length * 4);
+                    writeFully(client, response);
+                }
+                case 'S' -> {
+                    if (env == null) {
+                        throw new IOException("Step before reset");
+                    }
+                    readFully(client, actions.clear());
+                    env.step(actions.array(), observations, rewards, dones, finalObservations);
+
+                    response.clear();
+                    response.asIntBuffer().put(observations);
+                    response.position(observations.length * 4);
+                    response.asFloatBuffer().put(rewards);
+                    response.position(response.position() + rewards.length * 4);
+                    response.put(dones);
+                    response.asIntBuffer().put(finalObservations);
+                    response.position(response.position() + finalObservations.length * 4);
+                    writeFully(client, response.flip());
+                }
+                case 'C' -> {
+                    return;
+                }
+                default -> throw new IOException("Unknown request " + opcode.get(0));
+            }
+        }
+    }
+
+    private static ByteBuffer readFully(SocketChannel client, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (client.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(SocketChannel client, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.event.entity.player.ItemFishedEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Routes gameplay events to the activity and datapack-defined quests that want them.
+ *
+ * Each player has a bitmask of the activities their active quests care about, and one of the
+ * trigger kinds their defined quests count, kept up to date as quests are activated and retired.
+ * Every handler tests those bits before doing anything else, so breaking blocks or crafting without
+ * a matching quest costs one map lookup and one AND; only a set bit goes on to resolve registry keys
+ * and walk that activity's quests.
+ */
+public class QuestEventDispatcher {
+    private static final int ACTIVITIES = ActivityQuest.Activity.values().length;
+    private static final int TRIGGER_KINDS = QuestTrigger.Kind.values().length;
+
+    private final Map<UUID, Subscriptions> subscriptions = new HashMap<>();
+
+    /**
+     * Start routing a quest's activity to it; no-op if it is already subscribed
+     */
+    public void subscribe(UUID playerUUID, ActivityQuest quest) {
+        Subscriptions playerSubscriptions = subscriptions.computeIfAbsent(playerUUID, k -> new Subscriptions());
+        List<ActivityQuest> quests = playerSubscriptions.quests[quest.getActivity().ordinal()];
+        if (!quests.contains(quest)) {
+            quests.add(quest);
+            playerSubscriptions.mask |= quest.getActivity().bit();
+        }
+    }
+
+    public void unsubscribe(UUID playerUUID, ActivityQuest quest) {
+        Subscriptions playerSubscriptions = subscriptions.get(playerUUID);
+        if (playerSubscriptions == null) {
+            return;
+        }
+        List<ActivityQuest> quests = playerSubscriptions.quests[quest.getActivity().ordinal()];
+        if (quests.remove(quest) && quests.isEmpty()) {
+            playerSubscriptions.mask &= ~quest.getActivity().bit();
+            removeIfEmpty(playerUUID, playerSubscriptions);
+        }
+    }
+
+    /**
+     * Start routing events of a defined quest's trigger kind to it; no-op if it is already subscribed
+     */
+    public void subscribe(UUID playerUUID, DefinedQuest quest) {
+        Subscriptions playerSubscriptions = subscriptions.computeIfAbsent(playerUUID, k -> new Subscriptions());
+        List<DefinedQuest> quests = playerSubscriptions.definedQuests(quest.getTrigger());
+        if (!quests.contains(quest)) {
+            quests.add(quest);
+            playerSubscriptions.definedMask |= quest.getTrigger().bit();
+        }
+    }
+
+    public void unsubscribe(UUID playerUUID, DefinedQuest quest) {
+        Subscriptions playerSubscriptions = subscriptions.get(playerUUID);
+        if (playerSubscriptions == null) {
+            return;
+        }
+        List<DefinedQuest> quests = playerSubscriptions.definedQuests(quest.getTrigger());
+        if (quests.remove(quest) && quests.isEmpty()) {
+            playerSubscriptions.definedMask &= ~quest.getTrigger().bit();
+            removeIfEmpty(playerUUID, playerSubscriptions);
+        }
+    }
+
+    private void removeIfEmpty(UUID playerUUID, Subscriptions playerSubscriptions) {
+        if (playerSubscriptions.mask == 0 && playerSubscriptions.definedMask == 0) {
+            subscriptions.remove(playerUUID);
+        }
+    }
+
+    /**
+     * Drop every subscription of a player who logged out
+     */
+    public void removePlayer(UUID playerUUID) {
+        subscriptions.remove(playerUUID);
+    }
+
+    /**
+     * Whether any active quest of the player cares about an activity
+     */
+    public boolean isSubscribed(UUID playerUUID, ActivityQuest.Activity activity) {
+        Subscriptions playerSubscriptions = subscriptions.get(playerUUID);
+        return playerSubscriptions != null && (playerSubscriptions.mask & activity.bit()) != 0;
+    }
+
+    /**
+     * Whether any active quest of the player, activity or defined, wants to hear about an activity
+     */
+    public boolean wantsActivity(UUID playerUUID, ActivityQuest.Activity activity) {
+        Subscriptions playerSubscriptions = subscriptions.get(playerUUID);
+        return playerSubscriptions != null && ((playerSubscriptions.mask & activity.bit()) != 0
+                || (playerSubscriptions.definedMask & QuestTrigger.Kind.of(activity).bit()) != 0);
+    }
+
+    /**
+     * The player's defined quests counting a trigger kind; empty when the bit is clear
+     */
+    public List<DefinedQuest> getSubscribers(UUID playerUUID, QuestTrigger.Kind kind) {
+        Subscriptions playerSubscriptions = subscriptions.get(playerUUID);
+        if (playerSubscriptions == null || (playerSubscriptions.definedMask & kind.bit()) == 0) {
+            return List.of();
+        }
+        return playerSubscriptions.definedQuests[kind.ordinal()];
+    }
+
+    /**
+     * The player's quests subscribed to an activity; empty when the bit is clear
+     */
+    public List<ActivityQuest> getSubscribers(UUID playerUUID, ActivityQuest.Activity activity) {
+        Subscriptions playerSubscriptions = subscriptions.get(playerUUID);
+        if (playerSubscriptions == null || (playerSubscriptions.mask & activity.bit()) == 0) {
+            return List.of();
+        }
+        return playerSubscriptions.quests[activity.ordinal()];
+    }
+
+    /**
+     * One player's activity and trigger kind masks and the quests behind each bit
+     */
+    private static final class Subscriptions {
+        private int mask;
+        private int definedMask;
+        @SuppressWarnings("unchecked")
+        private final List<ActivityQuest>[] quests = (List<ActivityQuest>[]) new List[ACTIVITIES];
+        // Lists made on first use, since most players never get a defined quest
+        @SuppressWarnings("unchecked")
+        private final List<DefinedQuest>[] definedQuests = (List<DefinedQuest>[]) new List[TRIGGER_KINDS];
+
+        private Subscriptions() {
+            for (int i = 0; i < ACTIVITIES; i++) {
+                quests[i] = new ArrayList<>(1);
+            }
+        }
+
+        private List<DefinedQuest> definedQuests(QuestTrigger.Kind kind) {
+            List<DefinedQuest> list = definedQuests[kind.ordinal()];
+            if (list == null) {
+                list = new ArrayList<>(1);
+                definedQuests[kind.ordinal()] = list;
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Forge handlers for every activity; each bails out on the bit test for uninterested players
+     */
+    @Mod.EventBusSubscriber(modid = MinecraftQuestAI.MODID)
+    public static class ActivityEventHandler {
+        // Lowest priority, so blocks protected by other mods never count
+        @SubscribeEvent(priority = EventPriority.LOWEST)
+        public static void onBlockBreak(BlockEvent.BreakEvent event) {
+            if (!(event.getPlayer() instanceof ServerPlayer player) || !wants(player, ActivityQuest.Activity.MINE)) {
+                return;
+            }
+            ResourceLocation key = ForgeRegistries.BLOCKS.getKey(event.getState().getBlock());
+            if (key != null) {
+                record(player, ActivityQuest.Activity.MINE, key.toString(), 1);
+            }
+        }
+
+        @SubscribeEvent
+        public static void onItemCrafted(PlayerEvent.ItemCraftedEvent event) {
+            if (event.getEntity() instanceof ServerPlayer player && wants(player, ActivityQuest.Activity.CRAFT)) {
+                recordStack(player, ActivityQuest.Activity.CRAFT, event.getCrafting());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onItemSmelted(PlayerEvent.ItemSmeltedEvent event) {
+            if (event.getEntity() instanceof ServerPlayer player && wants(player, ActivityQuest.Activity.SMELT)) {
+                recordStack(player, ActivityQuest.Activity.SMELT, event.getSmelting());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onItemFished(ItemFishedEvent event) {
+            if (event.getEntity() instanceof ServerPlayer player && wants(player, ActivityQuest.Activity.FISH)) {
+                for (ItemStack stack : event.getDrops()) {
+                    recordStack(player, ActivityQuest.Activity.FISH, stack);
+                }
+            }
+        }
+
+        private static boolean wants(ServerPlayer player, ActivityQuest.Activity activity) {
+            return MinecraftQuestAI.questManager.getEventDispatcher().wantsActivity(player.getUUID(), activity);
+        }
+
+        private static void recordStack(ServerPlayer player, ActivityQuest.Activity activity, ItemStack stack) {
+            if (stack.isEmpty()) {
+                return;
+            }
+            ResourceLocation key = ForgeRegistries.ITEMS.getKey(stack.getItem());
+            if (key != null) {
+                record(player, activity, key.toString(), stack.getCount());
+            }
+        }
+
+        private static void record(ServerPlayer player, ActivityQuest.Activity activity, String targetId, int amount) {
+            QuestManager questManager = MinecraftQuestAI.questManager;
+            // Record before applying, so a replay sees the same order
+            SessionJournal journal = questManager.getSessionJournal();
+            if (journal != null) {
+                journal.recordActivity(questManager.getClock().currentTimeMillis(), player.getUUID(),
+                        activity, targetId, amount);
+            }
+            questManager.onActivity(player, activity, targetId, amount);
+        }
+    }
+}
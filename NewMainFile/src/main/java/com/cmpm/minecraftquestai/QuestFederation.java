@@ -0,0 +1,204 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.FederatedLearner;
+import com.cmpm.minecraftquestai.core.PolicyDelta;
+import com.cmpm.minecraftquestai.core.PolicySnapshot;
+import com.cmpm.minecraftquestai.core.PolicyStore;
+import com.cmpm.minecraftquestai.core.PolicyTable;
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shares the difficulty learner's policy with other servers through a {@link PolicyStore}.
+ *
+ * Every interval the server thread hands over what the learner learned since the last round as a
+ * delta; a background worker publishes it, merges all servers' pending deltas if this server
+ * merges, and reads the newest snapshot, which the server thread then installs. Learning done
+ * locally since the delta is kept on top of the snapshot. A delta that could not be published is
+ * retried next round, and the last one is published on shutdown.
+ */
+public class QuestFederation implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestFederation.class);
+
+    // Deltas kept while the store is unreachable; the oldest are dropped beyond this
+    private static final int MAX_UNPUBLISHED = 100;
+    private static final long SERVER_THREAD_TIMEOUT_SECONDS = 30;
+    // How long close waits for a round in progress to finish its file operations
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final MinecraftServer server;
+    private final FederatedLearner learner;
+    private final PolicyStore store;
+    private final String shard;
+    private final boolean merge;
+    private final ScheduledExecutorService worker;
+
+    // Server thread only. Continues from the store's last sequence for this shard, or the clock if later
+    private long sequence;
+    private volatile boolean closed;
+    // The delta the worker is waiting on, which close hands back empty rather than wait for itself
+    private volatile CompletableFuture<PolicyDelta> taking;
+    // Worker only, apart from close
+    private final Deque<PolicyDelta> unpublished = new ArrayDeque<>();
+    private long knownVersion;
+
+    private QuestFederation(MinecraftServer server, FederatedLearner learner, PolicyStore store, String shard, boolean merge) {
+        this.server = server;
+        this.learner = learner;
+        this.store = store;
+        this.shard = shard;
+        this.merge = merge;
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Quest Federation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Install the newest snapshot in the store, then start exchanging deltas. Call on the server thread.
+     */
+    public static QuestFederation start(MinecraftServer server, FederatedLearner learner, Path directory,
+                                        String shard, int intervalSeconds, boolean merge) throws IOException {
+        QuestFederation federation = new QuestFederation(server, learner, new PolicyStore(directory), shard, merge);
+        federation.sequence = Math.max(System.currentTimeMillis(), federation.store.lastSequence(shard));
+        PolicyTable table = learner.getPolicyTable();
+        PolicySnapshot snapshot = federation.store.latest(table.getVersion());
+        if (snapshot != null) {
+            federation.install(snapshot);
+        }
+        federation.knownVersion = table.getVersion();
+        federation.worker.scheduleWithFixedDelay(federation::exchange, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        LOGGER.info("Federating the quest policy as {} through {} at version {}", shard, directory, table.getVersion());
+        return federation;
+    }
+
+    /**
+     * Runs on the worker: one round of publish, merge and fetch
+     */
+    private void exchange() {
+        try {
+            // A take still queued when close runs must not take, or close would miss that delta
+            CompletableFuture<PolicyDelta> future = server.submit(() -> closed ? null : takeDelta());
+            taking = future;
+            if (closed) {
+                future.complete(null);
+            }
+            PolicyDelta delta = future.get(SERVER_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (delta != null) {
+                queue(delta);
+            }
+            publishAll();
+
+            PolicySnapshot snapshot = null;
+            if (merge) {
+                snapshot = store.merge(learner.getPolicyTable().size());
+            }
+            if (snapshot == null) {
+                snapshot = store.latest(knownVersion);
+            }
+            if (snapshot != null && snapshot.version > knownVersion) {
+                knownVersion = snapshot.version;
+                PolicySnapshot merged = snapshot;
+                server.execute(() -> install(merged));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.warn("Could not take the quest policy delta this round", e);
+        } catch (IOException | RuntimeException e) {
+            // Keep the worker alive; the next round tries again
+            LOGGER.error("Quest policy exchange failed", e);
+        }
+    }
+
+    /**
+     * Runs on the server thread
+     */
+    private PolicyDelta takeDelta() {
+        PolicyDelta delta = learner.getPolicyTable().takeDelta(shard, sequence + 1);
+        if (delta != null) {
+            sequence++;
+        }
+        return delta;
+    }
+
+    /**
+     * Runs on the server thread
+     */
+    private void install(PolicySnapshot snapshot) {
+        PolicyTable table = learner.getPolicyTable();
+        if (snapshot.size() != table.size()) {
+            LOGGER.error("Ignoring quest policy snapshot {} of {} entries, the learner has {}", snapshot.version, snapshot.size(), table.size());
+            return;
+        }
+        if (snapshot.version <= table.getVersion()) {
+            return;
+        }
+        table.install(snapshot);
+        QuestMetrics.POLICY_SNAPSHOTS_INSTALLED.increment();
+        LOGGER.debug("Installed quest policy snapshot {} built from {} updates", snapshot.version, snapshot.getTotalUpdates());
+    }
+
+    private void queue(PolicyDelta delta) {
+        if (unpublished.size() == MAX_UNPUBLISHED) {
+            PolicyDelta dropped = unpublished.removeFirst();
+            LOGGER.warn("Quest policy store unreachable, dropping delta {} of {} entries", dropped.sequence, dropped.size());
+        }
+        unpublished.addLast(delta);
+    }
+
+    private void publishAll() throws IOException {
+        while (!unpublished.isEmpty()) {
+            store.publish(unpublished.peekFirst());
+            unpublished.removeFirst();
+            QuestMetrics.POLICY_DELTAS_PUBLISHED.increment();
+        }
+    }
+
+    /**
+     * Let a round in progress finish, then publish what was learned since on this thread.
+     * Call on the server thread.
+     */
+    @Override
+    public void close() {
+        // Not interrupted: an interrupted file channel would leave the store half-written
+        closed = true;
+        worker.shutdown();
+        CompletableFuture<PolicyDelta> pending = taking;
+        if (pending != null) {
+            // The worker may be waiting on this very thread
+            pending.complete(null);
+        }
+        try {
+            if (!worker.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Quest federation worker did not finish in time, not publishing the last delta");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        PolicyDelta delta = takeDelta();
+        if (delta != null) {
+            queue(delta);
+        }
+        try {
+            publishAll();
+        } catch (IOException e) {
+            LOGGER.error("Could not publish the last {} quest policy deltas", unpublished.size(), e);
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package com.cmpm.minecraftquestai;
 
+import com.cmpm.minecraftquestai.core.GameState;
+import com.cmpm.minecraftquestai.core.QuestAction;
+import com.cmpm.minecraftquestai.core.QuestDifficulty;
+import com.cmpm.minecraftquestai.core.QuestLearner;
+import com.cmpm.minecraftquestai.core.QuestTemplate;
+import com.cmpm.minecraftquestai.core.QuestTemplates;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.Item;
+import net.minecraft.world.level.Level;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,63 +23,101 @@ import java.util.Random;
 public class QuestGenerator {
     private static final Logger LOGGER = LoggerFactory.getLogger(QuestGenerator.class);
     private static final Random random = new Random();
-    private static int difficultyLevel = 1; // Default difficulty level
-    private static int itemRequirementModifier = 0; // Modifier for item requirements
-    private static int enemyRequirementModifier = 0; // Modifier for enemy requirements
-
-    // Store the last action taken by the QLearning system
-    private static QuestAction lastAction = null;
-
-    // Performance tracking for adaptive difficulty
-    private static int questsCompletedAtCurrentDifficulty = 0;
-    private static int questsFailedAtCurrentDifficulty = 0;
-
-    // List of possible enemy types for EnemyKillQuest
-    private static final List<String> ENEMY_TYPES = List.of(
-            "minecraft:zombie",
-            "minecraft:skeleton",
-            "minecraft:creeper",
-            "minecraft:spider"
+    // Difficulty level, RL requirement modifiers, adaptive difficulty streaks and the ID clock of the
+    // live server; a replay or training thread generates against a state of its own, see useState
+    private static final State LIVE = new State(new QuestDifficulty(), QuestClock.SYSTEM);
+    private static final ThreadLocal<State> threadState = new ThreadLocal<>();
+
+    // Quest types, as used by generateQuestByType
+    static final int KILL_QUEST = QuestTemplate.KILL;
+    static final int ITEM_QUEST = QuestTemplate.ITEM;
+
+    // Every this many completed quests the follow-up has several objectives, a chain or a composite quest
+    private static final int CHAIN_INTERVAL = 5;
+    private static final int MAX_CHAIN_STEPS = 5;
+    // One in this many follow-ups is a datapack-defined quest, when any are loaded
+    private static final int DEFINED_QUEST_CHANCE = 4;
+
+    // Targets for ActivityQuest, by activity; the second list of each pair is for higher difficulties
+    private static final List<String> MINE_TYPES = List.of(
+            "minecraft:coal_ore",
+            "minecraft:iron_ore",
+            "minecraft:copper_ore",
+            "minecraft:oak_log"
     );
 
-    // More challenging enemy types
-    private static final List<String> HARD_ENEMY_TYPES = List.of(
-            "minecraft:witch",
-            "minecraft:enderman",
-            "minecraft:blaze",
-            "minecraft:slime"
+    private static final List<String> RARE_MINE_TYPES = List.of(
+            "minecraft:diamond_ore",
+            "minecraft:deepslate_iron_ore",
+            "minecraft:obsidian",
+            "minecraft:nether_quartz_ore"
     );
 
-    // Very challenging enemy types
-    private static final List<String> VERY_HARD_ENEMY_TYPES = List.of(
-            "minecraft:wither_skeleton",
-            "minecraft:ghast",
-            "minecraft:ravager",
-            "minecraft:evoker"
+    private static final List<String> CRAFT_TYPES = List.of(
+            "minecraft:torch",
+            "minecraft:bread",
+            "minecraft:chest",
+            "minecraft:ladder"
     );
 
-    // List of possible items for ItemCollectionQuest
-    private static final List<String> ITEM_TYPES = List.of(
+    private static final List<String> RARE_CRAFT_TYPES = List.of(
+            "minecraft:iron_pickaxe",
+            "minecraft:golden_apple",
+            "minecraft:bookshelf",
+            "minecraft:piston"
+    );
+
+    private static final List<String> SMELT_TYPES = List.of(
             "minecraft:iron_ingot",
+            "minecraft:glass",
+            "minecraft:cooked_beef",
+            "minecraft:charcoal"
+    );
+
+    private static final List<String> RARE_SMELT_TYPES = List.of(
             "minecraft:gold_ingot",
-            "minecraft:diamond",
-            "minecraft:emerald"
+            "minecraft:netherite_scrap",
+            "minecraft:smooth_stone"
+    );
+
+    private static final List<String> FISH_TYPES = List.of(
+            "minecraft:cod",
+            "minecraft:salmon"
+    );
+
+    private static final List<String> RARE_FISH_TYPES = List.of(
+            "minecraft:pufferfish",
+            "minecraft:tropical_fish"
+    );
+
+    // Biomes and structures for ExplorationQuest, overworld only
+    private static final List<String> BIOME_TYPES = List.of(
+            "minecraft:desert",
+            "minecraft:forest",
+            "minecraft:taiga",
+            "minecraft:swamp",
+            "minecraft:savanna"
     );
 
-    // More valuable/rare items
-    private static final List<String> RARE_ITEM_TYPES = List.of(
-            "minecraft:diamond",
-            "minecraft:emerald",
-            "minecraft:ender_pearl",
-            "minecraft:blaze_rod"
+    private static final List<String> RARE_BIOME_TYPES = List.of(
+            "minecraft:jungle",
+            "minecraft:badlands",
+            "minecraft:mushroom_fields",
+            "minecraft:ice_spikes"
     );
 
-    // Very rare items
-    private static final List<String> VERY_RARE_ITEM_TYPES = List.of(
-            "minecraft:netherite_ingot",
-            "minecraft:nether_star",
-            "minecraft:dragon_breath",
-            "minecraft:heart_of_the_sea"
+    private static final List<String> STRUCTURE_TYPES = List.of(
+            "minecraft:village_plains",
+            "minecraft:pillager_outpost",
+            "minecraft:shipwreck",
+            "minecraft:ruined_portal"
+    );
+
+    private static final List<String> RARE_STRUCTURE_TYPES = List.of(
+            "minecraft:desert_pyramid",
+            "minecraft:jungle_pyramid",
+            "minecraft:monument",
+            "minecraft:mansion"
     );
 
     /**
@@ -77,8 +125,17 @@ public class QuestGenerator {
      * @return A randomly generated quest.
      */
     public static Quest generateRandomQuest() {
+        return generateRandomQuest(random);
+    }
+
+    /**
+     * Generates a random quest based on the current difficulty level.
+     * @param random The random source to draw from.
+     * @return A randomly generated quest.
+     */
+    public static Quest generateRandomQuest(Random random) {
         int questType = random.nextInt(2); // 0 or 1
-        return generateQuestByType(questType, difficultyLevel);
+        return generateQuestByType(questType, difficulty().getLevel(), random);
     }
 
     /**
@@ -86,81 +143,49 @@ public class QuestGenerator {
      * @param action The QLearning action to apply.
      */
     public static void applyRLAction(QuestAction action) {
-        LOGGER.info("Applying RL action: {}", action);
-        lastAction = action;
-
-        switch (action) {
-            case INCREASE_MOBS -> {
-                increaseDifficulty();
-                questsCompletedAtCurrentDifficulty = 0;
-                enemyRequirementModifier += 1;
-            }
-            case DECREASE_MOBS -> {
-                decreaseDifficulty();
-                questsCompletedAtCurrentDifficulty = 0;
-                enemyRequirementModifier = Math.max(0, enemyRequirementModifier - 1);
-            }
-            case INCREASE_ITEMS -> {
-                increaseDifficulty();
-                questsCompletedAtCurrentDifficulty = 0;
-                itemRequirementModifier += 1;
-            }
-            case DECREASE_ITEMS -> {
-                decreaseDifficulty();
-                questsCompletedAtCurrentDifficulty = 0;
-                itemRequirementModifier = Math.max(0, itemRequirementModifier - 1);
-            }
-        }
+        LOGGER.debug("Applying RL action: {}", action);
+        difficulty().applyAction(action);
     }
 
     /**
      * Increases the difficulty level for quest generation.
      */
     public static void increaseDifficulty() {
-        difficultyLevel++;
-        LOGGER.info("Increased quest difficulty to level {}", difficultyLevel);
+        difficulty().increaseLevel();
+        LOGGER.debug("Increased quest difficulty to level {}", difficulty().getLevel());
     }
 
     /**
      * Decreases the difficulty level for quest generation.
      */
     public static void decreaseDifficulty() {
-        if (difficultyLevel > 1) {
-            difficultyLevel--;
-            LOGGER.info("Decreased quest difficulty to level {}", difficultyLevel);
-        }
+        difficulty().decreaseLevel();
+        LOGGER.debug("Decreased quest difficulty to level {}", difficulty().getLevel());
     }
 
     /**
      * Increases the item requirement for collection quests.
      */
     public static void increaseItemRequirement() {
-        itemRequirementModifier++;
-        LOGGER.info("Increased item requirement modifier to {}", itemRequirementModifier);
+        difficulty().increaseItemRequirement();
+        LOGGER.info("Increased item requirement modifier to {}", difficulty().getItemRequirementModifier());
     }
 
     /**
      * Decreases the item requirement for collection quests.
      */
     public static void decreaseItemRequirement() {
-        if (itemRequirementModifier > 0) {
-            itemRequirementModifier--;
-            LOGGER.info("Decreased item requirement modifier to {}", itemRequirementModifier);
-        }
+        difficulty().decreaseItemRequirement();
+        LOGGER.info("Decreased item requirement modifier to {}", difficulty().getItemRequirementModifier());
     }
 
     /**
      * Record a quest completion for adaptive difficulty.
      */
     public static void recordQuestCompletion() {
-        questsCompletedAtCurrentDifficulty++;
-
-        // If player is completing quests too easily, automatically increase difficulty
-        if (questsCompletedAtCurrentDifficulty >= 3 && questsFailedAtCurrentDifficulty == 0) {
-            LOGGER.info("Player completed {} quests easily, increasing difficulty",
-                    questsCompletedAtCurrentDifficulty);
-            increaseDifficulty();
-            questsCompletedAtCurrentDifficulty = 0;
+        // If player is completing quests too easily, difficulty goes up on its own
+        if (difficulty().recordCompletion()) {
+            LOGGER.debug("Player completed quests easily, increased difficulty to level {}", difficulty().getLevel());
         }
     }
 
@@ -168,14 +193,9 @@ public class QuestGenerator {
      * Record a quest failure (abandoned or expired) for adaptive difficulty.
      */
     public static void recordQuestFailure() {
-        questsFailedAtCurrentDifficulty++;
-
-        // If player is struggling with quests, automatically decrease difficulty
-        if (questsFailedAtCurrentDifficulty >= 2) {
-            LOGGER.info("Player struggled with {} quests, decreasing difficulty",
-                    questsFailedAtCurrentDifficulty);
-            decreaseDifficulty();
-            questsFailedAtCurrentDifficulty = 0;
+        // If player is struggling with quests, difficulty goes down on its own
+        if (difficulty().recordFailure()) {
+            LOGGER.debug("Player struggled with quests, decreased difficulty to level {}", difficulty().getLevel());
         }
     }
 
@@ -184,7 +204,7 @@ public class QuestGenerator {
      * @return The current difficulty level.
      */
     public static int getDifficultyLevel() {
-        return difficultyLevel;
+        return difficulty().getLevel();
     }
 
     /**
@@ -192,15 +212,46 @@ public class QuestGenerator {
      * @return The last QuestAction taken.
      */
     public static QuestAction getLastAction() {
-        return lastAction;
+        return difficulty().getLastAction();
+    }
+
+    private static State state() {
+        State state = threadState.get();
+        return state != null ? state : LIVE;
+    }
+
+    private static QuestDifficulty difficulty() {
+        return state().difficulty;
+    }
+
+    /**
+     * Gets a copy of the whole difficulty state, streaks and modifiers included.
+     * @return A copy of the current difficulty.
+     */
+    public static QuestDifficulty getDifficulty() {
+        return difficulty().copy();
+    }
+
+    /**
+     * Makes this thread generate against a state of its own, leaving the live server's untouched,
+     * or against the live one again with null. The state keeps whatever generation on this thread changes.
+     * @param state The state for this thread, or null for the live one.
+     */
+    public static void useState(State state) {
+        if (state == null) {
+            threadState.remove();
+        } else {
+            threadState.set(state);
+        }
     }
 
     /**
      * Generates a unique quest ID.
+     * @param random The random source to draw from.
      * @return A unique quest ID.
      */
-    private static String generateQuestId() {
-        return "quest_" + System.currentTimeMillis() + "_" + random.nextInt(1000);
+    private static String generateQuestId(Random random) {
+        return "quest_" + state().clock.currentTimeMillis() + "_" + random.nextInt(1000);
     }
 
     /**
@@ -224,139 +275,358 @@ public class QuestGenerator {
     }
 
     /**
-     * Scales a value based on the current difficulty level.
-     * @param min The minimum value.
-     * @param max The maximum value.
-     * @return A scaled value between min and max, adjusted by difficulty.
+     * Generates a random enemy kill quest with the specified difficulty.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @return A new enemy kill quest.
      */
-    private static int getScaledAmount(int min, int max) {
-        // Apply a smoother scaling that grows with difficulty but not too quickly
-        return min + (int)Math.ceil(random.nextInt(max) * (1 + (difficultyLevel - 1) * 0.5));
+    public static Quest generateRandomEnemyKillQuest(int difficultyFactor) {
+        return generateRandomEnemyKillQuest(difficultyFactor, random);
     }
 
     /**
      * Generates a random enemy kill quest with the specified difficulty.
      *
      * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
      * @return A new enemy kill quest.
      */
-    public static Quest generateRandomEnemyKillQuest(int difficultyFactor) {
-        // Select enemy type based on difficulty
-        String enemyId;
-        double difficultyRoll = random.nextDouble();
-
-        if (difficultyFactor > 4 && difficultyRoll < 0.3) {
-            // Very hard enemies at high difficulty
-            enemyId = VERY_HARD_ENEMY_TYPES.get(random.nextInt(VERY_HARD_ENEMY_TYPES.size()));
-            LOGGER.info("Selected very hard enemy: {}", enemyId);
-        } else if (difficultyFactor > 2 && difficultyRoll < 0.4) {
-            // Hard enemies at medium difficulty
-            enemyId = HARD_ENEMY_TYPES.get(random.nextInt(HARD_ENEMY_TYPES.size()));
-            LOGGER.info("Selected hard enemy: {}", enemyId);
+    public static Quest generateRandomEnemyKillQuest(int difficultyFactor, Random random) {
+        return instantiate(createKillTemplate(difficultyFactor, random), random);
+    }
+
+    /**
+     * Picks the enemy and base kill count for a kill quest, without any RL modifiers applied.
+     * Safe to call off the server thread.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return A kill quest template.
+     */
+    static Template createKillTemplate(int difficultyFactor, Random random) {
+        QuestTemplate template = QuestTemplates.kill(difficultyFactor, random);
+        return new Template(template, getEntityName(template.targetId));
+    }
+
+    /**
+     * Generates a random item collection quest with the specified difficulty.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @return A new item collection quest.
+     */
+    public static Quest generateRandomItemCollectionQuest(int difficultyFactor) {
+        return generateRandomItemCollectionQuest(difficultyFactor, random);
+    }
+
+    /**
+     * Generates a random item collection quest with the specified difficulty.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return A new item collection quest.
+     */
+    public static Quest generateRandomItemCollectionQuest(int difficultyFactor, Random random) {
+        return instantiate(createItemTemplate(difficultyFactor, random), random);
+    }
+
+    /**
+     * Picks the item and base amount for a collection quest, without any RL modifiers applied.
+     * Safe to call off the server thread.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return An item collection quest template.
+     */
+    static Template createItemTemplate(int difficultyFactor, Random random) {
+        QuestTemplate template = QuestTemplates.item(difficultyFactor, random);
+        return new Template(template, getItemName(template.targetId));
+    }
+
+    /**
+     * Turns a template into a quest, applying the current RL requirement modifiers.
+     *
+     * @param template The template to build from.
+     * @param random The random source to draw the quest ID from.
+     * @return A new quest.
+     */
+    static Quest instantiate(Template template, Random random) {
+        int required = difficulty().requiredAmount(template.template);
+        String targetId = template.template.targetId;
+
+        if (template.template.questType == KILL_QUEST) {
+            String title = "Defeat " + required + " " + template.targetName;
+            LOGGER.debug("Generated kill quest: {}", title);
+            return new EnemyKillQuest(generateQuestId(random), title, targetId, required);
+        }
+        String title = "Collect " + required + " " + template.targetName;
+        LOGGER.debug("Generated collection quest: {}", title);
+        return new ItemCollectionQuest(generateQuestId(random), title, targetId, required);
+    }
+
+    /**
+     * Generate a random quest with a specific type and difficulty.
+     *
+     * @param questType The type of quest to generate (0 for enemy kill, 1 for item collection).
+     * @param difficultyFactor The difficulty factor to use.
+     * @return A new quest of the specified type.
+     */
+    public static Quest generateQuestByType(int questType, int difficultyFactor) {
+        return generateQuestByType(questType, difficultyFactor, random);
+    }
+
+    /**
+     * Generate a random quest with a specific type and difficulty.
+     *
+     * @param questType The type of quest to generate (0 for enemy kill, 1 for item collection).
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return A new quest of the specified type.
+     */
+    public static Quest generateQuestByType(int questType, int difficultyFactor, Random random) {
+        return generateQuestByType(questType, difficultyFactor, random, null);
+    }
+
+    /**
+     * Generate a random quest with a specific type and difficulty, taking a ready-made template
+     * from the pool when there is one.
+     *
+     * @param questType The type of quest to generate (0 for enemy kill, 1 for item collection).
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @param pool The template pool, or null to always generate on the spot.
+     * @return A new quest of the specified type.
+     */
+    public static Quest generateQuestByType(int questType, int difficultyFactor, Random random, QuestPool pool) {
+        Template template = pool != null ? pool.take(questType, difficultyFactor) : null;
+        if (template != null) {
+            return instantiate(template, random);
+        }
+        if (questType == 0) {
+            return generateRandomEnemyKillQuest(difficultyFactor, random);
         } else {
-            // Standard enemies
-            enemyId = ENEMY_TYPES.get(random.nextInt(ENEMY_TYPES.size()));
-            LOGGER.info("Selected standard enemy: {}", enemyId);
+            return generateRandomItemCollectionQuest(difficultyFactor, random);
         }
+    }
 
-        // Calculate required kills based on difficulty and RL modifiers
-        int baseRequiredKills = 1 + random.nextInt(3); // Base range: 1-3
-        int difficultyBonus = (int)(difficultyFactor * 0.7); // Smoother scaling
-        int requiredKills = baseRequiredKills + difficultyBonus + enemyRequirementModifier;
-
-        // Cap the required kills based on enemy difficulty
-        int cap = 15;
-        if (VERY_HARD_ENEMY_TYPES.contains(enemyId)) {
-            cap = 5; // Fewer required for very hard enemies
-        } else if (HARD_ENEMY_TYPES.contains(enemyId)) {
-            cap = 8; // Fewer required for hard enemies
+    /**
+     * Generates a quest to mine a block, or craft, smelt or fish up an item.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return A new activity quest.
+     */
+    public static Quest generateActivityQuest(int difficultyFactor, Random random) {
+        ActivityQuest.Activity activity = ActivityQuest.Activity.values()[random.nextInt(ActivityQuest.Activity.values().length)];
+        boolean hard = difficultyFactor > 2 && random.nextDouble() < 0.4;
+
+        List<String> targets;
+        int baseAmount;
+        switch (activity) {
+            case MINE -> {
+                targets = hard ? RARE_MINE_TYPES : MINE_TYPES;
+                baseAmount = 8;
+            }
+            case CRAFT -> {
+                targets = hard ? RARE_CRAFT_TYPES : CRAFT_TYPES;
+                baseAmount = 4;
+            }
+            case SMELT -> {
+                targets = hard ? RARE_SMELT_TYPES : SMELT_TYPES;
+                baseAmount = 6;
+            }
+            default -> {
+                targets = hard ? RARE_FISH_TYPES : FISH_TYPES;
+                baseAmount = 3;
+            }
         }
+        String targetId = targets.get(random.nextInt(targets.size()));
 
-        requiredKills = Math.min(requiredKills, cap);
+        // Rare targets take fewer of them; the item modifier applies since these are gathering quests
+        int amount = difficulty().scaledAmount(baseAmount, baseAmount, random);
+        if (hard) {
+            amount = Math.max(1, amount / 3);
+        }
+        amount = Math.max(1, Math.min(64, amount + difficulty().getItemRequirementModifier()));
 
-        // Ensure minimum of 1
-        requiredKills = Math.max(1, requiredKills);
+        String title = activity.getVerb() + " " + amount + " " + ActivityQuest.getTargetName(activity, targetId);
+        LOGGER.debug("Generated activity quest: {}", title);
+        return new ActivityQuest(generateQuestId(random), title, activity, targetId, amount);
+    }
 
-        String title = "Defeat " + requiredKills + " " + getEntityName(enemyId);
-        LOGGER.info("Generated kill quest: {}", title);
-        return new EnemyKillQuest(generateQuestId(), title, enemyId, requiredKills);
+    /**
+     * Generates a quest from a datapack definition offered at this difficulty.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return A new defined quest, or null if no definition is offered at this difficulty.
+     */
+    public static Quest generateDefinedQuest(int difficultyFactor, Random random) {
+        QuestDefinition definition = QuestDefinitions.pick(difficultyFactor, random);
+        if (definition == null) {
+            return null;
+        }
+        LOGGER.debug("Generated defined quest: {}", definition.getId());
+        return new DefinedQuest(generateQuestId(random), definition.getTitle(), definition, definition.getCount());
     }
 
     /**
-     * Generates a random item collection quest with the specified difficulty.
+     * Generates a quest to reach a place: a distant region, a biome or a structure.
+     * Biome and structure targets are only picked in the overworld.
      *
      * @param difficultyFactor The difficulty factor to use.
-     * @return A new item collection quest.
+     * @param level The level the player is in.
+     * @param origin Where the player is now; regions are placed relative to it.
+     * @param random The random source to draw from.
+     * @return A new exploration quest.
      */
-    public static Quest generateRandomItemCollectionQuest(int difficultyFactor) {
-        // Determine which items to request based on difficulty
-        String itemId;
-        double difficultyRoll = random.nextDouble();
-
-        if (difficultyFactor > 4 && difficultyRoll < 0.25) {
-            // Very rare items at high difficulty
-            itemId = VERY_RARE_ITEM_TYPES.get(random.nextInt(VERY_RARE_ITEM_TYPES.size()));
-            LOGGER.info("Selected very rare item: {}", itemId);
-        } else if (difficultyFactor > 2 && difficultyRoll < 0.4) {
-            // Rare items at medium difficulty
-            itemId = RARE_ITEM_TYPES.get(random.nextInt(RARE_ITEM_TYPES.size()));
-            LOGGER.info("Selected rare item: {}", itemId);
-        } else {
-            // Standard items
-            itemId = ITEM_TYPES.get(random.nextInt(ITEM_TYPES.size()));
-            LOGGER.info("Selected standard item: {}", itemId);
+    public static Quest generateExplorationQuest(int difficultyFactor, ServerLevel level, BlockPos origin, Random random) {
+        String id = generateQuestId(random);
+        boolean hard = difficultyFactor > 2 && random.nextDouble() < 0.4;
+
+        if (level.dimension() != Level.OVERWORLD || random.nextBoolean()) {
+            // Further out with difficulty, 3x3 sections wide and the full build height tall
+            int distance = Math.min(1000, 150 + 100 * difficultyFactor) + random.nextInt(100);
+            double angle = random.nextDouble() * Math.PI * 2;
+            SectionPos center = SectionPos.of(origin.offset((int) (Math.cos(angle) * distance), 0, (int) (Math.sin(angle) * distance)));
+            SectionPos min = SectionPos.of(center.x() - 1, level.getMinSection(), center.z() - 1);
+            SectionPos max = SectionPos.of(center.x() + 1, level.getMaxSection() - 1, center.z() + 1);
+
+            String title = "Explore: Travel " + distance + " Blocks";
+            LOGGER.info("Generated exploration quest: {}", title);
+            return ExplorationQuest.region(id, title, level.dimension(), min, max);
         }
 
-        // Calculate required items based on difficulty, rarity, and RL modifiers
-        int baseRequiredItems = 1 + random.nextInt(3); // Base range: 1-3
-
-        // Adjust based on item rarity
-        if (VERY_RARE_ITEM_TYPES.contains(itemId)) {
-            // Very rare items, require fewer
-            baseRequiredItems = 1;
-        } else if (RARE_ITEM_TYPES.contains(itemId)) {
-            // Rare items, require slightly fewer
-            baseRequiredItems = Math.max(1, baseRequiredItems - 1);
-        } else if (itemId.equals("minecraft:iron_ingot") || itemId.equals("minecraft:gold_ingot")) {
-            // Common items, require more
-            baseRequiredItems += 1;
+        if (random.nextBoolean()) {
+            List<String> biomes = hard ? RARE_BIOME_TYPES : BIOME_TYPES;
+            String biomeId = biomes.get(random.nextInt(biomes.size()));
+            String title = "Explore: Find a " + getResourceName(biomeId);
+            LOGGER.info("Generated exploration quest: {}", title);
+            return ExplorationQuest.biome(id, title, Level.OVERWORLD, biomeId);
         }
 
-        // Apply difficulty factor with smooth scaling
-        int difficultyBonus = (int)(difficultyFactor * 0.5);
-        int requiredItems = baseRequiredItems + difficultyBonus + itemRequirementModifier;
+        List<String> structures = hard ? RARE_STRUCTURE_TYPES : STRUCTURE_TYPES;
+        String structureId = structures.get(random.nextInt(structures.size()));
+        String title = "Explore: Find a " + getResourceName(structureId);
+        LOGGER.info("Generated exploration quest: {}", title);
+        return ExplorationQuest.structure(id, title, Level.OVERWORLD, structureId);
+    }
 
-        // Cap the required items based on item rarity
-        int cap = 10;
-        if (VERY_RARE_ITEM_TYPES.contains(itemId)) {
-            cap = 2; // Very few for extremely rare items
-        } else if (RARE_ITEM_TYPES.contains(itemId)) {
-            cap = 5; // Fewer for rare items
+    /**
+     * Turns a resource id like minecraft:ice_spikes into Ice Spikes.
+     * @param resourceId The resource ID.
+     * @return A display name for the resource.
+     */
+    private static String getResourceName(String resourceId) {
+        StringBuilder name = new StringBuilder();
+        for (String word : new ResourceLocation(resourceId).getPath().split("_")) {
+            if (!word.isEmpty()) {
+                name.append(name.length() > 0 ? " " : "").append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+            }
         }
+        return name.toString();
+    }
 
-        requiredItems = Math.min(requiredItems, cap);
-
-        // Ensure minimum of 1
-        requiredItems = Math.max(1, requiredItems);
+    /**
+     * Generates a chain of objectives that must be finished in order, alternating kills and collection.
+     *
+     * @param difficultyFactor The difficulty factor to use for every step.
+     * @param steps The number of steps in the chain.
+     * @param random The random source to draw from.
+     * @return A new sequence quest.
+     */
+    public static Quest generateQuestChain(int difficultyFactor, int steps, Random random) {
+        CompositeQuest.Builder builder = CompositeQuest.builder(generateQuestId(random), steps + "-Step Quest Chain");
+        int[] children = new int[steps];
+        int questType = random.nextInt(2);
+        for (int i = 0; i < steps; i++) {
+            children[i] = builder.leaf(generateQuestByType(questType, difficultyFactor, random));
+            questType = 1 - questType;
+        }
+        builder.sequence(children);
+        LOGGER.debug("Generated {}-step quest chain", steps);
+        return builder.build();
+    }
 
-        String title = "Collect " + requiredItems + " " + getItemName(itemId);
-        LOGGER.info("Generated collection quest: {}", title);
-        return new ItemCollectionQuest(generateQuestId(), title, itemId, requiredItems);
+    /**
+     * Generates a chain whose length grows with the difficulty factor.
+     *
+     * @param difficultyFactor The difficulty factor to use for every step and for the length.
+     * @param random The random source to draw from.
+     * @return A new sequence quest.
+     */
+    public static Quest generateQuestChain(int difficultyFactor, Random random) {
+        return generateQuestChain(difficultyFactor, Math.min(MAX_CHAIN_STEPS, 2 + difficultyFactor / 2), random);
     }
 
     /**
-     * Generate a random quest with a specific type and difficulty.
+     * Generates a quest with several objectives: either all of a kill and a collection objective,
+     * or any one of two kill objectives.
      *
-     * @param questType The type of quest to generate (0 for enemy kill, 1 for item collection).
      * @param difficultyFactor The difficulty factor to use.
-     * @return A new quest of the specified type.
+     * @param random The random source to draw from.
+     * @return A new composite quest.
      */
-    public static Quest generateQuestByType(int questType, int difficultyFactor) {
-        if (questType == 0) {
-            return generateRandomEnemyKillQuest(difficultyFactor);
+    public static Quest generateCompositeQuest(int difficultyFactor, Random random) {
+        CompositeQuest.Builder builder;
+        if (random.nextBoolean()) {
+            builder = CompositeQuest.builder(generateQuestId(random), "Hunter and Gatherer");
+            builder.all(builder.leaf(generateRandomEnemyKillQuest(difficultyFactor, random)),
+                    builder.leaf(generateRandomItemCollectionQuest(difficultyFactor, random)));
         } else {
-            return generateRandomItemCollectionQuest(difficultyFactor);
+            builder = CompositeQuest.builder(generateQuestId(random), "Pick Your Prey");
+            builder.any(builder.leaf(generateRandomEnemyKillQuest(difficultyFactor, random)),
+                    builder.leaf(generateRandomEnemyKillQuest(difficultyFactor, random)));
         }
+        return builder.build();
+    }
+
+    /**
+     * Generates a kill quest shared by a party, scaled by the number of members.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param partySize The number of players in the party.
+     * @param random The random source to draw from.
+     * @return A new party quest.
+     */
+    public static PartyQuest generatePartyQuest(int difficultyFactor, int partySize, Random random) {
+        String enemyId = difficultyFactor > 2 && random.nextDouble() < 0.4
+                ? QuestTemplates.HARD_ENEMY_TYPES.get(random.nextInt(QuestTemplates.HARD_ENEMY_TYPES.size()))
+                : QuestTemplates.ENEMY_TYPES.get(random.nextInt(QuestTemplates.ENEMY_TYPES.size()));
+
+        // Each member should pull roughly a solo quest's weight
+        int perMember = 3 + random.nextInt(3) + (int)(difficultyFactor * 0.7) + difficulty().getEnemyRequirementModifier();
+        int requiredKills = Math.max(1, perMember * Math.max(1, partySize));
+
+        String title = "Party: Defeat " + requiredKills + " " + getEntityName(enemyId);
+        LOGGER.info("Generated party quest: {}", title);
+        return new PartyQuest(generateQuestId(random), title, enemyId, requiredKills);
+    }
+
+    /**
+     * Generates a server-wide kill quest.
+     *
+     * @param target The number of kills the server needs.
+     * @param leaderboardSize How many top contributors to rank.
+     * @param random The random source to draw from.
+     * @return A new community quest.
+     */
+    public static CommunityQuest generateCommunityQuest(long target, int leaderboardSize, Random random) {
+        String enemyId = QuestTemplates.ENEMY_TYPES.get(random.nextInt(QuestTemplates.ENEMY_TYPES.size()));
+        String title = "Community: Defeat " + target + " " + getEntityName(enemyId);
+        LOGGER.info("Generated community quest: {}", title);
+        return new CommunityQuest(generateQuestId(random), title, enemyId, target, leaderboardSize);
+    }
+
+    /**
+     * Generate a quest that follows from a completed quest, using RL to decide difficulty.
+     *
+     * @param completedQuest The quest that was just completed.
+     * @param gameState The current game state.
+     * @param rl The learner to use for decision making.
+     * @return A new quest appropriate for the player's progress.
+     */
+    public static Quest generateFollowUpQuest(Quest completedQuest, GameState gameState, QuestLearner rl) {
+        return generateFollowUpQuest(completedQuest, gameState, rl, random);
     }
 
     /**
@@ -364,27 +634,128 @@ public class QuestGenerator {
      *
      * @param completedQuest The quest that was just completed.
      * @param gameState The current game state.
-     * @param rl The QLearning instance to use for decision making.
+     * @param rl The learner to use for decision making.
+     * @param random The random source to draw from, shared with the RL exploration roll.
      * @return A new quest appropriate for the player's progress.
      */
-    public static Quest generateFollowUpQuest(Quest completedQuest, GameState gameState, QLearning rl) {
+    public static Quest generateFollowUpQuest(Quest completedQuest, GameState gameState, QuestLearner rl, Random random) {
+        return generateFollowUpQuest(completedQuest, gameState, rl, random, null);
+    }
+
+    /**
+     * Generate a quest that follows from a completed quest, using RL to decide difficulty.
+     *
+     * @param completedQuest The quest that was just completed.
+     * @param gameState The current game state.
+     * @param rl The learner to use for decision making.
+     * @param random The random source to draw from, shared with the RL exploration roll.
+     * @param pool The template pool, or null to always generate on the spot.
+     * @return A new quest appropriate for the player's progress.
+     */
+    public static Quest generateFollowUpQuest(Quest completedQuest, GameState gameState, QuestLearner rl, Random random,
+                                              QuestPool pool) {
+        return generateFollowUpQuest(completedQuest, gameState, rl, random, pool, null, null);
+    }
+
+    /**
+     * Generate a quest that follows from a completed quest, using RL to decide difficulty.
+     *
+     * @param completedQuest The quest that was just completed.
+     * @param gameState The current game state.
+     * @param rl The learner to use for decision making.
+     * @param random The random source to draw from, shared with the RL exploration roll.
+     * @param pool The template pool, or null to always generate on the spot.
+     * @param level The level the player is in, or null to never hand out an exploration quest.
+     * @param origin Where the player is now.
+     * @return A new quest appropriate for the player's progress.
+     */
+    public static Quest generateFollowUpQuest(Quest completedQuest, GameState gameState, QuestLearner rl, Random random,
+                                              QuestPool pool, ServerLevel level, BlockPos origin) {
         // Use RL to decide on the next action
-        QuestAction action = rl.chooseAction(gameState);
-        LOGGER.info("RL system chose action: {} for follow-up quest", action);
+        QuestAction action = rl.chooseAction(gameState, random);
+        LOGGER.debug("RL system chose action: {} for follow-up quest", action);
+        return generateFollowUpQuest(completedQuest, gameState, action, random, pool, level, origin);
+    }
 
+    /**
+     * Generate a quest that follows from a completed quest, with the difficulty action already decided.
+     *
+     * @param completedQuest The quest that was just completed.
+     * @param gameState The current game state.
+     * @param action The difficulty action to apply.
+     * @param random The random source to draw from.
+     * @param pool The template pool, or null to always generate on the spot.
+     * @param level The level the player is in, or null to never hand out an exploration quest.
+     * @param origin Where the player is now.
+     * @return A new quest appropriate for the player's progress.
+     */
+    public static Quest generateFollowUpQuest(Quest completedQuest, GameState gameState, QuestAction action, Random random,
+                                              QuestPool pool, ServerLevel level, BlockPos origin) {
         // Apply the action to adjust quest parameters
         applyRLAction(action);
 
         // Record the quest completion for adaptive difficulty
         recordQuestCompletion();
 
+        int difficultyLevel = difficulty().getLevel();
+
+        // Regularly offer several objectives instead of one, alternating chains and composite quests
+        if (!(completedQuest instanceof CompositeQuest) && gameState.getQuestsCompleted() > 0
+                && gameState.getQuestsCompleted() % CHAIN_INTERVAL == 0) {
+            if (gameState.getQuestsCompleted() / CHAIN_INTERVAL % 2 == 0) {
+                return generateCompositeQuest(difficultyLevel, random);
+            }
+            return generateQuestChain(difficultyLevel, random);
+        }
+
+        // Mix in datapack quests; no draw at all without definitions, so seeded sequences stay as they were
+        if (!(completedQuest instanceof DefinedQuest) && !QuestDefinitions.isEmpty()
+                && random.nextInt(DEFINED_QUEST_CHANCE) == 0) {
+            Quest defined = generateDefinedQuest(difficultyLevel, random);
+            if (defined != null) {
+                return defined;
+            }
+        }
+
         // Generate a quest of the opposite type from what was just completed
         if (completedQuest instanceof EnemyKillQuest) {
-            // Player completed a kill quest, give an item collection quest
-            return generateRandomItemCollectionQuest(difficultyLevel);
+            // Player completed a kill quest, give a gathering quest: mostly collection, sometimes an activity
+            if (random.nextInt(3) == 0) {
+                return generateActivityQuest(difficultyLevel, random);
+            }
+            return generateQuestByType(ITEM_QUEST, difficultyLevel, random, pool);
+        } else if (level != null && completedQuest instanceof ItemCollectionQuest && random.nextInt(3) == 0) {
+            // Every so often, send the player somewhere instead of straight back to fighting
+            return generateExplorationQuest(difficultyLevel, level, origin, random);
         } else {
             // Player completed an item quest, give a kill quest
-            return generateRandomEnemyKillQuest(difficultyLevel);
+            return generateQuestByType(KILL_QUEST, difficultyLevel, random, pool);
+        }
+    }
+
+    /**
+     * A quest template with its target's display name, looked up once when the template is made
+     */
+    static final class Template {
+        final QuestTemplate template;
+        final String targetName;
+
+        private Template(QuestTemplate template, String targetName) {
+            this.template = template;
+            this.targetName = targetName;
+        }
+    }
+
+    /**
+     * The difficulty quests are generated at and the clock their IDs are stamped with
+     */
+    public static final class State {
+        private final QuestDifficulty difficulty;
+        private final QuestClock clock;
+
+        public State(QuestDifficulty difficulty, QuestClock clock) {
+            this.difficulty = difficulty;
+            this.clock = clock;
         }
     }
 }
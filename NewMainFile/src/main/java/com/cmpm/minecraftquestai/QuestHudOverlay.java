@@ -0,0 +1,63 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.client.gui.overlay.IGuiOverlay;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Draws the player's active quests in the top-left corner of the screen
+ */
+@Mod.EventBusSubscriber(modid = MinecraftQuestAI.MODID, value = Dist.CLIENT)
+public class QuestHudOverlay {
+    private static final int MARGIN = 4;
+    private static final int TITLE_COLOR = 0xFFAA00;
+    private static final int QUEST_COLOR = 0xFFFFFF;
+    private static final int READY_COLOR = 0x55FF55;
+
+    public static final IGuiOverlay HUD = (gui, graphics, partialTick, width, height) -> {
+        Minecraft minecraft = Minecraft.getInstance();
+        if (minecraft.options.hideGui || minecraft.player == null || ClientQuestState.getQuests().isEmpty()) {
+            return;
+        }
+
+        Font font = minecraft.font;
+        int y = MARGIN;
+        graphics.drawString(font, "Quests", MARGIN, y, TITLE_COLOR);
+        y += font.lineHeight + 2;
+
+        for (ClientQuestState.Entry entry : ClientQuestState.getQuests()) {
+            // Item quests are counted here so the server never has to send inventory changes
+            int progress = entry.itemQuest ? countItems(minecraft.player.getInventory(), entry.getItem()) : entry.progress;
+            boolean ready = entry.completed || progress >= entry.required;
+            String line = entry.title + ": " + Math.min(progress, entry.required) + "/" + entry.required;
+            graphics.drawString(font, line, MARGIN, y, ready ? READY_COLOR : QUEST_COLOR);
+            y += font.lineHeight + 1;
+        }
+    };
+
+    private static int countItems(Inventory inventory, Item item) {
+        if (item == null) {
+            return 0;
+        }
+        // Same slots ItemCollectionQuest counts on the server
+        int count = 0;
+        for (ItemStack stack : inventory.items) {
+            if (!stack.isEmpty() && stack.getItem() == item) {
+                count += stack.getCount();
+            }
+        }
+        return count;
+    }
+
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        ClientQuestState.clear();
+    }
+}
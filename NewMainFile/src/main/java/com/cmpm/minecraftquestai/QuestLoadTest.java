@@ -0,0 +1,367 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTemplates;
+import com.mojang.authlib.GameProfile;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTestGenerator;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.gametest.framework.TestFunction;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.common.util.FakePlayerFactory;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * GameTest load suite: hundreds of fake players with active quests, driven at configurable rates.
+ *
+ * Each player count runs as its own test. Players log in through the real login event, then every
+ * tick some of them kill a mob (a posted {@link LivingDeathEvent}, so every subscriber runs), pick up
+ * an item, or use the quest block. Only the mod's handlers are timed: kills and block uses, not the
+ * inventory inserts that stand in for pickups, since item quests read the inventory when the block
+ * is used. MSPT is also sampled over an idle baseline and over the load, which additionally catches
+ * the per-tick deadline and sync work.
+ *
+ * Run with ./gradlew runGameTestServer. Settings are system properties, which the build passes on
+ * from -Pquestai.loadTest.*:
+ * <ul>
+ *     <li>{@code players}: comma-separated player counts, one test each (50,100,200,400)</li>
+ *     <li>{@code killsPerSecond}, {@code pickupsPerSecond}, {@code blockUsesPerSecond}: per player (0.5, 0.5, 0.2)</li>
+ *     <li>{@code ticks}: measured ticks per run (400)</li>
+ *     <li>{@code budgetMs}: the mod's p99 time per tick that fails a run (5)</li>
+ *     <li>{@code guardPlayers}: runs up to this many players fail the suite when over budget; larger
+ *     ones only report (200)</li>
+ * </ul>
+ * Every run appends a row to questai-loadtest.csv in the server directory, to track the limit over time.
+ */
+@GameTestHolder(MinecraftQuestAI.MODID)
+public class QuestLoadTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestLoadTest.class);
+
+    private static final String TEMPLATE = MinecraftQuestAI.MODID + ":empty";
+    private static final String PROPERTY_PREFIX = "questai.loadTest.";
+    private static final String RESULTS_FILE = "questai-loadtest.csv";
+
+    // Loaded but unmeasured, so the JIT has settled, then idle to measure MSPT without the mod's handlers
+    private static final int WARMUP_TICKS = 100;
+    private static final int BASELINE_TICKS = 100;
+    // Share of kills and pickups that match one of the player's quests, so quests actually complete
+    private static final double ON_QUEST_CHANCE = 0.8;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @GameTestGenerator
+    public static List<TestFunction> loadTests() {
+        Settings settings = Settings.fromSystemProperties();
+        List<TestFunction> tests = new ArrayList<>();
+        for (int players : settings.playerCounts) {
+            String name = "questai_load_" + players;
+            // A batch per player count, so runs do not overlap and skew each other's tick times
+            tests.add(new TestFunction(name, name, TEMPLATE, settings.totalTicks() + 20, 0,
+                    players <= settings.guardPlayers, helper -> new LoadRun(helper, settings, players).start()));
+        }
+        return tests;
+    }
+
+    /**
+     * Allocated bytes of the current thread, or 0 where the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        return THREADS.isThreadAllocatedMemorySupported() ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * One run at a fixed player count
+     */
+    private static final class LoadRun {
+        private final GameTestHelper helper;
+        private final Settings settings;
+        private final int playerCount;
+        private final Random random;
+        private final FakePlayer[] players;
+        // Stand-ins for killed mobs, never added to the level
+        private final Map<EntityType<?>, LivingEntity> victims = new HashMap<>();
+
+        // Indexed by tick; the MSPT sample taken at a tick is for the tick before it
+        private final long[] tickTimes;
+        private final long[] modNanos;
+        private final long[] modBytes;
+
+        private BlockState blockState;
+        private BlockHitResult blockHit;
+        private double killBudget;
+        private double pickupBudget;
+        private double useBudget;
+        private long kills;
+        private long pickups;
+        private long blockUses;
+        private int tick;
+
+        private LoadRun(GameTestHelper helper, Settings settings, int playerCount) {
+            this.helper = helper;
+            this.settings = settings;
+            this.playerCount = playerCount;
+            this.random = new Random(playerCount);
+            this.players = new FakePlayer[playerCount];
+            this.tickTimes = new long[settings.totalTicks() + 1];
+            this.modNanos = new long[settings.loadTicks];
+            this.modBytes = new long[settings.loadTicks];
+        }
+
+        private void start() {
+            ServerLevel level = helper.getLevel();
+            BlockPos relativePos = new BlockPos(1, 1, 1);
+            helper.setBlock(relativePos, MinecraftQuestAI.QUEST_BLOCK.get());
+            BlockPos blockPos = helper.absolutePos(relativePos);
+            blockState = level.getBlockState(blockPos);
+            blockHit = new BlockHitResult(Vec3.atCenterOf(blockPos), Direction.UP, blockPos, false);
+
+            Vec3 standAt = Vec3.atBottomCenterOf(blockPos.above());
+            for (int i = 0; i < playerCount; i++) {
+                UUID id = UUID.nameUUIDFromBytes((PROPERTY_PREFIX + i).getBytes(StandardCharsets.UTF_8));
+                FakePlayer player = FakePlayerFactory.get(level, new GameProfile(id, "load_" + i));
+                // Fake players are cached by Forge, so clear anything left over from a previous run
+                player.getInventory().clearContent();
+                player.getPersistentData().remove(MinecraftQuestAI.MODID + "_questData");
+                player.setPos(standAt.x, standAt.y, standAt.z);
+
+                // Log in the way a real player does, so sessions, deadlines and sync state exist
+                MinecraftForge.EVENT_BUS.post(new PlayerEvent.PlayerLoggedInEvent(player));
+                MinecraftQuestAI.questManager.initializePlayerQuests(player);
+                players[i] = player;
+            }
+
+            helper.onEachTick(this::tick);
+        }
+
+        private void tick() {
+            int t = tick++;
+            MinecraftServer server = helper.getLevel().getServer();
+            tickTimes[t] = server.tickTimes[(server.getTickCount() + 99) % 100];
+
+            int loadStart = WARMUP_TICKS + BASELINE_TICKS;
+            if (t < WARMUP_TICKS) {
+                drive(-1);
+            } else if (t >= loadStart && t < settings.totalTicks()) {
+                drive(t - loadStart);
+            } else if (t == settings.totalTicks()) {
+                finish(server);
+            }
+        }
+
+        /**
+         * Generate this tick's share of each action and time the mod's part of it
+         *
+         * @param index Index into the measurements, or -1 to leave this tick unmeasured
+         */
+        private void drive(int index) {
+            ServerLevel level = helper.getLevel();
+            long nanos = 0;
+            long bytes = 0;
+
+            pickupBudget += playerCount * settings.pickupsPerSecond / 20;
+            for (; pickupBudget >= 1; pickupBudget--) {
+                FakePlayer player = players[random.nextInt(playerCount)];
+                Item item = ForgeRegistries.ITEMS.getValue(new ResourceLocation(pickTarget(player, false)));
+                if (item != null && !player.getInventory().add(new ItemStack(item))) {
+                    player.getInventory().clearContent();
+                }
+                pickups++;
+            }
+
+            killBudget += playerCount * settings.killsPerSecond / 20;
+            for (; killBudget >= 1; killBudget--) {
+                FakePlayer player = players[random.nextInt(playerCount)];
+                EntityType<?> type = ForgeRegistries.ENTITY_TYPES.getValue(new ResourceLocation(pickTarget(player, true)));
+                LivingEntity victim = type != null ? victim(level, type) : null;
+                if (victim == null) {
+                    continue;
+                }
+                LivingDeathEvent event = new LivingDeathEvent(victim, player.damageSources().playerAttack(player));
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                MinecraftForge.EVENT_BUS.post(event);
+                nanos += System.nanoTime() - start;
+                bytes += allocatedBytes() - allocated;
+                kills++;
+            }
+
+            useBudget += playerCount * settings.blockUsesPerSecond / 20;
+            for (; useBudget >= 1; useBudget--) {
+                FakePlayer player = players[random.nextInt(playerCount)];
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                blockState.use(level, player, InteractionHand.MAIN_HAND, blockHit);
+                nanos += System.nanoTime() - start;
+                bytes += allocatedBytes() - allocated;
+                blockUses++;
+            }
+
+            if (index >= 0) {
+                modNanos[index] = nanos;
+                modBytes[index] = bytes;
+            }
+        }
+
+        /**
+         * Usually the target of one of the player's quests, otherwise a random standard target
+         */
+        private String pickTarget(FakePlayer player, boolean kill) {
+            if (random.nextDouble() < ON_QUEST_CHANCE) {
+                for (Quest quest : MinecraftQuestAI.questManager.getQuestsForPlayer(player)) {
+                    if (kill && quest instanceof EnemyKillQuest killQuest) {
+                        return killQuest.getEntityId();
+                    } else if (!kill && quest instanceof ItemCollectionQuest itemQuest) {
+                        return itemQuest.getItemId();
+                    }
+                }
+            }
+            List<String> targets = kill ? QuestTemplates.ENEMY_TYPES : QuestTemplates.ITEM_TYPES;
+            return targets.get(random.nextInt(targets.size()));
+        }
+
+        private LivingEntity victim(ServerLevel level, EntityType<?> type) {
+            return victims.computeIfAbsent(type, k -> {
+                Entity entity = k.create(level);
+                return entity instanceof LivingEntity living ? living : null;
+            });
+        }
+
+        private void finish(MinecraftServer server) {
+            for (FakePlayer player : players) {
+                MinecraftForge.EVENT_BUS.post(new PlayerEvent.PlayerLoggedOutEvent(player));
+            }
+
+            int loadStart = WARMUP_TICKS + BASELINE_TICKS;
+            double baselineMspt = meanMillis(tickTimes, WARMUP_TICKS + 1, loadStart + 1);
+            double loadMspt = meanMillis(tickTimes, loadStart + 1, settings.totalTicks() + 1);
+            long[] sorted = modNanos.clone();
+            Arrays.sort(sorted);
+            double p50 = percentile(sorted, 0.50) / 1e6;
+            double p99 = percentile(sorted, 0.99) / 1e6;
+            double max = sorted[sorted.length - 1] / 1e6;
+            double kbPerTick = Arrays.stream(modBytes).average().orElse(0) / 1024;
+
+            String summary = String.format("%d players: mod p50 %.3f ms, p99 %.3f ms, max %.3f ms, %.1f KB per tick; "
+                            + "MSPT %.2f idle, %.2f loaded; %d kills, %d pickups, %d block uses",
+                    playerCount, p50, p99, max, kbPerTick, baselineMspt, loadMspt, kills, pickups, blockUses);
+            LOGGER.info("Quest load test: {}", summary);
+            appendResult(server, p50, p99, max, kbPerTick, baselineMspt, loadMspt);
+
+            if (p99 > settings.budgetMs) {
+                helper.fail(String.format("Quest handlers take %.3f ms p99 per tick, over the %.1f ms budget (%s)",
+                        p99, settings.budgetMs, summary));
+            }
+            helper.succeed();
+        }
+
+        private void appendResult(MinecraftServer server, double p50, double p99, double max, double kbPerTick,
+                                  double baselineMspt, double loadMspt) {
+            Path file = server.getServerDirectory().toPath().resolve(RESULTS_FILE);
+            String row = String.format("%d,%d,%.2f,%.2f,%.2f,%d,%.4f,%.4f,%.4f,%.2f,%.3f,%.3f%n",
+                    System.currentTimeMillis(), playerCount, settings.killsPerSecond, settings.pickupsPerSecond,
+                    settings.blockUsesPerSecond, settings.loadTicks, p50, p99, max, kbPerTick, baselineMspt, loadMspt);
+            try {
+                if (!Files.exists(file)) {
+                    Files.writeString(file, "time,players,kills_per_s,pickups_per_s,block_uses_per_s,ticks,"
+                            + "mod_p50_ms,mod_p99_ms,mod_max_ms,mod_kb_per_tick,mspt_idle,mspt_loaded\n");
+                }
+                Files.writeString(file, row, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                LOGGER.warn("Could not append quest load test results to {}", file, e);
+            }
+        }
+    }
+
+    private static double meanMillis(long[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return to > from ? sum / 1e6 / (to - from) : 0;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    /**
+     * Load test settings, read from questai.loadTest.* system properties
+     */
+    private static final class Settings {
+        private final int[] playerCounts;
+        private final double killsPerSecond;
+        private final double pickupsPerSecond;
+        private final double blockUsesPerSecond;
+        private final int loadTicks;
+        private final double budgetMs;
+        private final int guardPlayers;
+
+        private Settings(int[] playerCounts, double killsPerSecond, double pickupsPerSecond, double blockUsesPerSecond,
+                         int loadTicks, double budgetMs, int guardPlayers) {
+            this.playerCounts = playerCounts;
+            this.killsPerSecond = killsPerSecond;
+            this.pickupsPerSecond = pickupsPerSecond;
+            this.blockUsesPerSecond = blockUsesPerSecond;
+            this.loadTicks = loadTicks;
+            this.budgetMs = budgetMs;
+            this.guardPlayers = guardPlayers;
+        }
+
+        private static Settings fromSystemProperties() {
+            int[] playerCounts = Arrays.stream(property("players", "50,100,200,400").split(","))
+                    .map(String::trim)
+                    .filter(value -> !value.isEmpty())
+                    .mapToInt(Integer::parseInt)
+                    .filter(count -> count > 0)
+                    .toArray();
+            return new Settings(playerCounts,
+                    Double.parseDouble(property("killsPerSecond", "0.5")),
+                    Double.parseDouble(property("pickupsPerSecond", "0.5")),
+                    Double.parseDouble(property("blockUsesPerSecond", "0.2")),
+                    Math.max(1, Integer.parseInt(property("ticks", "400"))),
+                    Double.parseDouble(property("budgetMs", "5")),
+                    Integer.parseInt(property("guardPlayers", "200")));
+        }
+
+        private static String property(String name, String defaultValue) {
+            return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+        }
+
+        private int totalTicks() {
+            return WARMUP_TICKS + BASELINE_TICKS + loadTicks;
+        }
+    }
+}
@@ -1,14 +1,36 @@
 package com.cmpm.minecraftquestai;
 
+import com.cmpm.minecraftquestai.core.GameState;
+import com.cmpm.minecraftquestai.core.QLearning;
+import com.cmpm.minecraftquestai.core.QuestAction;
+import com.cmpm.minecraftquestai.core.QuestDecision;
+import com.cmpm.minecraftquestai.core.QuestLearner;
+import com.cmpm.minecraftquestai.core.QuestRecord;
+import com.cmpm.minecraftquestai.core.QuestRewards;
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.core.SectionPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.stats.Stats;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.storage.LevelResource;
+import net.minecraftforge.event.entity.player.PlayerNegotiationEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,21 +41,65 @@ public class QuestManager {
 
     // Quest storage
     private final List<Quest> globalQuests = new ArrayList<>();
-    private final Map<UUID, List<Quest>> playerQuests = new HashMap<>();
+
+    // Per-player quests, RL state, cooldowns, views and deadlines, evicted after logout
+    private final PlayerSessionCache sessions = new PlayerSessionCache();
 
     // Performance tracking
     private final PlayerStats playerStats = new PlayerStats();
 
     // RL and game state tracking
-    private final QLearning qLearning = new QLearning();
-    private final Map<UUID, GameState> playerGameStates = new HashMap<>();
+    private QuestLearner learner = new QLearning();
+
+    // Parties and their shared quests
+    private final QuestParties parties;
+
+    // The server-wide community quest
+    private final CommunityQuests communityQuests;
+
+    // Loaded quest blocks by dimension
+    private final QuestBlockIndex questBlockIndex = new QuestBlockIndex();
+
+    // Active exploration quests by the chunk sections that complete them
+    private final ExplorationIndex explorationIndex = new ExplorationIndex();
+
+    // Which activities each player's quests listen for
+    private final QuestEventDispatcher eventDispatcher = new QuestEventDispatcher();
+    // Refilled for every event routed to defined quests; server thread only
+    private final QuestTrigger trigger = new QuestTrigger();
+
+    // Quest changes waiting to be sent to clients
+    private final QuestSync questSync = new QuestSync();
+
+    // Rate limiting
+    private final QuestRateLimiter rateLimiter;
+
+    // Injectable time and randomness so sessions can be replayed
+    private final QuestClock clock;
+    private final QuestRandomSources randomSources;
+
+    // Session recording, null when not recording
+    private SessionJournal sessionJournal;
+
+    // Crash-safe progress journal, null until the server has started
+    private ProgressJournal progressJournal;
 
-    // Quest data persistence
-    private final Map<UUID, PlayerQuestData> playerQuestData = new HashMap<>();
+    // Pre-generated quest templates, null when quests are generated on the spot (e.g. replays)
+    private QuestPool questPool;
 
-    // Cooldown and timing
-    private final Map<UUID, Long> questGenerationCooldowns = new HashMap<>();
-    private static final long QUEST_GENERATION_COOLDOWN_MS = 5000; // 5 seconds for testing
+    // Quest data in the world folder, null when it lives in player NBT (e.g. replays)
+    private QuestStore questStore;
+    private static final String QUEST_DATA_KEY = MinecraftQuestAI.MODID + "_questData";
+
+    // Training telemetry, null when not recording
+    private QuestTelemetry telemetry;
+
+    // Quest deadlines, one wheel slot per second of online play
+    private static final int DEADLINE_TICK_INTERVAL = 20; // server ticks per wheel tick
+    private static final long QUEST_BASE_DURATION_SECONDS = 20 * 60; // 20 minutes
+    private static final long QUEST_DURATION_PER_UNIT_SECONDS = 60; // plus a minute per required kill or item
+    private final TimingWheel<QuestDeadline> questDeadlines = new TimingWheel<>(1024);
+    private long serverTicks;
 
     // List of hostile mob types to track for statistics
     private static final List<EntityType<?>> HOSTILE_MOBS = List.of(
@@ -42,12 +108,120 @@ public class QuestManager {
     );
 
     public QuestManager() {
+        this(QuestClock.SYSTEM, new Random().nextLong());
+    }
+
+    public QuestManager(QuestClock clock, long sessionSeed) {
+        this.clock = clock;
+        this.randomSources = new QuestRandomSources(sessionSeed);
+        this.rateLimiter = new QuestRateLimiter(clock);
+        this.parties = new QuestParties(randomSources);
+        this.communityQuests = new CommunityQuests(new Random(sessionSeed ^ 0x636F6D6DL));
+
         // Initialize with default quests
-        globalQuests.add(QuestGenerator.generateRandomEnemyKillQuest(1));
-        globalQuests.add(QuestGenerator.generateRandomItemCollectionQuest(1));
+        Random globalRandom = new Random(sessionSeed);
+        globalQuests.add(QuestGenerator.generateRandomEnemyKillQuest(1, globalRandom));
+        globalQuests.add(QuestGenerator.generateRandomItemCollectionQuest(1, globalRandom));
         LOGGER.info("QuestManager initialized with {} default quests", globalQuests.size());
     }
 
+    /**
+     * Get the clock this manager reads time from
+     */
+    public QuestClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Get the seed every per-player random source is derived from
+     */
+    public long getSessionSeed() {
+        return randomSources.getSessionSeed();
+    }
+
+    public QuestParties getParties() {
+        return parties;
+    }
+
+    public CommunityQuests getCommunityQuests() {
+        return communityQuests;
+    }
+
+    public QuestBlockIndex getQuestBlockIndex() {
+        return questBlockIndex;
+    }
+
+    public ExplorationIndex getExplorationIndex() {
+        return explorationIndex;
+    }
+
+    public QuestEventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
+    /**
+     * Get the active session journal, or null when sessions are not being recorded
+     */
+    public SessionJournal getSessionJournal() {
+        return sessionJournal;
+    }
+
+    public void setSessionJournal(SessionJournal sessionJournal) {
+        this.sessionJournal = sessionJournal;
+    }
+
+    /**
+     * Get the progress journal, or null when none is open
+     */
+    public ProgressJournal getProgressJournal() {
+        return progressJournal;
+    }
+
+    public void setProgressJournal(ProgressJournal progressJournal) {
+        this.progressJournal = progressJournal;
+    }
+
+    /**
+     * Get the quest template pool, or null when none is running
+     */
+    public QuestPool getQuestPool() {
+        return questPool;
+    }
+
+    public QuestStore getQuestStore() {
+        return questStore;
+    }
+
+    /**
+     * Get the training telemetry writer, or null when not recording
+     */
+    public QuestTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    public void setTelemetry(QuestTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    public void setQuestStore(QuestStore questStore) {
+        this.questStore = questStore;
+    }
+
+    public QuestLearner getLearner() {
+        return learner;
+    }
+
+    /**
+     * Swap the difficulty learner; what the old one learned is not carried over
+     */
+    public void setLearner(QuestLearner learner) {
+        this.learner = learner;
+    }
+
+    public void setQuestPool(QuestPool questPool) {
+        this.questPool = questPool;
+    }
+
     /**
      * Register a new global quest
      */
@@ -64,13 +238,15 @@ public class QuestManager {
     public List<Quest> getQuestsForPlayer(Player player) {
         UUID playerUUID = player.getUUID();
         // Initialize player quests if not present
-        if (!playerQuests.containsKey(playerUUID) || playerQuests.get(playerUUID).isEmpty()) {
+        PlayerSession session = sessions.get(playerUUID);
+        if (session == null || session.quests.isEmpty()) {
             LOGGER.info("Initializing quests for player: {}", player.getName().getString());
             if (player instanceof ServerPlayer serverPlayer) {
                 initializePlayerQuests(serverPlayer);
             }
+            session = sessions.get(playerUUID);
         }
-        return playerQuests.getOrDefault(playerUUID, new ArrayList<>());
+        return session != null ? session.quests : new ArrayList<>();
     }
 
     /**
@@ -85,27 +261,33 @@ public class QuestManager {
      */
     public void initializePlayerQuests(ServerPlayer player) {
         UUID playerUUID = player.getUUID();
-        if (!playerQuests.containsKey(playerUUID) || playerQuests.get(playerUUID).isEmpty()) {
+        PlayerSession session = sessions.getOrCreate(playerUUID);
+        if (session.quests.isEmpty()) {
             List<Quest> newPlayerQuests = new ArrayList<>();
+            Random random = randomSources.forPlayer(playerUUID);
 
             // Add an enemy kill quest
-            Quest killQuest = QuestGenerator.generateRandomEnemyKillQuest(1);
+            Quest killQuest = QuestGenerator.generateRandomEnemyKillQuest(1, random);
             newPlayerQuests.add(killQuest);
             LOGGER.info("Created kill quest for {}: {}", player.getName().getString(), killQuest.getTitle());
 
             // Add an item collection quest
-            Quest itemQuest = QuestGenerator.generateRandomItemCollectionQuest(1);
+            Quest itemQuest = QuestGenerator.generateRandomItemCollectionQuest(1, random);
             newPlayerQuests.add(itemQuest);
             LOGGER.info("Created item quest for {}: {}", player.getName().getString(), itemQuest.getTitle());
 
             // Store the quests for this player
-            playerQuests.put(playerUUID, newPlayerQuests);
+            session.quests = newPlayerQuests;
+            recordAssign(playerUUID, killQuest);
+            recordAssign(playerUUID, itemQuest);
+            activateQuest(playerUUID, killQuest);
+            activateQuest(playerUUID, itemQuest);
 
             // Initialize game state
-            playerGameStates.put(playerUUID, new GameState(0, 0, 0, (int)player.getHealth(), 1));
+            session.gameState = new GameState(0, 0, 0, (int)player.getHealth(), 1);
 
             // Reset cooldown so they can get new quests
-            questGenerationCooldowns.put(playerUUID, 0L);
+            session.lastQuestGeneration = 0L;
 
             LOGGER.info("Initialized {} quests for player {}", newPlayerQuests.size(), player.getName().getString());
         }
@@ -124,21 +306,40 @@ public class QuestManager {
         // Update game state after quest completion
         gameState.setQuestsCompleted(gameState.getQuestsCompleted() + 1);
         gameState.setMobsKilled(getTotalMobsKilled(player));
+        gameState.setPlayerHealth((int) player.getHealth());
+
+        // This completion is the real outcome of the previous decision, so that one is learned from now
+        PlayerSession session = sessions.getOrCreate(player.getUUID());
+        if (session.pendingDecision != null) {
+            session.pendingDecision.resolve(learner, player.getUUID(), gameState);
+            session.pendingDecision = null;
+        }
 
-        // Use RL to generate follow-up quest
-        Quest newQuest = QuestGenerator.generateFollowUpQuest(completedQuest, gameState, qLearning);
+        // Let the learner pick this player's difficulty action, then generate the follow-up quest
+        long generationStart = System.nanoTime();
+        Random random = randomSources.forPlayer(player.getUUID());
+        QuestAction action = learner.chooseAction(player.getUUID(), gameState, random);
+        Quest newQuest = QuestGenerator.generateFollowUpQuest(completedQuest, gameState, action,
+                random, questPool, player.serverLevel(), player.blockPosition());
+        long generationNanos = System.nanoTime() - generationStart;
 
         // Calculate reward for the RL system based on player performance
-        double reward = calculateReward(gameState, QuestGenerator.getLastAction());
+        double reward = QuestRewards.calculateReward(gameState, QuestGenerator.getLastAction());
+
+        // Carry the chosen difficulty forward; the rest of the state is observed at the next completion
+        GameState nextState = QuestRewards.simulateNextState(gameState, QuestGenerator.getLastAction());
 
-        // Simulate next state after action
-        GameState nextState = simulateNextState(gameState, QuestGenerator.getLastAction());
+        if (telemetry != null) {
+            telemetry.record(clock.currentTimeMillis(), player.getUUID(), QuestTelemetry.COMPLETED, gameState,
+                    QuestGenerator.getLastAction(), reward, nextState.getCurrentDifficultyLevel(),
+                    QuestTelemetry.questType(newQuest), newQuest.getRequiredAmount(), generationNanos);
+        }
 
-        // Update QL values
-        qLearning.updateQValue(gameState, QuestGenerator.getLastAction(), reward, nextState);
+        // Learned from once the player's next completion shows where it led
+        session.pendingDecision = new QuestDecision(gameState, QuestGenerator.getLastAction(), reward);
 
         // Update player's game state
-        playerGameStates.put(player.getUUID(), nextState);
+        session.gameState = nextState;
 
         return newQuest;
     }
@@ -147,8 +348,8 @@ public class QuestManager {
      * Get or create a game state for a player
      */
     private GameState getOrCreateGameState(ServerPlayer player) {
-        UUID playerUUID = player.getUUID();
-        GameState gameState = playerGameStates.get(playerUUID);
+        PlayerSession session = sessions.getOrCreate(player.getUUID());
+        GameState gameState = session.gameState;
 
         if (gameState == null) {
             // Create new game state based on player stats
@@ -161,96 +362,46 @@ public class QuestManager {
             gameState = new GameState(mobsKilled, itemsCollected, questsCompleted,
                     playerHealth, currentDifficultyLevel);
 
-            playerGameStates.put(playerUUID, gameState);
+            session.gameState = gameState;
         }
 
         return gameState;
     }
 
     /**
-     * Check if a player can receive new quests based on cooldown
+     * Check if a player can receive a new quest, spending a generation token if so
      */
     private boolean canGenerateQuestForPlayer(UUID playerUUID) {
-        long lastGeneration = questGenerationCooldowns.getOrDefault(playerUUID, 0L);
-        long currentTime = System.currentTimeMillis();
-        boolean canGenerate = currentTime - lastGeneration >= QUEST_GENERATION_COOLDOWN_MS;
+        boolean canGenerate = rateLimiter.tryGenerate(playerUUID);
 
-        LOGGER.debug("Quest generation cooldown check: lastGeneration={}, currentTime={}, canGenerate={}",
-                lastGeneration, currentTime, canGenerate);
+        LOGGER.debug("Quest generation rate check for player {}: canGenerate={}", playerUUID, canGenerate);
 
         return canGenerate;
     }
 
     /**
-     * Update quest generation cooldown
+     * Drop a player's rate limit state when they log out
      */
-    private void updateQuestGenerationCooldown(UUID playerUUID) {
-        long time = System.currentTimeMillis();
-        questGenerationCooldowns.put(playerUUID, time);
-        LOGGER.debug("Updated quest generation cooldown for player {} to {}", playerUUID, time);
+    public void forgetRateLimits(UUID playerUUID) {
+        rateLimiter.forget(playerUUID);
     }
 
     /**
-     * Calculate reward for RL system based on player performance
+     * Check if a player's quest block click should do real work, spending a click token if so
      */
-    private double calculateReward(GameState state, QuestAction action) {
-        double reward = 0.0;
-
-        // Base reward for completing a quest
-        reward += 1.0;
-
-        // If player has completed many quests at current difficulty, reward more
-        if (state.getQuestsCompleted() > 5 * state.getCurrentDifficultyLevel()) {
-            reward += 2.0; // Player is doing well at current difficulty
-        }
-
-        // If player health is low, penalize making things harder
-        if (state.getPlayerHealth() < 10) {
-            if (action == QuestAction.INCREASE_MOBS || action == QuestAction.INCREASE_ITEMS) {
-                reward -= 1.0;
-            }
-        }
-
-        // Reward system for finding the right difficulty
-        // Too easy (many quests completed quickly) should lead to increased difficulty
-        // Too hard (player health low, few quests completed) should reduce difficulty
-        if (state.getQuestsCompleted() > 10 * state.getCurrentDifficultyLevel()) {
-            // Too easy - reward increasing difficulty
-            if (action == QuestAction.INCREASE_MOBS || action == QuestAction.INCREASE_ITEMS) {
-                reward += 3.0;
-            }
-        } else if (state.getQuestsCompleted() < 3 * state.getCurrentDifficultyLevel()) {
-            // Too hard - reward decreasing difficulty
-            if (action == QuestAction.DECREASE_MOBS || action == QuestAction.DECREASE_ITEMS) {
-                reward += 3.0;
-            }
-        }
-
-        LOGGER.info("Calculated reward: {} for action: {}", reward, action);
-        return reward;
+    public boolean tryBlockUse(UUID playerUUID) {
+        return rateLimiter.tryBlockUse(playerUUID);
     }
 
     /**
-     * Simulate next game state after applying an action
+     * Update quest generation cooldown
      */
-    private GameState simulateNextState(GameState state, QuestAction action) {
-        int newDifficulty = state.getCurrentDifficultyLevel();
-
-        // Update difficulty based on action
-        if (action == QuestAction.INCREASE_MOBS || action == QuestAction.INCREASE_ITEMS) {
-            newDifficulty++;
-        } else if (action == QuestAction.DECREASE_MOBS || action == QuestAction.DECREASE_ITEMS) {
-            newDifficulty = Math.max(1, newDifficulty - 1);
-        }
-
-        // Create new state with updated values
-        return new GameState(
-                state.getMobsKilled(),
-                state.getItemsCollected(),
-                state.getQuestsCompleted() + 1,
-                state.getPlayerHealth(),
-                newDifficulty
-        );
+    private void updateQuestGenerationCooldown(UUID playerUUID) {
+        long time = clock.currentTimeMillis();
+        PlayerSession session = sessions.getOrCreate(playerUUID);
+        session.lastQuestGeneration = time;
+        session.dirty = true;
+        LOGGER.debug("Updated quest generation cooldown for player {} to {}", playerUUID, time);
     }
 
     /**
@@ -266,7 +417,8 @@ public class QuestManager {
      * Provide information about the current quest system state
      */
     public Component getQuestSystemInfo(Player player) {
-        GameState state = playerGameStates.get(player.getUUID());
+        PlayerSession session = sessions.get(player.getUUID());
+        GameState state = session != null ? session.gameState : null;
         if (state == null) {
             return Component.literal("[Quest System] ")
                     .withStyle(Style.EMPTY.withColor(0xFFAA00))
@@ -281,35 +433,58 @@ public class QuestManager {
                         .withStyle(Style.EMPTY.withColor(0xFFFFFF)));
     }
 
+    /**
+     * Record a quest block interaction, along with any change in quest item counts since the last one
+     */
+    public void recordBlockUse(ServerPlayer player) {
+        if (sessionJournal == null) {
+            return;
+        }
+        long time = clock.currentTimeMillis();
+        PlayerSession session = sessions.get(player.getUUID());
+        for (Quest quest : session != null ? session.quests : Collections.<Quest>emptyList()) {
+            if (quest instanceof ItemCollectionQuest itemQuest) {
+                sessionJournal.recordInventoryCount(time, player.getUUID(), itemQuest.getItemId(),
+                        itemQuest.getProgress(player));
+            }
+        }
+        sessionJournal.recordBlockUse(time, player.getUUID(), player.getHealth());
+    }
+
     /**
      * Check for completed quests and reward the player
      */
     public void checkAndRewardCompletedQuests(ServerPlayer player) {
+        checkAndRewardCompletedQuests(player, getQuestView(player));
+    }
+
+    /**
+     * Check for completed quests and reward the player, reading progress from an up-to-date view
+     */
+    public void checkAndRewardCompletedQuests(ServerPlayer player, PlayerQuestView view) {
         UUID playerUUID = player.getUUID();
-        LOGGER.info("Checking for completed quests for player: {}", player.getName().getString());
 
-        // Get player's quest list, initialize if not present
-        List<Quest> playerQuestList = playerQuests.computeIfAbsent(playerUUID, k -> new ArrayList<>());
-        if (playerQuestList.isEmpty()) {
-            LOGGER.info("Player had no quests, initializing...");
-            initializePlayerQuests(player);
-            playerQuestList = playerQuests.get(playerUUID);
+        // Nothing ready means nothing to do; the view already evaluated every quest
+        if (!view.hasReadyQuests()) {
+            LOGGER.debug("No completed quests found for player {}", player.getName().getString());
+            return;
         }
+        LOGGER.info("Checking for completed quests for player: {}", player.getName().getString());
 
         // Create copies of the lists to avoid concurrent modification
         List<Quest> completedQuests = new ArrayList<>();
         List<Quest> remainingQuests = new ArrayList<>();
 
         // First pass: check which quests are completed
-        for (Quest quest : playerQuestList) {
-            // Force a progress check
-            int progress = quest.getProgress(player);
-            int required = quest.getRequiredAmount();
+        for (PlayerQuestView.Entry entry : view.getEntries()) {
+            Quest quest = entry.quest;
+            int progress = entry.progress;
+            int required = entry.required;
 
             LOGGER.info("Quest check: '{}' - Progress: {}/{}, Completed: {}",
-                    quest.getTitle(), progress, required, quest.isCompleted(player));
+                    quest.getTitle(), progress, required, entry.completed);
 
-            if (quest.isCompleted(player)) {
+            if (entry.completed) {
                 // Already completed, track in completed list
                 completedQuests.add(quest);
                 LOGGER.info("Quest '{}' is already completed", quest.getTitle());
@@ -320,6 +495,7 @@ public class QuestManager {
                 // Reward the player
                 quest.reward(player);
                 playerStats.incrementQuestsCompleted();
+                recordProgress(player, quest);
 
                 // Add to completed list
                 completedQuests.add(quest);
@@ -345,9 +521,21 @@ public class QuestManager {
                     completedQuests.size(), player.getName().getString());
 
             // Generate new quests for each completed quest using RL
+            boolean deferred = false;
             for (Quest completedQuest : completedQuests) {
+                // Without a generation token the completed quest stays and is replaced on a later check
+                if (!canGenerateQuestForPlayer(playerUUID)) {
+                    remainingQuests.add(completedQuest);
+                    deferred = true;
+                    continue;
+                }
+
                 Quest newQuest = generateNewQuestAfterCompletion(player, completedQuest);
                 remainingQuests.add(newQuest);
+                recordRemove(playerUUID, completedQuest);
+                recordAssign(playerUUID, newQuest);
+                deactivateQuest(playerUUID, completedQuest);
+                activateQuest(playerUUID, newQuest);
 
                 // Notify player about difficulty if it changed
                 if (QuestGenerator.getLastAction() == QuestAction.INCREASE_MOBS ||
@@ -374,8 +562,16 @@ public class QuestManager {
                         .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
             }
 
+            if (deferred) {
+                player.sendSystemMessage(Component.literal("[Quest System] ")
+                        .withStyle(Style.EMPTY.withColor(0xFFAA00))
+                        .append(Component.literal("More quests will be ready shortly. Check back soon!")
+                                .withStyle(Style.EMPTY.withColor(0xAAAAAA))));
+            }
+
             // Update the player's quest list with the new quests
-            playerQuests.put(playerUUID, remainingQuests);
+            sessions.getOrCreate(playerUUID).quests = remainingQuests;
+            markQuestsChanged(playerUUID);
             LOGGER.info("Updated player's quest list, now has {} quests", remainingQuests.size());
 
             // Update cooldown
@@ -388,6 +584,536 @@ public class QuestManager {
         }
     }
 
+    /**
+     * Advance quest deadlines; called once per server tick
+     */
+    public void onServerTick(MinecraftServer server) {
+        serverTicks++;
+        if (serverTicks % DEADLINE_TICK_INTERVAL == 0) {
+            questDeadlines.advanceTo(serverTicks / DEADLINE_TICK_INTERVAL, deadline -> {
+                ServerPlayer player = server.getPlayerList().getPlayer(deadline.playerUUID);
+                if (player != null) {
+                    expireQuest(player, deadline.quest);
+                }
+            });
+        }
+
+        // Drop sessions of players who have been gone longer than the grace period
+        if (serverTicks % DEADLINE_TICK_INTERVAL == 0) {
+            QuestTuning tuning = QuestTuning.get();
+            sessions.evict(clock.currentTimeMillis(), tuning.sessionGraceSeconds * 1000L, tuning.sessionCacheSize,
+                    this::evictSession);
+        }
+
+        // Everything that changed this tick goes out in one packet per player
+        questSync.flush(server, this);
+    }
+
+    /**
+     * Fail a quest whose deadline has passed and hand out a replacement
+     */
+    public void expireQuest(ServerPlayer player, Quest quest) {
+        UUID playerUUID = player.getUUID();
+        PlayerSession session = sessions.get(playerUUID);
+        List<Quest> playerQuestList = session != null ? session.quests : null;
+        int index = playerQuestList != null ? playerQuestList.indexOf(quest) : -1;
+        if (index < 0) {
+            deactivateQuest(playerUUID, quest);
+            return;
+        }
+
+        // A finished quest waiting to be claimed is not a failure. It keeps a fresh deadline, since
+        // it can still fall back below its requirement, e.g. when collected items are dropped
+        if (quest.isCompleted(player) || quest.getProgress(player) >= quest.getRequiredAmount()) {
+            cancelDeadline(playerUUID, quest);
+            scheduleDeadline(playerUUID, quest);
+            return;
+        }
+        deactivateQuest(playerUUID, quest);
+
+        if (sessionJournal != null) {
+            sessionJournal.recordExpire(clock.currentTimeMillis(), playerUUID, quest.getId());
+        }
+
+        LOGGER.info("Quest '{}' expired for player {}", quest.getTitle(), player.getName().getString());
+        QuestGenerator.recordQuestFailure();
+
+        // Replace with a quest of the same kind at the (possibly lowered) difficulty
+        long generationStart = System.nanoTime();
+        Quest replacement;
+        if (quest instanceof ExplorationQuest) {
+            replacement = QuestGenerator.generateExplorationQuest(QuestGenerator.getDifficultyLevel(),
+                    player.serverLevel(), player.blockPosition(), randomSources.forPlayer(playerUUID));
+        } else if (quest instanceof ActivityQuest) {
+            replacement = QuestGenerator.generateActivityQuest(QuestGenerator.getDifficultyLevel(),
+                    randomSources.forPlayer(playerUUID));
+        } else if (quest instanceof DefinedQuest) {
+            replacement = QuestGenerator.generateDefinedQuest(QuestGenerator.getDifficultyLevel(),
+                    randomSources.forPlayer(playerUUID));
+            if (replacement == null) {
+                replacement = QuestGenerator.generateActivityQuest(QuestGenerator.getDifficultyLevel(),
+                        randomSources.forPlayer(playerUUID));
+            }
+        } else if (quest instanceof CompositeQuest compositeQuest) {
+            replacement = compositeQuest.getKind() == CompositeQuest.Kind.SEQUENCE
+                    ? QuestGenerator.generateQuestChain(QuestGenerator.getDifficultyLevel(), randomSources.forPlayer(playerUUID))
+                    : QuestGenerator.generateCompositeQuest(QuestGenerator.getDifficultyLevel(), randomSources.forPlayer(playerUUID));
+        } else {
+            int questType = quest instanceof EnemyKillQuest ? 0 : 1;
+            replacement = QuestGenerator.generateQuestByType(questType, QuestGenerator.getDifficultyLevel(),
+                    randomSources.forPlayer(playerUUID), questPool);
+        }
+        if (telemetry != null) {
+            telemetry.record(clock.currentTimeMillis(), playerUUID, QuestTelemetry.EXPIRED, getOrCreateGameState(player),
+                    null, 0.0, QuestGenerator.getDifficultyLevel(), QuestTelemetry.questType(replacement),
+                    replacement.getRequiredAmount(), System.nanoTime() - generationStart);
+        }
+        playerQuestList.set(index, replacement);
+        recordRemove(playerUUID, quest);
+        recordAssign(playerUUID, replacement);
+        activateQuest(playerUUID, replacement);
+
+        player.sendSystemMessage(Component.literal("[Quest Expired] ")
+                .withStyle(Style.EMPTY.withColor(0xFF5555))
+                .append(Component.literal(quest.getTitle())
+                        .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+        player.sendSystemMessage(Component.literal("[New Quest] ")
+                .withStyle(Style.EMPTY.withColor(0x55FF55))
+                .append(Component.literal(replacement.getTitle())
+                        .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+        player.sendSystemMessage(Component.literal(replacement.getDescription())
+                .withStyle(Style.EMPTY.withColor(0xAAAAAA)));
+    }
+
+    /**
+     * Seconds of play the deadline wheel has counted so far
+     */
+    public long getDeadlineClockSeconds() {
+        return questDeadlines.getCurrentTick();
+    }
+
+    /**
+     * Queue a player's session for eviction when they log out
+     */
+    public void releaseSession(UUID playerUUID) {
+        sessions.markOffline(playerUUID, clock.currentTimeMillis());
+    }
+
+    /**
+     * Drop every session, e.g. when the server stops
+     */
+    public void clearSessions() {
+        sessions.values().forEach(this::forgetSessionQuests);
+        sessions.clear();
+    }
+
+    /**
+     * Number of player sessions in memory, and how many of those are offline
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public int getOfflineSessionCount() {
+        return sessions.offlineCount();
+    }
+
+    private void evictSession(PlayerSession session) {
+        forgetSessionQuests(session);
+        explorationIndex.removePlayer(session.playerUUID);
+        eventDispatcher.removePlayer(session.playerUUID);
+        learner.forgetPlayer(session.playerUUID);
+        randomSources.forgetPlayer(session.playerUUID);
+    }
+
+    /**
+     * Quests can be shared with the global list, so clear the player out of them rather than just dropping them
+     */
+    private void forgetSessionQuests(PlayerSession session) {
+        for (Quest quest : session.quests) {
+            quest.forgetPlayer(session.playerUUID);
+        }
+    }
+
+    /**
+     * Get the seconds of online play left before a quest expires, or -1 if it has no deadline
+     */
+    public long getRemainingSeconds(UUID playerUUID, Quest quest) {
+        PlayerSession session = sessions.get(playerUUID);
+        TimingWheel.Timeout<QuestDeadline> timeout = session != null ? session.deadlines.get(quest.getId()) : null;
+        return timeout != null ? timeout.getDeadline() - questDeadlines.getCurrentTick() : -1;
+    }
+
+    /**
+     * Start a newly assigned or restored quest: its deadline, plus its triggers for exploration quests
+     */
+    private void activateQuest(UUID playerUUID, Quest quest) {
+        scheduleDeadline(playerUUID, quest);
+        if (quest instanceof ExplorationQuest explorationQuest) {
+            explorationIndex.add(playerUUID, explorationQuest);
+        } else if (quest instanceof ActivityQuest activityQuest) {
+            eventDispatcher.subscribe(playerUUID, activityQuest);
+        } else if (quest instanceof DefinedQuest definedQuest) {
+            eventDispatcher.subscribe(playerUUID, definedQuest);
+        }
+    }
+
+    /**
+     * Undo {@link #activateQuest} for a quest that was completed, expired or replaced
+     */
+    private void deactivateQuest(UUID playerUUID, Quest quest) {
+        cancelDeadline(playerUUID, quest);
+        if (quest instanceof ExplorationQuest) {
+            explorationIndex.remove(playerUUID, quest);
+        } else if (quest instanceof ActivityQuest activityQuest) {
+            eventDispatcher.unsubscribe(playerUUID, activityQuest);
+        } else if (quest instanceof DefinedQuest definedQuest) {
+            eventDispatcher.unsubscribe(playerUUID, definedQuest);
+        }
+    }
+
+    /**
+     * Complete the objective of any exploration quest the player reached by entering a new chunk section
+     */
+    public void onEnterSection(ServerPlayer player, SectionPos section) {
+        for (ExplorationQuest quest : explorationIndex.onEnterSection(player, section)) {
+            reachTarget(player, quest);
+        }
+    }
+
+    /**
+     * Apply a mined block or a crafted, smelted or fished item to the player's subscribed activity and defined quests
+     */
+    public void onActivity(ServerPlayer player, ActivityQuest.Activity activity, String targetId, int amount) {
+        for (ActivityQuest quest : eventDispatcher.getSubscribers(player.getUUID(), activity)) {
+            if (quest.onActivity(player, targetId, amount)) {
+                recordProgress(player, quest);
+            }
+        }
+
+        QuestTrigger.Kind kind = QuestTrigger.Kind.of(activity);
+        List<DefinedQuest> definedQuests = eventDispatcher.getSubscribers(player.getUUID(), kind);
+        if (definedQuests.isEmpty()) {
+            return;
+        }
+        ResourceLocation key = ResourceLocation.tryParse(targetId);
+        if (key == null) {
+            return;
+        }
+        trigger.reset(kind, player, amount);
+        if (activity == ActivityQuest.Activity.MINE) {
+            trigger.block = ForgeRegistries.BLOCKS.getValue(key);
+            Item item = trigger.block != null ? trigger.block.asItem() : Items.AIR;
+            trigger.item = item != Items.AIR ? item : null;
+        } else {
+            trigger.item = ForgeRegistries.ITEMS.getValue(key);
+        }
+        applyTrigger(player, definedQuests);
+    }
+
+    /**
+     * Apply a kill to the player's defined quests that count kills
+     */
+    public void onKill(ServerPlayer player, EntityType<?> entityType) {
+        List<DefinedQuest> definedQuests = eventDispatcher.getSubscribers(player.getUUID(), QuestTrigger.Kind.KILL);
+        if (definedQuests.isEmpty()) {
+            return;
+        }
+        trigger.reset(QuestTrigger.Kind.KILL, player, 1).entityType = entityType;
+        applyTrigger(player, definedQuests);
+    }
+
+    private void applyTrigger(ServerPlayer player, List<DefinedQuest> definedQuests) {
+        for (DefinedQuest quest : definedQuests) {
+            if (quest.onTrigger(player, trigger)) {
+                recordProgress(player, quest);
+            }
+        }
+    }
+
+    /**
+     * Mark an exploration target as reached; the reward is still claimed at a quest block
+     */
+    public void reachTarget(ServerPlayer player, ExplorationQuest quest) {
+        explorationIndex.remove(player.getUUID(), quest);
+        if (quest.hasReached(player.getUUID())) {
+            return;
+        }
+        quest.markReached(player);
+        if (sessionJournal != null) {
+            sessionJournal.recordReach(clock.currentTimeMillis(), player.getUUID(), quest.getId());
+        }
+        recordProgress(player, quest);
+    }
+
+    /**
+     * Give a quest a deadline, resuming a paused one if the player was offline. No-op if it already has one.
+     */
+    private void scheduleDeadline(UUID playerUUID, Quest quest) {
+        PlayerSession session = sessions.getOrCreate(playerUUID);
+        Map<String, TimingWheel.Timeout<QuestDeadline>> deadlines = session.deadlines;
+        if (deadlines.containsKey(quest.getId())) {
+            return;
+        }
+
+        Long paused = session.pausedDeadlines.remove(quest.getId());
+        long seconds = paused != null ? paused
+                : QUEST_BASE_DURATION_SECONDS + QUEST_DURATION_PER_UNIT_SECONDS * quest.getRequiredAmount();
+        deadlines.put(quest.getId(), questDeadlines.schedule(new QuestDeadline(playerUUID, quest), seconds));
+    }
+
+    private void cancelDeadline(UUID playerUUID, Quest quest) {
+        PlayerSession session = sessions.get(playerUUID);
+        if (session != null) {
+            TimingWheel.Timeout<QuestDeadline> timeout = session.deadlines.remove(quest.getId());
+            if (timeout != null) {
+                questDeadlines.cancel(timeout);
+            }
+        }
+    }
+
+    /**
+     * Stop a player's quest clocks while they are offline
+     */
+    public void pauseDeadlines(UUID playerUUID) {
+        // Exploration triggers and activity subscriptions are rebuilt along with the deadlines on login
+        explorationIndex.removePlayer(playerUUID);
+        eventDispatcher.removePlayer(playerUUID);
+        PlayerSession session = sessions.get(playerUUID);
+        if (session == null) {
+            return;
+        }
+        for (Map.Entry<String, TimingWheel.Timeout<QuestDeadline>> entry : session.deadlines.entrySet()) {
+            TimingWheel.Timeout<QuestDeadline> timeout = entry.getValue();
+            if (questDeadlines.cancel(timeout)) {
+                session.pausedDeadlines.put(entry.getKey(), timeout.getDeadline() - questDeadlines.getCurrentTick());
+            }
+        }
+        session.deadlines.clear();
+    }
+
+    /**
+     * A quest deadline held in the timing wheel
+     */
+    static final class QuestDeadline {
+        private final UUID playerUUID;
+        private final Quest quest;
+
+        private QuestDeadline(UUID playerUUID, Quest quest) {
+            this.playerUUID = playerUUID;
+            this.quest = quest;
+        }
+    }
+
+    /**
+     * Get the player's quest view, rebuilding it only if their progress changed since the last one
+     */
+    public PlayerQuestView getQuestView(ServerPlayer player) {
+        List<Quest> quests = getQuestsForPlayer(player);
+        PlayerSession session = sessions.getOrCreate(player.getUUID());
+        long version = session.progressVersion;
+
+        PlayerQuestView view = session.view;
+        if (view != null && view.getVersion() == version && view.matchesInventory(player)) {
+            QuestMetrics.QUEST_VIEW_HITS.increment();
+            return view;
+        }
+
+        view = PlayerQuestView.build(player, quests, version);
+        session.view = view;
+        QuestMetrics.QUEST_VIEW_REBUILDS.increment();
+        return view;
+    }
+
+    /**
+     * Invalidate a player's cached quest view
+     */
+    private void markProgressChanged(UUID playerUUID) {
+        PlayerSession session = sessions.get(playerUUID);
+        if (session != null) {
+            session.progressVersion++;
+        }
+    }
+
+    /**
+     * Invalidate a player's cached quest view and resend their whole quest list to the HUD
+     */
+    private void markQuestsChanged(UUID playerUUID) {
+        markProgressChanged(playerUUID);
+        PlayerSession session = sessions.get(playerUUID);
+        if (session != null) {
+            session.dirty = true;
+        }
+        questSync.markQuestsChanged(playerUUID);
+    }
+
+    /**
+     * Resend a player's quest list on the next tick, e.g. after they log in
+     */
+    public void resyncQuests(UUID playerUUID) {
+        questSync.markQuestsChanged(playerUUID);
+    }
+
+    /**
+     * Drop a player's pending HUD updates when they log out
+     */
+    public void forgetSync(UUID playerUUID) {
+        questSync.forget(playerUUID);
+    }
+
+    /**
+     * Journal the current progress of a quest so it survives a crash
+     */
+    public void recordProgress(ServerPlayer player, Quest quest) {
+        markProgressChanged(player.getUUID());
+        PlayerSession session = sessions.get(player.getUUID());
+        if (session != null) {
+            session.dirty = true;
+        }
+        questSync.markProgress(player.getUUID(), quest);
+        if (progressJournal != null) {
+            progressJournal.logProgress(player.getUUID(), quest.getId(), quest.getProgress(player), quest.isCompleted(player));
+            if (quest instanceof CompositeQuest compositeQuest) {
+                // A graph's state follows from its objectives; item objectives read the inventory again anyway
+                for (Quest leaf : compositeQuest.getLeaves()) {
+                    if (leaf instanceof EnemyKillQuest) {
+                        progressJournal.logProgress(player.getUUID(), leaf.getId(), leaf.getProgress(player), leaf.isCompleted(player));
+                    }
+                }
+            }
+        }
+    }
+
+    private void recordAssign(UUID playerUUID, Quest quest) {
+        markQuestsChanged(playerUUID);
+        if (progressJournal == null) {
+            return;
+        }
+        QuestRecord record = describeQuest(quest);
+        if (record != null) {
+            progressJournal.logAssign(playerUUID, record);
+        }
+    }
+
+    /**
+     * The durable definition of a quest, or null for quest types that cannot be rebuilt from one.
+     * A composite quest's record holds its objectives' records too.
+     */
+    private static QuestRecord describeQuest(Quest quest) {
+        if (quest instanceof EnemyKillQuest killQuest) {
+            return new QuestRecord(quest.getId(), QuestRecord.KILL_QUEST,
+                    quest.getTitle(), killQuest.getEntityId(), quest.getRequiredAmount());
+        } else if (quest instanceof ItemCollectionQuest itemQuest) {
+            return new QuestRecord(quest.getId(), QuestRecord.ITEM_QUEST,
+                    quest.getTitle(), itemQuest.getItemId(), quest.getRequiredAmount());
+        } else if (quest instanceof ExplorationQuest explorationQuest) {
+            return new QuestRecord(quest.getId(), QuestRecord.EXPLORATION_QUEST,
+                    quest.getTitle(), explorationQuest.getTargetSpec(), quest.getRequiredAmount());
+        } else if (quest instanceof ActivityQuest activityQuest) {
+            return new QuestRecord(quest.getId(), QuestRecord.ACTIVITY_QUEST,
+                    quest.getTitle(), activityQuest.getTargetSpec(), quest.getRequiredAmount());
+        } else if (quest instanceof DefinedQuest definedQuest) {
+            return new QuestRecord(quest.getId(), QuestRecord.DEFINED_QUEST,
+                    quest.getTitle(), definedQuest.getTargetSpec(), quest.getRequiredAmount());
+        } else if (quest instanceof CompositeQuest compositeQuest) {
+            QuestRecord record = new QuestRecord(quest.getId(), QuestRecord.COMPOSITE_QUEST,
+                    quest.getTitle(), compositeQuest.getTargetSpec(), quest.getRequiredAmount());
+            for (Quest leaf : compositeQuest.getLeaves()) {
+                record.leaves.add(describeQuest(leaf));
+            }
+            return record;
+        }
+        return null;
+    }
+
+    /**
+     * Copy a player's progress into a quest's record, and into its objectives' for a composite quest
+     */
+    private static void describeProgress(QuestRecord record, Quest quest, Player player) {
+        record.progress = quest.getProgress(player);
+        record.completed = quest.isCompleted(player);
+        if (quest instanceof CompositeQuest compositeQuest) {
+            List<Quest> leaves = compositeQuest.getLeaves();
+            for (int i = 0; i < leaves.size(); i++) {
+                describeProgress(record.leaves.get(i), leaves.get(i), player);
+            }
+        }
+    }
+
+    private void recordRemove(UUID playerUUID, Quest quest) {
+        markQuestsChanged(playerUUID);
+        if (progressJournal != null) {
+            progressJournal.logRemove(playerUUID, quest.getId());
+        }
+    }
+
+    /**
+     * Rebuild the quests the progress journal recovered for a player at startup
+     */
+    private List<Quest> takeRecoveredQuests(UUID playerUUID) {
+        List<Quest> quests = new ArrayList<>();
+        if (progressJournal == null) {
+            return quests;
+        }
+        for (QuestRecord record : progressJournal.takeRecovered(playerUUID)) {
+            Quest quest = rebuildQuest(playerUUID, record);
+            if (quest != null) {
+                quests.add(quest);
+            }
+        }
+        return quests;
+    }
+
+    /**
+     * Rebuild a quest and the player's progress on it from its durable definition
+     *
+     * @return The quest, or null if the record cannot be read
+     */
+    private static Quest rebuildQuest(UUID playerUUID, QuestRecord record) {
+        if (record.questType == QuestRecord.KILL_QUEST) {
+            EnemyKillQuest quest = new EnemyKillQuest(record.questId, record.title, record.targetId, record.requiredAmount);
+            quest.restoreProgress(playerUUID, record.progress, record.completed);
+            return quest;
+        } else if (record.questType == QuestRecord.ACTIVITY_QUEST) {
+            ActivityQuest quest = ActivityQuest.fromTargetSpec(record.questId, record.title, record.targetId,
+                    record.requiredAmount);
+            if (quest != null) {
+                quest.restoreProgress(playerUUID, record.progress, record.completed);
+            }
+            return quest;
+        } else if (record.questType == QuestRecord.DEFINED_QUEST) {
+            DefinedQuest quest = DefinedQuest.fromTargetSpec(record.questId, record.title, record.targetId,
+                    record.requiredAmount);
+            if (quest != null) {
+                quest.restoreProgress(playerUUID, record.progress, record.completed);
+            }
+            return quest;
+        } else if (record.questType == QuestRecord.EXPLORATION_QUEST) {
+            ExplorationQuest quest = ExplorationQuest.fromTargetSpec(record.questId, record.title, record.targetId);
+            if (quest != null) {
+                quest.restoreProgress(playerUUID, record.progress, record.completed);
+            }
+            return quest;
+        } else if (record.questType == QuestRecord.COMPOSITE_QUEST) {
+            List<Quest> leaves = new ArrayList<>(record.leaves.size());
+            for (QuestRecord leafRecord : record.leaves) {
+                Quest leaf = rebuildQuest(playerUUID, leafRecord);
+                if (leaf == null) {
+                    return null;
+                }
+                leaves.add(leaf);
+            }
+            CompositeQuest quest = CompositeQuest.fromTargetSpec(record.questId, record.title, record.targetId, leaves);
+            if (quest != null) {
+                quest.restoreProgress(playerUUID, record.completed);
+            }
+            return quest;
+        }
+        ItemCollectionQuest quest = new ItemCollectionQuest(record.questId, record.title, record.targetId, record.requiredAmount);
+        quest.restoreProgress(playerUUID, record.completed);
+        return quest;
+    }
+
     /**
      * Quest data storage class
      */
@@ -409,25 +1135,24 @@ public class QuestManager {
         UUID playerUUID = player.getUUID();
 
         // Create or get existing data
-        PlayerQuestData data = playerQuestData.computeIfAbsent(playerUUID, PlayerQuestData::new);
+        PlayerSession session = sessions.getOrCreate(playerUUID);
+        PlayerQuestData data = session.questData != null ? session.questData : new PlayerQuestData(playerUUID);
 
         // Update data fields
         data.questIds.clear();
-        List<Quest> playerQuestList = playerQuests.getOrDefault(playerUUID, new ArrayList<>());
-        for (Quest quest : playerQuestList) {
+        for (Quest quest : session.quests) {
             data.questIds.add(quest.getId());
         }
 
-        GameState state = playerGameStates.get(playerUUID);
+        GameState state = session.gameState;
         if (state != null) {
             data.questsCompleted = state.getQuestsCompleted();
         }
 
-        data.lastQuestGeneration = questGenerationCooldowns.getOrDefault(playerUUID, 0L);
+        data.lastQuestGeneration = session.lastQuestGeneration;
 
-        // Save to player NBT if possible
+        // Save to the quest store, or player NBT without one
         if (player instanceof ServerPlayer) {
-            CompoundTag persistentData = player.getPersistentData();
             CompoundTag questData = new CompoundTag();
 
             // Convert to strings for NBT
@@ -437,12 +1162,23 @@ public class QuestManager {
             questData.putLong("lastQuestGeneration", data.lastQuestGeneration);
             questData.putInt("difficultyLevel", QuestGenerator.getDifficultyLevel());
 
-            // Store in player's persistent data
-            persistentData.put(MinecraftQuestAI.MODID + "_questData", questData);
+            // Full definitions, so the quests survive the session being evicted
+            ListTag quests = new ListTag();
+            for (Quest quest : session.quests) {
+                QuestRecord record = describeQuest(quest);
+                if (record != null) {
+                    describeProgress(record, quest, player);
+                    quests.add(ProgressJournal.toTag(record));
+                }
+            }
+            questData.put("quests", quests);
+
+            writeQuestData(player, questData);
         }
 
-        // Store in our map for runtime access
-        playerQuestData.put(playerUUID, data);
+        // Keep with the session for runtime access
+        session.questData = data;
+        session.dirty = false;
 
         LOGGER.info("Saved quest data for player {} with {} quests",
                 player.getName().getString(), data.questIds.size());
@@ -453,13 +1189,26 @@ public class QuestManager {
      */
     public void loadPlayerQuestData(Player player) {
         UUID playerUUID = player.getUUID();
+        sessions.markOnline(playerUUID);
+
+        // Back within the grace period, or respawning: the session in memory is already current
+        PlayerSession cached = sessions.get(playerUUID);
+        if (cached != null && !cached.quests.isEmpty()) {
+            cached.quests.forEach(quest -> activateQuest(playerUUID, quest));
+            markQuestsChanged(playerUUID);
+            QuestMetrics.SESSION_CACHE_HITS.increment();
+            return;
+        }
+        QuestMetrics.SESSION_CACHE_RELOADS.increment();
 
-        // Try to load from player NBT first
+        // The progress journal is never older than player NBT, so its quests win
+        List<Quest> recoveredQuests = takeRecoveredQuests(playerUUID);
+
+        // Try to load from the quest store or player NBT first
         boolean loadedFromNBT = false;
         if (player instanceof ServerPlayer) {
-            CompoundTag persistentData = player.getPersistentData();
-            if (persistentData.contains(MinecraftQuestAI.MODID + "_questData")) {
-                CompoundTag questData = persistentData.getCompound(MinecraftQuestAI.MODID + "_questData");
+            CompoundTag questData = readQuestData(player);
+            if (questData != null) {
 
                 PlayerQuestData data = new PlayerQuestData(playerUUID);
 
@@ -477,19 +1226,36 @@ public class QuestManager {
                     }
 
                     // Restore quest list
-                    List<Quest> playerQuestList = new ArrayList<>();
-                    for (String questId : data.questIds) {
-                        // Try to find the quest by ID or generate a new one if not found
-                        Quest quest = findQuestById(questId);
-                        if (quest != null) {
-                            playerQuestList.add(quest);
+                    List<Quest> playerQuestList = new ArrayList<>(recoveredQuests);
+                    if (playerQuestList.isEmpty()) {
+                        ListTag quests = questData.getList("quests", Tag.TAG_COMPOUND);
+                        for (int i = 0; i < quests.size(); i++) {
+                            Quest quest = rebuildQuest(playerUUID, ProgressJournal.fromTag(quests.getCompound(i)));
+                            if (quest != null) {
+                                playerQuestList.add(quest);
+                            }
+                        }
+                    }
+                    if (playerQuestList.isEmpty()) {
+                        for (String questId : data.questIds) {
+                            // Try to find the quest by ID or generate a new one if not found
+                            Quest quest = findQuestById(playerUUID, questId, randomSources.forPlayer(playerUUID));
+                            if (quest != null) {
+                                playerQuestList.add(quest);
+                            }
                         }
                     }
 
                     // If we loaded from NBT successfully
                     if (!playerQuestList.isEmpty()) {
-                        playerQuests.put(playerUUID, playerQuestList);
-                        questGenerationCooldowns.put(playerUUID, data.lastQuestGeneration);
+                        PlayerSession session = sessions.getOrCreate(playerUUID);
+                        session.quests = playerQuestList;
+                        markQuestsChanged(playerUUID);
+                        for (Quest quest : playerQuestList) {
+                            recordAssign(playerUUID, quest);
+                            activateQuest(playerUUID, quest);
+                        }
+                        session.lastQuestGeneration = data.lastQuestGeneration;
 
                         // Create game state
                         GameState gameState = new GameState(
@@ -499,7 +1265,7 @@ public class QuestManager {
                                 (int) player.getHealth(),
                                 QuestGenerator.getDifficultyLevel()
                         );
-                        playerGameStates.put(playerUUID, gameState);
+                        session.gameState = gameState;
 
                         loadedFromNBT = true;
 
@@ -512,17 +1278,83 @@ public class QuestManager {
 
         // If we couldn't load from NBT, initialize with default quests
         if (!loadedFromNBT) {
-            if (player instanceof ServerPlayer serverPlayer) {
+            if (!recoveredQuests.isEmpty()) {
+                sessions.getOrCreate(playerUUID).quests = recoveredQuests;
+                markQuestsChanged(playerUUID);
+                recoveredQuests.forEach(quest -> activateQuest(playerUUID, quest));
+                LOGGER.info("Restored {} quests for player {} from the progress journal",
+                        recoveredQuests.size(), player.getName().getString());
+            } else if (player instanceof ServerPlayer serverPlayer) {
                 initializePlayerQuests(serverPlayer);
                 LOGGER.info("Initialized default quests for player {}", player.getName().getString());
             }
         }
     }
 
+    /**
+     * Read a player's saved quest data from the quest store, falling back to data left in their player NBT
+     *
+     * @return The saved data, or null if there is none
+     */
+    public CompoundTag readQuestData(Player player) {
+        if (questStore != null) {
+            CompoundTag stored = questStore.get(player.getUUID());
+            if (stored != null) {
+                return stored;
+            }
+        }
+        CompoundTag persistentData = player.getPersistentData();
+        return persistentData.contains(QUEST_DATA_KEY) ? persistentData.getCompound(QUEST_DATA_KEY) : null;
+    }
+
+    /**
+     * Write a player's quest data to the quest store, moving it out of their player NBT; without a store
+     * (e.g. in replays) it stays in player NBT
+     */
+    private void writeQuestData(Player player, CompoundTag questData) {
+        if (questStore != null) {
+            questStore.put(player.getUUID(), questData);
+            player.getPersistentData().remove(QUEST_DATA_KEY);
+        } else {
+            player.getPersistentData().put(QUEST_DATA_KEY, questData);
+        }
+    }
+
+    /**
+     * Drop a player's progress journal records once the quest store has saved their logout,
+     * unless they have logged back in and journalled new progress since. Runs on the server thread.
+     */
+    void forgetJournalled(MinecraftServer server, UUID playerUUID) {
+        if (progressJournal != null && server.getPlayerList().getPlayer(playerUUID) == null) {
+            progressJournal.logForget(playerUUID);
+        }
+    }
+
+    /**
+     * Save every online player whose quests changed since their last save, then write out the store
+     * in the background; called on world save. The community quest is small and written right away.
+     */
+    public void autosave(MinecraftServer server) {
+        communityQuests.save(server.getWorldPath(LevelResource.ROOT).resolve(MinecraftQuestAI.MODID));
+        if (questStore == null) {
+            return;
+        }
+        int saved = 0;
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            PlayerSession session = sessions.get(player.getUUID());
+            if (session != null && session.dirty) {
+                savePlayerQuestData(player);
+                saved++;
+            }
+        }
+        questStore.flush();
+        LOGGER.debug("Autosaved quest data for {} players", saved);
+    }
+
     /**
      * Find a quest by its ID
      */
-    private Quest findQuestById(String questId) {
+    private Quest findQuestById(UUID playerUUID, String questId, Random random) {
         // Check main quest list first
         for (Quest quest : globalQuests) {
             if (quest.getId().equals(questId)) {
@@ -530,9 +1362,10 @@ public class QuestManager {
             }
         }
 
-        // Check all player quests
-        for (List<Quest> playerQuestList : playerQuests.values()) {
-            for (Quest quest : playerQuestList) {
+        // Then the player's own session, if it is still in memory
+        PlayerSession session = sessions.get(playerUUID);
+        if (session != null) {
+            for (Quest quest : session.quests) {
                 if (quest.getId().equals(questId)) {
                     return quest;
                 }
@@ -543,9 +1376,9 @@ public class QuestManager {
         if (questId != null && !questId.isEmpty()) {
             // Simple approach: if ID contains "enemy" or "kill", it's a kill quest
             if (questId.contains("enemy") || questId.contains("kill")) {
-                return QuestGenerator.generateRandomEnemyKillQuest(1);
+                return QuestGenerator.generateRandomEnemyKillQuest(1, random);
             } else {
-                return QuestGenerator.generateRandomItemCollectionQuest(1);
+                return QuestGenerator.generateRandomItemCollectionQuest(1, random);
             }
         }
 
@@ -561,7 +1394,9 @@ public class QuestManager {
         public static void onPlayerLoggedIn(net.minecraftforge.event.entity.player.PlayerEvent.PlayerLoggedInEvent event) {
             Player player = event.getEntity();
             if (player instanceof ServerPlayer serverPlayer) {
+                recordSessionEvent(SessionJournal.LOGIN, serverPlayer);
                 MinecraftQuestAI.questManager.loadPlayerQuestData(serverPlayer);
+                MinecraftQuestAI.questManager.resyncQuests(serverPlayer.getUUID());
             }
         }
 
@@ -569,7 +1404,23 @@ public class QuestManager {
         public static void onPlayerLoggedOut(net.minecraftforge.event.entity.player.PlayerEvent.PlayerLoggedOutEvent event) {
             Player player = event.getEntity();
             if (player instanceof ServerPlayer serverPlayer) {
+                recordSessionEvent(SessionJournal.LOGOUT, serverPlayer);
                 MinecraftQuestAI.questManager.savePlayerQuestData(serverPlayer);
+                MinecraftQuestAI.questManager.pauseDeadlines(serverPlayer.getUUID());
+                MinecraftQuestAI.questManager.forgetRateLimits(serverPlayer.getUUID());
+                MinecraftQuestAI.questManager.forgetSync(serverPlayer.getUUID());
+                MinecraftQuestAI.questManager.getParties().leave(serverPlayer.getUUID());
+                MinecraftQuestAI.questManager.releaseSession(serverPlayer.getUUID());
+                QuestStore questStore = MinecraftQuestAI.questManager.getQuestStore();
+                if (questStore != null) {
+                    UUID playerUUID = serverPlayer.getUUID();
+                    MinecraftServer server = serverPlayer.getServer();
+                    // Once the store holds the logout, the journal no longer needs the player's records
+                    questStore.flush().thenRunAsync(() -> MinecraftQuestAI.questManager.forgetJournalled(server, playerUUID), server);
+                }
+                if (MinecraftQuestAI.QUEST_BLOCK.get() instanceof QuestBlock questBlock) {
+                    questBlock.forgetPlayer(serverPlayer.getUUID());
+                }
             }
         }
 
@@ -577,10 +1428,37 @@ public class QuestManager {
         public static void onPlayerRespawn(net.minecraftforge.event.entity.player.PlayerEvent.PlayerRespawnEvent event) {
             Player player = event.getEntity();
             if (player instanceof ServerPlayer serverPlayer) {
+                recordSessionEvent(SessionJournal.RESPAWN, serverPlayer);
                 MinecraftQuestAI.questManager.loadPlayerQuestData(serverPlayer);
             }
         }
 
+        /**
+         * Start reading the player's quest store shard while they are still logging in
+         */
+        @SubscribeEvent
+        public static void onPlayerNegotiation(PlayerNegotiationEvent event) {
+            QuestStore questStore = MinecraftQuestAI.questManager.getQuestStore();
+            if (questStore != null && event.getProfile().getId() != null) {
+                questStore.prefetch(event.getProfile().getId());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onLevelSave(LevelEvent.Save event) {
+            // Once per save, not once per dimension
+            if (event.getLevel() instanceof ServerLevel level && level.dimension() == Level.OVERWORLD) {
+                MinecraftQuestAI.questManager.autosave(level.getServer());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event) {
+            if (event.phase == TickEvent.Phase.END) {
+                MinecraftQuestAI.questManager.onServerTick(event.getServer());
+            }
+        }
+
         @SubscribeEvent
         public static void onPlayerClone(net.minecraftforge.event.entity.player.PlayerEvent.Clone event) {
             Player originalPlayer = event.getOriginal();
@@ -595,11 +1473,29 @@ public class QuestManager {
                 CompoundTag originalData = originalPlayer.getPersistentData();
                 CompoundTag newData = newPlayer.getPersistentData();
 
-                if (originalData.contains(MinecraftQuestAI.MODID + "_questData")) {
-                    CompoundTag questData = originalData.getCompound(MinecraftQuestAI.MODID + "_questData");
-                    newData.put(MinecraftQuestAI.MODID + "_questData", questData.copy());
+                if (originalData.contains(QUEST_DATA_KEY)) {
+                    CompoundTag questData = originalData.getCompound(QUEST_DATA_KEY);
+                    newData.put(QUEST_DATA_KEY, questData.copy());
                 }
             }
         }
+
+        /**
+         * Write a login, logout or respawn to the session journal if one is open
+         */
+        private static void recordSessionEvent(byte type, ServerPlayer player) {
+            SessionJournal journal = MinecraftQuestAI.questManager.getSessionJournal();
+            if (journal == null) {
+                return;
+            }
+            long time = MinecraftQuestAI.questManager.getClock().currentTimeMillis();
+            if (type == SessionJournal.LOGOUT) {
+                journal.recordLogout(time, player.getUUID());
+            } else {
+                CompoundTag questData = MinecraftQuestAI.questManager.readQuestData(player);
+                journal.recordLogin(type, time, player.getUUID(), player.getHealth(),
+                        questData != null ? questData : new CompoundTag());
+            }
+        }
     }
 }
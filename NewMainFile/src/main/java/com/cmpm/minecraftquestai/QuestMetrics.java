@@ -0,0 +1,45 @@
+package com.cmpm.minecraftquestai;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters for the quest system, readable with /questai metrics.
+ * Counters are striped LongAdders, so bumping one from any thread is cheap.
+ */
+public class QuestMetrics {
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentSkipListMap<>();
+
+    public static final LongAdder BLOCK_USE_THROTTLED = counter("block_use.throttled");
+    public static final LongAdder QUEST_GENERATION_THROTTLED = counter("quest_generation.throttled");
+    public static final LongAdder QUEST_VIEW_HITS = counter("quest_view.hits");
+    public static final LongAdder QUEST_VIEW_REBUILDS = counter("quest_view.rebuilds");
+    public static final LongAdder QUEST_SYNC_SNAPSHOTS = counter("quest_sync.snapshots");
+    public static final LongAdder QUEST_SYNC_DELTAS = counter("quest_sync.deltas");
+    public static final LongAdder QUEST_POOL_HITS = counter("quest_pool.hits");
+    public static final LongAdder QUEST_POOL_MISSES = counter("quest_pool.misses");
+    public static final LongAdder SESSION_CACHE_HITS = counter("session_cache.hits");
+    public static final LongAdder SESSION_CACHE_RELOADS = counter("session_cache.reloads");
+    public static final LongAdder SESSION_CACHE_EVICTIONS = counter("session_cache.evictions");
+    public static final LongAdder TELEMETRY_ROWS = counter("telemetry.rows");
+    public static final LongAdder TELEMETRY_DROPPED = counter("telemetry.dropped");
+    public static final LongAdder POLICY_DELTAS_PUBLISHED = counter("policy.deltas_published");
+    public static final LongAdder POLICY_SNAPSHOTS_INSTALLED = counter("policy.snapshots_installed");
+
+    /**
+     * Get or create a named counter
+     */
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * Current value of every counter, sorted by name
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> values = new ConcurrentSkipListMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+}
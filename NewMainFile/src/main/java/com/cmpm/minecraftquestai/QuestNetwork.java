@@ -0,0 +1,53 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.network.simple.SimpleChannel;
+
+/**
+ * Network channel carrying quest state to the client HUD.
+ * Clients without the mod are still allowed to join; they keep getting chat messages instead.
+ */
+public class QuestNetwork {
+    private static final String PROTOCOL_VERSION = "1";
+
+    public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
+            new ResourceLocation(MinecraftQuestAI.MODID, "quests"),
+            () -> PROTOCOL_VERSION,
+            NetworkRegistry.acceptMissingOr(PROTOCOL_VERSION),
+            NetworkRegistry.acceptMissingOr(PROTOCOL_VERSION));
+
+    /**
+     * Register all quest packets; call once during common setup
+     */
+    public static void register() {
+        int id = 0;
+        CHANNEL.messageBuilder(QuestSnapshotPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(QuestSnapshotPacket::encode)
+                .decoder(QuestSnapshotPacket::decode)
+                .consumerMainThread(QuestSnapshotPacket::handle)
+                .add();
+        CHANNEL.messageBuilder(QuestDeltaPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(QuestDeltaPacket::encode)
+                .decoder(QuestDeltaPacket::decode)
+                .consumerMainThread(QuestDeltaPacket::handle)
+                .add();
+    }
+
+    /**
+     * Whether the player's client has the quest channel, i.e. runs the mod and shows the HUD
+     */
+    public static boolean hasChannel(ServerPlayer player) {
+        // Fake players have no real connection to ask
+        return !(player instanceof FakePlayer) && player.connection != null
+                && CHANNEL.isRemotePresent(player.connection.connection);
+    }
+
+    public static void send(ServerPlayer player, Object packet) {
+        CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), packet);
+    }
+}
@@ -0,0 +1,169 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.Style;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Player parties and the shared quest each one works on.
+ * Membership lasts until the player leaves or logs out.
+ */
+public class QuestParties {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestParties.class);
+
+    private final Map<UUID, Party> partiesByMember = new HashMap<>();
+    // Invited player -> party they were invited to
+    private final Map<UUID, Party> invites = new HashMap<>();
+    private final QuestRandomSources randomSources;
+
+    public QuestParties(QuestRandomSources randomSources) {
+        this.randomSources = randomSources;
+    }
+
+    public Party getParty(UUID playerUUID) {
+        return partiesByMember.get(playerUUID);
+    }
+
+    /**
+     * Start a party led by the player, with its first shared quest
+     *
+     * @return The new party, or null if the player is already in one
+     */
+    public Party create(ServerPlayer leader) {
+        if (partiesByMember.containsKey(leader.getUUID())) {
+            return null;
+        }
+        Party party = new Party(leader.getUUID());
+        partiesByMember.put(leader.getUUID(), party);
+        startNextQuest(party);
+        LOGGER.info("Player {} created a quest party", leader.getName().getString());
+        return party;
+    }
+
+    /**
+     * Invite a player to the inviter's party
+     *
+     * @return false if the inviter has no party or the target is already in one
+     */
+    public boolean invite(ServerPlayer inviter, ServerPlayer target) {
+        Party party = partiesByMember.get(inviter.getUUID());
+        if (party == null || partiesByMember.containsKey(target.getUUID())) {
+            return false;
+        }
+        invites.put(target.getUUID(), party);
+        return true;
+    }
+
+    /**
+     * Join the party the player was last invited to
+     *
+     * @return The party joined, or null if there was no open invite
+     */
+    public Party accept(ServerPlayer player) {
+        Party party = invites.remove(player.getUUID());
+        if (party == null || party.members.isEmpty() || partiesByMember.containsKey(player.getUUID())) {
+            return null;
+        }
+        party.members.add(player.getUUID());
+        partiesByMember.put(player.getUUID(), party);
+        return party;
+    }
+
+    /**
+     * Remove a player from their party, passing leadership on if needed
+     */
+    public void leave(UUID playerUUID) {
+        invites.remove(playerUUID);
+        Party party = partiesByMember.remove(playerUUID);
+        if (party == null) {
+            return;
+        }
+        party.members.remove(playerUUID);
+        if (!party.members.isEmpty() && party.leader.equals(playerUUID)) {
+            party.leader = party.members.iterator().next();
+        }
+    }
+
+    /**
+     * Count a kill towards the killer's party quest, finishing it on the kill that crosses the target
+     */
+    public void onKill(ServerPlayer player, EntityType<?> entityType) {
+        Party party = partiesByMember.get(player.getUUID());
+        if (party == null || party.quest == null || !party.quest.matches(entityType)) {
+            return;
+        }
+        if (party.quest.contribute(player.getUUID(), 1)) {
+            completeQuest(player.getServer(), party);
+        }
+    }
+
+    private void completeQuest(MinecraftServer server, Party party) {
+        PartyQuest quest = party.quest;
+        LOGGER.info("Party of {} completed {}", party.members.size(), quest.getTitle());
+        for (UUID member : party.members) {
+            ServerPlayer player = server != null ? server.getPlayerList().getPlayer(member) : null;
+            if (player == null) {
+                continue;
+            }
+            player.sendSystemMessage(Component.literal("[Party Quest Completed] ")
+                    .withStyle(Style.EMPTY.withColor(0x55FF55))
+                    .append(Component.literal(quest.getTitle())
+                            .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+            quest.reward(player);
+        }
+
+        startNextQuest(party);
+        for (UUID member : party.members) {
+            ServerPlayer player = server != null ? server.getPlayerList().getPlayer(member) : null;
+            if (player != null) {
+                player.sendSystemMessage(Component.literal("[New Party Quest] ")
+                        .withStyle(Style.EMPTY.withColor(0x55FF55))
+                        .append(Component.literal(party.quest.getTitle())
+                                .withStyle(Style.EMPTY.withColor(0xFFFFFF))));
+            }
+        }
+    }
+
+    private void startNextQuest(Party party) {
+        party.quest = QuestGenerator.generatePartyQuest(QuestGenerator.getDifficultyLevel(), party.members.size(),
+                randomSources.forPlayer(party.leader));
+    }
+
+    /**
+     * A group of players sharing one quest
+     */
+    public static final class Party {
+        private final Set<UUID> members = new LinkedHashSet<>();
+        private UUID leader;
+        private PartyQuest quest;
+
+        private Party(UUID leader) {
+            this.leader = leader;
+            members.add(leader);
+        }
+
+        public UUID getLeader() {
+            return leader;
+        }
+
+        public Set<UUID> getMembers() {
+            return Collections.unmodifiableSet(members);
+        }
+
+        public PartyQuest getQuest() {
+            return quest;
+        }
+    }
+}
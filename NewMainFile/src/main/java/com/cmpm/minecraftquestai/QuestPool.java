@@ -0,0 +1,131 @@
+package com.cmpm.minecraftquestai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ready-made quest templates per difficulty tier and quest type, kept topped up by a background worker.
+ *
+ * Picking targets, rolling amounts and looking up display names happen on the worker, so handing
+ * out a replacement quest on the server thread is a queue poll plus the player-specific modifiers.
+ * Difficulties above the pooled tiers, or an empty pool, fall back to generating on the spot.
+ */
+public class QuestPool implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestPool.class);
+
+    static final int MAX_TIER = 10;
+    private static final int QUEST_TYPES = 2;
+    // Refill to the high watermark once a pool drops below the low one
+    private static final int HIGH_WATERMARK = 32;
+    private static final int LOW_WATERMARK = 8;
+    private static final long REFILL_INTERVAL_SECONDS = 5;
+
+    private final Queue<QuestGenerator.Template>[] pools;
+    private final AtomicInteger[] sizes;
+    private final ScheduledExecutorService worker;
+    private final AtomicBoolean refillPending = new AtomicBoolean();
+    // Only the worker thread draws from this
+    private final Random random = new Random();
+
+    @SuppressWarnings("unchecked")
+    private QuestPool() {
+        int count = MAX_TIER * QUEST_TYPES;
+        this.pools = (Queue<QuestGenerator.Template>[]) new Queue[count];
+        this.sizes = new AtomicInteger[count];
+        for (int i = 0; i < count; i++) {
+            pools[i] = new ConcurrentLinkedQueue<>();
+            sizes[i] = new AtomicInteger();
+        }
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Quest Pool Refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create a pool and start filling it in the background
+     */
+    public static QuestPool start() {
+        QuestPool pool = new QuestPool();
+        // Periodic pass as a backstop; takes also ask for a refill as soon as a pool runs low
+        pool.worker.scheduleWithFixedDelay(pool::refill, 0, REFILL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        return pool;
+    }
+
+    /**
+     * Take a template for the given quest type and difficulty
+     *
+     * @return A template, or null on a miss
+     */
+    public QuestGenerator.Template take(int questType, int difficulty) {
+        if (difficulty < 1 || difficulty > MAX_TIER || questType < 0 || questType >= QUEST_TYPES) {
+            QuestMetrics.QUEST_POOL_MISSES.increment();
+            return null;
+        }
+        int index = index(questType, difficulty);
+        QuestGenerator.Template template = pools[index].poll();
+        if (template == null) {
+            QuestMetrics.QUEST_POOL_MISSES.increment();
+            requestRefill();
+            return null;
+        }
+        QuestMetrics.QUEST_POOL_HITS.increment();
+        if (sizes[index].decrementAndGet() < LOW_WATERMARK) {
+            requestRefill();
+        }
+        return template;
+    }
+
+    private void requestRefill() {
+        if (refillPending.compareAndSet(false, true)) {
+            worker.execute(this::refill);
+        }
+    }
+
+    /**
+     * Runs on the worker: top every pool back up to the high watermark
+     */
+    private void refill() {
+        refillPending.set(false);
+        try {
+            int created = 0;
+            for (int tier = 1; tier <= MAX_TIER; tier++) {
+                for (int questType = 0; questType < QUEST_TYPES; questType++) {
+                    int index = index(questType, tier);
+                    while (sizes[index].get() < HIGH_WATERMARK) {
+                        pools[index].add(questType == QuestGenerator.KILL_QUEST
+                                ? QuestGenerator.createKillTemplate(tier, random)
+                                : QuestGenerator.createItemTemplate(tier, random));
+                        sizes[index].incrementAndGet();
+                        created++;
+                    }
+                }
+            }
+            if (created > 0) {
+                LOGGER.debug("Refilled quest pools with {} templates", created);
+            }
+        } catch (RuntimeException e) {
+            // Keep the worker alive; takes fall back to generating on the spot meanwhile
+            LOGGER.error("Failed to refill quest pools", e);
+        }
+    }
+
+    private static int index(int questType, int difficulty) {
+        return (difficulty - 1) * QUEST_TYPES + questType;
+    }
+
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+}
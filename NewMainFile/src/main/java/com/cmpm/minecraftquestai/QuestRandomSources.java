@@ -0,0 +1,47 @@
+package com.cmpm.minecraftquestai;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Hands out one seeded Random per player, derived from a single session seed.
+ * Two managers built with the same seed make the same choices for the same player.
+ */
+public class QuestRandomSources {
+    private final long sessionSeed;
+    private final Map<UUID, Random> playerRandoms = new HashMap<>();
+
+    public QuestRandomSources(long sessionSeed) {
+        this.sessionSeed = sessionSeed;
+    }
+
+    public long getSessionSeed() {
+        return sessionSeed;
+    }
+
+    /**
+     * Get the random source for a player, creating it on first use or after {@link #forgetPlayer}
+     */
+    public Random forPlayer(UUID playerUUID) {
+        return playerRandoms.computeIfAbsent(playerUUID,
+                uuid -> new Random(mix(sessionSeed ^ mix(uuid.getMostSignificantBits()) ^ uuid.getLeastSignificantBits())));
+    }
+
+    /**
+     * Drop a player's random source; the next {@link #forPlayer} derives it again from the seed and UUID
+     */
+    public void forgetPlayer(UUID playerUUID) {
+        playerRandoms.remove(playerUUID);
+    }
+
+    /**
+     * SplitMix64 finalizer, so neighbouring seeds and UUIDs do not give correlated streams
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
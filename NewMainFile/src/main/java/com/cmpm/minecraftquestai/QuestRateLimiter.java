@@ -0,0 +1,63 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.QuestTuning;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player token buckets for quest block clicks and quest generation.
+ * Rates and burst sizes come from the current {@link QuestTuning} on every call.
+ */
+public class QuestRateLimiter {
+    private final QuestClock clock;
+    private final Map<UUID, TokenBucket> blockUseBuckets = new ConcurrentHashMap<>();
+    private final Map<UUID, TokenBucket> generationBuckets = new ConcurrentHashMap<>();
+
+    public QuestRateLimiter(QuestClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Try to spend a quest block click for a player
+     */
+    public boolean tryBlockUse(UUID playerUUID) {
+        QuestTuning tuning = QuestTuning.get();
+        if (bucket(blockUseBuckets, playerUUID, tuning.blockUseBurst)
+                .tryAcquire(clock.currentTimeMillis(), tuning.blockUsesPerSecond, tuning.blockUseBurst)) {
+            return true;
+        }
+        QuestMetrics.BLOCK_USE_THROTTLED.increment();
+        return false;
+    }
+
+    /**
+     * Try to spend one quest generation for a player
+     */
+    public boolean tryGenerate(UUID playerUUID) {
+        QuestTuning tuning = QuestTuning.get();
+        if (bucket(generationBuckets, playerUUID, tuning.questGenerationBurst)
+                .tryAcquire(clock.currentTimeMillis(), tuning.questGenerationsPerMinute / 60.0, tuning.questGenerationBurst)) {
+            return true;
+        }
+        QuestMetrics.QUEST_GENERATION_THROTTLED.increment();
+        return false;
+    }
+
+    /**
+     * Drop a player's buckets, e.g. on logout
+     */
+    public void forget(UUID playerUUID) {
+        blockUseBuckets.remove(playerUUID);
+        generationBuckets.remove(playerUUID);
+    }
+
+    private TokenBucket bucket(Map<UUID, TokenBucket> buckets, UUID playerUUID, int burst) {
+        TokenBucket bucket = buckets.get(playerUUID);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(playerUUID, k -> new TokenBucket(clock.currentTimeMillis(), burst));
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,48 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Full list of a player's quests, sent on login and whenever the list itself changes.
+ * Later progress updates refer to quests by their position in this list.
+ */
+public class QuestSnapshotPacket {
+    private final List<ClientQuestState.Entry> entries;
+
+    public QuestSnapshotPacket(List<ClientQuestState.Entry> entries) {
+        this.entries = entries;
+    }
+
+    public void encode(FriendlyByteBuf buf) {
+        buf.writeVarInt(entries.size());
+        for (ClientQuestState.Entry entry : entries) {
+            buf.writeUtf(entry.title);
+            buf.writeBoolean(entry.itemQuest);
+            buf.writeUtf(entry.targetId);
+            buf.writeVarInt(entry.required);
+            buf.writeVarInt(entry.progress);
+            buf.writeBoolean(entry.completed);
+        }
+    }
+
+    public static QuestSnapshotPacket decode(FriendlyByteBuf buf) {
+        int size = buf.readVarInt();
+        List<ClientQuestState.Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ClientQuestState.Entry entry = new ClientQuestState.Entry(buf.readUtf(), buf.readBoolean(), buf.readUtf(), buf.readVarInt());
+            entry.progress = buf.readVarInt();
+            entry.completed = buf.readBoolean();
+            entries.add(entry);
+        }
+        return new QuestSnapshotPacket(entries);
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> context) {
+        ClientQuestState.applySnapshot(entries);
+    }
+}
@@ -0,0 +1,207 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quest data for every player, kept in the world folder instead of each player's .dat file.
+ *
+ * Players are sharded by the first byte of their UUID into {@link #SHARD_COUNT} region-style
+ * files, each a compressed NBT compound of UUID to quest data. A shard is read on the IO thread
+ * the first time one of its players is asked for, ideally ahead of time while the player is still
+ * logging in. Updates only mark their shard dirty; {@link #flush()} snapshots the dirty shards on
+ * the calling thread and leaves serialization, compression and the write itself to the IO thread.
+ */
+public class QuestStore implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestStore.class);
+
+    private static final int SHARD_COUNT = 256;
+
+    private final Path directory;
+    private final ExecutorService io;
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+
+    private QuestStore(Path directory) {
+        this.directory = directory;
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Quest Store IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    /**
+     * Open the store in a directory, creating it if needed
+     */
+    public static QuestStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new QuestStore(directory);
+    }
+
+    /**
+     * Start reading a player's shard in the background, so a later {@link #get} does not block
+     */
+    public void prefetch(UUID playerUUID) {
+        shardFor(playerUUID).load();
+    }
+
+    /**
+     * Get a player's quest data, waiting for their shard to load if it is not in memory yet
+     *
+     * @return The stored data, or null if the player has none
+     */
+    public CompoundTag get(UUID playerUUID) {
+        Shard shard = shardFor(playerUUID);
+        shard.load().join();
+        return shard.entries.get(playerUUID);
+    }
+
+    /**
+     * Replace a player's quest data. The tag must not be modified afterwards; it is written as is.
+     */
+    public void put(UUID playerUUID, CompoundTag questData) {
+        Shard shard = shardFor(playerUUID);
+        // A shard written before it was read would lose every other player in it
+        shard.load().join();
+        shard.entries.put(playerUUID, questData);
+        shard.dirty = true;
+    }
+
+    /**
+     * Write every shard changed since the last flush, in the background
+     *
+     * @return Completes once the writes are on disk, exceptionally if one of them failed
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<?>[] writes = new CompletableFuture<?>[SHARD_COUNT];
+        int count = 0;
+        for (Shard shard : shards) {
+            if (!shard.dirty) {
+                continue;
+            }
+            shard.dirty = false;
+            CompoundTag snapshot = new CompoundTag();
+            shard.entries.forEach((uuid, tag) -> snapshot.put(uuid.toString(), tag));
+            writes[count++] = CompletableFuture.runAsync(() -> shard.write(snapshot), io);
+        }
+        if (count > 0) {
+            LOGGER.debug("Flushing {} quest store shards", count);
+        }
+        return CompletableFuture.allOf(Arrays.copyOf(writes, count));
+    }
+
+    /**
+     * Flush everything and stop the IO thread
+     */
+    @Override
+    public void close() {
+        try {
+            flush().join();
+        } catch (CompletionException e) {
+            // Already logged by the failed write
+        }
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Quest store IO thread did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Shard shardFor(UUID playerUUID) {
+        return shards[(int) (playerUUID.getMostSignificantBits() >>> 56)];
+    }
+
+    /**
+     * One region-style file of players
+     */
+    private final class Shard {
+        private final Path file;
+        private final Map<UUID, CompoundTag> entries = new ConcurrentHashMap<>();
+        private CompletableFuture<Void> loaded;
+        // Cleared by the server thread when it snapshots the shard, set again by a write that failed
+        private volatile boolean dirty;
+
+        private Shard(int index) {
+            this.file = directory.resolve(String.format("quests.%02x.dat", index));
+        }
+
+        private synchronized CompletableFuture<Void> load() {
+            if (loaded == null) {
+                loaded = CompletableFuture.runAsync(this::read, io);
+            }
+            return loaded;
+        }
+
+        /**
+         * Runs on the IO thread
+         */
+        private void read() {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                CompoundTag root = NbtIo.readCompressed(in);
+                for (String key : root.getAllKeys()) {
+                    try {
+                        entries.putIfAbsent(UUID.fromString(key), root.getCompound(key));
+                    } catch (IllegalArgumentException e) {
+                        LOGGER.warn("Skipping bad player id {} in {}", key, file);
+                    }
+                }
+            } catch (IOException e) {
+                // Keep the unreadable file aside rather than overwrite it on the next flush
+                LOGGER.error("Could not read quest store shard {}, moving it aside", file, e);
+                try {
+                    Files.move(file, file.resolveSibling(file.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException moveError) {
+                    LOGGER.error("Could not move aside quest store shard {}", file, moveError);
+                }
+            }
+        }
+
+        /**
+         * Runs on the IO thread
+         */
+        private void write(CompoundTag snapshot) {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    NbtIo.writeCompressed(snapshot, out);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOGGER.error("Could not write quest store shard {}", file, e);
+                // Write it again on the next flush rather than leave the file stale until the shard changes
+                dirty = true;
+                // Fail the flush, so nothing treats these players as saved
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Collects quest changes during a tick and sends them to clients once at the end of it.
+ *
+ * A change to the quest list itself (assign, remove, replace) sends a full snapshot. Anything
+ * else only sends the changed progress of the quests touched, batched into one delta packet per
+ * player per tick no matter how many kills landed in between.
+ */
+public class QuestSync {
+    // Players whose whole quest list must be resent
+    private final Set<UUID> snapshotPending = new LinkedHashSet<>();
+    // Quests with changed progress per player, in change order
+    private final Map<UUID, Set<Quest>> progressPending = new HashMap<>();
+
+    /**
+     * The player's quest list changed; resend all of it
+     */
+    public void markQuestsChanged(UUID playerUUID) {
+        snapshotPending.add(playerUUID);
+        progressPending.remove(playerUUID);
+    }
+
+    /**
+     * One quest's progress or completion changed
+     */
+    public void markProgress(UUID playerUUID, Quest quest) {
+        if (!snapshotPending.contains(playerUUID)) {
+            progressPending.computeIfAbsent(playerUUID, k -> new LinkedHashSet<>()).add(quest);
+        }
+    }
+
+    public void forget(UUID playerUUID) {
+        snapshotPending.remove(playerUUID);
+        progressPending.remove(playerUUID);
+    }
+
+    /**
+     * Send everything collected since the last flush; called at the end of every server tick
+     */
+    public void flush(MinecraftServer server, QuestManager questManager) {
+        if (snapshotPending.isEmpty() && progressPending.isEmpty()) {
+            return;
+        }
+
+        for (UUID playerUUID : snapshotPending) {
+            ServerPlayer player = server.getPlayerList().getPlayer(playerUUID);
+            if (player != null && QuestNetwork.hasChannel(player)) {
+                QuestNetwork.send(player, buildSnapshot(player, questManager.getQuestsForPlayer(player)));
+                QuestMetrics.QUEST_SYNC_SNAPSHOTS.increment();
+            }
+        }
+        snapshotPending.clear();
+
+        for (Map.Entry<UUID, Set<Quest>> entry : progressPending.entrySet()) {
+            ServerPlayer player = server.getPlayerList().getPlayer(entry.getKey());
+            if (player != null && QuestNetwork.hasChannel(player)) {
+                QuestDeltaPacket delta = buildDelta(player, questManager.getQuestsForPlayer(player), entry.getValue());
+                if (delta != null) {
+                    QuestNetwork.send(player, delta);
+                    QuestMetrics.QUEST_SYNC_DELTAS.increment();
+                }
+            }
+        }
+        progressPending.clear();
+    }
+
+    private static QuestSnapshotPacket buildSnapshot(ServerPlayer player, List<Quest> quests) {
+        List<ClientQuestState.Entry> entries = new ArrayList<>(quests.size());
+        for (Quest quest : quests) {
+            ClientQuestState.Entry entry;
+            if (quest instanceof ItemCollectionQuest itemQuest) {
+                entry = new ClientQuestState.Entry(quest.getTitle(), true, itemQuest.getItemId(), quest.getRequiredAmount());
+            } else {
+                String targetId = quest instanceof EnemyKillQuest killQuest ? killQuest.getEntityId() : "";
+                entry = new ClientQuestState.Entry(quest.getTitle(), false, targetId, quest.getRequiredAmount());
+            }
+            entry.progress = quest.getProgress(player);
+            entry.completed = quest.isCompleted(player);
+            entries.add(entry);
+        }
+        return new QuestSnapshotPacket(entries);
+    }
+
+    private static QuestDeltaPacket buildDelta(ServerPlayer player, List<Quest> quests, Set<Quest> changed) {
+        int[] indices = new int[changed.size()];
+        int[] progress = new int[changed.size()];
+        boolean[] completed = new boolean[changed.size()];
+        int count = 0;
+        for (Quest quest : changed) {
+            // Quests refer to their slot in the last snapshot; ones no longer listed are skipped
+            int index = quests.indexOf(quest);
+            if (index < 0) {
+                continue;
+            }
+            indices[count] = index;
+            progress[count] = quest.getProgress(player);
+            completed[count] = quest.isCompleted(player);
+            count++;
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (count < indices.length) {
+            indices = Arrays.copyOf(indices, count);
+            progress = Arrays.copyOf(progress, count);
+            completed = Arrays.copyOf(completed, count);
+        }
+        return new QuestDeltaPacket(indices, progress, completed);
+    }
+}
@@ -0,0 +1,321 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.GameState;
+import com.cmpm.minecraftquestai.core.QuestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Every quest difficulty decision the server makes, written out as columnar files for offline training.
+ *
+ * Rows go into preallocated blocks of primitive arrays, one array per column, so recording a
+ * decision on the server thread is a handful of array stores. A full block is handed to a writer
+ * thread, which deflates each column separately and appends it to the current file; a fixed number
+ * of blocks circulate between the two threads, and rows are dropped rather than ever making the
+ * server thread wait. Files roll over every {@link #ROWS_PER_FILE} rows.
+ *
+ * File layout, all little-endian: magic "QTEL", u16 version, u16 column count, then per column a
+ * u8 name length, the ASCII name and a numpy dtype character. Then blocks: u32 row count, and per
+ * column a u32 raw length, u32 compressed length and that many zlib bytes, which decompress to
+ * exactly {@code rows} values of the column's dtype. RLModel/QuestTelemetry.py reads this.
+ */
+public class QuestTelemetry implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuestTelemetry.class);
+
+    private static final int MAGIC = 0x4C455451; // "QTEL" read little-endian
+    private static final short VERSION = 1;
+    private static final int BLOCK_ROWS = 4096;
+    private static final int BLOCK_COUNT = 8;
+    private static final long ROWS_PER_FILE = 1L << 20;
+
+    // Row kinds
+    public static final byte COMPLETED = 0;
+    public static final byte EXPIRED = 1;
+
+    // Column names and numpy dtype characters, in file order
+    private static final String[] COLUMN_NAMES = {
+            "time", "player", "event",
+            "mobs_killed", "items_collected", "quests_completed", "health", "difficulty",
+            "action", "reward", "next_difficulty",
+            "quest_type", "quest_required", "latency_nanos"
+    };
+    private static final char[] COLUMN_TYPES = {
+            'q', 'q', 'b',
+            'i', 'i', 'i', 'i', 'i',
+            'b', 'f', 'i',
+            'b', 'i', 'q'
+    };
+
+    private final Path directory;
+    private final BlockingQueue<Block> free = new ArrayBlockingQueue<>(BLOCK_COUNT);
+    private final BlockingQueue<Block> full = new ArrayBlockingQueue<>(BLOCK_COUNT + 1);
+    private final Thread writer;
+
+    // Only touched by the server thread
+    private Block current;
+
+    // Only touched by the writer thread
+    private FileChannel file;
+    private long fileRows;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteBuffer raw = ByteBuffer.allocate(BLOCK_ROWS * 8).order(ByteOrder.LITTLE_ENDIAN);
+    private byte[] compressed = new byte[BLOCK_ROWS * 8 + 64];
+
+    // Sentinel that tells the writer to finish
+    private static final Block END = new Block();
+
+    private QuestTelemetry(Path directory) {
+        this.directory = directory;
+        for (int i = 0; i < BLOCK_COUNT - 1; i++) {
+            free.add(new Block());
+        }
+        this.current = new Block();
+        this.writer = new Thread(this::runWriter, "Quest Telemetry Writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Start recording into a directory, creating it if needed
+     */
+    public static QuestTelemetry open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        QuestTelemetry telemetry = new QuestTelemetry(directory);
+        telemetry.writer.start();
+        return telemetry;
+    }
+
+    /**
+     * Record one decision or expiry. Server thread only; never blocks.
+     */
+    public void record(long time, UUID player, byte event, GameState state, QuestAction action, double reward,
+                       int nextDifficulty, byte questType, int questRequired, long latencyNanos) {
+        Block block = current;
+        if (block == null) {
+            // Every block is with the writer; take one back if it has finished with it
+            block = current = free.poll();
+            if (block == null) {
+                QuestMetrics.TELEMETRY_DROPPED.increment();
+                return;
+            }
+        }
+
+        int row = block.rows++;
+        block.time[row] = time;
+        block.player[row] = player.getMostSignificantBits() ^ player.getLeastSignificantBits();
+        block.event[row] = event;
+        block.mobsKilled[row] = state.getMobsKilled();
+        block.itemsCollected[row] = state.getItemsCollected();
+        block.questsCompleted[row] = state.getQuestsCompleted();
+        block.health[row] = state.getPlayerHealth();
+        block.difficulty[row] = state.getCurrentDifficultyLevel();
+        block.action[row] = action != null ? (byte) action.ordinal() : -1;
+        block.reward[row] = (float) reward;
+        block.nextDifficulty[row] = nextDifficulty;
+        block.questType[row] = questType;
+        block.questRequired[row] = questRequired;
+        block.latencyNanos[row] = latencyNanos;
+        QuestMetrics.TELEMETRY_ROWS.increment();
+
+        if (block.rows == BLOCK_ROWS) {
+            full.add(block);
+            current = free.poll();
+        }
+    }
+
+    /**
+     * Quest type code for the quest_type column
+     */
+    public static byte questType(Quest quest) {
+        if (quest instanceof EnemyKillQuest) {
+            return 0;
+        } else if (quest instanceof ItemCollectionQuest) {
+            return 1;
+        } else if (quest instanceof ExplorationQuest) {
+            return 2;
+        } else if (quest instanceof ActivityQuest) {
+            return 3;
+        } else if (quest instanceof CompositeQuest) {
+            return 4;
+        } else if (quest instanceof DefinedQuest) {
+            return 5;
+        }
+        return -1;
+    }
+
+    /**
+     * Write out the partly filled block and wait for the writer to finish. Server thread only.
+     */
+    @Override
+    public void close() {
+        if (current != null && current.rows > 0) {
+            full.add(current);
+        }
+        current = null;
+        full.add(END);
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        try {
+            while (true) {
+                Block block = full.take();
+                if (block == END) {
+                    break;
+                }
+                try {
+                    writeBlock(block);
+                } catch (IOException e) {
+                    LOGGER.error("Failed to write quest telemetry block, dropping {} rows", block.rows, e);
+                    QuestMetrics.TELEMETRY_DROPPED.add(block.rows);
+                    closeFile();
+                }
+                block.rows = 0;
+                free.offer(block);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeFile();
+            deflater.end();
+        }
+    }
+
+    private void writeBlock(Block block) throws IOException {
+        if (file == null || fileRows >= ROWS_PER_FILE) {
+            closeFile();
+            openFile();
+        }
+
+        ByteBuffer rowCount = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(block.rows).flip();
+        writeFully(rowCount);
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            raw.clear();
+            block.writeColumn(column, raw);
+            raw.flip();
+            int rawLength = raw.remaining();
+
+            deflater.reset();
+            deflater.setInput(raw.array(), 0, rawLength);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(rawLength).putInt(compressedLength).flip();
+            writeFully(header);
+            writeFully(ByteBuffer.wrap(compressed, 0, compressedLength));
+        }
+        fileRows += block.rows;
+    }
+
+    private void openFile() throws IOException {
+        Path path = directory.resolve("transitions-" + System.currentTimeMillis() + ".qcol");
+        file = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        fileRows = 0;
+
+        ByteBuffer header = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) COLUMN_NAMES.length);
+        for (int i = 0; i < COLUMN_NAMES.length; i++) {
+            byte[] name = COLUMN_NAMES[i].getBytes(StandardCharsets.US_ASCII);
+            header.put((byte) name.length).put(name).put((byte) COLUMN_TYPES[i]);
+        }
+        writeFully(header.flip());
+        LOGGER.info("Writing quest telemetry to {}", path);
+    }
+
+    private void closeFile() {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close quest telemetry file", e);
+        }
+        file = null;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            file.write(buffer);
+        }
+    }
+
+    /**
+     * One column-major batch of rows
+     */
+    private static final class Block {
+        private int rows;
+        private final long[] time = new long[BLOCK_ROWS];
+        private final long[] player = new long[BLOCK_ROWS];
+        private final byte[] event = new byte[BLOCK_ROWS];
+        private final int[] mobsKilled = new int[BLOCK_ROWS];
+        private final int[] itemsCollected = new int[BLOCK_ROWS];
+        private final int[] questsCompleted = new int[BLOCK_ROWS];
+        private final int[] health = new int[BLOCK_ROWS];
+        private final int[] difficulty = new int[BLOCK_ROWS];
+        private final byte[] action = new byte[BLOCK_ROWS];
+        private final float[] reward = new float[BLOCK_ROWS];
+        private final int[] nextDifficulty = new int[BLOCK_ROWS];
+        private final byte[] questType = new byte[BLOCK_ROWS];
+        private final int[] questRequired = new int[BLOCK_ROWS];
+        private final long[] latencyNanos = new long[BLOCK_ROWS];
+
+        /**
+         * Append the first {@code rows} values of a column, in the order of {@link #COLUMN_NAMES}
+         */
+        private void writeColumn(int column, ByteBuffer out) {
+            switch (column) {
+                case 0 -> out.asLongBuffer().put(time, 0, rows);
+                case 1 -> out.asLongBuffer().put(player, 0, rows);
+                case 2 -> out.put(event, 0, rows);
+                case 3 -> out.asIntBuffer().put(mobsKilled, 0, rows);
+                case 4 -> out.asIntBuffer().put(itemsCollected, 0, rows);
+                case 5 -> out.asIntBuffer().put(questsCompleted, 0, rows);
+                case 6 -> out.asIntBuffer().put(health, 0, rows);
+                case 7 -> out.asIntBuffer().put(difficulty, 0, rows);
+                case 8 -> out.put(action, 0, rows);
+                case 9 -> out.asFloatBuffer().put(reward, 0, rows);
+                case 10 -> out.asIntBuffer().put(nextDifficulty, 0, rows);
+                case 11 -> out.put(questType, 0, rows);
+                case 12 -> out.asIntBuffer().put(questRequired, 0, rows);
+                case 13 -> out.asLongBuffer().put(latencyNanos, 0, rows);
+                default -> throw new IllegalArgumentException("No telemetry column " + column);
+            }
+            // Typed views write through without moving the byte buffer's own position
+            out.position(rows * width(COLUMN_TYPES[column]));
+        }
+
+        private static int width(char type) {
+            return switch (type) {
+                case 'q' -> 8;
+                case 'i', 'f' -> 4;
+                default -> 1;
+            };
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.cmpm.minecraftquestai;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+
+/**
+ * One gameplay event as plain fields, for compiled {@link QuestCondition}s to read.
+ *
+ * The quest manager keeps a single instance and refills it for each event on the server thread,
+ * so matching an event against any number of conditions allocates nothing.
+ */
+public final class QuestTrigger {
+    public enum Kind {
+        KILL,
+        MINE,
+        CRAFT,
+        SMELT,
+        FISH;
+
+        /**
+         * The bit for this kind in a player's subscription mask
+         */
+        public int bit() {
+            return 1 << ordinal();
+        }
+
+        public static Kind of(ActivityQuest.Activity activity) {
+            return switch (activity) {
+                case MINE -> MINE;
+                case CRAFT -> CRAFT;
+                case SMELT -> SMELT;
+                case FISH -> FISH;
+            };
+        }
+    }
+
+    Kind kind;
+    // What was killed; null for other kinds
+    EntityType<?> entityType;
+    // Crafted, smelted or fished item, or the item form of a mined block; null if there is none
+    Item item;
+    // What was mined; null for other kinds
+    Block block;
+    ResourceKey<Level> dimension;
+    // Ticks into the current day, 0 to 23999
+    int timeOfDay;
+    // Items in the event, e.g. a crafted stack; 1 for kills and mined blocks
+    int amount;
+
+    /**
+     * Start a new event where the player is now, with no target set yet
+     */
+    QuestTrigger reset(Kind kind, ServerPlayer player, int amount) {
+        this.kind = kind;
+        this.entityType = null;
+        this.item = null;
+        this.block = null;
+        this.dimension = player.level().dimension();
+        this.timeOfDay = (int) (player.level().getDayTime() % 24000L);
+        this.amount = amount;
+        return this;
+    }
+}
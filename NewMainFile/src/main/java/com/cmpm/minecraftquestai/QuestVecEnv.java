@@ -0,0 +1,161 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.GameState;
+import com.cmpm.minecraftquestai.core.QuestAction;
+import com.cmpm.minecraftquestai.core.QuestDifficulty;
+import com.cmpm.minecraftquestai.core.QuestRewards;
+
+import java.util.Random;
+
+/**
+ * A batch of simulated players for training the difficulty policy against the real quest logic.
+ *
+ * Each step hands every simulated player the follow-up quest that {@link QuestGenerator} would give
+ * after the chosen action, scores the action with {@link QuestRewards#calculateReward}, and then lets
+ * the player try the quest. Players differ only in a hidden skill level: the bigger a quest is
+ * compared to what they can manage, the likelier they are to fail it, which costs health and counts
+ * as a failure for adaptive difficulty. Episodes end after a fixed number of quests and start over
+ * with a new player.
+ *
+ * Each environment has a generator state of its own, with its own {@link QuestDifficulty}, which it
+ * installs on the calling thread for its step; the live server's difficulty is never touched, so a
+ * batch runs on any one thread at a time, never the server's.
+ */
+public class QuestVecEnv {
+    // mobs killed, items collected, quests completed, health, difficulty, current quest size
+    public static final int OBSERVATION_SIZE = 6;
+    public static final int EPISODE_LENGTH = 200;
+
+    private static final int MAX_HEALTH = 20;
+    private static final int FAILURE_HEALTH_COST = 5;
+    private static final int SUCCESS_HEALTH_GAIN = 3;
+    private static final double FAILURE_REWARD = -2.0;
+    // Chains count as this many plain objectives per step
+    private static final int CHAIN_STEP_EFFORT = 4;
+    private static final QuestAction[] ACTIONS = QuestAction.values();
+
+    private final int size;
+    private final long seed;
+    private final Random[] randoms;
+    private final GameState[] states;
+    private final QuestGenerator.State[] generatorStates;
+    private final Quest[] quests;
+    private final double[] skill;
+    private final int[] steps;
+    private int episodes;
+
+    public QuestVecEnv(int size, long seed) {
+        this.size = size;
+        this.seed = seed;
+        this.randoms = new Random[size];
+        this.states = new GameState[size];
+        this.generatorStates = new QuestGenerator.State[size];
+        this.quests = new Quest[size];
+        this.skill = new double[size];
+        this.steps = new int[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Start a fresh episode in every environment
+     *
+     * @param observations Filled with {@link #OBSERVATION_SIZE} values per environment
+     */
+    public void reset(int[] observations) {
+        try {
+            for (int i = 0; i < size; i++) {
+                resetEnv(i);
+                observe(i, observations, i * OBSERVATION_SIZE);
+            }
+        } finally {
+            QuestGenerator.useState(null);
+        }
+    }
+
+    /**
+     * Step every environment once. Finished episodes are reset straight away.
+     *
+     * @param actions One {@link QuestAction} ordinal per environment
+     * @param observations Filled with the observation after the step, or after the reset if the episode ended
+     * @param rewards Filled with the reward of each step
+     * @param dones Set to 1 where the episode ended
+     * @param finalObservations Filled with the last observation of every episode that ended
+     */
+    public void step(byte[] actions, int[] observations, float[] rewards, byte[] dones, int[] finalObservations) {
+        try {
+            for (int i = 0; i < size; i++) {
+                rewards[i] = (float) stepEnv(i, ACTIONS[Math.floorMod(actions[i], ACTIONS.length)]);
+                if (++steps[i] >= EPISODE_LENGTH) {
+                    observe(i, finalObservations, i * OBSERVATION_SIZE);
+                    dones[i] = 1;
+                    resetEnv(i);
+                } else {
+                    dones[i] = 0;
+                }
+                observe(i, observations, i * OBSERVATION_SIZE);
+            }
+        } finally {
+            QuestGenerator.useState(null);
+        }
+    }
+
+    private void resetEnv(int i) {
+        Random random = randoms[i] = new Random(seed ^ ((long) episodes++ * 0x9E3779B97F4A7C15L + i));
+        generatorStates[i] = new QuestGenerator.State(new QuestDifficulty(1), QuestClock.SYSTEM);
+        QuestGenerator.useState(generatorStates[i]);
+        skill[i] = 0.5 + random.nextDouble() * 1.5;
+        states[i] = new GameState(0, 0, 0, MAX_HEALTH, 1);
+        quests[i] = QuestGenerator.generateQuestByType(random.nextInt(2), 1, random);
+        steps[i] = 0;
+    }
+
+    /**
+     * The same decision {@link QuestManager#generateNewQuestAfterCompletion} makes, then the player's attempt
+     */
+    private double stepEnv(int i, QuestAction action) {
+        QuestGenerator.useState(generatorStates[i]);
+        Random random = randoms[i];
+        GameState state = states[i];
+
+        Quest quest = QuestGenerator.generateFollowUpQuest(quests[i], state, action, random, null, null, null);
+        double reward = QuestRewards.calculateReward(state, action);
+        GameState next = QuestRewards.simulateNextState(state, action);
+
+        int effort = quest instanceof CompositeQuest
+                ? quest.getRequiredAmount() * CHAIN_STEP_EFFORT
+                : quest.getRequiredAmount();
+        double capacity = skill[i] * 6 * next.getPlayerHealth() / MAX_HEALTH;
+        boolean completed = random.nextDouble() < 1.0 / (1.0 + Math.exp(effort - capacity));
+        if (completed) {
+            if (quest instanceof EnemyKillQuest) {
+                next.setMobsKilled(next.getMobsKilled() + effort);
+            } else if (quest instanceof ItemCollectionQuest) {
+                next.setItemsCollected(next.getItemsCollected() + effort);
+            }
+            next.setPlayerHealth(Math.min(MAX_HEALTH, next.getPlayerHealth() + SUCCESS_HEALTH_GAIN));
+        } else {
+            QuestGenerator.recordQuestFailure();
+            next.setQuestsCompleted(state.getQuestsCompleted());
+            next.setPlayerHealth(Math.max(1, next.getPlayerHealth() - FAILURE_HEALTH_COST));
+            next.setCurrentDifficultyLevel(QuestGenerator.getDifficultyLevel());
+            reward += FAILURE_REWARD;
+        }
+
+        states[i] = next;
+        quests[i] = quest;
+        return reward;
+    }
+
+    private void observe(int i, int[] out, int offset) {
+        GameState state = states[i];
+        out[offset] = state.getMobsKilled();
+        out[offset + 1] = state.getItemsCollected();
+        out[offset + 2] = state.getQuestsCompleted();
+        out[offset + 3] = state.getPlayerHealth();
+        out[offset + 4] = state.getCurrentDifficultyLevel();
+        out[offset + 5] = quests[i].getRequiredAmount();
+    }
+}
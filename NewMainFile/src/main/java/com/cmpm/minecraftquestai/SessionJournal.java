@@ -0,0 +1,429 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.FederatedLearner;
+import com.cmpm.minecraftquestai.core.PolicySnapshot;
+import com.cmpm.minecraftquestai.core.QuestDifficulty;
+import com.cmpm.minecraftquestai.core.QuestLearner;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.ReportedException;
+import net.minecraft.nbt.NbtIo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary journal of the inputs that drive quest progress.
+ *
+ * Layout: a header (magic, version, session seed, start time, the whole difficulty state, the
+ * learning engine and, for a federated learner, its policy table) followed by records of the form [type][time delta varint][player ref varint][payload].
+ * Players and strings are written in full the first time they appear and by index afterwards,
+ * so a typical kill record is four or five bytes.
+ */
+public class SessionJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionJournal.class);
+
+    private static final int MAGIC = 0x514A4E4C; // "QJNL"
+    private static final short VERSION = 2;
+
+    // Record types
+    public static final byte LOGIN = 1;
+    public static final byte RESPAWN = 2;
+    public static final byte LOGOUT = 3;
+    public static final byte KILL = 4;
+    public static final byte INVENTORY_DELTA = 5;
+    public static final byte BLOCK_USE = 6;
+    public static final byte EXPIRE = 7;
+    public static final byte REACH = 8;
+    public static final byte ACTIVITY = 9;
+
+    private final DataOutputStream out;
+    private final Map<UUID, Integer> playerIndex = new HashMap<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    // Last inventory count written per player and item, so only changes are recorded
+    private final Map<UUID, Map<String, Integer>> lastInventoryCounts = new HashMap<>();
+    private long lastTime;
+    private long recordCount;
+
+    private SessionJournal(DataOutputStream out, long startTime) {
+        this.out = out;
+        this.lastTime = startTime;
+    }
+
+    /**
+     * Open a new journal file and write its header: everything a replay needs to make the same decisions
+     */
+    public static SessionJournal create(Path file, long sessionSeed, long startTime, String learningEngine,
+                                        QuestLearner learner) throws IOException {
+        Files.createDirectories(file.getParent());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(sessionSeed);
+        out.writeLong(startTime);
+        QuestGenerator.getDifficulty().write(out);
+        out.writeUTF(learningEngine);
+        // QLearning's table is keyed by state identity, so only a federated learner's table can be carried over
+        out.writeBoolean(learner instanceof FederatedLearner);
+        if (learner instanceof FederatedLearner federated) {
+            federated.getPolicyTable().snapshot().write(out);
+        }
+        LOGGER.info("Recording quest session to {}", file);
+        return new SessionJournal(out, startTime);
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public void recordLogin(byte type, long time, UUID player, float health, CompoundTag questData) {
+        try {
+            writeHeader(type, time, player);
+            out.writeByte(Math.round(health));
+            NbtIo.write(questData, out);
+            // A fresh login starts a fresh inventory baseline
+            lastInventoryCounts.remove(player);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordLogout(long time, UUID player) {
+        try {
+            writeHeader(LOGOUT, time, player);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordKill(long time, UUID player, String entityId) {
+        try {
+            writeHeader(KILL, time, player);
+            writeString(entityId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Record the current count of a quest item, writing a delta only if it changed since the last record
+     */
+    public void recordInventoryCount(long time, UUID player, String itemId, int count) {
+        Map<String, Integer> counts = lastInventoryCounts.computeIfAbsent(player, k -> new HashMap<>());
+        int previous = counts.getOrDefault(itemId, 0);
+        if (previous == count) {
+            return;
+        }
+        counts.put(itemId, count);
+        try {
+            writeHeader(INVENTORY_DELTA, time, player);
+            writeString(itemId);
+            writeVarLong(zigZag(count - previous));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void recordBlockUse(long time, UUID player, float health) {
+        try {
+            writeHeader(BLOCK_USE, time, player);
+            out.writeByte(Math.round(health));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Record a quest deadline passing; expiry is driven by server ticks, which replays do not have
+     */
+    public void recordExpire(long time, UUID player, String questId) {
+        try {
+            writeHeader(EXPIRE, time, player);
+            writeString(questId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Record an exploration target being reached; movement itself is not journaled
+     */
+    public void recordReach(long time, UUID player, String questId) {
+        try {
+            writeHeader(REACH, time, player);
+            writeString(questId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Record a block mined or an item crafted, smelted or fished up by a player with a matching quest
+     */
+    public void recordActivity(long time, UUID player, ActivityQuest.Activity activity, String targetId, int amount) {
+        try {
+            writeHeader(ACTIVITY, time, player);
+            out.writeByte(activity.ordinal());
+            writeString(targetId);
+            writeVarLong(amount);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        LOGGER.info("Closed quest session journal after {} records", recordCount);
+    }
+
+    private void writeHeader(byte type, long time, UUID player) throws IOException {
+        out.writeByte(type);
+        writeVarLong(Math.max(0, time - lastTime));
+        lastTime = Math.max(lastTime, time);
+
+        Integer index = playerIndex.get(player);
+        if (index == null) {
+            // Index equal to the table size means "new entry follows"
+            writeVarLong(playerIndex.size());
+            out.writeLong(player.getMostSignificantBits());
+            out.writeLong(player.getLeastSignificantBits());
+            playerIndex.put(player, playerIndex.size());
+        } else {
+            writeVarLong(index);
+        }
+        recordCount++;
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            writeVarLong(stringIndex.size());
+            out.writeUTF(value);
+            stringIndex.put(value, stringIndex.size());
+        } else {
+            writeVarLong(index);
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void fail(IOException e) {
+        // Recording must never break gameplay, so log and carry on
+        LOGGER.error("Failed to write quest session journal", e);
+    }
+
+    /**
+     * Receives journal records in order during a read
+     */
+    public interface Visitor {
+        void onHeader(Header header);
+
+        void onLogin(byte type, long time, UUID player, int health, CompoundTag questData);
+
+        void onLogout(long time, UUID player);
+
+        void onKill(long time, UUID player, String entityId);
+
+        void onInventoryDelta(long time, UUID player, String itemId, int delta);
+
+        void onBlockUse(long time, UUID player, int health);
+
+        void onQuestExpired(long time, UUID player, String questId);
+
+        void onTargetReached(long time, UUID player, String questId);
+
+        void onActivity(long time, UUID player, ActivityQuest.Activity activity, String targetId, int amount);
+    }
+
+    /**
+     * Header fields of a journal file
+     */
+    public static class Header {
+        public long sessionSeed;
+        public long startTime;
+        public QuestDifficulty difficulty;
+        public String learningEngine;
+        // The learner's table when recording started, or null for a learner that has none
+        public PolicySnapshot policy;
+    }
+
+    /**
+     * Read a journal file, feeding every record to the visitor. A journal cut short by a crash
+     * reads up to its last complete record.
+     *
+     * @return The journal header
+     */
+    public static Header read(Path file, Visitor visitor) throws IOException {
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try (DataInputStream in = new DataInputStream(counter)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a quest session journal: " + file);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported quest session journal version " + version);
+            }
+
+            Header header = new Header();
+            header.sessionSeed = in.readLong();
+            header.startTime = in.readLong();
+            header.difficulty = QuestDifficulty.read(in);
+            header.learningEngine = in.readUTF();
+            if (in.readBoolean()) {
+                header.policy = PolicySnapshot.read(in);
+            }
+            visitor.onHeader(header);
+
+            List<UUID> players = new ArrayList<>();
+            List<String> strings = new ArrayList<>();
+            long time = header.startTime;
+
+            while (true) {
+                long recordStart = counter.position;
+                int type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                try {
+                    time += readVarLong(in);
+                    UUID player = readPlayer(in, players);
+
+                    // Each record is read in full before the visitor sees it
+                    switch (type) {
+                        case LOGIN, RESPAWN -> {
+                            int health = in.readUnsignedByte();
+                            visitor.onLogin((byte) type, time, player, health, NbtIo.read(in));
+                        }
+                        case LOGOUT -> visitor.onLogout(time, player);
+                        case KILL -> visitor.onKill(time, player, readString(in, strings));
+                        case INVENTORY_DELTA -> {
+                            String itemId = readString(in, strings);
+                            long raw = readVarLong(in);
+                            visitor.onInventoryDelta(time, player, itemId, (int) ((raw >>> 1) ^ -(raw & 1)));
+                        }
+                        case BLOCK_USE -> visitor.onBlockUse(time, player, in.readUnsignedByte());
+                        case EXPIRE -> visitor.onQuestExpired(time, player, readString(in, strings));
+                        case REACH -> visitor.onTargetReached(time, player, readString(in, strings));
+                        case ACTIVITY -> {
+                            ActivityQuest.Activity activity = ActivityQuest.Activity.values()[in.readUnsignedByte()];
+                            String targetId = readString(in, strings);
+                            visitor.onActivity(time, player, activity, targetId, (int) readVarLong(in));
+                        }
+                        default -> throw new IOException("Unknown journal record type " + type);
+                    }
+                } catch (EOFException e) {
+                    // A crash cut the last record short; everything before it still replays
+                    truncated(file, recordStart);
+                    break;
+                } catch (ReportedException e) {
+                    // NBT reads report a short read as a crash
+                    if (!(e.getCause() instanceof EOFException)) {
+                        throw e;
+                    }
+                    truncated(file, recordStart);
+                    break;
+                }
+            }
+            return header;
+        }
+    }
+
+    private static void truncated(Path file, long recordStart) throws IOException {
+        LOGGER.warn("Quest session journal {} ends in a partial record, dropped its last {} bytes",
+                file, Files.size(file) - recordStart);
+    }
+
+    private static UUID readPlayer(DataInputStream in, List<UUID> players) throws IOException {
+        int index = (int) readVarLong(in);
+        if (index == players.size()) {
+            players.add(new UUID(in.readLong(), in.readLong()));
+        }
+        return players.get(index);
+    }
+
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int index = (int) readVarLong(in);
+        if (index == strings.size()) {
+            strings.add(in.readUTF());
+        }
+        return strings.get(index);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated quest session journal");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    /**
+     * Tracks how far into the file a read is, so a cut-off tail can be measured
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        long position;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.cmpm.minecraftquestai;
+
+import com.cmpm.minecraftquestai.core.FederatedLearner;
+import com.cmpm.minecraftquestai.core.QuestLearner;
+import com.mojang.authlib.GameProfile;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.common.util.FakePlayerFactory;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Feeds a recorded session journal back through a fresh QuestManager as fast as it can be read.
+ *
+ * Each recorded player is driven by a fake player with the same UUID, so the per-player random
+ * sources line up with the recording. A replay runs on a thread of its own against its own
+ * generator state, so the live server keeps ticking and its difficulty never moves; it only goes
+ * to the server thread to create fake players.
+ */
+public class SessionReplayer implements SessionJournal.Visitor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionReplayer.class);
+
+    private final ServerLevel level;
+    private final ReplayClock clock = new ReplayClock();
+    private final Map<UUID, FakePlayer> players = new HashMap<>();
+    // Quest item counts per player, rebuilt from the recorded deltas
+    private final Map<UUID, Map<String, Integer>> inventoryCounts = new HashMap<>();
+    private QuestManager questManager;
+    private long records;
+
+    private SessionReplayer(ServerLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Replay a journal file and report how long it took. Call off the server thread, which the replay
+     * waits on whenever it needs a new fake player.
+     */
+    public static Result replay(ServerLevel level, Path file) throws IOException {
+        SessionReplayer replayer = new SessionReplayer(level);
+        long start = System.nanoTime();
+        try {
+            SessionJournal.read(file, replayer);
+        } finally {
+            QuestGenerator.useState(null);
+        }
+
+        Result result = new Result(replayer.records, replayer.players.size(), System.nanoTime() - start,
+                replayer.questManager);
+        LOGGER.info("Replayed {} records for {} players from {} in {} ms",
+                result.records, result.players, file, result.elapsedNanos / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Start from the state the recording started from: difficulty, learner and what it had learned
+     */
+    @Override
+    public void onHeader(SessionJournal.Header header) {
+        clock.time = header.startTime;
+        QuestGenerator.useState(new QuestGenerator.State(header.difficulty, clock));
+        questManager = new QuestManager(clock, header.sessionSeed);
+
+        QuestLearner learner = MinecraftQuestAI.createLearner(header.learningEngine);
+        if (header.policy != null && learner instanceof FederatedLearner federated) {
+            try {
+                federated.getPolicyTable().install(header.policy);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Recorded {} policy does not fit this version's learner, replaying from an empty one",
+                        header.learningEngine, e);
+            }
+        }
+        questManager.setLearner(learner);
+    }
+
+    @Override
+    public void onLogin(byte type, long time, UUID player, int health, CompoundTag questData) {
+        advance(time);
+        FakePlayer fakePlayer = getPlayer(player);
+        fakePlayer.setHealth(health);
+
+        // Restore exactly the quest data the real player arrived with
+        CompoundTag persistentData = fakePlayer.getPersistentData();
+        if (questData.isEmpty()) {
+            persistentData.remove(MinecraftQuestAI.MODID + "_questData");
+        } else {
+            persistentData.put(MinecraftQuestAI.MODID + "_questData", questData);
+        }
+        questManager.loadPlayerQuestData(fakePlayer);
+    }
+
+    @Override
+    public void onLogout(long time, UUID player) {
+        advance(time);
+        questManager.savePlayerQuestData(getPlayer(player));
+    }
+
+    @Override
+    public void onKill(long time, UUID player, String entityId) {
+        advance(time);
+        EntityType<?> entityType = ForgeRegistries.ENTITY_TYPES.getValue(new ResourceLocation(entityId));
+        if (entityType != null) {
+            EnemyKillQuest.handleKill(questManager, getPlayer(player), entityType);
+        }
+    }
+
+    @Override
+    public void onInventoryDelta(long time, UUID player, String itemId, int delta) {
+        advance(time);
+        inventoryCounts.computeIfAbsent(player, k -> new HashMap<>()).merge(itemId, delta, Integer::sum);
+    }
+
+    @Override
+    public void onBlockUse(long time, UUID player, int health) {
+        advance(time);
+        FakePlayer fakePlayer = getPlayer(player);
+        fakePlayer.setHealth(health);
+
+        for (Map.Entry<String, Integer> entry : inventoryCounts.getOrDefault(player, Map.of()).entrySet()) {
+            setItemCount(fakePlayer.getInventory(), entry.getKey(), entry.getValue());
+        }
+
+        // Same path as QuestBlock.use, minus the chat output
+        if (!questManager.getQuestsForPlayer(fakePlayer).isEmpty()) {
+            questManager.checkAndRewardCompletedQuests(fakePlayer);
+        } else if (questManager.hasQuests()) {
+            questManager.initializePlayerQuests(fakePlayer);
+        }
+    }
+
+    @Override
+    public void onQuestExpired(long time, UUID player, String questId) {
+        advance(time);
+        FakePlayer fakePlayer = getPlayer(player);
+        for (Quest quest : questManager.getQuestsForPlayer(fakePlayer)) {
+            if (quest.getId().equals(questId)) {
+                questManager.expireQuest(fakePlayer, quest);
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void onTargetReached(long time, UUID player, String questId) {
+        advance(time);
+        FakePlayer fakePlayer = getPlayer(player);
+        for (Quest quest : questManager.getQuestsForPlayer(fakePlayer)) {
+            if (quest.getId().equals(questId) && quest instanceof ExplorationQuest explorationQuest) {
+                questManager.reachTarget(fakePlayer, explorationQuest);
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void onActivity(long time, UUID player, ActivityQuest.Activity activity, String targetId, int amount) {
+        advance(time);
+        questManager.onActivity(getPlayer(player), activity, targetId, amount);
+    }
+
+    private void advance(long time) {
+        clock.time = time;
+        records++;
+    }
+
+    private FakePlayer getPlayer(UUID uuid) {
+        // Created on the server thread: Forge keeps fake players in a plain map, and placing one reads the world
+        return players.computeIfAbsent(uuid, id -> level.getServer().submit(() -> {
+            FakePlayer fakePlayer = FakePlayerFactory.get(level,
+                    new GameProfile(id, "replay_" + id.toString().substring(0, 8)));
+            // Fake players are cached by Forge, so clear anything left over from a previous replay
+            fakePlayer.getInventory().clearContent();
+            fakePlayer.getPersistentData().remove(MinecraftQuestAI.MODID + "_questData");
+            return fakePlayer;
+        }).join());
+    }
+
+    private static void setItemCount(Inventory inventory, String itemId, int count) {
+        Item item = ForgeRegistries.ITEMS.getValue(new ResourceLocation(itemId));
+        if (item == null) {
+            return;
+        }
+        for (int i = 0; i < inventory.getContainerSize(); i++) {
+            if (inventory.getItem(i).is(item)) {
+                inventory.setItem(i, ItemStack.EMPTY);
+            }
+        }
+        int remaining = count;
+        while (remaining > 0) {
+            int stackSize = Math.min(remaining, item.getMaxStackSize());
+            if (!inventory.add(new ItemStack(item, stackSize))) {
+                break;
+            }
+            remaining -= stackSize;
+        }
+    }
+
+    /**
+     * Clock that only moves when the journal says so
+     */
+    private static class ReplayClock implements QuestClock {
+        private long time;
+
+        @Override
+        public long currentTimeMillis() {
+            return time;
+        }
+    }
+
+    /**
+     * Outcome of a replay run
+     */
+    public static class Result {
+        public final long records;
+        public final int players;
+        public final long elapsedNanos;
+        public final QuestManager questManager;
+
+        private Result(long records, int players, long elapsedNanos, QuestManager questManager) {
+            this.records = records;
+            this.players = players;
+            this.elapsedNanos = elapsedNanos;
+            this.questManager = questManager;
+        }
+
+        public double recordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+}
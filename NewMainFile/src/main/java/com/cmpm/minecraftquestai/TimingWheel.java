@@ -0,0 +1,143 @@
+package com.cmpm.minecraftquestai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for tick-based timeouts.
+ *
+ * Timeouts hash into a fixed ring of buckets by deadline, each bucket a doubly linked list.
+ * Scheduling and cancelling are O(1), and advancing one tick only visits the single bucket for
+ * that tick, so the cost per tick is independent of how many timeouts are pending overall.
+ * Not thread-safe; use it from the server thread.
+ */
+public class TimingWheel<T> {
+    private final Timeout<T>[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.buckets = (Timeout<T>[]) new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Number of pending timeouts
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedule a payload to expire after the given number of ticks (at least one)
+     */
+    public Timeout<T> schedule(T payload, long delayTicks) {
+        Timeout<T> timeout = new Timeout<>(payload, currentTick + Math.max(1, delayTicks));
+        link(timeout);
+        return timeout;
+    }
+
+    /**
+     * Cancel a pending timeout
+     *
+     * @return false if it had already expired or been cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Advance the wheel to the given tick, handing every timeout that falls due to the callback.
+     * The callback may schedule or cancel other timeouts.
+     */
+    public void advanceTo(long tick, Consumer<T> onExpire) {
+        List<T> expired = new ArrayList<>();
+        while (currentTick < tick) {
+            currentTick++;
+            // Only entries in this bucket can be due now; later rounds stay put
+            Timeout<T> node = buckets[(int) (currentTick & mask)];
+            while (node != null) {
+                Timeout<T> next = node.next;
+                if (node.deadline <= currentTick) {
+                    unlink(node);
+                    expired.add(node.payload);
+                }
+                node = next;
+            }
+            // Fire after the bucket walk so callbacks cannot disturb the iteration
+            for (T payload : expired) {
+                onExpire.accept(payload);
+            }
+            expired.clear();
+        }
+    }
+
+    private void link(Timeout<T> timeout) {
+        int index = (int) (timeout.deadline & mask);
+        Timeout<T> head = buckets[index];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+        timeout.bucket = index;
+        size++;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    /**
+     * Handle to a scheduled payload
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadline;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private int bucket = -1;
+
+        private Timeout(T payload, long deadline) {
+            this.payload = payload;
+            this.deadline = deadline;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isPending() {
+            return bucket >= 0;
+        }
+    }
+}
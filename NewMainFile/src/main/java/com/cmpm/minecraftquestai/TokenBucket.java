@@ -0,0 +1,67 @@
+package com.cmpm.minecraftquestai;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket packed into a single AtomicLong.
+ *
+ * The upper 42 bits hold the last refill time in milliseconds and the lower 22 bits the token
+ * count in 1/1024ths of a token. Rate and burst are passed on every call, so a config reload
+ * takes effect immediately without rebuilding buckets.
+ */
+public class TokenBucket {
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long TIME_MASK = (1L << (64 - TOKEN_BITS)) - 1;
+    private static final int FRACTION_BITS = 10;
+    private static final long ONE_TOKEN = 1L << FRACTION_BITS;
+
+    private final AtomicLong state;
+
+    /**
+     * Create a bucket that starts full
+     */
+    public TokenBucket(long nowMillis, int burst) {
+        this.state = new AtomicLong(pack(nowMillis, capacity(burst)));
+    }
+
+    /**
+     * Take one token if available
+     *
+     * @param nowMillis Current time in milliseconds
+     * @param tokensPerSecond Refill rate
+     * @param burst Maximum number of tokens the bucket can hold
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire(long nowMillis, double tokensPerSecond, int burst) {
+        long capacity = capacity(burst);
+        long now = nowMillis & TIME_MASK;
+        while (true) {
+            long current = state.get();
+            long last = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+
+            long elapsed = Math.max(0, now - last);
+            long refill = (long) (elapsed * tokensPerSecond * ONE_TOKEN / 1000.0);
+            long available = Math.min(capacity, tokens + refill);
+            if (available < ONE_TOKEN) {
+                // Nothing to write back, so a rejected call costs one volatile read
+                return false;
+            }
+
+            // Keep the old timestamp if nothing refilled yet, so fractional refill keeps accumulating
+            long updated = pack(refill > 0 ? now : last, available - ONE_TOKEN);
+            if (state.compareAndSet(current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    private static long capacity(int burst) {
+        return Math.min(TOKEN_MASK, (long) Math.max(1, burst) << FRACTION_BITS);
+    }
+
+    private static long pack(long timeMillis, long tokens) {
+        return ((timeMillis & TIME_MASK) << TOKEN_BITS) | tokens;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cmpm.minecraftquestai;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * The K highest scores, maintained as scores change.
+ *
+ * Scores may only grow. A player outside the board can only enter by beating the lowest entry,
+ * and whoever that evicts can never have a higher score than the new lowest entry, so the board
+ * stays exact without ever looking at players outside it. Each update is O(log K).
+ */
+public class TopKLeaderboard {
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingLong(entry -> entry.score).reversed()
+            .thenComparing(entry -> entry.player);
+
+    private final int capacity;
+    // Best first
+    private final TreeSet<Entry> ranked = new TreeSet<>(ORDER);
+    private final Map<UUID, Entry> entries = new HashMap<>();
+
+    public TopKLeaderboard(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Report a player's new total score
+     */
+    public synchronized void update(UUID player, String name, long score) {
+        Entry current = entries.get(player);
+        if (current != null) {
+            if (score <= current.score) {
+                return;
+            }
+            ranked.remove(current);
+        } else if (ranked.size() >= capacity) {
+            Entry lowest = ranked.last();
+            if (score <= lowest.score) {
+                return;
+            }
+            ranked.pollLast();
+            entries.remove(lowest.player);
+        }
+
+        Entry entry = new Entry(player, name, score);
+        ranked.add(entry);
+        entries.put(player, entry);
+    }
+
+    /**
+     * Current board, best first
+     */
+    public synchronized List<Entry> getTop() {
+        return List.copyOf(ranked);
+    }
+
+    public synchronized void clear() {
+        ranked.clear();
+        entries.clear();
+    }
+
+    /**
+     * One row of the board
+     */
+    public static final class Entry {
+        public final UUID player;
+        public final String name;
+        public final long score;
+
+        private Entry(UUID player, String name, long score) {
+            this.player = player;
+            this.name = name;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import glob
+import struct
+import sys
+import zlib
+
+import numpy as np
+
+# Reads the .qcol telemetry files the mod writes to <world>/minecraft_quest_ai/telemetry
+MAGIC = b"QTEL"
+
+
+def read_file(path):
+    """Read one telemetry file into a dict of column name to numpy array"""
+    with open(path, "rb") as f:
+        data = f.read()
+
+    if data[:4] != MAGIC:
+        raise ValueError(f"{path} is not a quest telemetry file")
+    version, column_count = struct.unpack_from("<HH", data, 4)
+    offset = 8
+
+    columns = []
+    for _ in range(column_count):
+        name_length = data[offset]
+        name = data[offset + 1:offset + 1 + name_length].decode("ascii")
+        dtype = np.dtype("<" + chr(data[offset + 1 + name_length]))
+        columns.append((name, dtype))
+        offset += name_length + 2
+
+    chunks = {name: [] for name, _ in columns}
+    # A file cut short by a crash just loses its last partial block
+    while offset + 4 <= len(data):
+        (rows,) = struct.unpack_from("<I", data, offset)
+        block_offset = offset + 4
+        block = {}
+        try:
+            for name, dtype in columns:
+                raw_length, compressed_length = struct.unpack_from("<II", data, block_offset)
+                block_offset += 8
+                raw = zlib.decompress(data[block_offset:block_offset + compressed_length])
+                block_offset += compressed_length
+                if len(raw) != raw_length or raw_length != rows * dtype.itemsize:
+                    raise ValueError("bad column length")
+                block[name] = np.frombuffer(raw, dtype)
+        except (struct.error, zlib.error, ValueError):
+            print(f"Ignoring truncated block at byte {offset} of {path}", file=sys.stderr)
+            break
+        for name in chunks:
+            chunks[name].append(block[name])
+        offset = block_offset
+
+    return {name: np.concatenate(parts) if parts else np.empty(0, dtype)
+            for (name, dtype), parts in zip(columns, chunks.values())}
+
+
+def read_all(pattern):
+    """Read and concatenate every telemetry file matching a glob, oldest first"""
+    tables = [read_file(path) for path in sorted(glob.glob(pattern))]
+    if not tables:
+        return {}
+    return {name: np.concatenate([table[name] for table in tables]) for name in tables[0]}
+
+
+def transitions(table):
+    """(state, action, reward, next_difficulty) arrays for the completion decisions in a table"""
+    decisions = table["event"] == 0
+    state = np.stack([table["mobs_killed"], table["items_collected"], table["quests_completed"],
+                      table["health"], table["difficulty"]], axis=1)[decisions]
+    return state, table["action"][decisions], table["reward"][decisions], table["next_difficulty"][decisions]
+
+
+if __name__ == "__main__":
+    table = read_all(sys.argv[1] if len(sys.argv) > 1 else "telemetry/*.qcol")
+    rows = len(table.get("time", []))
+    print(f"{rows} rows")
+    if rows:
+        print(f"{int((table['event'] == 1).sum())} expiries")
+        print(f"mean reward {table['reward'][table['event'] == 0].mean():.3f}")
+        print(f"median generation latency {np.median(table['latency_nanos']) / 1000:.1f} us")
@@ -0,0 +1,89 @@
+import socket
+import struct
+
+import numpy as np
+from gymnasium import spaces
+from stable_baselines3.common.vec_env import VecEnv
+
+# Talks to the mod's quest environment server (envServerPort in the mod config)
+OBSERVATION_SIZE = 6  # mobs killed, items collected, quests completed, health, difficulty, quest size
+ACTION_COUNT = 4  # QuestAction: increase/decrease mobs, increase/decrease items
+
+
+class QuestVecEnv(VecEnv):
+    """All environments live in the game server; each step is one request for the whole batch"""
+
+    def __init__(self, num_envs, host="127.0.0.1", port=25590, seed=0):
+        observation_space = spaces.Box(low=0, high=np.iinfo(np.int32).max, shape=(OBSERVATION_SIZE,), dtype=np.float32)
+        super().__init__(num_envs, observation_space, spaces.Discrete(ACTION_COUNT))
+        self.sock = socket.create_connection((host, port))
+        self.sock.setsockopt(socket.IPPROTO_TCP, socket.TCP_NODELAY, 1)
+        self.seed_value = seed
+        self.actions = None
+        obs_bytes = num_envs * OBSERVATION_SIZE * 4
+        self.step_layout = (obs_bytes, num_envs * 4, num_envs, obs_bytes)
+        self.step_buffer = bytearray(sum(self.step_layout))
+
+    def _recv_into(self, buffer):
+        view = memoryview(buffer)
+        while len(view):
+            read = self.sock.recv_into(view)
+            if read == 0:
+                raise ConnectionError("quest environment server closed the connection")
+            view = view[read:]
+
+    def _observations(self, raw):
+        return np.frombuffer(raw, dtype="<i4").reshape(self.num_envs, OBSERVATION_SIZE).astype(np.float32)
+
+    def reset(self):
+        self.sock.sendall(b"R" + struct.pack("<Iq", self.num_envs, self.seed_value))
+        raw = bytearray(self.num_envs * OBSERVATION_SIZE * 4)
+        self._recv_into(raw)
+        return self._observations(raw)
+
+    def step_async(self, actions):
+        self.actions = np.asarray(actions, dtype=np.uint8)
+
+    def step_wait(self):
+        self.sock.sendall(b"S" + self.actions.tobytes())
+        self._recv_into(self.step_buffer)
+        obs_end, reward_end, done_end = np.cumsum(self.step_layout[:3])
+        data = memoryview(self.step_buffer)
+        obs = self._observations(data[:obs_end])
+        rewards = np.frombuffer(data[obs_end:reward_end], dtype="<f4").copy()
+        dones = np.frombuffer(data[reward_end:done_end], dtype=np.uint8).astype(bool)
+        final_obs = self._observations(data[done_end:])
+        # Episodes only end by running out of quests, so they are truncations
+        infos = [{"terminal_observation": final_obs[i], "TimeLimit.truncated": True} if dones[i] else {}
+                 for i in range(self.num_envs)]
+        return obs, rewards, dones, infos
+
+    def close(self):
+        try:
+            self.sock.sendall(b"C")
+        finally:
+            self.sock.close()
+
+    def seed(self, seed=None):
+        if seed is not None:
+            self.seed_value = seed
+        return [self.seed_value + i for i in range(self.num_envs)]
+
+    def get_attr(self, attr_name, indices=None):
+        return [getattr(self, attr_name)] * len(self._get_indices(indices))
+
+    def set_attr(self, attr_name, value, indices=None):
+        setattr(self, attr_name, value)
+
+    def env_method(self, method_name, *method_args, indices=None, **method_kwargs):
+        raise NotImplementedError("quest environments live in the game server")
+
+    def env_is_wrapped(self, wrapper_class, indices=None):
+        return [False] * len(self._get_indices(indices))
+
+    def _get_indices(self, indices):
+        if indices is None:
+            return range(self.num_envs)
+        if isinstance(indices, int):
+            return [indices]
+        return indices
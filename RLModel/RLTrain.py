@@ -1,12 +1,20 @@
+import os
+
 from stable_baselines3 import PPO
 from stable_baselines3.common.env_util import make_vec_env
 from MinecraftQuest import MinecraftQuestEnv
+from QuestVecEnv import QuestVecEnv
 # Create the environment
 def make_env():
     return MinecraftQuestEnv()
 
 # Create the vectorized environment
-env = make_vec_env(make_env, n_envs=4)
+# With QUEST_ENV_PORT set, train against the quest logic running in a game server instead of the stub
+port = os.environ.get("QUEST_ENV_PORT")
+if port:
+    env = QuestVecEnv(num_envs=int(os.environ.get("QUEST_ENV_COUNT", "64")), port=int(port))
+else:
+    env = make_vec_env(make_env, n_envs=4)
 
 # Initialize the PPO model
 model = PPO("MlpPolicy", env, verbose=1)
@@ -15,4 +23,4 @@ model = PPO("MlpPolicy", env, verbose=1)
 model.learn(total_timesteps=10000)
 
 # Save the model
-model.save("minecraft_quest_ppo")
\ No newline at end of file
+model.save("minecraft_quest_ppo")
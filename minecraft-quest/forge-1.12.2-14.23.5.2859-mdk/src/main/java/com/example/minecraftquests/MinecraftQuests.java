@@ -22,11 +22,13 @@ public class MinecraftQuests {
     private static Logger logger;
     
     public static Block questBlock;
+    public static QuestService questService;
 
     @EventHandler
     public void preInit(FMLPreInitializationEvent event) {
         logger = event.getModLog();
         questBlock = new QuestBlock();
+        questService = new QuestService();
     }
 
     @EventHandler
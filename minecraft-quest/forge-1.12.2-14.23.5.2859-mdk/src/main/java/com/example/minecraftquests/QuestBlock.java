@@ -8,7 +8,6 @@ import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumHand;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.text.TextComponentString;
 import net.minecraft.world.World;
 
 public class QuestBlock extends Block {
@@ -28,13 +27,7 @@ public class QuestBlock extends Block {
                                    EnumHand hand, EnumFacing facing, float hitX, float hitY, float hitZ) {
         if (!worldIn.isRemote) {
             // This code runs on the server side
-            playerIn.sendMessage(new TextComponentString("§6[Quest] §rHello " + playerIn.getName() + "! This is your quest block speaking."));
-            playerIn.sendMessage(new TextComponentString("§6[Quest] §rYou can add custom quest logic here."));
-            
-            // Example of custom code you might want to add:
-            // checkQuestProgress(playerIn);
-            // offerQuest(playerIn);
-            // completeQuest(playerIn);
+            checkQuestProgress(playerIn);
             
             return true;
         }
@@ -42,9 +35,8 @@ public class QuestBlock extends Block {
         return true; // Return true on both client and server to prevent further processing
     }
     
-    // Example method for custom quest logic
+    // Offers a quest, reports progress on it, or completes it and offers the next one
     private void checkQuestProgress(EntityPlayer player) {
-        // Here you can implement custom quest logic
-        // For example, check if player has certain items, or has completed certain tasks
+        MinecraftQuests.questService.use(player);
     }
 }
\ No newline at end of file
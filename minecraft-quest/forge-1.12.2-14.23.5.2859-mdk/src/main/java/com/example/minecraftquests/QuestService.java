@@ -0,0 +1,282 @@
+package com.example.minecraftquests;
+
+import com.cmpm.minecraftquestai.core.GameState;
+import com.cmpm.minecraftquestai.core.PersonalizedQLearning;
+import com.cmpm.minecraftquestai.core.QuestAction;
+import com.cmpm.minecraftquestai.core.QuestDecision;
+import com.cmpm.minecraftquestai.core.QuestDifficulty;
+import com.cmpm.minecraftquestai.core.QuestLearner;
+import com.cmpm.minecraftquestai.core.QuestRecord;
+import com.cmpm.minecraftquestai.core.QuestRewards;
+import com.cmpm.minecraftquestai.core.QuestTemplate;
+import com.cmpm.minecraftquestai.core.QuestTemplates;
+import com.cmpm.minecraftquestai.core.QuestTuning;
+import net.minecraft.entity.EntityList;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Quest block logic for 1.12.2, on top of the shared quest engine.
+ *
+ * Each player has one kill or collection quest at a time. Kills are counted as they happen, items
+ * are counted from the inventory when the player comes back to a quest block. Finishing a quest
+ * trains the shared learner, which keeps small corrections for players who stray from the rest,
+ * and hands out a quest of the other type at the new difficulty.
+ * The quest and its progress live in the player's persisted NBT, so they survive death and restarts.
+ * Server thread only.
+ */
+public class QuestService {
+    private static final Logger LOGGER = LogManager.getLogger(MinecraftQuests.MODID);
+
+    private static final String DATA_KEY = MinecraftQuests.MODID;
+    // Draws before settling for a standard target that every version has
+    private static final int TEMPLATE_ATTEMPTS = 8;
+
+    private final QuestLearner learner = new PersonalizedQLearning();
+    private final Random random = new Random();
+    private final Map<UUID, PlayerQuests> players = new HashMap<>();
+
+    /**
+     * A player used a quest block: offer a quest, report progress, or complete it and offer the next one
+     */
+    public void use(EntityPlayer player) {
+        PlayerQuests quests = get(player);
+        QuestRecord quest = quests.quest;
+        if (quest == null) {
+            offer(player, quests, random.nextInt(2));
+            return;
+        }
+
+        if (quest.questType == QuestRecord.ITEM_QUEST) {
+            quest.progress = Math.min(quest.requiredAmount, countItems(player, quest.targetId));
+        }
+        if (quest.progress < quest.requiredAmount) {
+            send(player, quest.title + ": " + quest.progress + "/" + quest.requiredAmount);
+            save(player, quests);
+            return;
+        }
+
+        complete(player, quests);
+        offer(player, quests, quest.questType == QuestRecord.KILL_QUEST ? QuestTemplate.ITEM : QuestTemplate.KILL);
+    }
+
+    /**
+     * Count a kill towards the killer's quest
+     */
+    public void onKill(EntityPlayer player, ResourceLocation entityId) {
+        PlayerQuests quests = get(player);
+        QuestRecord quest = quests.quest;
+        if (quest == null || quest.questType != QuestRecord.KILL_QUEST || quest.progress >= quest.requiredAmount
+                || !quest.targetId.equals(entityId.toString())) {
+            return;
+        }
+        quest.progress++;
+        quests.state.setMobsKilled(quests.state.getMobsKilled() + 1);
+        if (quest.progress >= quest.requiredAmount) {
+            send(player, quest.title + " done! Return to a quest block for your reward.");
+        }
+        save(player, quests);
+    }
+
+    public void forget(EntityPlayer player) {
+        players.remove(player.getUniqueID());
+        learner.forgetPlayer(player.getUniqueID());
+    }
+
+    private void offer(EntityPlayer player, PlayerQuests quests, int questType) {
+        QuestTemplate template = pickTemplate(questType, quests.difficulty.getLevel());
+        int required = quests.difficulty.requiredAmount(template);
+        String title = (template.questType == QuestTemplate.KILL ? "Defeat " : "Collect ") + required + " "
+                + displayName(template.targetId);
+        // Template and record quest types share their numbering
+        quests.quest = new QuestRecord("quest_" + System.currentTimeMillis() + "_" + random.nextInt(1000),
+                (byte) template.questType, title, template.targetId, required);
+        send(player, "New quest: " + title);
+        save(player, quests);
+    }
+
+    private void complete(EntityPlayer player, PlayerQuests quests) {
+        QuestRecord quest = quests.quest;
+        QuestTuning tuning = QuestTuning.get();
+        if (quest.questType == QuestRecord.ITEM_QUEST) {
+            Item item = ForgeRegistries.ITEMS.getValue(new ResourceLocation(quest.targetId));
+            player.inventory.clearMatchingItems(item, -1, quest.requiredAmount, null);
+            quests.state.setItemsCollected(quests.state.getItemsCollected() + quest.requiredAmount);
+            player.addExperience(tuning.itemXp);
+        } else {
+            player.addExperience(tuning.killXp);
+        }
+        send(player, "Quest complete: " + quest.title);
+
+        // Same decision and training step as the 1.20.1 mod makes after a completion
+        GameState state = quests.state;
+        state.setPlayerHealth((int) player.getHealth());
+        state.setCurrentDifficultyLevel(quests.difficulty.getLevel());
+        // This completion is the real outcome of the previous decision
+        if (quests.pendingDecision != null) {
+            quests.pendingDecision.resolve(learner, player.getUniqueID(), state);
+        }
+        QuestAction action = learner.chooseAction(player.getUniqueID(), state, random);
+        quests.difficulty.applyAction(action);
+        quests.difficulty.recordCompletion();
+        quests.pendingDecision = new QuestDecision(state, action, QuestRewards.calculateReward(state, action));
+        quests.state = QuestRewards.simulateNextState(state, action);
+        quests.quest = null;
+        LOGGER.debug("{} completed {}, learner chose {}", player.getName(), quest.questId, action);
+    }
+
+    /**
+     * A template whose target exists in this version; some of the shared targets were added after 1.12
+     */
+    private QuestTemplate pickTemplate(int questType, int difficultyLevel) {
+        for (int attempt = 0; attempt < TEMPLATE_ATTEMPTS; attempt++) {
+            QuestTemplate template = QuestTemplates.ofType(questType, difficultyLevel, random);
+            if (exists(template)) {
+                return template;
+            }
+        }
+        // Difficulty 1 only draws from the standard targets
+        return QuestTemplates.ofType(questType, 1, random);
+    }
+
+    private static boolean exists(QuestTemplate template) {
+        ResourceLocation id = new ResourceLocation(template.targetId);
+        return template.questType == QuestTemplate.KILL ? EntityList.isRegistered(id) : ForgeRegistries.ITEMS.containsKey(id);
+    }
+
+    private static int countItems(EntityPlayer player, String itemId) {
+        Item item = ForgeRegistries.ITEMS.getValue(new ResourceLocation(itemId));
+        int count = 0;
+        for (ItemStack stack : player.inventory.mainInventory) {
+            if (!stack.isEmpty() && stack.getItem() == item) {
+                count += stack.getCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Turns a resource id like minecraft:wither_skeleton into Wither Skeleton
+     */
+    private static String displayName(String resourceId) {
+        StringBuilder name = new StringBuilder();
+        for (String word : new ResourceLocation(resourceId).getResourcePath().split("_")) {
+            if (!word.isEmpty()) {
+                name.append(name.length() > 0 ? " " : "").append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+            }
+        }
+        return name.toString();
+    }
+
+    private static void send(EntityPlayer player, String message) {
+        player.sendMessage(new TextComponentString("§6[Quest] §r" + message));
+    }
+
+    private PlayerQuests get(EntityPlayer player) {
+        PlayerQuests quests = players.get(player.getUniqueID());
+        if (quests == null) {
+            quests = load(player);
+            players.put(player.getUniqueID(), quests);
+        }
+        return quests;
+    }
+
+    private static PlayerQuests load(EntityPlayer player) {
+        NBTTagCompound data = persisted(player).getCompoundTag(DATA_KEY);
+        PlayerQuests quests = new PlayerQuests(data.getInteger("difficulty"));
+        quests.state = new GameState(data.getInteger("mobsKilled"), data.getInteger("itemsCollected"),
+                data.getInteger("questsCompleted"), (int) player.getHealth(), quests.difficulty.getLevel());
+        if (data.hasKey("quest")) {
+            try {
+                quests.quest = QuestRecord.read(new DataInputStream(new ByteArrayInputStream(data.getByteArray("quest"))));
+            } catch (IOException e) {
+                LOGGER.warn("Dropping unreadable quest of {}", player.getName(), e);
+            }
+        }
+        return quests;
+    }
+
+    private static void save(EntityPlayer player, PlayerQuests quests) {
+        NBTTagCompound data = new NBTTagCompound();
+        data.setInteger("difficulty", quests.difficulty.getLevel());
+        data.setInteger("mobsKilled", quests.state.getMobsKilled());
+        data.setInteger("itemsCollected", quests.state.getItemsCollected());
+        data.setInteger("questsCompleted", quests.state.getQuestsCompleted());
+        if (quests.quest != null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            try {
+                quests.quest.write(new DataOutputStream(bytes));
+            } catch (IOException e) {
+                throw new IllegalStateException("In-memory write failed", e);
+            }
+            data.setByteArray("quest", bytes.toByteArray());
+        }
+        persisted(player).setTag(DATA_KEY, data);
+    }
+
+    /**
+     * The part of the player's NBT that is copied over on respawn
+     */
+    private static NBTTagCompound persisted(EntityPlayer player) {
+        NBTTagCompound entityData = player.getEntityData();
+        if (!entityData.hasKey(EntityPlayer.PERSISTED_NBT_TAG)) {
+            entityData.setTag(EntityPlayer.PERSISTED_NBT_TAG, new NBTTagCompound());
+        }
+        return entityData.getCompoundTag(EntityPlayer.PERSISTED_NBT_TAG);
+    }
+
+    /**
+     * A player's quest, learner state and difficulty, cached while they are online
+     */
+    private static class PlayerQuests {
+        final QuestDifficulty difficulty;
+        GameState state;
+        QuestRecord quest;
+        // Learned from at the next completion
+        QuestDecision pendingDecision;
+
+        PlayerQuests(int difficultyLevel) {
+            this.difficulty = new QuestDifficulty(difficultyLevel);
+        }
+    }
+
+    @Mod.EventBusSubscriber(modid = MinecraftQuests.MODID)
+    public static class Events {
+        @SubscribeEvent
+        public static void onLivingDeath(LivingDeathEvent event) {
+            if (event.getSource().getTrueSource() instanceof EntityPlayerMP) {
+                ResourceLocation entityId = EntityList.getKey(event.getEntityLiving());
+                if (entityId != null) {
+                    MinecraftQuests.questService.onKill((EntityPlayer) event.getSource().getTrueSource(), entityId);
+                }
+            }
+        }
+
+        @SubscribeEvent
+        public static void onLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+            MinecraftQuests.questService.forget(event.player);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.cmpm.minecraftquestai.core;
+
+/**
+ * A learner whose Q-values live in a {@link PolicyTable}, so several servers can merge what they
+ * learn through a {@link PolicyStore}. Only the shared part of a learner is federated; anything
+ * kept per player stays on the server the player is on.
+ */
+public interface FederatedLearner extends QuestLearner {
+    PolicyTable getPolicyTable();
+}
@@ -1,4 +1,4 @@
-package com.cmpm.minecraftquestai;
+package com.cmpm.minecraftquestai.core;
 
 public class GameState {
     private int mobsKilled;
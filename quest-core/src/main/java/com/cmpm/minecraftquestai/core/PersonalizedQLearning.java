@@ -0,0 +1,174 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Q-learning with a server-wide prior and a small correction per player.
+ *
+ * Every update trains the shared prior. A player only gets a delta table once one of their rewards
+ * disagrees with what prior plus delta expected by more than {@code playerDeltaThreshold}. The table
+ * then holds at most {@code playerDeltaEntries} state-action corrections in primitive arrays, and
+ * when it is full the smallest correction makes way. Decisions for a player read prior + delta, so
+ * players who play like everyone else cost nothing beyond the prior.
+ *
+ * Q-values are kept over the {@link QuestStates reduced states}. Not thread-safe; the server thread owns it.
+ */
+public class PersonalizedQLearning implements FederatedLearner {
+    private static final QuestAction[] ACTIONS = QuestAction.values();
+    // Most corrections a player can keep, whatever the tuning says
+    public static final int MAX_DELTA_ENTRIES = 64;
+
+    // Only the prior is shared between servers; corrections stay with the player's server
+    private final PolicyTable table = new PolicyTable(QuestStates.COUNT * ACTIONS.length);
+    private final double[] prior = table.values;
+    private final Map<UUID, Delta> deltas = new HashMap<>();
+    private final Random random = new Random();
+
+    public QuestAction chooseAction(GameState state) {
+        return chooseAction(null, state, random);
+    }
+
+    @Override
+    public QuestAction chooseAction(GameState state, Random random) {
+        return chooseAction(null, state, random);
+    }
+
+    @Override
+    public QuestAction chooseAction(UUID player, GameState state, Random random) {
+        if (random.nextDouble() < QuestTuning.get().explorationRate) {
+            return ACTIONS[random.nextInt(ACTIONS.length)];
+        }
+        return bestAction(deltas.get(player), QuestStates.index(state) * ACTIONS.length);
+    }
+
+    @Override
+    public void updateQValue(GameState state, QuestAction action, double reward, GameState nextState) {
+        updateQValue(null, state, action, reward, nextState);
+    }
+
+    @Override
+    public void updateQValue(UUID player, GameState state, QuestAction action, double reward, GameState nextState) {
+        QuestTuning tuning = QuestTuning.get();
+        int pair = QuestStates.index(state) * ACTIONS.length + action.ordinal();
+        int nextBase = QuestStates.index(nextState) * ACTIONS.length;
+        Delta delta = deltas.get(player);
+        double target = reward + tuning.discountFactor * maxValue(delta, nextBase);
+
+        table.add(pair, tuning.learningRate * (reward + tuning.discountFactor * maxValue(null, nextBase) - prior[pair]));
+        if (player == null) {
+            return;
+        }
+
+        // Whatever the prior did not explain is this player's own
+        double residual = target - value(delta, pair);
+        int slot = delta == null ? -1 : delta.indexOf(pair);
+        if (slot >= 0) {
+            delta.values[slot] += tuning.learningRate * residual;
+        } else if (Math.abs(residual) > tuning.playerDeltaThreshold) {
+            if (delta == null) {
+                delta = new Delta(Math.max(1, Math.min(MAX_DELTA_ENTRIES, tuning.playerDeltaEntries)));
+                deltas.put(player, delta);
+            }
+            delta.offer(pair, tuning.learningRate * residual);
+        }
+    }
+
+    @Override
+    public QuestAction getBestAction(GameState state) {
+        return bestAction(null, QuestStates.index(state) * ACTIONS.length);
+    }
+
+    @Override
+    public void forgetPlayer(UUID player) {
+        deltas.remove(player);
+    }
+
+    @Override
+    public PolicyTable getPolicyTable() {
+        return table;
+    }
+
+    /**
+     * How many players currently have their own corrections
+     */
+    public int getPersonalizedPlayerCount() {
+        return deltas.size();
+    }
+
+    private QuestAction bestAction(Delta delta, int base) {
+        int best = 0;
+        double bestValue = value(delta, base);
+        for (int i = 1; i < ACTIONS.length; i++) {
+            double candidate = value(delta, base + i);
+            if (candidate > bestValue) {
+                best = i;
+                bestValue = candidate;
+            }
+        }
+        return ACTIONS[best];
+    }
+
+    private double maxValue(Delta delta, int base) {
+        double max = value(delta, base);
+        for (int i = 1; i < ACTIONS.length; i++) {
+            max = Math.max(max, value(delta, base + i));
+        }
+        return max;
+    }
+
+    private double value(Delta delta, int pair) {
+        if (delta == null) {
+            return prior[pair];
+        }
+        int slot = delta.indexOf(pair);
+        return slot < 0 ? prior[pair] : prior[pair] + delta.values[slot];
+    }
+
+    /**
+     * A player's corrections to the prior, as parallel arrays searched linearly since they are tiny
+     */
+    private static final class Delta {
+        private final int[] pairs;
+        private final double[] values;
+        private int size;
+
+        Delta(int capacity) {
+            this.pairs = new int[capacity];
+            this.values = new double[capacity];
+        }
+
+        int indexOf(int pair) {
+            for (int i = 0; i < size; i++) {
+                if (pairs[i] == pair) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Add a correction, displacing the smallest one if the table is full and it is smaller than this
+         */
+        void offer(int pair, double value) {
+            int slot = size;
+            if (size == pairs.length) {
+                slot = 0;
+                for (int i = 1; i < size; i++) {
+                    if (Math.abs(values[i]) < Math.abs(values[slot])) {
+                        slot = i;
+                    }
+                }
+                if (Math.abs(values[slot]) >= Math.abs(value)) {
+                    return;
+                }
+            } else {
+                size++;
+            }
+            pairs[slot] = pair;
+            values[slot] = value;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.util.Random;
+
+/**
+ * Simulated kinds of player, for measuring how the difficulty learner copes with each.
+ *
+ * Quest sizes follow {@link QuestGenerator}'s kill quests: one to three plus 0.7 per difficulty
+ * level. A player completes a quest with a probability that falls off as its size passes their
+ * capacity, which shrinks with lost health. Erratic players' capacity also wanders over time.
+ */
+public enum PlayerArchetype {
+    NOVICE(3.5, 6, 0.0),
+    CASUAL(5.5, 4, 0.0),
+    GRINDER(7.0, 1, 0.0),
+    VETERAN(9.0, 2, 0.0),
+    ERRATIC(6.0, 4, 0.4);
+
+    public static final int MAX_HEALTH = 20;
+    // Difficulty where a healthy player still finishes at least this share of quests
+    private static final double SUSTAINABLE_COMPLETION_RATE = 0.75;
+    private static final int MAX_DIFFICULTY = 50;
+
+    private final double capacity;
+    private final int healthCost;
+    private final double drift;
+
+    PlayerArchetype(double capacity, int healthCost, double drift) {
+        this.capacity = capacity;
+        this.healthCost = healthCost;
+        this.drift = drift;
+    }
+
+    /**
+     * Health lost by failing a quest
+     */
+    public int getHealthCost() {
+        return healthCost;
+    }
+
+    /**
+     * Starting capacity, before any drift
+     */
+    public double getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Move a capacity one step along this archetype's random walk
+     */
+    public double drift(double current, Random random) {
+        if (drift == 0.0) {
+            return current;
+        }
+        return Math.max(1.0, Math.min(capacity * 2, current + random.nextGaussian() * drift));
+    }
+
+    /**
+     * Draw the size of a quest at a difficulty
+     */
+    public static int questSize(int difficulty, Random random) {
+        return Math.min(15, 1 + random.nextInt(3) + (int) (difficulty * 0.7));
+    }
+
+    /**
+     * Chance of finishing a quest of a given size
+     */
+    public static double completionChance(int size, double capacity, int health) {
+        return 1.0 / (1.0 + Math.exp(size - capacity * health / MAX_HEALTH));
+    }
+
+    /**
+     * Chance of finishing a quest at a difficulty, averaged over the quest sizes it can draw
+     */
+    public static double expectedCompletionChance(int difficulty, double capacity, int health) {
+        double total = 0.0;
+        for (int base = 1; base <= 3; base++) {
+            total += completionChance(Math.min(15, base + (int) (difficulty * 0.7)), capacity, health);
+        }
+        return total / 3;
+    }
+
+    /**
+     * The highest difficulty a healthy player of this kind keeps up with
+     */
+    public int sustainableDifficulty() {
+        return sustainableDifficulty(capacity);
+    }
+
+    /**
+     * The highest difficulty a healthy player with a given capacity keeps up with
+     */
+    public static int sustainableDifficulty(double capacity) {
+        int difficulty = 1;
+        while (difficulty < MAX_DIFFICULTY
+                && expectedCompletionChance(difficulty + 1, capacity, MAX_HEALTH) >= SUSTAINABLE_COMPLETION_RATE) {
+            difficulty++;
+        }
+        return difficulty;
+    }
+}
@@ -0,0 +1,82 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * What one server learned between two exports: the change of every entry it updated, and how many
+ * updates that took. The update counts weight the change when deltas from several servers are merged.
+ */
+public final class PolicyDelta {
+    private static final int MAGIC = 0x5150444C; // "QPDL"
+    private static final short VERSION = 1;
+
+    public final String shard;
+    public final long sequence;
+    // Size of the table the delta was taken from
+    public final int tableSize;
+    final int[] indices;
+    final double[] changes;
+    final int[] updates;
+
+    PolicyDelta(String shard, long sequence, int tableSize, int[] indices, double[] changes, int[] updates) {
+        this.shard = shard;
+        this.sequence = sequence;
+        this.tableSize = tableSize;
+        this.indices = indices;
+        this.changes = changes;
+        this.updates = updates;
+    }
+
+    /**
+     * Number of entries changed
+     */
+    public int size() {
+        return indices.length;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(shard);
+        out.writeLong(sequence);
+        out.writeInt(tableSize);
+        out.writeInt(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            out.writeInt(indices[i]);
+            out.writeDouble(changes[i]);
+            out.writeInt(updates[i]);
+        }
+    }
+
+    /**
+     * Read a delta written by {@link #write}
+     *
+     * @throws IOException if it is not a delta, or one with entries outside its table
+     */
+    public static PolicyDelta read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException("Not a policy delta");
+        }
+        String shard = in.readUTF();
+        long sequence = in.readLong();
+        int tableSize = in.readInt();
+        int size = in.readInt();
+        if (size < 0 || size > tableSize) {
+            throw new IOException("Delta of " + size + " entries for a table of " + tableSize);
+        }
+        int[] indices = new int[size];
+        double[] changes = new double[size];
+        int[] updates = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = in.readInt();
+            changes[i] = in.readDouble();
+            updates[i] = in.readInt();
+            if (indices[i] < 0 || indices[i] >= tableSize || updates[i] <= 0) {
+                throw new IOException("Bad delta entry " + indices[i] + " with " + updates[i] + " updates");
+            }
+        }
+        return new PolicyDelta(shard, sequence, tableSize, indices, changes, updates);
+    }
+}
@@ -0,0 +1,95 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One merged version of the shared policy: every entry's value and how many updates, across all
+ * servers, went into it. It also remembers the last delta merged from each server, so a delta left
+ * behind by an interrupted merge is never counted twice.
+ */
+public final class PolicySnapshot {
+    private static final int MAGIC = 0x5150534E; // "QPSN"
+    private static final short VERSION = 1;
+
+    public final long version;
+    final double[] values;
+    final long[] updates;
+    // Sequence of the last delta merged, by shard
+    final Map<String, Long> merged;
+
+    PolicySnapshot(long version, double[] values, long[] updates, Map<String, Long> merged) {
+        this.version = version;
+        this.values = values;
+        this.updates = updates;
+        this.merged = merged;
+    }
+
+    /**
+     * The all-zero version 0 a store starts from
+     */
+    static PolicySnapshot empty(int size) {
+        return new PolicySnapshot(0, new double[size], new long[size], Collections.<String, Long>emptyMap());
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Updates merged into all entries so far
+     */
+    public long getTotalUpdates() {
+        long total = 0;
+        for (long update : updates) {
+            total += update;
+        }
+        return total;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(version);
+        out.writeInt(values.length);
+        for (int i = 0; i < values.length; i++) {
+            out.writeDouble(values[i]);
+            out.writeLong(updates[i]);
+        }
+        out.writeInt(merged.size());
+        for (Map.Entry<String, Long> shard : merged.entrySet()) {
+            out.writeUTF(shard.getKey());
+            out.writeLong(shard.getValue());
+        }
+    }
+
+    /**
+     * Read a snapshot written by {@link #write}
+     */
+    public static PolicySnapshot read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException("Not a policy snapshot");
+        }
+        long version = in.readLong();
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Snapshot of " + size + " entries");
+        }
+        double[] values = new double[size];
+        long[] updates = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readDouble();
+            updates[i] = in.readLong();
+        }
+        int shards = in.readInt();
+        Map<String, Long> merged = new HashMap<>();
+        for (int i = 0; i < shards; i++) {
+            merged.put(in.readUTF(), in.readLong());
+        }
+        return new PolicySnapshot(version, values, updates, merged);
+    }
+}
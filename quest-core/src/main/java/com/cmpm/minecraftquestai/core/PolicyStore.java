@@ -0,0 +1,279 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directory that several servers share their policies through, e.g. on a network mount.
+ *
+ * Servers publish deltas as {@code delta-<shard>-<sequence>.bin}. A merge folds every pending delta
+ * into the next {@code snapshot-<version>.bin}: each entry moves by the update-weighted average of
+ * the changes the servers made to it since the last merge, so an entry ten servers trained at once
+ * moves as far as one trained by a single server, only with ten times the evidence behind it.
+ * Servers then install the newest snapshot. Files are written under a temporary name and moved into
+ * place, so readers never see half of one, and a lock file keeps two servers from merging at the
+ * same time.
+ */
+public final class PolicyStore {
+    private static final String DELTA_PREFIX = "delta-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    // Older snapshots are deleted once this many newer ones exist
+    private static final int KEPT_SNAPSHOTS = 3;
+
+    private final Path directory;
+
+    public PolicyStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Make a delta available to the next merge
+     */
+    public void publish(PolicyDelta delta) throws IOException {
+        Path file = directory.resolve(DELTA_PREFIX + fileName(delta.shard) + "-" + delta.sequence + SUFFIX);
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            delta.write(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The newest snapshot, if it is newer than a version
+     *
+     * @return The snapshot, or null if there is none newer
+     */
+    public PolicySnapshot latest(long newerThan) throws IOException {
+        long newest = newestSnapshotVersion();
+        if (newest <= newerThan) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(snapshotFile(newest))) {
+            return PolicySnapshot.read(new DataInputStream(new BufferedInputStream(in)));
+        }
+    }
+
+    /**
+     * Merge every pending delta into a new snapshot.
+     * Deltas for a table of another size are renamed to {@code .rejected} and left for an operator.
+     *
+     * @return The new snapshot, or null if there was nothing to merge or another server is merging
+     * @throws IOException if the store holds snapshots for a table of another size
+     */
+    public PolicySnapshot merge(int tableSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("merge.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                return null;
+            }
+            if (lock == null) {
+                return null;
+            }
+            try {
+                return mergeLocked(tableSize);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private PolicySnapshot mergeLocked(int tableSize) throws IOException {
+        PolicySnapshot base = latest(-1);
+        if (base == null) {
+            base = PolicySnapshot.empty(tableSize);
+        } else if (base.size() != tableSize) {
+            throw new IOException("Store holds a policy of " + base.size() + " entries, not " + tableSize);
+        }
+
+        // Each shard's deltas in sequence order; file names sort as strings, not as numbers
+        List<Pending> pending = new ArrayList<>();
+        for (Path file : list(DELTA_PREFIX)) {
+            PolicyDelta delta;
+            try (InputStream in = Files.newInputStream(file)) {
+                delta = PolicyDelta.read(new DataInputStream(new BufferedInputStream(in)));
+            } catch (IOException e) {
+                reject(file);
+                continue;
+            }
+            if (delta.tableSize != tableSize) {
+                reject(file);
+                continue;
+            }
+            pending.add(new Pending(file, delta));
+        }
+        Collections.sort(pending, new Comparator<Pending>() {
+            @Override
+            public int compare(Pending a, Pending b) {
+                int shard = a.delta.shard.compareTo(b.delta.shard);
+                return shard != 0 ? shard : Long.compare(a.delta.sequence, b.delta.sequence);
+            }
+        });
+
+        // A shard's consecutive deltas build on each other, so they add up; shards are then averaged
+        double[] weightedChanges = new double[tableSize];
+        long[] updates = new long[tableSize];
+        double[] shardChanges = new double[tableSize];
+        long[] shardUpdates = new long[tableSize];
+        Map<String, Long> merged = new HashMap<>(base.merged);
+        List<Path> consumed = new ArrayList<>();
+        for (int p = 0; p < pending.size(); p++) {
+            PolicyDelta delta = pending.get(p).delta;
+            consumed.add(pending.get(p).file);
+            // Only a delta the base snapshot already holds is skipped: one left behind by a merge
+            // that wrote its snapshot but did not get to delete it
+            Long last = base.merged.get(delta.shard);
+            if (last == null || delta.sequence > last) {
+                for (int i = 0; i < delta.indices.length; i++) {
+                    shardChanges[delta.indices[i]] += delta.changes[i];
+                    shardUpdates[delta.indices[i]] += delta.updates[i];
+                }
+                Long newest = merged.get(delta.shard);
+                merged.put(delta.shard, newest == null ? delta.sequence : Math.max(newest, delta.sequence));
+            }
+            if (p + 1 == pending.size() || !pending.get(p + 1).delta.shard.equals(delta.shard)) {
+                for (int i = 0; i < tableSize; i++) {
+                    weightedChanges[i] += shardChanges[i] * shardUpdates[i];
+                    updates[i] += shardUpdates[i];
+                    shardChanges[i] = 0;
+                    shardUpdates[i] = 0;
+                }
+            }
+        }
+        if (consumed.isEmpty()) {
+            return null;
+        }
+
+        double[] values = base.values.clone();
+        long[] totalUpdates = base.updates.clone();
+        for (int i = 0; i < tableSize; i++) {
+            if (updates[i] > 0) {
+                values[i] += weightedChanges[i] / updates[i];
+                totalUpdates[i] += updates[i];
+            }
+        }
+        PolicySnapshot snapshot = new PolicySnapshot(base.version + 1, values, totalUpdates, merged);
+        Path file = snapshotFile(snapshot.version);
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            snapshot.write(new DataOutputStream(out));
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path delta : consumed) {
+            Files.deleteIfExists(delta);
+        }
+        for (Path old : list(SNAPSHOT_PREFIX)) {
+            if (snapshotVersion(old) <= snapshot.version - KEPT_SNAPSHOTS) {
+                Files.deleteIfExists(old);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * The highest sequence of a shard's that is merged or waiting to be, or -1 if there is none.
+     * A server continues after it rather than after its clock, which may have stepped back.
+     */
+    public long lastSequence(String shard) throws IOException {
+        long last = -1;
+        PolicySnapshot snapshot = latest(-1);
+        if (snapshot != null) {
+            Long merged = snapshot.merged.get(shard);
+            if (merged != null) {
+                last = merged;
+            }
+        }
+        String prefix = DELTA_PREFIX + fileName(shard) + "-";
+        for (Path file : list(DELTA_PREFIX)) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(prefix)) {
+                try {
+                    last = Math.max(last, Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Another shard whose name starts the same way
+                }
+            }
+        }
+        return last;
+    }
+
+    private void reject(Path file) throws IOException {
+        Files.move(file, file.resolveSibling(file.getFileName() + ".rejected"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private long newestSnapshotVersion() throws IOException {
+        long newest = -1;
+        for (Path file : list(SNAPSHOT_PREFIX)) {
+            newest = Math.max(newest, snapshotVersion(file));
+        }
+        return newest;
+    }
+
+    private Path snapshotFile(long version) {
+        return directory.resolve(SNAPSHOT_PREFIX + version + SUFFIX);
+    }
+
+    /**
+     * A shard name made safe to put in a file name
+     */
+    private static String fileName(String shard) {
+        return shard.replaceAll("[^A-Za-z0-9_.]", "_");
+    }
+
+    private static long snapshotVersion(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Finished files with a prefix, in name order
+     */
+    private List<Path> list(String prefix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static final class Pending {
+        final Path file;
+        final PolicyDelta delta;
+
+        Pending(Path file, PolicyDelta delta) {
+            this.file = file;
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.util.Collections;
+
+/**
+ * A learner's flat Q-value table, with what is needed to share it between servers.
+ *
+ * Next to the values it keeps a copy as of the last export or install, and how many updates each
+ * entry got since. {@link #takeDelta} hands out exactly what this server learned since the previous
+ * delta, so no update is ever shared twice; {@link #install} swaps in a merged snapshot while keeping
+ * whatever was learned locally after the last delta. Not thread-safe; the learner's thread owns it.
+ */
+public final class PolicyTable {
+    final double[] values;
+    private final double[] exported;
+    private final int[] updates;
+    private long version;
+
+    PolicyTable(int size) {
+        this.values = new double[size];
+        this.exported = new double[size];
+        this.updates = new int[size];
+    }
+
+    /**
+     * Move an entry and count the update
+     */
+    void add(int index, double amount) {
+        values[index] += amount;
+        updates[index]++;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Version of the last snapshot installed, 0 if none
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Changes and update counts since the previous delta, then start counting afresh
+     *
+     * @return The delta, or null if nothing was learned since
+     */
+    public PolicyDelta takeDelta(String shard, long sequence) {
+        int changed = 0;
+        for (int update : updates) {
+            if (update > 0) {
+                changed++;
+            }
+        }
+        if (changed == 0) {
+            return null;
+        }
+        int[] indices = new int[changed];
+        double[] changes = new double[changed];
+        int[] counts = new int[changed];
+        int entry = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (updates[i] > 0) {
+                indices[entry] = i;
+                changes[entry] = values[i] - exported[i];
+                counts[entry] = updates[i];
+                entry++;
+                exported[i] = values[i];
+                updates[i] = 0;
+            }
+        }
+        return new PolicyDelta(shard, sequence, values.length, indices, changes, counts);
+    }
+
+    /**
+     * The current values as a snapshot of this table's version, e.g. to start another table from them
+     */
+    public PolicySnapshot snapshot() {
+        return new PolicySnapshot(version, values.clone(), new long[values.length], Collections.<String, Long>emptyMap());
+    }
+
+    /**
+     * Adopt a merged snapshot, keeping what was learned here since the last delta on top of it
+     *
+     * @throws IllegalArgumentException if the snapshot is for a table of another size
+     */
+    public void install(PolicySnapshot snapshot) {
+        if (snapshot.values.length != values.length) {
+            throw new IllegalArgumentException("Snapshot has " + snapshot.values.length + " entries, table has " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = snapshot.values[i] + (values[i] - exported[i]);
+            exported[i] = snapshot.values[i];
+        }
+        version = snapshot.version;
+    }
+}
@@ -0,0 +1,127 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Watkins Q(lambda): every update also credits the player's recent decisions, decayed by
+ * discount * traceDecay per step back, so a completion that pays off several quests after a
+ * difficulty choice still reaches that choice.
+ *
+ * Each player has a trace of their last {@code traceLength} state-action pairs in a primitive ring
+ * buffer. A non-greedy (exploring) action cuts the trace, since what follows says nothing about
+ * the greedy policy before it.
+ *
+ * Q-values live in one flat {@link PolicyTable} over the {@link QuestStates reduced states}.
+ * Not thread-safe; the server thread owns it.
+ */
+public class QLambda implements FederatedLearner {
+    private static final QuestAction[] ACTIONS = QuestAction.values();
+    // Longest trace a player can keep, whatever the tuning says
+    public static final int MAX_TRACE_LENGTH = 64;
+
+    private final PolicyTable table = new PolicyTable(QuestStates.COUNT * ACTIONS.length);
+    // Read through directly; every write goes through the table so it can be shared
+    private final double[] qValues = table.values;
+    // Recent decisions per player; the null key holds updates that came without a player
+    private final Map<UUID, Trace> traces = new HashMap<>();
+    private final Random random = new Random();
+
+    public QuestAction chooseAction(GameState state) {
+        return chooseAction(state, random);
+    }
+
+    @Override
+    public QuestAction chooseAction(GameState state, Random random) {
+        if (random.nextDouble() < QuestTuning.get().explorationRate) {
+            return ACTIONS[random.nextInt(ACTIONS.length)];
+        }
+        return getBestAction(state);
+    }
+
+    @Override
+    public void updateQValue(GameState state, QuestAction action, double reward, GameState nextState) {
+        updateQValue(null, state, action, reward, nextState);
+    }
+
+    @Override
+    public void updateQValue(UUID player, GameState state, QuestAction action, double reward, GameState nextState) {
+        QuestTuning tuning = QuestTuning.get();
+        int base = QuestStates.index(state) * ACTIONS.length;
+        int pair = base + action.ordinal();
+
+        Trace trace = traces.get(player);
+        if (trace == null) {
+            trace = new Trace();
+            traces.put(player, trace);
+        }
+        // Watkins: exploring breaks the chain back to earlier decisions
+        if (qValues[pair] < maxValue(base)) {
+            trace.clear();
+        }
+        trace.push(pair, Math.max(1, Math.min(MAX_TRACE_LENGTH, tuning.traceLength)));
+
+        double error = reward + tuning.discountFactor * maxValue(QuestStates.index(nextState) * ACTIONS.length) - qValues[pair];
+        double step = tuning.learningRate * error;
+        double decay = tuning.discountFactor * tuning.traceDecay;
+        for (int age = 0; age < trace.size; age++) {
+            table.add(trace.get(age), step);
+            step *= decay;
+        }
+    }
+
+    @Override
+    public QuestAction getBestAction(GameState state) {
+        int base = QuestStates.index(state) * ACTIONS.length;
+        int best = 0;
+        for (int i = 1; i < ACTIONS.length; i++) {
+            if (qValues[base + i] > qValues[base + best]) {
+                best = i;
+            }
+        }
+        return ACTIONS[best];
+    }
+
+    @Override
+    public void forgetPlayer(UUID player) {
+        traces.remove(player);
+    }
+
+    @Override
+    public PolicyTable getPolicyTable() {
+        return table;
+    }
+
+    private double maxValue(int base) {
+        double max = qValues[base];
+        for (int i = 1; i < ACTIONS.length; i++) {
+            max = Math.max(max, qValues[base + i]);
+        }
+        return max;
+    }
+
+    /**
+     * Ring buffer of a player's latest state-action pairs, newest at age 0
+     */
+    private static final class Trace {
+        private final int[] pairs = new int[MAX_TRACE_LENGTH];
+        private int head;
+        private int size;
+
+        void push(int pair, int length) {
+            head = (head + 1) % MAX_TRACE_LENGTH;
+            pairs[head] = pair;
+            size = Math.min(size + 1, length);
+        }
+
+        int get(int age) {
+            return pairs[(head - age + MAX_TRACE_LENGTH) % MAX_TRACE_LENGTH];
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -1,30 +1,39 @@
-package com.cmpm.minecraftquestai;
+package com.cmpm.minecraftquestai.core;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
-public class QLearning {
+public class QLearning implements QuestLearner {
     private final Map<GameState, Map<QuestAction, Double>> qTable = new HashMap<>();
-    private final double learningRate = 0.1;
-    private final double discountFactor = 0.9;
-    private final double explorationRate = 0.2;
+    // Learning rate, discount and exploration come from the current QuestTuning on every call
+
+    private final Random random = new Random();
 
     public QuestAction chooseAction(GameState state) {
-        if (Math.random() < explorationRate) {
-            return QuestAction.values()[(int) (Math.random() * QuestAction.values().length)];
+        return chooseAction(state, random);
+    }
+
+    @Override
+    public QuestAction chooseAction(GameState state, Random random) {
+        if (random.nextDouble() < QuestTuning.get().explorationRate) {
+            return QuestAction.values()[random.nextInt(QuestAction.values().length)];
         } else {
             return getBestAction(state);
         }
     }
 
+    @Override
     public void updateQValue(GameState state, QuestAction action, double reward, GameState nextState) {
+        QuestTuning tuning = QuestTuning.get();
         double oldQValue = qTable.getOrDefault(state, new HashMap<>()).getOrDefault(action, 0.0);
         double maxFutureQValue = getMaxQValue(nextState);
-        double newQValue = oldQValue + learningRate * (reward + discountFactor * maxFutureQValue - oldQValue);
+        double newQValue = oldQValue + tuning.learningRate * (reward + tuning.discountFactor * maxFutureQValue - oldQValue);
         qTable.computeIfAbsent(state, k -> new HashMap<>()).put(action, newQValue);
     }
 
-    private QuestAction getBestAction(GameState state) {
+    @Override
+    public QuestAction getBestAction(GameState state) {
         return qTable.getOrDefault(state, new HashMap<>()).entrySet().stream()
                 .max(Map.Entry.comparingByValue())
                 .map(Map.Entry::getKey)
@@ -1,4 +1,4 @@
-package com.cmpm.minecraftquestai;
+package com.cmpm.minecraftquestai.core;
 
 public enum QuestAction {
     INCREASE_MOBS,
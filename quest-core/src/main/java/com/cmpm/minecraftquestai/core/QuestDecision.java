@@ -0,0 +1,29 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.util.UUID;
+
+/**
+ * A difficulty decision waiting for its outcome. The learner only learns from it once the player's
+ * next completion shows the state the decision actually led to, so eligibility traces follow the
+ * player's real sequence of quests rather than simulated transitions.
+ */
+public final class QuestDecision {
+    public final GameState state;
+    public final QuestAction action;
+    public final double reward;
+
+    public QuestDecision(GameState state, QuestAction action, double reward) {
+        // The caller keeps updating its state; the decision needs it as it was
+        this.state = new GameState(state.getMobsKilled(), state.getItemsCollected(), state.getQuestsCompleted(),
+                state.getPlayerHealth(), state.getCurrentDifficultyLevel());
+        this.action = action;
+        this.reward = reward;
+    }
+
+    /**
+     * Learn from the decision, now that the state it led to is known
+     */
+    public void resolve(QuestLearner learner, UUID player, GameState nextState) {
+        learner.updateQValue(player, state, action, reward, nextState);
+    }
+}
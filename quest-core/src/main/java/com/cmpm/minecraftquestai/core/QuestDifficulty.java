@@ -0,0 +1,200 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * The adaptive difficulty of one quest giver: the difficulty level, the RL requirement modifiers
+ * and the streak counters that nudge the level on their own.
+ *
+ * Not thread-safe; each owner keeps its own instance.
+ */
+public final class QuestDifficulty {
+    private int level = 1; // Default difficulty level
+    private int itemRequirementModifier = 0; // Modifier for item requirements
+    private int enemyRequirementModifier = 0; // Modifier for enemy requirements
+
+    // Performance tracking for adaptive difficulty
+    private int questsCompleted = 0;
+    private int questsFailed = 0;
+
+    // The last action taken by the RL system
+    private QuestAction lastAction = null;
+
+    public QuestDifficulty() {
+    }
+
+    public QuestDifficulty(int startLevel) {
+        this.level = Math.max(1, startLevel);
+    }
+
+    /**
+     * Applies the given quest action to adjust quest generation parameters.
+     * @param action The RL action to apply.
+     */
+    public void applyAction(QuestAction action) {
+        lastAction = action;
+
+        switch (action) {
+            case INCREASE_MOBS:
+                increaseLevel();
+                questsCompleted = 0;
+                enemyRequirementModifier += 1;
+                break;
+            case DECREASE_MOBS:
+                decreaseLevel();
+                questsCompleted = 0;
+                enemyRequirementModifier = Math.max(0, enemyRequirementModifier - 1);
+                break;
+            case INCREASE_ITEMS:
+                increaseLevel();
+                questsCompleted = 0;
+                itemRequirementModifier += 1;
+                break;
+            case DECREASE_ITEMS:
+                decreaseLevel();
+                questsCompleted = 0;
+                itemRequirementModifier = Math.max(0, itemRequirementModifier - 1);
+                break;
+        }
+    }
+
+    public void increaseLevel() {
+        level++;
+    }
+
+    public void decreaseLevel() {
+        if (level > 1) {
+            level--;
+        }
+    }
+
+    public void increaseItemRequirement() {
+        itemRequirementModifier++;
+    }
+
+    public void decreaseItemRequirement() {
+        if (itemRequirementModifier > 0) {
+            itemRequirementModifier--;
+        }
+    }
+
+    /**
+     * Record a quest completion; three in a row without a failure raise the level.
+     * @return Whether the level went up.
+     */
+    public boolean recordCompletion() {
+        questsCompleted++;
+        if (questsCompleted >= 3 && questsFailed == 0) {
+            increaseLevel();
+            questsCompleted = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record a quest failure (abandoned or expired); two of them lower the level.
+     * @return Whether the level went down.
+     */
+    public boolean recordFailure() {
+        questsFailed++;
+        if (questsFailed >= 2) {
+            decreaseLevel();
+            questsFailed = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The amount a quest built from the template asks for, with the RL modifier of its type applied.
+     */
+    public int requiredAmount(QuestTemplate template) {
+        int modifier = template.questType == QuestTemplate.KILL ? enemyRequirementModifier : itemRequirementModifier;
+        return Math.max(1, Math.min(template.baseAmount + modifier, template.cap));
+    }
+
+    /**
+     * Scales a value based on the current difficulty level.
+     * @return A value between min and max, stretched by difficulty.
+     */
+    public int scaledAmount(int min, int max, Random random) {
+        // Apply a smoother scaling that grows with difficulty but not too quickly
+        return min + (int) Math.ceil(random.nextInt(max) * (1 + (level - 1) * 0.5));
+    }
+
+    /**
+     * Go back to the state of a fresh session.
+     */
+    public void reset(int startLevel) {
+        level = Math.max(1, startLevel);
+        itemRequirementModifier = 0;
+        enemyRequirementModifier = 0;
+        questsCompleted = 0;
+        questsFailed = 0;
+        lastAction = null;
+    }
+
+    public QuestDifficulty copy() {
+        QuestDifficulty copy = new QuestDifficulty();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    public void copyFrom(QuestDifficulty other) {
+        level = other.level;
+        itemRequirementModifier = other.itemRequirementModifier;
+        enemyRequirementModifier = other.enemyRequirementModifier;
+        questsCompleted = other.questsCompleted;
+        questsFailed = other.questsFailed;
+        lastAction = other.lastAction;
+    }
+
+    /**
+     * Write the whole state, streaks and last action included
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(level);
+        out.writeInt(itemRequirementModifier);
+        out.writeInt(enemyRequirementModifier);
+        out.writeInt(questsCompleted);
+        out.writeInt(questsFailed);
+        out.writeByte(lastAction == null ? -1 : lastAction.ordinal());
+    }
+
+    /**
+     * Read a state written by {@link #write}
+     */
+    public static QuestDifficulty read(DataInput in) throws IOException {
+        QuestDifficulty difficulty = new QuestDifficulty(in.readInt());
+        difficulty.itemRequirementModifier = in.readInt();
+        difficulty.enemyRequirementModifier = in.readInt();
+        difficulty.questsCompleted = in.readInt();
+        difficulty.questsFailed = in.readInt();
+        int action = in.readByte();
+        if (action >= QuestAction.values().length) {
+            throw new IOException("Unknown quest action " + action);
+        }
+        difficulty.lastAction = action < 0 ? null : QuestAction.values()[action];
+        return difficulty;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getItemRequirementModifier() {
+        return itemRequirementModifier;
+    }
+
+    public int getEnemyRequirementModifier() {
+        return enemyRequirementModifier;
+    }
+
+    public QuestAction getLastAction() {
+        return lastAction;
+    }
+}
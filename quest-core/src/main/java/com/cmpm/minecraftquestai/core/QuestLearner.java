@@ -0,0 +1,48 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Something that learns which difficulty action to take after a quest is completed.
+ * {@link QLearning} is the server's default, {@link QLambda} and {@link PersonalizedQLearning} the alternatives;
+ * {@link QuestLearnerBenchmark} compares them. The alternatives are {@link FederatedLearner}s and can
+ * share what they learn across servers.
+ */
+public interface QuestLearner {
+    /**
+     * Pick the action for a state, exploring with the given random source
+     */
+    QuestAction chooseAction(GameState state, Random random);
+
+    /**
+     * Pick the action for a particular player's state; learners without per-player knowledge pick as for anyone
+     */
+    default QuestAction chooseAction(UUID player, GameState state, Random random) {
+        return chooseAction(state, random);
+    }
+
+    /**
+     * Learn from the reward an action earned and the state it led to
+     */
+    void updateQValue(GameState state, QuestAction action, double reward, GameState nextState);
+
+    /**
+     * Learn from a decision made for a particular player; learners that credit a player's earlier
+     * decisions override this, the rest learn as if no player was given
+     */
+    default void updateQValue(UUID player, GameState state, QuestAction action, double reward, GameState nextState) {
+        updateQValue(state, action, reward, nextState);
+    }
+
+    /**
+     * Drop anything kept about a player who left
+     */
+    default void forgetPlayer(UUID player) {
+    }
+
+    /**
+     * The action currently believed best for a state, without exploring
+     */
+    QuestAction getBestAction(GameState state);
+}
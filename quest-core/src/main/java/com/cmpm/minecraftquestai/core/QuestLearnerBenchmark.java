@@ -0,0 +1,422 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compares difficulty learners on simulated players, so learning efficiency can be tracked like throughput.
+ *
+ * Every engine plays every {@link PlayerArchetype} for a number of seeds, in parallel. Player and
+ * learner draw from separate random sources seeded the same way for every engine, so engines face
+ * the same players. For each run it measures:
+ * <ul>
+ *     <li>regret: the expected reward of the best action minus that of the chosen one, summed over
+ *     all decisions, using {@link QuestRewards#calculateReward} and the player's true completion chance;</li>
+ *     <li>completions to convergence: completed quests before difficulty stays within one level of
+ *     what the player can sustain for {@link #CONVERGENCE_WINDOW} completions in a row;</li>
+ *     <li>decision latency: p50 and p99 of choosing plus updating, in nanoseconds.</li>
+ * </ul>
+ * Retained memory is measured afterwards, one engine at a time, since it needs a quiet heap.
+ *
+ * Writes report.md and results.csv to the output directory. Given a baseline results.csv, any metric
+ * that got worse by more than the tolerance is listed and the exit code is 1.
+ *
+ * Usage: QuestLearnerBenchmark [--out dir] [--seeds n] [--decisions n] [--threads n]
+ * [--engines a,b] [--baseline results.csv] [--tolerance 0.1]
+ */
+public class QuestLearnerBenchmark {
+    private static final int CONVERGENCE_WINDOW = 25;
+    private static final double FAILURE_REWARD = -2.0;
+    private static final int SUCCESS_HEALTH_GAIN = 3;
+    private static final QuestAction[] ACTIONS = QuestAction.values();
+
+    // Engines under comparison, by report name
+    private static final Map<String, Supplier<QuestLearner>> ENGINES = new LinkedHashMap<>();
+
+    static {
+        ENGINES.put("q-learning", QLearning::new);
+        ENGINES.put("q-lambda", QLambda::new);
+        ENGINES.put("personalized", PersonalizedQLearning::new);
+        ENGINES.put("random", RandomLearner::new);
+    }
+
+    // Metrics in report order; all of them are better when lower
+    private static final String[] METRICS = {"regret", "completions_to_convergence", "latency_p50_ns", "latency_p99_ns"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        Path out = Paths.get(options.getOrDefault("out", "learner-benchmark"));
+        int seeds = Integer.parseInt(options.getOrDefault("seeds", "8"));
+        int decisions = Integer.parseInt(options.getOrDefault("decisions", "2000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.1"));
+        List<String> engines = options.containsKey("engines")
+                ? Arrays.asList(options.get("engines").split(","))
+                : new ArrayList<>(ENGINES.keySet());
+        for (String engine : engines) {
+            if (!ENGINES.containsKey(engine)) {
+                throw new IllegalArgumentException("Unknown engine " + engine + ", expected one of " + ENGINES.keySet());
+            }
+        }
+
+        System.out.printf("Benchmarking %s over %d archetypes, %d seeds, %d decisions each, on %d threads%n",
+                engines, PlayerArchetype.values().length, seeds, decisions, threads);
+
+        List<Run> runs = runAll(engines, seeds, decisions, threads);
+        Map<String, Long> memory = new LinkedHashMap<>();
+        for (String engine : engines) {
+            memory.put(engine, measureRetainedBytes(engine, decisions));
+        }
+
+        Map<String, double[]> summary = summarize(runs);
+        Files.createDirectories(out);
+        writeCsv(out.resolve("results.csv"), summary, memory);
+
+        List<String> regressions = new ArrayList<>();
+        if (options.containsKey("baseline")) {
+            regressions = compare(readCsv(Paths.get(options.get("baseline"))), summary, memory, tolerance);
+        }
+        writeReport(out.resolve("report.md"), engines, seeds, decisions, summary, memory, regressions);
+
+        System.out.println("Wrote " + out.resolve("report.md"));
+        if (!regressions.isEmpty()) {
+            regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+            System.exit(1);
+        }
+    }
+
+    // Keeps measured learners reachable until their heap has been counted
+    private static volatile Object retained;
+
+    /**
+     * One engine, archetype and seed
+     */
+    static final class Run {
+        final String engine;
+        final PlayerArchetype archetype;
+        final long seed;
+        final double regret;
+        final int completionsToConvergence;
+        final long latencyP50;
+        final long latencyP99;
+
+        Run(String engine, PlayerArchetype archetype, long seed,
+            double regret, int completionsToConvergence, long latencyP50, long latencyP99) {
+            this.engine = engine;
+            this.archetype = archetype;
+            this.seed = seed;
+            this.regret = regret;
+            this.completionsToConvergence = completionsToConvergence;
+            this.latencyP50 = latencyP50;
+            this.latencyP99 = latencyP99;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s seed %d: regret %.1f, converged after %d, p50 %d ns, p99 %d ns",
+                    engine, archetype, seed, regret, completionsToConvergence, latencyP50, latencyP99);
+        }
+    }
+
+    private static List<Run> runAll(List<String> engines, int seeds, int decisions, int threads)
+            throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Run>> futures = new ArrayList<>();
+            for (String engine : engines) {
+                for (PlayerArchetype archetype : PlayerArchetype.values()) {
+                    for (long seed = 0; seed < seeds; seed++) {
+                        long runSeed = seed;
+                        futures.add(executor.submit(() -> simulate(engine, ENGINES.get(engine).get(), archetype, runSeed, decisions)));
+                    }
+                }
+            }
+            List<Run> runs = new ArrayList<>(futures.size());
+            for (Future<Run> future : futures) {
+                runs.add(future.get());
+            }
+            return runs;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Play one simulated player against one learner
+     */
+    static Run simulate(String engine, QuestLearner learner, PlayerArchetype archetype, long seed, int decisions) {
+        Random playerRandom = new Random(seed * 31 + archetype.ordinal());
+        Random learnerRandom = new Random(seed);
+        UUID player = new UUID(archetype.ordinal(), seed);
+        GameState state = new GameState(0, 0, 0, PlayerArchetype.MAX_HEALTH, 1);
+        double capacity = archetype.getCapacity();
+
+        long[] latencies = new long[decisions];
+        double regret = 0.0;
+        int completions = 0;
+        int convergedSince = -1;
+        int completionsToConvergence = -1;
+
+        for (int i = 0; i < decisions; i++) {
+            long start = System.nanoTime();
+            QuestAction action = learner.chooseAction(player, state, learnerRandom);
+            long chosen = System.nanoTime();
+
+            // Regret against the action with the best expected reward for this player right now
+            double best = Double.NEGATIVE_INFINITY;
+            double taken = 0.0;
+            for (QuestAction candidate : ACTIONS) {
+                double expected = expectedReward(state, candidate, capacity);
+                best = Math.max(best, expected);
+                if (candidate == action) {
+                    taken = expected;
+                }
+            }
+            regret += best - taken;
+
+            double reward = QuestRewards.calculateReward(state, action);
+            GameState next = QuestRewards.simulateNextState(state, action);
+            int size = PlayerArchetype.questSize(next.getCurrentDifficultyLevel(), playerRandom);
+            boolean completed = playerRandom.nextDouble()
+                    < PlayerArchetype.completionChance(size, capacity, state.getPlayerHealth());
+            if (completed) {
+                next.setMobsKilled(next.getMobsKilled() + size);
+                next.setPlayerHealth(Math.min(PlayerArchetype.MAX_HEALTH, next.getPlayerHealth() + SUCCESS_HEALTH_GAIN));
+            } else {
+                next.setQuestsCompleted(state.getQuestsCompleted());
+                next.setPlayerHealth(Math.max(1, next.getPlayerHealth() - archetype.getHealthCost()));
+                reward += FAILURE_REWARD;
+            }
+
+            long update = System.nanoTime();
+            learner.updateQValue(player, state, action, reward, next);
+            latencies[i] = (chosen - start) + (System.nanoTime() - update);
+
+            if (completed) {
+                completions++;
+                int target = PlayerArchetype.sustainableDifficulty(capacity);
+                if (Math.abs(next.getCurrentDifficultyLevel() - target) <= 1) {
+                    if (convergedSince < 0) {
+                        convergedSince = completions;
+                    }
+                    if (completionsToConvergence < 0 && completions - convergedSince + 1 >= CONVERGENCE_WINDOW) {
+                        completionsToConvergence = convergedSince;
+                    }
+                } else {
+                    convergedSince = -1;
+                }
+            }
+            capacity = archetype.drift(capacity, playerRandom);
+            state = next;
+        }
+
+        Arrays.sort(latencies);
+        return new Run(engine, archetype, seed, regret, completionsToConvergence,
+                latencies[decisions / 2], latencies[Math.min(decisions - 1, (int) (decisions * 0.99))]);
+    }
+
+    /**
+     * Reward an action earns on average, counting the chance the player fails the resulting quest
+     */
+    private static double expectedReward(GameState state, QuestAction action, double capacity) {
+        int difficulty = QuestRewards.simulateNextState(state, action).getCurrentDifficultyLevel();
+        double failure = 1.0 - PlayerArchetype.expectedCompletionChance(difficulty, capacity, state.getPlayerHealth());
+        return QuestRewards.calculateReward(state, action) + failure * FAILURE_REWARD;
+    }
+
+    /**
+     * Heap still held by a learner after a full run, measured with nothing else going on
+     */
+    private static long measureRetainedBytes(String engine, int decisions) {
+        Runtime runtime = Runtime.getRuntime();
+        long before = usedHeapAfterGc(runtime);
+        QuestLearner learner = ENGINES.get(engine).get();
+        simulate(engine, learner, PlayerArchetype.CASUAL, 0, decisions);
+        retained = learner;
+        long after = usedHeapAfterGc(runtime);
+        retained = null;
+        return Math.max(0, after - before);
+    }
+
+    private static long usedHeapAfterGc(Runtime runtime) {
+        long used = Long.MAX_VALUE;
+        // A few passes, keeping the lowest reading, since one System.gc() is only a hint
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Mean and standard deviation of every metric, keyed by "engine,archetype,metric"
+     */
+    private static Map<String, double[]> summarize(List<Run> runs) {
+        Map<String, List<double[]>> grouped = new LinkedHashMap<>();
+        for (Run run : runs) {
+            grouped.computeIfAbsent(run.engine + "," + run.archetype.name(), k -> new ArrayList<>())
+                    .add(new double[]{run.regret, run.completionsToConvergence, run.latencyP50, run.latencyP99});
+        }
+
+        Map<String, double[]> summary = new LinkedHashMap<>();
+        grouped.forEach((key, values) -> {
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                int converged = 0;
+                double sum = 0.0;
+                for (double[] value : values) {
+                    // Runs that never converge are left out of the mean and counted separately
+                    if (metric == 1 && value[metric] < 0) {
+                        continue;
+                    }
+                    converged++;
+                    sum += value[metric];
+                }
+                double mean = converged > 0 ? sum / converged : -1;
+                double squares = 0.0;
+                for (double[] value : values) {
+                    if (metric != 1 || value[metric] >= 0) {
+                        squares += (value[metric] - mean) * (value[metric] - mean);
+                    }
+                }
+                double stddev = converged > 1 ? Math.sqrt(squares / (converged - 1)) : 0.0;
+                summary.put(key + "," + METRICS[metric], new double[]{mean, stddev, converged, values.size()});
+            }
+        });
+        return summary;
+    }
+
+    private static void writeCsv(Path file, Map<String, double[]> summary, Map<String, Long> memory) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("engine,archetype,metric,mean,stddev,runs\n");
+            for (Map.Entry<String, double[]> entry : summary.entrySet()) {
+                double[] value = entry.getValue();
+                writer.write(String.format(Locale.ROOT, "%s,%.4f,%.4f,%d%n", entry.getKey(), value[0], value[1], (int) value[2]));
+            }
+            for (Map.Entry<String, Long> entry : memory.entrySet()) {
+                writer.write(String.format(Locale.ROOT, "%s,ALL,retained_bytes,%d,0,1%n", entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    private static Map<String, Double> readCsv(Path file) throws IOException {
+        Map<String, Double> means = new HashMap<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            if (fields.length >= 4) {
+                means.put(fields[0] + "," + fields[1] + "," + fields[2], Double.parseDouble(fields[3]));
+            }
+        }
+        return means;
+    }
+
+    /**
+     * Every metric that got worse than the baseline by more than the tolerance
+     */
+    private static List<String> compare(Map<String, Double> baseline, Map<String, double[]> summary,
+                                        Map<String, Long> memory, double tolerance) {
+        Map<String, Double> current = new LinkedHashMap<>();
+        summary.forEach((key, value) -> current.put(key, value[0]));
+        memory.forEach((engine, bytes) -> current.put(engine + ",ALL,retained_bytes", (double) bytes));
+
+        List<String> regressions = new ArrayList<>();
+        current.forEach((key, value) -> {
+            Double before = baseline.get(key);
+            if (before == null) {
+                return;
+            }
+            // A run that used to converge and no longer does is always a regression
+            boolean lostConvergence = key.endsWith(",completions_to_convergence") && before >= 0 && value < 0;
+            if (lostConvergence || (before > 0 && value > before * (1 + tolerance))) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.2f -> %.2f", key, before, value));
+            }
+        });
+        return regressions;
+    }
+
+    private static void writeReport(Path file, List<String> engines, int seeds, int decisions,
+                                    Map<String, double[]> summary, Map<String, Long> memory,
+                                    List<String> regressions) throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append("# Difficulty learner benchmark\n\n");
+        report.append(String.format(Locale.ROOT, "%d seeds x %d decisions per archetype. Regret and convergence are "
+                + "mean +/- standard deviation across seeds; convergence only counts the seeds that converged.%n%n", seeds, decisions));
+
+        for (PlayerArchetype archetype : PlayerArchetype.values()) {
+            report.append(String.format(Locale.ROOT, "## %s (sustainable difficulty %d)%n%n",
+                    archetype.name(), archetype.sustainableDifficulty()));
+            report.append("| engine | regret | completions to convergence | converged | p50 ns | p99 ns |\n");
+            report.append("|---|---|---|---|---|---|\n");
+            for (String engine : engines) {
+                String key = engine + "," + archetype.name() + ",";
+                double[] regret = summary.get(key + "regret");
+                double[] convergence = summary.get(key + "completions_to_convergence");
+                double[] p50 = summary.get(key + "latency_p50_ns");
+                double[] p99 = summary.get(key + "latency_p99_ns");
+                report.append(String.format(Locale.ROOT, "| %s | %.1f +/- %.1f | %s | %d/%d | %.0f | %.0f |%n",
+                        engine, regret[0], regret[1],
+                        convergence[2] > 0 ? String.format(Locale.ROOT, "%.1f +/- %.1f", convergence[0], convergence[1]) : "never",
+                        (int) convergence[2], (int) convergence[3], p50[0], p99[0]));
+            }
+            report.append('\n');
+        }
+
+        report.append("## Retained memory after one run\n\n| engine | KiB |\n|---|---|\n");
+        memory.forEach((engine, bytes) -> report.append(String.format(Locale.ROOT, "| %s | %.1f |%n", engine, bytes / 1024.0)));
+
+        if (!regressions.isEmpty()) {
+            report.append("\n## Regressions against baseline\n\n");
+            regressions.forEach(regression -> report.append("- ").append(regression).append('\n'));
+        }
+        Files.write(file, report.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    /**
+     * Baseline that ignores what it has seen
+     */
+    private static final class RandomLearner implements QuestLearner {
+        @Override
+        public QuestAction chooseAction(GameState state, Random random) {
+            return ACTIONS[random.nextInt(ACTIONS.length)];
+        }
+
+        @Override
+        public void updateQValue(GameState state, QuestAction action, double reward, GameState nextState) {
+        }
+
+        @Override
+        public QuestAction getBestAction(GameState state) {
+            return ACTIONS[0];
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Durable form of one assigned quest and its progress, shared by every loader's persistence.
+ */
+public class QuestRecord {
+    // Quest types
+    public static final byte KILL_QUEST = 0;
+    public static final byte ITEM_QUEST = 1;
+    public static final byte EXPLORATION_QUEST = 2;
+    public static final byte ACTIVITY_QUEST = 3;
+    public static final byte DEFINED_QUEST = 4;
+    // The target is the quest's graph, its objectives are the leaves
+    public static final byte COMPOSITE_QUEST = 5;
+
+    public final String questId;
+    public final byte questType;
+    public final String title;
+    public final String targetId;
+    public final int requiredAmount;
+    public int progress;
+    public boolean completed;
+    // Composite quests only: the objectives in graph order, each with its own progress
+    public final List<QuestRecord> leaves = new ArrayList<QuestRecord>();
+
+    public QuestRecord(String questId, byte questType, String title, String targetId, int requiredAmount) {
+        this.questId = questId;
+        this.questType = questType;
+        this.title = title;
+        this.targetId = targetId;
+        this.requiredAmount = requiredAmount;
+    }
+
+    /**
+     * This record or one of its objectives, by quest id
+     *
+     * @return The record, or null if neither has the id
+     */
+    public QuestRecord find(String id) {
+        if (questId.equals(id)) {
+            return this;
+        }
+        for (QuestRecord leaf : leaves) {
+            QuestRecord found = leaf.find(id);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write the quest definition without its id or progress, as [type][title][target][required],
+     * followed for a composite quest by [leaf count] and each whole leaf record
+     */
+    public void writeDefinition(DataOutput out) throws IOException {
+        out.writeByte(questType);
+        out.writeUTF(title);
+        out.writeUTF(targetId);
+        out.writeInt(requiredAmount);
+        if (questType == COMPOSITE_QUEST) {
+            out.writeInt(leaves.size());
+            for (QuestRecord leaf : leaves) {
+                leaf.write(out);
+            }
+        }
+    }
+
+    /**
+     * Read a definition written by {@link #writeDefinition}, with no progress yet
+     */
+    public static QuestRecord readDefinition(String questId, DataInput in) throws IOException {
+        QuestRecord record = new QuestRecord(questId, in.readByte(), in.readUTF(), in.readUTF(), in.readInt());
+        if (record.questType == COMPOSITE_QUEST) {
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Composite quest " + questId + " has " + count + " objectives");
+            }
+            for (int i = 0; i < count; i++) {
+                record.leaves.add(read(in));
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Write the whole record: id, definition, progress and completed flag
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(questId);
+        writeDefinition(out);
+        out.writeInt(progress);
+        out.writeBoolean(completed);
+    }
+
+    /**
+     * Read a record written by {@link #write}
+     */
+    public static QuestRecord read(DataInput in) throws IOException {
+        QuestRecord record = readDefinition(in.readUTF(), in);
+        record.progress = in.readInt();
+        record.completed = in.readBoolean();
+        return record;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cmpm.minecraftquestai.core;
+
+/**
+ * The reward the difficulty learner is trained on, and the state it expects to end up in.
+ * Kept free of game classes so simulations and benchmarks can run without a server.
+ */
+public final class QuestRewards {
+    private QuestRewards() {
+    }
+
+    /**
+     * Calculate reward for RL system based on player performance
+     */
+    public static double calculateReward(GameState state, QuestAction action) {
+        double reward = 0.0;
+
+        // Base reward for completing a quest
+        reward += 1.0;
+
+        // If player has completed many quests at current difficulty, reward more
+        if (state.getQuestsCompleted() > 5 * state.getCurrentDifficultyLevel()) {
+            reward += 2.0; // Player is doing well at current difficulty
+        }
+
+        // If player health is low, penalize making things harder
+        if (state.getPlayerHealth() < 10) {
+            if (action == QuestAction.INCREASE_MOBS || action == QuestAction.INCREASE_ITEMS) {
+                reward -= 1.0;
+            }
+        }
+
+        // Reward system for finding the right difficulty
+        // Too easy (many quests completed quickly) should lead to increased difficulty
+        // Too hard (player health low, few quests completed) should reduce difficulty
+        if (state.getQuestsCompleted() > 10 * state.getCurrentDifficultyLevel()) {
+            // Too easy - reward increasing difficulty
+            if (action == QuestAction.INCREASE_MOBS || action == QuestAction.INCREASE_ITEMS) {
+                reward += 3.0;
+            }
+        } else if (state.getQuestsCompleted() < 3 * state.getCurrentDifficultyLevel()) {
+            // Too hard - reward decreasing difficulty
+            if (action == QuestAction.DECREASE_MOBS || action == QuestAction.DECREASE_ITEMS) {
+                reward += 3.0;
+            }
+        }
+
+        return reward;
+    }
+
+    /**
+     * Simulate next game state after applying an action
+     */
+    public static GameState simulateNextState(GameState state, QuestAction action) {
+        int newDifficulty = state.getCurrentDifficultyLevel();
+
+        // Update difficulty based on action
+        if (action == QuestAction.INCREASE_MOBS || action == QuestAction.INCREASE_ITEMS) {
+            newDifficulty++;
+        } else if (action == QuestAction.DECREASE_MOBS || action == QuestAction.DECREASE_ITEMS) {
+            newDifficulty = Math.max(1, newDifficulty - 1);
+        }
+
+        // Create new state with updated values
+        return new GameState(
+                state.getMobsKilled(),
+                state.getItemsCollected(),
+                state.getQuestsCompleted() + 1,
+                state.getPlayerHealth(),
+                newDifficulty
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.cmpm.minecraftquestai.core;
+
+/**
+ * The reduced state the array-backed learners index their tables by: difficulty level, how many
+ * quests were completed against it, and low health, which is all {@link QuestRewards#calculateReward}
+ * can tell apart.
+ */
+final class QuestStates {
+    // Difficulty levels beyond this share the top level's values
+    private static final int MAX_LEVEL = 32;
+    // Completed quests against difficulty: under 3x, up to 5x, up to 10x, more
+    private static final int COMPLETION_BANDS = 4;
+
+    static final int COUNT = MAX_LEVEL * COMPLETION_BANDS * 2;
+
+    private QuestStates() {
+    }
+
+    /**
+     * Index of the reduced state, matching the thresholds the reward uses
+     */
+    static int index(GameState state) {
+        int difficulty = Math.max(1, state.getCurrentDifficultyLevel());
+        int completed = state.getQuestsCompleted();
+        int band;
+        if (completed < 3 * difficulty) {
+            band = 0;
+        } else if (completed <= 5 * difficulty) {
+            band = 1;
+        } else if (completed <= 10 * difficulty) {
+            band = 2;
+        } else {
+            band = 3;
+        }
+        int lowHealth = state.getPlayerHealth() < 10 ? 1 : 0;
+        return ((Math.min(difficulty, MAX_LEVEL) - 1) * COMPLETION_BANDS + band) * 2 + lowHealth;
+    }
+}
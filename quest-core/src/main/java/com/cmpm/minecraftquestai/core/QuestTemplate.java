@@ -0,0 +1,23 @@
+package com.cmpm.minecraftquestai.core;
+
+/**
+ * A quest picked ahead of time, before the player-specific RL modifiers are applied.
+ * Targets are registry ids such as minecraft:zombie; loaders resolve them to their own types.
+ */
+public final class QuestTemplate {
+    // Quest types, the same numbering as the generator's quest types
+    public static final int KILL = 0;
+    public static final int ITEM = 1;
+
+    public final int questType;
+    public final String targetId;
+    public final int baseAmount;
+    public final int cap;
+
+    public QuestTemplate(int questType, String targetId, int baseAmount, int cap) {
+        this.questType = questType;
+        this.targetId = targetId;
+        this.baseAmount = baseAmount;
+        this.cap = cap;
+    }
+}
@@ -0,0 +1,161 @@
+package com.cmpm.minecraftquestai.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The kill and collection targets quests are drawn from, and how many of each a quest asks for.
+ * Safe to call from any thread.
+ */
+public final class QuestTemplates {
+    // List of possible enemy types for kill quests
+    public static final List<String> ENEMY_TYPES = Arrays.asList(
+            "minecraft:zombie",
+            "minecraft:skeleton",
+            "minecraft:creeper",
+            "minecraft:spider"
+    );
+
+    // More challenging enemy types
+    public static final List<String> HARD_ENEMY_TYPES = Arrays.asList(
+            "minecraft:witch",
+            "minecraft:enderman",
+            "minecraft:blaze",
+            "minecraft:slime"
+    );
+
+    // Very challenging enemy types
+    public static final List<String> VERY_HARD_ENEMY_TYPES = Arrays.asList(
+            "minecraft:wither_skeleton",
+            "minecraft:ghast",
+            "minecraft:ravager",
+            "minecraft:evoker"
+    );
+
+    // List of possible items for collection quests
+    public static final List<String> ITEM_TYPES = Arrays.asList(
+            "minecraft:iron_ingot",
+            "minecraft:gold_ingot",
+            "minecraft:diamond",
+            "minecraft:emerald"
+    );
+
+    // More valuable/rare items
+    public static final List<String> RARE_ITEM_TYPES = Arrays.asList(
+            "minecraft:diamond",
+            "minecraft:emerald",
+            "minecraft:ender_pearl",
+            "minecraft:blaze_rod"
+    );
+
+    // Very rare items
+    public static final List<String> VERY_RARE_ITEM_TYPES = Arrays.asList(
+            "minecraft:netherite_ingot",
+            "minecraft:nether_star",
+            "minecraft:dragon_breath",
+            "minecraft:heart_of_the_sea"
+    );
+
+    private QuestTemplates() {
+    }
+
+    /**
+     * Picks the enemy and base kill count for a kill quest.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return A kill quest template.
+     */
+    public static QuestTemplate kill(int difficultyFactor, Random random) {
+        // Select enemy type based on difficulty
+        String enemyId;
+        double difficultyRoll = random.nextDouble();
+
+        if (difficultyFactor > 4 && difficultyRoll < 0.3) {
+            // Very hard enemies at high difficulty
+            enemyId = VERY_HARD_ENEMY_TYPES.get(random.nextInt(VERY_HARD_ENEMY_TYPES.size()));
+        } else if (difficultyFactor > 2 && difficultyRoll < 0.4) {
+            // Hard enemies at medium difficulty
+            enemyId = HARD_ENEMY_TYPES.get(random.nextInt(HARD_ENEMY_TYPES.size()));
+        } else {
+            // Standard enemies
+            enemyId = ENEMY_TYPES.get(random.nextInt(ENEMY_TYPES.size()));
+        }
+
+        // Calculate required kills based on difficulty; RL modifiers are added when the quest is handed out
+        int baseRequiredKills = 1 + random.nextInt(3); // Base range: 1-3
+        int difficultyBonus = (int)(difficultyFactor * 0.7); // Smoother scaling
+
+        // Cap the required kills based on enemy difficulty
+        QuestTuning tuning = QuestTuning.get();
+        int cap = tuning.killCap;
+        if (VERY_HARD_ENEMY_TYPES.contains(enemyId)) {
+            cap = tuning.veryHardKillCap; // Fewer required for very hard enemies
+        } else if (HARD_ENEMY_TYPES.contains(enemyId)) {
+            cap = tuning.hardKillCap; // Fewer required for hard enemies
+        }
+
+        return new QuestTemplate(QuestTemplate.KILL, enemyId, baseRequiredKills + difficultyBonus, cap);
+    }
+
+    /**
+     * Picks the item and base amount for a collection quest.
+     *
+     * @param difficultyFactor The difficulty factor to use.
+     * @param random The random source to draw from.
+     * @return An item collection quest template.
+     */
+    public static QuestTemplate item(int difficultyFactor, Random random) {
+        // Determine which items to request based on difficulty
+        String itemId;
+        double difficultyRoll = random.nextDouble();
+
+        if (difficultyFactor > 4 && difficultyRoll < 0.25) {
+            // Very rare items at high difficulty
+            itemId = VERY_RARE_ITEM_TYPES.get(random.nextInt(VERY_RARE_ITEM_TYPES.size()));
+        } else if (difficultyFactor > 2 && difficultyRoll < 0.4) {
+            // Rare items at medium difficulty
+            itemId = RARE_ITEM_TYPES.get(random.nextInt(RARE_ITEM_TYPES.size()));
+        } else {
+            // Standard items
+            itemId = ITEM_TYPES.get(random.nextInt(ITEM_TYPES.size()));
+        }
+
+        // Calculate required items based on difficulty and rarity; RL modifiers are added when the quest is handed out
+        int baseRequiredItems = 1 + random.nextInt(3); // Base range: 1-3
+
+        // Adjust based on item rarity
+        if (VERY_RARE_ITEM_TYPES.contains(itemId)) {
+            // Very rare items, require fewer
+            baseRequiredItems = 1;
+        } else if (RARE_ITEM_TYPES.contains(itemId)) {
+            // Rare items, require slightly fewer
+            baseRequiredItems = Math.max(1, baseRequiredItems - 1);
+        } else if (itemId.equals("minecraft:iron_ingot") || itemId.equals("minecraft:gold_ingot")) {
+            // Common items, require more
+            baseRequiredItems += 1;
+        }
+
+        // Apply difficulty factor with smooth scaling
+        int difficultyBonus = (int)(difficultyFactor * 0.5);
+
+        // Cap the required items based on item rarity
+        QuestTuning tuning = QuestTuning.get();
+        int cap = tuning.itemCap;
+        if (VERY_RARE_ITEM_TYPES.contains(itemId)) {
+            cap = tuning.veryRareItemCap; // Very few for extremely rare items
+        } else if (RARE_ITEM_TYPES.contains(itemId)) {
+            cap = tuning.rareItemCap; // Fewer for rare items
+        }
+
+        return new QuestTemplate(QuestTemplate.ITEM, itemId, baseRequiredItems + difficultyBonus, cap);
+    }
+
+    /**
+     * A template of the given type, 0 for kill and 1 for collection.
+     */
+    public static QuestTemplate ofType(int questType, int difficultyFactor, Random random) {
+        return questType == QuestTemplate.KILL ? kill(difficultyFactor, random) : item(difficultyFactor, random);
+    }
+}
@@ -0,0 +1,139 @@
+package com.cmpm.minecraftquestai.core;
+
+/**
+ * Every tuning value the quest system reads while running, as one immutable snapshot.
+ *
+ * The mod's Config compiles a new snapshot each time the config file loads or is edited, and publishes
+ * it with a single volatile write. Readers call {@link #get()} once and use that snapshot for the
+ * whole operation, so they never see half of an edit and never take a lock.
+ */
+public final class QuestTuning {
+    public static final QuestTuning DEFAULTS = new Builder().build();
+
+    private static volatile QuestTuning current = DEFAULTS;
+
+    // Rate limits
+    public final double blockUsesPerSecond;
+    public final int blockUseBurst;
+    public final double questGenerationsPerMinute;
+    public final int questGenerationBurst;
+
+    // Community quests
+    public final int communityQuestKills;
+    public final int communityLeaderboardSize;
+
+    // Session cache
+    public final int sessionCacheSize;
+    public final int sessionGraceSeconds;
+
+    // Difficulty learner
+    public final double learningRate;
+    public final double discountFactor;
+    public final double explorationRate;
+    // Q(lambda) only: how fast credit fades per decision back, and how many decisions it reaches
+    public final double traceDecay;
+    public final int traceLength;
+    // Personalized only: how many corrections a player keeps, and how far off a reward must be to add one
+    public final int playerDeltaEntries;
+    public final double playerDeltaThreshold;
+
+    // Most a generated quest asks for, by target rarity
+    public final int killCap;
+    public final int hardKillCap;
+    public final int veryHardKillCap;
+    public final int itemCap;
+    public final int rareItemCap;
+    public final int veryRareItemCap;
+
+    // Experience handed out per quest kind
+    public final int killXp;
+    public final int itemXp;
+    public final int activityXp;
+    public final int explorationXp;
+    public final int communityBaseXp;
+    public final int partyBaseXp;
+    public final int partyShareXp;
+
+    private QuestTuning(Builder builder) {
+        this.blockUsesPerSecond = builder.blockUsesPerSecond;
+        this.blockUseBurst = builder.blockUseBurst;
+        this.questGenerationsPerMinute = builder.questGenerationsPerMinute;
+        this.questGenerationBurst = builder.questGenerationBurst;
+        this.communityQuestKills = builder.communityQuestKills;
+        this.communityLeaderboardSize = builder.communityLeaderboardSize;
+        this.sessionCacheSize = builder.sessionCacheSize;
+        this.sessionGraceSeconds = builder.sessionGraceSeconds;
+        this.learningRate = builder.learningRate;
+        this.discountFactor = builder.discountFactor;
+        this.explorationRate = builder.explorationRate;
+        this.traceDecay = builder.traceDecay;
+        this.traceLength = builder.traceLength;
+        this.playerDeltaEntries = builder.playerDeltaEntries;
+        this.playerDeltaThreshold = builder.playerDeltaThreshold;
+        this.killCap = builder.killCap;
+        this.hardKillCap = builder.hardKillCap;
+        this.veryHardKillCap = builder.veryHardKillCap;
+        this.itemCap = builder.itemCap;
+        this.rareItemCap = builder.rareItemCap;
+        this.veryRareItemCap = builder.veryRareItemCap;
+        this.killXp = builder.killXp;
+        this.itemXp = builder.itemXp;
+        this.activityXp = builder.activityXp;
+        this.explorationXp = builder.explorationXp;
+        this.communityBaseXp = builder.communityBaseXp;
+        this.partyBaseXp = builder.partyBaseXp;
+        this.partyShareXp = builder.partyShareXp;
+    }
+
+    /**
+     * The snapshot in effect right now
+     */
+    public static QuestTuning get() {
+        return current;
+    }
+
+    /**
+     * Make a snapshot the one in effect
+     */
+    public static void publish(QuestTuning tuning) {
+        current = tuning;
+    }
+
+    /**
+     * Mutable staging area for a snapshot, starting from the built-in defaults
+     */
+    public static final class Builder {
+        public double blockUsesPerSecond = 1.0;
+        public int blockUseBurst = 3;
+        public double questGenerationsPerMinute = 12.0;
+        public int questGenerationBurst = 2;
+        public int communityQuestKills = 50000;
+        public int communityLeaderboardSize = 10;
+        public int sessionCacheSize = 256;
+        public int sessionGraceSeconds = 600;
+        public double learningRate = 0.1;
+        public double discountFactor = 0.9;
+        public double explorationRate = 0.2;
+        public double traceDecay = 0.8;
+        public int traceLength = 16;
+        public int playerDeltaEntries = 8;
+        public double playerDeltaThreshold = 0.5;
+        public int killCap = 15;
+        public int hardKillCap = 8;
+        public int veryHardKillCap = 5;
+        public int itemCap = 10;
+        public int rareItemCap = 5;
+        public int veryRareItemCap = 2;
+        public int killXp = 50;
+        public int itemXp = 50;
+        public int activityXp = 50;
+        public int explorationXp = 75;
+        public int communityBaseXp = 50;
+        public int partyBaseXp = 25;
+        public int partyShareXp = 75;
+
+        public QuestTuning build() {
+            return new QuestTuning(this);
+        }
+    }
+}